@@ -0,0 +1,182 @@
+package com.paymill.context;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.paymill.utils.Deadline;
+import com.paymill.utils.ExecutionMode;
+
+/**
+ * Runs the same {@link AccountQuery} against many accounts in parallel, e.g. for consolidated reporting. <br>
+ * At most <code>parallelism</code> accounts are queried at the same time. Results are streamed in the order they complete,
+ * tagged with their account, so a slow account delays only its own result. With a timeout each account is queried under its
+ * own {@link Deadline} and a slow account ends with a {@link com.paymill.exceptions.DeadlineExceededException} in its result.
+ * Failures of single accounts never abort the others. <br>
+ * An executor created by the fan-out is shut down by {@link #close()}.
+ * @since 5.2.0
+ */
+public final class AccountFanOut implements Closeable {
+
+  private final int             parallelism;
+  private final long            timeout;
+  private final ExecutorService executor;
+  private final boolean         ownsExecutor;
+
+  /**
+   * Creates a fan-out without timeout, running on an own executor of the default {@link ExecutionMode}, which is shut down by
+   * {@link #close()}.
+   * @param parallelism
+   *          Max number of accounts queried at the same time.
+   */
+  public AccountFanOut( final int parallelism ) {
+    this( parallelism, 0, null );
+  }
+
+  /**
+   * Creates a fan-out.
+   * @param parallelism
+   *          Max number of accounts queried at the same time.
+   * @param timeout
+   *          Time in milliseconds each account may take, <code>0</code> for no limit. Replaces a {@link Deadline} of the
+   *          contexts.
+   * @param executor
+   *          {@link ExecutorService} running the queries or <code>null</code> to use an own executor of the default
+   *          {@link ExecutionMode}, which is shut down by {@link #close()}.
+   */
+  public AccountFanOut( final int parallelism, final long timeout, final ExecutorService executor ) {
+    if( parallelism < 1 )
+      throw new IllegalArgumentException( "Parallelism must be positive" );
+    if( timeout < 0 )
+      throw new IllegalArgumentException( "Timeout can not be negative" );
+    this.parallelism = parallelism;
+    this.timeout = timeout;
+    this.executor = executor != null ? executor : ExecutionMode.getDefault().newExecutor( "paymill-fanout" );
+    this.ownsExecutor = executor == null;
+  }
+
+  /**
+   * Shuts down the executor, if it was created by this fan-out. Queries in flight complete, no new accounts are started.
+   */
+  @Override
+  public void close() {
+    if( this.ownsExecutor ) {
+      this.executor.shutdown();
+    }
+  }
+
+  /**
+   * Queries the given accounts. Accounts are started, while the results are consumed, so an abandoned iteration leaves at most
+   * <code>parallelism</code> queries running.
+   * @param accounts
+   *          {@link PaymillContext}s of the accounts.
+   * @param query
+   *          {@link AccountQuery} to run against each account.
+   * @return {@link Iterator} over the results in completion order, {@link Iterator#next()} blocks until the next one is done.
+   */
+  public <T> Iterator<AccountResult<T>> run( final Collection<PaymillContext> accounts, final AccountQuery<T> query ) {
+    if( accounts == null )
+      throw new IllegalArgumentException( "Accounts can not be null" );
+    if( query == null )
+      throw new IllegalArgumentException( "Query can not be null" );
+    return new Results<T>( new ArrayList<PaymillContext>( accounts ).iterator(), query );
+  }
+
+  /**
+   * Queries the accounts of the given API keys over the transport of a shared context, see
+   * {@link PaymillContext#withApiKey(String)}.
+   * @param shared
+   *          {@link PaymillContext} over the shared transport.
+   * @param apiKeys
+   *          Private keys of the accounts.
+   * @param query
+   *          {@link AccountQuery} to run against each account.
+   * @return {@link Iterator} over the results in completion order, {@link Iterator#next()} blocks until the next one is done.
+   */
+  public <T> Iterator<AccountResult<T>> run( final PaymillContext shared, final Collection<String> apiKeys,
+      final AccountQuery<T> query ) {
+    if( shared == null || apiKeys == null )
+      throw new IllegalArgumentException( "Shared context and API keys can not be null" );
+    List<PaymillContext> accounts = new ArrayList<PaymillContext>( apiKeys.size() );
+    for( String apiKey : apiKeys ) {
+      accounts.add( shared.withApiKey( apiKey ) );
+    }
+    return this.run( accounts, query );
+  }
+
+  private final class Results<T> implements Iterator<AccountResult<T>> {
+
+    private final Iterator<PaymillContext>            pending;
+    private final AccountQuery<T>                     query;
+    private final CompletionService<AccountResult<T>> completion;
+    private int                                       running;
+
+    Results( final Iterator<PaymillContext> pending, final AccountQuery<T> query ) {
+      this.pending = pending;
+      this.query = query;
+      this.completion = new ExecutorCompletionService<AccountResult<T>>( AccountFanOut.this.executor );
+      while( this.running < AccountFanOut.this.parallelism && this.pending.hasNext() ) {
+        this.submit( this.pending.next() );
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.running > 0;
+    }
+
+    @Override
+    public AccountResult<T> next() {
+      if( this.running == 0 ) {
+        throw new NoSuchElementException();
+      }
+      try {
+        AccountResult<T> result = this.completion.take().get();
+        this.running--;
+        if( this.pending.hasNext() ) {
+          this.submit( this.pending.next() );
+        }
+        return result;
+      } catch( InterruptedException exc ) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException( exc );
+      } catch( ExecutionException exc ) {
+        // only errors escape the query
+        throw (Error) exc.getCause();
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private void submit( final PaymillContext account ) {
+      this.running++;
+      this.completion.submit( new Callable<AccountResult<T>>() {
+        @Override
+        public AccountResult<T> call() {
+          PaymillContext context = account;
+          if( AccountFanOut.this.timeout > 0 ) {
+            context = account.withDeadline( Deadline.after( AccountFanOut.this.timeout, TimeUnit.MILLISECONDS ) );
+          }
+          try {
+            return new AccountResult<T>( account, account.getApiKey(), Results.this.query.execute( context ), null );
+          } catch( RuntimeException exc ) {
+            return new AccountResult<T>( account, account.getApiKey(), null, exc );
+          }
+        }
+      } );
+    }
+  }
+
+}
@@ -0,0 +1,19 @@
+package com.paymill.context;
+
+/**
+ * Query run by {@link AccountFanOut} against each account, e.g.
+ * <code>account.getTransactionService().list( filter, order )</code>.
+ * @param <T>
+ *          Type of the result.
+ * @since 5.2.0
+ */
+public interface AccountQuery<T> {
+
+  /**
+   * @param account
+   *          {@link PaymillContext} of the account to query.
+   * @return Result for the account.
+   */
+  T execute( PaymillContext account );
+
+}
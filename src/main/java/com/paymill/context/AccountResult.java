@@ -0,0 +1,60 @@
+package com.paymill.context;
+
+/**
+ * Result of an {@link AccountQuery} for one account, either the value or the exception the query failed with.
+ * @param <T>
+ *          Type of the result.
+ * @since 5.2.0
+ */
+public final class AccountResult<T> {
+
+  private final PaymillContext   account;
+  private final String           apiKey;
+  private final T                value;
+  private final RuntimeException failure;
+
+  AccountResult( final PaymillContext account, final String apiKey, final T value, final RuntimeException failure ) {
+    this.account = account;
+    this.apiKey = apiKey;
+    this.value = value;
+    this.failure = failure;
+  }
+
+  /**
+   * @return {@link PaymillContext} of the account.
+   */
+  public PaymillContext getAccount() {
+    return this.account;
+  }
+
+  /**
+   * @return API key of the account or <code>null</code> if the context uses the API key of its transport.
+   */
+  public String getApiKey() {
+    return this.apiKey;
+  }
+
+  public boolean isSuccess() {
+    return this.failure == null;
+  }
+
+  /**
+   * @return Result of the query.
+   * @throws RuntimeException
+   *           the query failed with, e.g. a {@link com.paymill.exceptions.DeadlineExceededException} for a slow account.
+   */
+  public T getValue() {
+    if( this.failure != null ) {
+      throw this.failure;
+    }
+    return this.value;
+  }
+
+  /**
+   * @return Exception the query failed with or <code>null</code>.
+   */
+  public RuntimeException getFailure() {
+    return this.failure;
+  }
+
+}
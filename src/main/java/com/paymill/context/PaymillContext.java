@@ -2,23 +2,31 @@ package com.paymill.context;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Constructor;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import com.paymill.utils.CallOptions;
+import com.paymill.utils.Credentials;
+import com.paymill.utils.Deadline;
+import com.paymill.utils.ExecutionMode;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.JerseyClient;
+import com.paymill.utils.Priority;
+import com.paymill.utils.ScopedHttpClient;
 import org.apache.commons.beanutils.ConvertUtils;
 import org.apache.commons.beanutils.converters.DateConverter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.paymill.models.Deserializer;
+import com.paymill.models.DeserializerModule;
 import com.paymill.services.ChecksumService;
 import com.paymill.services.ClientService;
 import com.paymill.services.OfferService;
 import com.paymill.services.PaymentService;
 import com.paymill.services.PreauthorizationService;
 import com.paymill.services.RefundService;
+import com.paymill.services.ServiceFactory;
 import com.paymill.services.SubscriptionService;
 import com.paymill.services.TransactionService;
 import com.paymill.services.WebhookService;
@@ -52,7 +60,7 @@ http://jobs.paymill.com
 
 /**
  * PaymillContecxt loads the context of PAYMILL for a single account, by providing a merchants private key <br>
- * It creates 8 services, which represents the PAYMILL API:
+ * It provides 9 services, which are created on first access and represent the PAYMILL API:
  * <ul>
  * <li>{@link ChecksumService}</li>
  * <li>{@link ClientService}</li>
@@ -70,23 +78,32 @@ http://jobs.paymill.com
  */
 public class PaymillContext {
 
-  public final static ObjectMapper PARSER     = new ObjectMapper();
-  private final static Properties  PROPERTIES = new Properties();
+  /**
+   * Base URL of the PAYMILL API, which is called by the services and by the warm-up.
+   * @since 5.2.0
+   */
+  public final static String               ENDPOINT = "https://api.paymill.com/v2.1";
 
-  private final HttpClient         httpClient;
+  public final static ObjectMapper         PARSER   = new ObjectMapper();
 
-  private ChecksumService          checksumService;
-  private ClientService            clientService;
-  private OfferService             offerService;
-  private PaymentService           paymentService;
-  private PreauthorizationService  preauthorizationService;
-  private RefundService            refundService;
-  private SubscriptionService      subscriptionService;
-  private TransactionService       transactionService;
-  private WebhookService           webhookService;
+  private final HttpClient                 transport;
+  private final CallOptions                options;
+  private final HttpClient                 httpClient;
+
+  // created on first access, a race only creates an equivalent instance
+  private volatile ChecksumService         checksumService;
+  private volatile ClientService           clientService;
+  private volatile OfferService            offerService;
+  private volatile PaymentService          paymentService;
+  private volatile PreauthorizationService preauthorizationService;
+  private volatile RefundService           refundService;
+  private volatile SubscriptionService     subscriptionService;
+  private volatile TransactionService      transactionService;
+  private volatile WebhookService          webhookService;
 
   static {
-    PARSER.registerModule( Deserializer.getDeserializerModule() );
+    PARSER.registerModule( DeserializerModule.create() );
+    ConvertUtils.register( new DateConverter( null ), Date.class );
   }
 
   /**
@@ -116,86 +133,214 @@ public class PaymillContext {
    *          Http client implementation.
    */
   public PaymillContext( final HttpClient client ) {
-    ConvertUtils.register( new DateConverter( null ), Date.class );
-    InputStream input = null;
+    this( client, null );
+  }
 
-    try {
-      this.httpClient = client;
-
-      this.checksumService = this.getPrivateConstructor( ChecksumService.class ).newInstance( this.httpClient );
-      this.clientService = this.getPrivateConstructor( ClientService.class ).newInstance( this.httpClient );
-      this.offerService = this.getPrivateConstructor( OfferService.class ).newInstance( this.httpClient );
-      this.paymentService = this.getPrivateConstructor( PaymentService.class ).newInstance( this.httpClient );
-      this.preauthorizationService = this.getPrivateConstructor( PreauthorizationService.class ).newInstance( this.httpClient );
-      this.refundService = this.getPrivateConstructor( RefundService.class ).newInstance( this.httpClient );
-      this.subscriptionService = this.getPrivateConstructor( SubscriptionService.class ).newInstance( this.httpClient );
-      this.transactionService = this.getPrivateConstructor( TransactionService.class ).newInstance( this.httpClient );
-      this.webhookService = this.getPrivateConstructor( WebhookService.class ).newInstance( this.httpClient );
-
-      input = PaymillContext.class.getClassLoader().getResourceAsStream( "META-INF/maven/com.paymill/paymill-java/pom.properties" );
-      PaymillContext.PROPERTIES.load( input );
-
-    } catch( Exception exc ) {
-      throw new RuntimeException( exc );
-    } finally {
-      if( input != null ) {
-        try {
-          input.close();
-        } catch( IOException e ) {
-          e.printStackTrace();
-        }
-      }
-    }
+  private PaymillContext( final HttpClient transport, final CallOptions options ) {
+    this.transport = transport;
+    this.options = options;
+    this.httpClient = options == null ? transport : new ScopedHttpClient( transport, options );
   }
 
   public final static String getProjectName() {
-    return PaymillContext.PROPERTIES.getProperty( "artifactId" );
+    return ProjectProperties.PROPERTIES.getProperty( "artifactId" );
   }
 
   public final static String getProjectVersion() {
-    return PaymillContext.PROPERTIES.getProperty( "version" );
+    return ProjectProperties.PROPERTIES.getProperty( "version" );
+  }
+
+  /**
+   * Returns a view of this context, whose services send all calls with the given {@link Priority}. The view shares the
+   * {@link HttpClient} of this context and can be used for a single call or kept for a whole workload, e.g.
+   * <code>paymill.withPriority( Priority.BULK ).getTransactionService().list()</code>. The priority is honored by a
+   * {@link com.paymill.utils.PriorityLaneHttpClient} in the transport.
+   * @param priority
+   *          {@link Priority} of the calls.
+   * @return {@link PaymillContext} sending calls with the given priority.
+   */
+  public PaymillContext withPriority( final Priority priority ) {
+    CallOptions current = this.options == null ? CallOptions.DEFAULT : this.options;
+    return new PaymillContext( this.transport, current.withPriority( priority ) );
+  }
+
+  /**
+   * Returns a view of this context, whose services send all calls under the given {@link Deadline}. Pass the same deadline to
+   * every step of a flow, e.g. create payment then charge, so each step only gets the time left. The transport uses the time
+   * left as connect and read timeout and gives up with a {@link com.paymill.exceptions.DeadlineExceededException}, when it
+   * expires or is cancelled.
+   * @param deadline
+   *          {@link Deadline} of the calls or <code>null</code> for none.
+   * @return {@link PaymillContext} sending calls under the given deadline.
+   */
+  public PaymillContext withDeadline( final Deadline deadline ) {
+    CallOptions current = this.options == null ? CallOptions.DEFAULT : this.options;
+    return new PaymillContext( this.transport, current.withDeadline( deadline ) );
+  }
+
+  /**
+   * Returns a view of this context, whose services send all calls with the given API key. This allows a platform to serve many
+   * merchants over one shared transport, e.g. <code>new PaymillContext( new JerseyClient( null, timeout ) )</code>, with a
+   * single connection pool and client runtime. The <code>Authorization</code> header is computed once per view, services are
+   * created on first access, so a view of an idle merchant costs only a few small objects.
+   * @param apiKey
+   *          Private key from PAYMILL merchant center.
+   * @return {@link PaymillContext} sending calls with the given API key.
+   */
+  public PaymillContext withApiKey( final String apiKey ) {
+    CallOptions current = this.options == null ? CallOptions.DEFAULT : this.options;
+    return new PaymillContext( this.transport, current.withCredentials( new Credentials( apiKey ) ) );
+  }
+
+  /**
+   * @return API key of a view created by {@link #withApiKey(String)} or <code>null</code>.
+   */
+  String getApiKey() {
+    return this.options == null || this.options.getCredentials() == null ? null : this.options.getCredentials().getApiKey();
+  }
+
+  /**
+   * Warms up this context, so the first calls do not pay for DNS resolution, TLS handshakes and the creation of Jackson's
+   * deserializers. Every model is deserialized once through its service and the given number of connections to PAYMILL are
+   * opened concurrently and kept alive for later calls. Note that the JDK keeps at most <code>http.maxConnections</code> (5 by
+   * default) idle connections per host. Failures are not thrown, the affected calls just stay cold.
+   * @param connections
+   *          Number of connections to open.
+   * @return Number of connections opened successfully.
+   */
+  public int warmUp( final int connections ) {
+    try {
+      return new WarmUp( this.httpClient, connections ).call();
+    } catch( InterruptedException exc ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * Same as {@link #warmUp(int)}, but runs in the background on a thread of the default {@link ExecutionMode}, so startup is not
+   * blocked.
+   * @param connections
+   *          Number of connections to open.
+   * @return {@link Future} of the number of connections opened successfully.
+   */
+  public Future<Integer> warmUpAsync( final int connections ) {
+    WarmUp warmUp = new WarmUp( this.httpClient, connections );
+    ExecutorService executor = ExecutionMode.getDefault().newExecutor( "paymill-warmup" );
+    try {
+      return executor.submit( warmUp );
+    } finally {
+      executor.shutdown();
+    }
   }
 
   public ChecksumService getChecksumService() {
-    return this.checksumService;
+    ChecksumService service = this.checksumService;
+    if( service == null ) {
+      service = ServiceFactory.createChecksumService( this.httpClient );
+      this.checksumService = service;
+    }
+    return service;
   }
 
   public ClientService getClientService() {
-    return this.clientService;
+    ClientService service = this.clientService;
+    if( service == null ) {
+      service = ServiceFactory.createClientService( this.httpClient );
+      this.clientService = service;
+    }
+    return service;
   }
 
   public OfferService getOfferService() {
-    return this.offerService;
+    OfferService service = this.offerService;
+    if( service == null ) {
+      service = ServiceFactory.createOfferService( this.httpClient );
+      this.offerService = service;
+    }
+    return service;
   }
 
   public PaymentService getPaymentService() {
-    return this.paymentService;
+    PaymentService service = this.paymentService;
+    if( service == null ) {
+      service = ServiceFactory.createPaymentService( this.httpClient );
+      this.paymentService = service;
+    }
+    return service;
   }
 
   public PreauthorizationService getPreauthorizationService() {
-    return this.preauthorizationService;
+    PreauthorizationService service = this.preauthorizationService;
+    if( service == null ) {
+      service = ServiceFactory.createPreauthorizationService( this.httpClient );
+      this.preauthorizationService = service;
+    }
+    return service;
   }
 
   public RefundService getRefundService() {
-    return this.refundService;
+    RefundService service = this.refundService;
+    if( service == null ) {
+      service = ServiceFactory.createRefundService( this.httpClient );
+      this.refundService = service;
+    }
+    return service;
   }
 
   public SubscriptionService getSubscriptionService() {
-    return this.subscriptionService;
+    SubscriptionService service = this.subscriptionService;
+    if( service == null ) {
+      service = ServiceFactory.createSubscriptionService( this.httpClient );
+      this.subscriptionService = service;
+    }
+    return service;
   }
 
   public TransactionService getTransactionService() {
-    return this.transactionService;
+    TransactionService service = this.transactionService;
+    if( service == null ) {
+      service = ServiceFactory.createTransactionService( this.httpClient );
+      this.transactionService = service;
+    }
+    return service;
   }
 
   public WebhookService getWebhookService() {
-    return this.webhookService;
+    WebhookService service = this.webhookService;
+    if( service == null ) {
+      service = ServiceFactory.createWebhookService( this.httpClient );
+      this.webhookService = service;
+    }
+    return service;
   }
 
-  private <T> Constructor<T> getPrivateConstructor( final Class<T> clazz ) throws Exception {
-    Constructor<T> declaredConstructor = clazz.getDeclaredConstructor( HttpClient.class );
-    declaredConstructor.setAccessible( true );
-    return declaredConstructor;
+  /**
+   * Loads the properties of the artifact once per JVM, when they are first needed.
+   */
+  private final static class ProjectProperties {
+
+    private final static Properties PROPERTIES = new Properties();
+
+    static {
+      InputStream input = null;
+      try {
+        input = PaymillContext.class.getClassLoader().getResourceAsStream( "META-INF/maven/com.paymill/paymill-java/pom.properties" );
+        if( input != null ) {
+          PROPERTIES.load( input );
+        }
+      } catch( IOException exc ) {
+        exc.printStackTrace();
+      } finally {
+        if( input != null ) {
+          try {
+            input.close();
+          } catch( IOException e ) {
+            e.printStackTrace();
+          }
+        }
+      }
+    }
   }
 
 }
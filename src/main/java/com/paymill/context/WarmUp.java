@@ -0,0 +1,134 @@
+package com.paymill.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.paymill.utils.ExecutionMode;
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+
+/**
+ * Moves the one-off costs of the first calls to startup: DNS resolution, TCP and TLS handshakes and the loading of the
+ * readers of the models. Warm-up is best effort, failures are counted, but never thrown.
+ */
+final class WarmUp implements Callable<Integer> {
+
+  private final static HttpClient RESPONSES = new Responses();
+
+  private final HttpClient        httpClient;
+  private final int               connections;
+
+  WarmUp( final HttpClient httpClient, final int connections ) {
+    if( connections < 0 )
+      throw new IllegalArgumentException( "Number of connections can not be negative" );
+    this.httpClient = httpClient;
+    this.connections = connections;
+  }
+
+  /**
+   * @return Number of connections opened successfully.
+   */
+  @Override
+  public Integer call() throws InterruptedException {
+    WarmUp.deserializeModels();
+    return this.connect();
+  }
+
+  /**
+   * Sends concurrent requests to the API root, so each opens its own connection, which is kept alive afterwards. The response
+   * is irrelevant, only reaching the endpoint counts.
+   */
+  private int connect() throws InterruptedException {
+    if( this.connections == 0 ) {
+      return 0;
+    }
+    ExecutorService executor = ExecutionMode.getDefault().newExecutor( "paymill-warmup" );
+    try {
+      List<Future<String>> requests = new ArrayList<Future<String>>( this.connections );
+      for( int i = 0; i < this.connections; i++ ) {
+        requests.add( executor.submit( new Callable<String>() {
+          @Override
+          public String call() {
+            return WarmUp.this.httpClient.get( PaymillContext.ENDPOINT );
+          }
+        } ) );
+      }
+      int connected = 0;
+      for( Future<String> request : requests ) {
+        try {
+          request.get();
+          connected++;
+        } catch( ExecutionException exc ) {
+          // unreachable now, the first real call will try again
+        }
+      }
+      return connected;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs a single object and a list of each model through its service, answered by {@link #RESPONSES}, so the cached readers
+   * and the classes of the services are loaded before the first real response.
+   */
+  private static void deserializeModels() {
+    try {
+      PaymillContext context = new PaymillContext( RESPONSES );
+      context.getClientService().list();
+      context.getClientService().get( "warmup" );
+      context.getOfferService().list();
+      context.getOfferService().get( "warmup" );
+      context.getPaymentService().list();
+      context.getPaymentService().get( "warmup" );
+      context.getPreauthorizationService().list();
+      context.getPreauthorizationService().get( "warmup" );
+      context.getRefundService().list();
+      context.getRefundService().get( "warmup" );
+      context.getSubscriptionService().list();
+      context.getSubscriptionService().get( "warmup" );
+      context.getTransactionService().list();
+      context.getTransactionService().get( "warmup" );
+      context.getWebhookService().list();
+      context.getWebhookService().get( "warmup" );
+    } catch( RuntimeException exc ) {
+      // the remaining classes are loaded by the first real response
+    }
+  }
+
+  /**
+   * Answers each request locally, a list for queries and a single object otherwise.
+   */
+  private final static class Responses implements HttpClient {
+
+    @Override
+    public String get( final String path ) {
+      return "{\"data\":{\"id\":\"warmup\"}}";
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      return "{\"data\":[{\"id\":\"warmup\"}],\"data_count\":1,\"mode\":\"test\"}";
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      return this.get( path );
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      return this.get( path );
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      return this.get( path );
+    }
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.paymill.exceptions;
+
+/**
+ * Thrown without contacting PAYMILL, when the circuit breaker for the requested resource is open.
+ * @since 5.2.0
+ */
+public class CircuitBreakerOpenException extends PaymillException {
+
+  private static final long serialVersionUID = -3021596178262331848L;
+
+  private final String      resource;
+
+  public CircuitBreakerOpenException( String resource ) {
+    super( "Circuit breaker for " + resource + " is open" );
+    this.resource = resource;
+  }
+
+  /**
+   * @return The resource path, e.g. <code>/subscriptions</code>.
+   */
+  public String getResource() {
+    return this.resource;
+  }
+
+}
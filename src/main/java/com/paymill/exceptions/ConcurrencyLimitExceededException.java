@@ -0,0 +1,16 @@
+package com.paymill.exceptions;
+
+/**
+ * Thrown without contacting PAYMILL, when the limit of requests in flight is reached and no request completed within the
+ * configured wait time.
+ * @since 5.2.0
+ */
+public class ConcurrencyLimitExceededException extends PaymillException {
+
+  private static final long serialVersionUID = -6470851240297413372L;
+
+  public ConcurrencyLimitExceededException( int limit ) {
+    super( "Concurrency limit of " + limit + " requests in flight exceeded" );
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.paymill.exceptions;
+
+/**
+ * Thrown when the deadline of a call expired or was cancelled before PAYMILL answered.
+ * @since 5.2.0
+ */
+public class DeadlineExceededException extends PaymillException {
+
+  private static final long serialVersionUID = 2354160498376851952L;
+
+  private final boolean     cancelled;
+
+  public DeadlineExceededException( boolean cancelled ) {
+    super( cancelled ? "Deadline cancelled" : "Deadline exceeded" );
+    this.cancelled = cancelled;
+  }
+
+  /**
+   * @return <code>true</code> if the deadline was cancelled, <code>false</code> if it expired.
+   */
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.paymill.exceptions;
+
+/**
+ * Thrown without contacting PAYMILL, when the client side rate limit does not allow a request within the configured wait time.
+ * @since 5.2.0
+ */
+public class RateLimitExceededException extends PaymillException {
+
+  private static final long serialVersionUID = 4811386930472245164L;
+
+  public RateLimitExceededException( long maxWait ) {
+    super( "Rate limit exceeded, no permit available within " + maxWait + " ms" );
+  }
+
+}
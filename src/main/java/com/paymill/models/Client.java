@@ -203,6 +203,16 @@ public final class Client {
     this.appId = appId;
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Client}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Client> createProjection( final String... fields ) {
+    return new Projection<Client>( ClientDeserializer.INSTANCE, fields );
+  }
+
   public static Client.Filter createFilter() {
     return new Client.Filter();
   }
@@ -0,0 +1,67 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Client}s.
+ * @since 5.2.0
+ */
+final class ClientDeserializer extends ModelDeserializer<Client, ClientDeserializer.Property> {
+
+  private final static long          serialVersionUID = 1L;
+
+  final static ClientDeserializer    INSTANCE         = new ClientDeserializer();
+
+  enum Property {
+    ID, EMAIL, DESCRIPTION, CREATED_AT, UPDATED_AT, PAYMENT, SUBSCRIPTION, APP_ID
+  }
+
+  private ClientDeserializer() {
+    super( Client.class, Property.class );
+  }
+
+  @Override
+  Client create() {
+    return new Client();
+  }
+
+  @Override
+  Client create( final String value ) {
+    return new Client( value );
+  }
+
+  @Override
+  void read( final Client bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case EMAIL:
+        bean.setEmail( ModelDeserializer.readString( parser, context ) );
+        break;
+      case DESCRIPTION:
+        bean.setDescription( ModelDeserializer.readString( parser, context ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case PAYMENT:
+        bean.setPayments( ModelDeserializer.readModels( parser, context, PaymentDeserializer.INSTANCE ) );
+        break;
+      case SUBSCRIPTION:
+        bean.setSubscriptions( ModelDeserializer.readModels( parser, context, SubscriptionDeserializer.INSTANCE ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+package com.paymill.models;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Conversions between the fields of the PAYMILL models and the primitive fields of their compact variants. <br>
+ * A missing amount is stored as <code>0</code>, a missing flag as <code>false</code>, a missing date as <code>0</code> seconds
+ * and a missing enum as ordinal <code>-1</code>. Values with few distinct instances, like currencies, are shared through a pool,
+ * which stops growing at {@link #MAX_POOLED} values.
+ * @since 5.2.0
+ */
+final class Compact {
+
+  private final static int                           MAX_POOLED = 4096;
+
+  private final static ConcurrentMap<String, String> POOL       = new ConcurrentHashMap<String, String>();
+
+  private Compact() {
+  }
+
+  /**
+   * @return The pooled instance of an equal string.
+   */
+  static String pooled( final String value ) {
+    if( value == null ) {
+      return null;
+    }
+    String pooled = POOL.get( value );
+    if( pooled != null ) {
+      return pooled;
+    }
+    if( POOL.size() >= MAX_POOLED ) {
+      return value;
+    }
+    pooled = POOL.putIfAbsent( value, value );
+    return pooled == null ? value : pooled;
+  }
+
+  static int toInt( final Integer value ) {
+    return value == null ? 0 : value;
+  }
+
+  static Integer toInteger( final int value ) {
+    return value == 0 ? null : value;
+  }
+
+  static long toSeconds( final Date date ) {
+    return date == null ? 0L : date.getTime() / 1000;
+  }
+
+  static Date toDate( final long seconds ) {
+    return seconds > 0 ? new Date( seconds * 1000 ) : null;
+  }
+
+  static byte toOrdinal( final Enum<?> value ) {
+    return value == null ? -1 : (byte) value.ordinal();
+  }
+
+  static <E> E toEnum( final E[] values, final byte ordinal ) {
+    return ordinal < 0 ? null : values[ordinal];
+  }
+
+  /**
+   * @return The given flags with the given bit set if the value is <code>true</code>.
+   */
+  static byte flag( final byte flags, final int bit, final Boolean value ) {
+    return Boolean.TRUE.equals( value ) ? (byte) ( flags | bit ) : flags;
+  }
+
+}
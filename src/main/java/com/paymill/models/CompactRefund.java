@@ -0,0 +1,112 @@
+package com.paymill.models;
+
+/**
+ * Compact, read-only variant of a {@link Refund} for holding many refunds in memory, stored like a
+ * {@link CompactTransaction}. The refunded {@link Transaction} is kept as id. <br>
+ * A missing amount is <code>0</code>, a missing flag <code>false</code> and a missing date <code>0</code>.
+ * @since 5.2.0
+ */
+public final class CompactRefund {
+
+  private final static Refund.Status[] STATUSES = Refund.Status.values();
+
+  private final String                 id;
+  private final String                 transactionId;
+  private final int                    amount;
+  private final byte                   status;
+  private final boolean                livemode;
+  private final String                 description;
+  private final int                    responseCode;
+  private final String                 appId;
+  private final long                   createdAt;
+  private final long                   updatedAt;
+
+  private CompactRefund( final Refund refund ) {
+    this.id = refund.getId();
+    this.transactionId = refund.getTransaction() == null ? null : refund.getTransaction().getId();
+    this.amount = Compact.toInt( refund.getAmount() );
+    this.status = Compact.toOrdinal( refund.getStatus() );
+    this.livemode = Boolean.TRUE.equals( refund.getLivemode() );
+    this.description = refund.getDescription();
+    this.responseCode = Compact.toInt( refund.getResponseCode() );
+    this.appId = Compact.pooled( refund.getAppId() );
+    this.createdAt = Compact.toSeconds( refund.getCreatedAt() );
+    this.updatedAt = Compact.toSeconds( refund.getUpdatedAt() );
+  }
+
+  /**
+   * @param refund
+   *          The {@link Refund} to copy.
+   * @return A new {@link CompactRefund}.
+   */
+  public static CompactRefund from( final Refund refund ) {
+    if( refund == null )
+      throw new IllegalArgumentException( "Refund can not be null" );
+    return new CompactRefund( refund );
+  }
+
+  /**
+   * Creates a {@link Refund} with the values of this one, the transaction contains only its id.
+   * @return A new {@link Refund}.
+   */
+  public Refund toRefund() {
+    Refund refund = new Refund( this.id );
+    refund.setTransaction( this.transactionId == null ? null : new Transaction( this.transactionId ) );
+    refund.setAmount( Compact.toInteger( this.amount ) );
+    refund.setStatus( this.getStatus() );
+    refund.setLivemode( this.livemode );
+    refund.setDescription( this.description );
+    refund.setResponseCode( Compact.toInteger( this.responseCode ) );
+    refund.setAppId( this.appId );
+    refund.setCreatedAt( this.createdAt );
+    refund.setUpdatedAt( this.updatedAt );
+    return refund;
+  }
+
+  public String getId() {
+    return this.id;
+  }
+
+  public String getTransactionId() {
+    return this.transactionId;
+  }
+
+  public int getAmount() {
+    return this.amount;
+  }
+
+  public Refund.Status getStatus() {
+    return Compact.toEnum( STATUSES, this.status );
+  }
+
+  public boolean isLivemode() {
+    return this.livemode;
+  }
+
+  public String getDescription() {
+    return this.description;
+  }
+
+  public int getResponseCode() {
+    return this.responseCode;
+  }
+
+  public String getAppId() {
+    return this.appId;
+  }
+
+  /**
+   * @return Creation date in seconds since the epoch.
+   */
+  public long getCreatedAt() {
+    return this.createdAt;
+  }
+
+  /**
+   * @return Last update in seconds since the epoch.
+   */
+  public long getUpdatedAt() {
+    return this.updatedAt;
+  }
+
+}
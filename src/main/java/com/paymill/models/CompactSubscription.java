@@ -0,0 +1,222 @@
+package com.paymill.models;
+
+/**
+ * Compact, read-only variant of a {@link Subscription} for holding many subscriptions in memory, stored like a
+ * {@link CompactTransaction}. The intervals are shared between instances as text, the nested {@link Offer}, {@link Payment} and
+ * {@link Client} are kept as ids. <br>
+ * A missing amount is <code>0</code>, a missing flag <code>false</code> and a missing date <code>0</code>.
+ * @since 5.2.0
+ */
+public final class CompactSubscription {
+
+  private final static Subscription.Status[] STATUSES = Subscription.Status.values();
+
+  private final static int                   LIVEMODE = 1;
+  private final static int                   CANCELED = 2;
+  private final static int                   DELETED  = 4;
+
+  private final String                       id;
+  private final String                       offerId;
+  private final String                       paymentId;
+  private final String                       clientId;
+  private final int                          amount;
+  private final int                          tempAmount;
+  private final String                       currency;
+  private final String                       name;
+  private final String                       interval;
+  private final String                       periodOfValidity;
+  private final byte                         status;
+  private final byte                         flags;
+  private final String                       appId;
+  private final String                       mandateReference;
+  private final long                         trialStart;
+  private final long                         trialEnd;
+  private final long                         endOfPeriod;
+  private final long                         nextCaptureAt;
+  private final long                         canceledAt;
+  private final long                         createdAt;
+  private final long                         updatedAt;
+
+  private CompactSubscription( final Subscription subscription ) {
+    this.id = subscription.getId();
+    this.offerId = subscription.getOffer() == null ? null : subscription.getOffer().getId();
+    this.paymentId = subscription.getPayment() == null ? null : subscription.getPayment().getId();
+    this.clientId = subscription.getClient() == null ? null : subscription.getClient().getId();
+    this.amount = Compact.toInt( subscription.getAmount() );
+    this.tempAmount = Compact.toInt( subscription.getTempAmount() );
+    this.currency = Compact.pooled( subscription.getCurrency() );
+    this.name = subscription.getName();
+    this.interval = subscription.getInterval() == null ? null : Compact.pooled( subscription.getInterval().toString() );
+    this.periodOfValidity = subscription.getPeriodOfValidity() == null ? null : Compact.pooled( subscription
+        .getPeriodOfValidity().toString() );
+    this.status = Compact.toOrdinal( subscription.getStatus() );
+    byte flags = Compact.flag( (byte) 0, LIVEMODE, subscription.getLivemode() );
+    flags = Compact.flag( flags, CANCELED, subscription.getCanceled() );
+    this.flags = Compact.flag( flags, DELETED, subscription.getDeleted() );
+    this.appId = Compact.pooled( subscription.getAppId() );
+    this.mandateReference = subscription.getMandateReference();
+    this.trialStart = Compact.toSeconds( subscription.getTrialStart() );
+    this.trialEnd = Compact.toSeconds( subscription.getTrialEnd() );
+    this.endOfPeriod = Compact.toSeconds( subscription.getEndOfPeriod() );
+    this.nextCaptureAt = Compact.toSeconds( subscription.getNextCaptureAt() );
+    this.canceledAt = Compact.toSeconds( subscription.getCanceledAt() );
+    this.createdAt = Compact.toSeconds( subscription.getCreatedAt() );
+    this.updatedAt = Compact.toSeconds( subscription.getUpdatedAt() );
+  }
+
+  /**
+   * @param subscription
+   *          The {@link Subscription} to copy.
+   * @return A new {@link CompactSubscription}.
+   */
+  public static CompactSubscription from( final Subscription subscription ) {
+    if( subscription == null )
+      throw new IllegalArgumentException( "Subscription can not be null" );
+    return new CompactSubscription( subscription );
+  }
+
+  /**
+   * Creates a {@link Subscription} with the values of this one, the nested objects contain only their ids.
+   * @return A new {@link Subscription}.
+   */
+  public Subscription toSubscription() {
+    Subscription subscription = new Subscription( this.id );
+    subscription.setOffer( this.offerId == null ? null : new Offer( this.offerId ) );
+    subscription.setPayment( this.paymentId == null ? null : new Payment( this.paymentId ) );
+    subscription.setClient( this.clientId == null ? null : new Client( this.clientId ) );
+    subscription.setAmount( Compact.toInteger( this.amount ) );
+    subscription.setTempAmount( Compact.toInteger( this.tempAmount ) );
+    subscription.setCurrency( this.currency );
+    subscription.setName( this.name );
+    subscription.setInterval( this.getInterval() );
+    subscription.setPeriodOfValidity( this.getPeriodOfValidity() );
+    subscription.setStatus( this.getStatus() );
+    subscription.setLivemode( this.isLivemode() );
+    subscription.setCanceled( this.isCanceled() );
+    subscription.setDeleted( this.isDeleted() );
+    subscription.setAppId( this.appId );
+    subscription.setMandateReference( this.mandateReference );
+    subscription.setTrialStart( this.trialStart );
+    subscription.setTrialEnd( this.trialEnd );
+    subscription.setEndOfPeriod( Compact.toDate( this.endOfPeriod ) );
+    subscription.setNextCaptureAt( this.nextCaptureAt );
+    subscription.setCanceledAt( this.canceledAt );
+    subscription.setCreatedAt( this.createdAt );
+    subscription.setUpdatedAt( this.updatedAt );
+    return subscription;
+  }
+
+  public String getId() {
+    return this.id;
+  }
+
+  public String getOfferId() {
+    return this.offerId;
+  }
+
+  public String getPaymentId() {
+    return this.paymentId;
+  }
+
+  public String getClientId() {
+    return this.clientId;
+  }
+
+  public int getAmount() {
+    return this.amount;
+  }
+
+  public int getTempAmount() {
+    return this.tempAmount;
+  }
+
+  public String getCurrency() {
+    return this.currency;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public Interval.PeriodWithChargeDay getInterval() {
+    return this.interval == null ? null : new Interval.PeriodWithChargeDay( this.interval );
+  }
+
+  public Interval.Period getPeriodOfValidity() {
+    return this.periodOfValidity == null ? null : new Interval.Period( this.periodOfValidity );
+  }
+
+  public Subscription.Status getStatus() {
+    return Compact.toEnum( STATUSES, this.status );
+  }
+
+  public boolean isLivemode() {
+    return ( this.flags & LIVEMODE ) != 0;
+  }
+
+  public boolean isCanceled() {
+    return ( this.flags & CANCELED ) != 0;
+  }
+
+  public boolean isDeleted() {
+    return ( this.flags & DELETED ) != 0;
+  }
+
+  public String getAppId() {
+    return this.appId;
+  }
+
+  public String getMandateReference() {
+    return this.mandateReference;
+  }
+
+  /**
+   * @return Start of the trial in seconds since the epoch.
+   */
+  public long getTrialStart() {
+    return this.trialStart;
+  }
+
+  /**
+   * @return End of the trial in seconds since the epoch.
+   */
+  public long getTrialEnd() {
+    return this.trialEnd;
+  }
+
+  /**
+   * @return End of the period in seconds since the epoch.
+   */
+  public long getEndOfPeriod() {
+    return this.endOfPeriod;
+  }
+
+  /**
+   * @return Next capture in seconds since the epoch.
+   */
+  public long getNextCaptureAt() {
+    return this.nextCaptureAt;
+  }
+
+  /**
+   * @return Cancellation date in seconds since the epoch.
+   */
+  public long getCanceledAt() {
+    return this.canceledAt;
+  }
+
+  /**
+   * @return Creation date in seconds since the epoch.
+   */
+  public long getCreatedAt() {
+    return this.createdAt;
+  }
+
+  /**
+   * @return Last update in seconds since the epoch.
+   */
+  public long getUpdatedAt() {
+    return this.updatedAt;
+  }
+
+}
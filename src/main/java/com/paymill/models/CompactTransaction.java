@@ -0,0 +1,165 @@
+package com.paymill.models;
+
+/**
+ * Compact, read-only variant of a {@link Transaction} for holding many transactions in memory. Amounts are primitive
+ * <code>int</code>s, dates are seconds since the epoch, the status is stored as ordinal and the currency and app id are shared
+ * between instances. The nested {@link Payment}, {@link Client} and {@link Preauthorization} are kept as ids, refunds and fees
+ * are dropped. <br>
+ * A missing amount is <code>0</code>, a missing flag <code>false</code> and a missing date <code>0</code>.
+ * @since 5.2.0
+ */
+public final class CompactTransaction {
+
+  private final static Transaction.Status[] STATUSES = Transaction.Status.values();
+
+  private final static int                  LIVEMODE = 1;
+  private final static int                  FRAUD    = 2;
+
+  private final String                      id;
+  private final int                         amount;
+  private final int                         originAmount;
+  private final String                      currency;
+  private final byte                        status;
+  private final byte                        flags;
+  private final String                      description;
+  private final String                      paymentId;
+  private final String                      clientId;
+  private final String                      preauthorizationId;
+  private final int                         responseCode;
+  private final String                      shortId;
+  private final String                      appId;
+  private final String                      mandateReference;
+  private final long                        createdAt;
+  private final long                        updatedAt;
+
+  private CompactTransaction( final Transaction transaction ) {
+    this.id = transaction.getId();
+    this.amount = Compact.toInt( transaction.getAmount() );
+    this.originAmount = Compact.toInt( transaction.getOriginAmount() );
+    this.currency = Compact.pooled( transaction.getCurrency() );
+    this.status = Compact.toOrdinal( transaction.getStatus() );
+    byte flags = Compact.flag( (byte) 0, LIVEMODE, transaction.getLivemode() );
+    this.flags = Compact.flag( flags, FRAUD, transaction.getFraud() );
+    this.description = transaction.getDescription();
+    this.paymentId = transaction.getPayment() == null ? null : transaction.getPayment().getId();
+    this.clientId = transaction.getClient() == null ? null : transaction.getClient().getId();
+    this.preauthorizationId = transaction.getPreauthorization() == null ? null : transaction.getPreauthorization().getId();
+    this.responseCode = Compact.toInt( transaction.getResponseCode() );
+    this.shortId = transaction.getShortId();
+    this.appId = Compact.pooled( transaction.getAppId() );
+    this.mandateReference = transaction.getMandateReference();
+    this.createdAt = Compact.toSeconds( transaction.getCreatedAt() );
+    this.updatedAt = Compact.toSeconds( transaction.getUpdatedAt() );
+  }
+
+  /**
+   * @param transaction
+   *          The {@link Transaction} to copy.
+   * @return A new {@link CompactTransaction}.
+   */
+  public static CompactTransaction from( final Transaction transaction ) {
+    if( transaction == null )
+      throw new IllegalArgumentException( "Transaction can not be null" );
+    return new CompactTransaction( transaction );
+  }
+
+  /**
+   * Creates a {@link Transaction} with the values of this one, the nested objects contain only their ids.
+   * @return A new {@link Transaction}.
+   */
+  public Transaction toTransaction() {
+    Transaction transaction = new Transaction( this.id );
+    transaction.setAmount( Compact.toInteger( this.amount ) );
+    transaction.setOriginAmount( Compact.toInteger( this.originAmount ) );
+    transaction.setCurrency( this.currency );
+    transaction.setStatus( this.getStatus() );
+    transaction.setLivemode( this.isLivemode() );
+    transaction.setFraud( this.isFraud() );
+    transaction.setDescription( this.description );
+    transaction.setPayment( this.paymentId == null ? null : new Payment( this.paymentId ) );
+    transaction.setClient( this.clientId == null ? null : new Client( this.clientId ) );
+    transaction.setPreauthorization( this.preauthorizationId == null ? null : new Preauthorization( this.preauthorizationId ) );
+    transaction.setResponseCode( Compact.toInteger( this.responseCode ) );
+    transaction.setShortId( this.shortId );
+    transaction.setAppId( this.appId );
+    transaction.setMandateReference( this.mandateReference );
+    transaction.setCreatedAt( this.createdAt );
+    transaction.setUpdatedAt( this.updatedAt );
+    return transaction;
+  }
+
+  public String getId() {
+    return this.id;
+  }
+
+  public int getAmount() {
+    return this.amount;
+  }
+
+  public int getOriginAmount() {
+    return this.originAmount;
+  }
+
+  public String getCurrency() {
+    return this.currency;
+  }
+
+  public Transaction.Status getStatus() {
+    return Compact.toEnum( STATUSES, this.status );
+  }
+
+  public boolean isLivemode() {
+    return ( this.flags & LIVEMODE ) != 0;
+  }
+
+  public boolean isFraud() {
+    return ( this.flags & FRAUD ) != 0;
+  }
+
+  public String getDescription() {
+    return this.description;
+  }
+
+  public String getPaymentId() {
+    return this.paymentId;
+  }
+
+  public String getClientId() {
+    return this.clientId;
+  }
+
+  public String getPreauthorizationId() {
+    return this.preauthorizationId;
+  }
+
+  public int getResponseCode() {
+    return this.responseCode;
+  }
+
+  public String getShortId() {
+    return this.shortId;
+  }
+
+  public String getAppId() {
+    return this.appId;
+  }
+
+  public String getMandateReference() {
+    return this.mandateReference;
+  }
+
+  /**
+   * @return Creation date in seconds since the epoch.
+   */
+  public long getCreatedAt() {
+    return this.createdAt;
+  }
+
+  /**
+   * @return Last update in seconds since the epoch.
+   */
+  public long getUpdatedAt() {
+    return this.updatedAt;
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.paymill.models;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Registers the precompiled deserializers of the PAYMILL models with an {@link com.fasterxml.jackson.databind.ObjectMapper}.
+ * They bind the fields without reflection and read an empty array as <code>null</code>.
+ * @since 5.2.0
+ */
+public final class DeserializerModule {
+
+  private DeserializerModule() {
+  }
+
+  /**
+   * @return New module with the deserializers of all models.
+   */
+  public static SimpleModule create() {
+    SimpleModule module = new SimpleModule( "PaymillModels" );
+    module.addDeserializer( Client.class, ClientDeserializer.INSTANCE );
+    module.addDeserializer( Fee.class, FeeDeserializer.INSTANCE );
+    module.addDeserializer( Invoice.class, InvoiceDeserializer.INSTANCE );
+    module.addDeserializer( Merchant.class, MerchantDeserializer.INSTANCE );
+    module.addDeserializer( Offer.class, OfferDeserializer.INSTANCE );
+    module.addDeserializer( Payment.class, PaymentDeserializer.INSTANCE );
+    module.addDeserializer( Preauthorization.class, PreauthorizationDeserializer.INSTANCE );
+    module.addDeserializer( Refund.class, RefundDeserializer.INSTANCE );
+    module.addDeserializer( Subscription.class, SubscriptionDeserializer.INSTANCE );
+    module.addDeserializer( Transaction.class, TransactionDeserializer.INSTANCE );
+    module.addDeserializer( TransactionColumns.class, TransactionColumnsDeserializer.INSTANCE );
+    module.addDeserializer( TransactionView.class, TransactionViewDeserializer.INSTANCE );
+    module.addDeserializer( Webhook.class, WebhookDeserializer.INSTANCE );
+    return module;
+  }
+
+}
@@ -0,0 +1,57 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Fee}s.
+ * @since 5.2.0
+ */
+final class FeeDeserializer extends ModelDeserializer<Fee, FeeDeserializer.Property> {
+
+  private final static long       serialVersionUID = 1L;
+
+  final static FeeDeserializer    INSTANCE         = new FeeDeserializer();
+
+  enum Property {
+    TYPE, APPLICATION, PAYMENT, AMOUNT, CURRENCY, BILLED_AT
+  }
+
+  private FeeDeserializer() {
+    super( Fee.class, Property.class );
+  }
+
+  @Override
+  Fee create() {
+    return new Fee();
+  }
+
+  @Override
+  void read( final Fee bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case TYPE:
+        bean.setType( ModelDeserializer.isText( parser ) ? Fee.Type.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Fee.Type.class ) );
+        break;
+      case APPLICATION:
+        bean.setApplication( ModelDeserializer.readString( parser, context ) );
+        break;
+      case PAYMENT:
+        bean.setPayment( ModelDeserializer.readString( parser, context ) );
+        break;
+      case AMOUNT:
+        bean.setAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case CURRENCY:
+        bean.setCurrency( ModelDeserializer.readString( parser, context ) );
+        break;
+      case BILLED_AT:
+        bean.setBilledAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+    }
+  }
+
+}
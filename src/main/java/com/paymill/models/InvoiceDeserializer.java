@@ -0,0 +1,77 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Invoice}s.
+ * @since 5.2.0
+ */
+final class InvoiceDeserializer extends ModelDeserializer<Invoice, InvoiceDeserializer.Property> {
+
+  private final static long           serialVersionUID = 1L;
+
+  final static InvoiceDeserializer    INSTANCE         = new InvoiceDeserializer();
+
+  enum Property {
+    INVOICE_NR, NETTO, BRUTTO, STATUS, PERIOD_FROM, PERIOD_UNTIL, CURRENCY, VAT_RATE, BILLING_DATE, INVOICE_TYPE,
+    LAST_REMINDER_DATE
+  }
+
+  private InvoiceDeserializer() {
+    super( Invoice.class, Property.class );
+  }
+
+  @Override
+  Invoice create() {
+    return new Invoice();
+  }
+
+  @Override
+  Invoice create( final String value ) {
+    return new Invoice( value );
+  }
+
+  @Override
+  void read( final Invoice bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case INVOICE_NR:
+        bean.setInvoiceNumber( ModelDeserializer.readString( parser, context ) );
+        break;
+      case NETTO:
+        bean.setNetto( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case BRUTTO:
+        bean.setBrutto( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case STATUS:
+        bean.setStatus( ModelDeserializer.readString( parser, context ) );
+        break;
+      case PERIOD_FROM:
+        bean.setFrom( ModelDeserializer.readDate( parser, context ) );
+        break;
+      case PERIOD_UNTIL:
+        bean.setUntil( ModelDeserializer.readDate( parser, context ) );
+        break;
+      case CURRENCY:
+        bean.setCurrency( ModelDeserializer.readString( parser, context ) );
+        break;
+      case VAT_RATE:
+        bean.setVatRate( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case BILLING_DATE:
+        bean.setBillingDate( ModelDeserializer.readDate( parser, context ) );
+        break;
+      case INVOICE_TYPE:
+        bean.setInvoiceType( ModelDeserializer.readString( parser, context ) );
+        break;
+      case LAST_REMINDER_DATE:
+        bean.setLastReminderDate( ModelDeserializer.readDate( parser, context ) );
+        break;
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+package com.paymill.models;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * A {@link Client}, which keeps its raw JSON, e.g. from a webhook payload, and reads it on demand. The scalar fields are read on
+ * first access, the nested {@link Payment}s and {@link Subscription}s each time their getter is called. Invalid JSON fails on
+ * first access with a {@link RuntimeException}.
+ * @since 5.2.0
+ */
+public final class LazyClient {
+
+  private final static ObjectReader SCALARS       = LazyJson.reader( Client.class, Client.createProjection( "id", "email",
+                                                      "description", "created_at", "updated_at", "app_id" ) );
+  private final static ObjectReader CLIENT        = LazyJson.reader( Client.class );
+  private final static ObjectReader PAYMENTS      = LazyJson.listReader( Payment.class );
+  private final static ObjectReader SUBSCRIPTIONS = LazyJson.listReader( Subscription.class );
+
+  private final LazyJson<Client>    json;
+
+  /**
+   * @param json
+   *          The JSON object of the {@link Client} in UTF-8, which is not copied.
+   */
+  public LazyClient( final byte[] json ) {
+    this.json = new LazyJson<Client>( json, LazyClient.SCALARS );
+  }
+
+  /**
+   * @return The raw JSON, which is not copied.
+   */
+  public byte[] getJson() {
+    return this.json.getJson();
+  }
+
+  /**
+   * Reads the whole {@link Client} including all nested objects.
+   * @return A new {@link Client}.
+   */
+  public Client toClient() {
+    return this.json.all( LazyClient.CLIENT );
+  }
+
+  public String getId() {
+    return this.json.scalars().getId();
+  }
+
+  public String getEmail() {
+    return this.json.scalars().getEmail();
+  }
+
+  public String getDescription() {
+    return this.json.scalars().getDescription();
+  }
+
+  public Date getCreatedAt() {
+    return this.json.scalars().getCreatedAt();
+  }
+
+  public Date getUpdatedAt() {
+    return this.json.scalars().getUpdatedAt();
+  }
+
+  public String getAppId() {
+    return this.json.scalars().getAppId();
+  }
+
+  public List<Payment> getPayments() {
+    return this.json.nested( "payment", LazyClient.PAYMENTS );
+  }
+
+  public List<Subscription> getSubscriptions() {
+    return this.json.nested( "subscription", LazyClient.SUBSCRIPTIONS );
+  }
+
+}
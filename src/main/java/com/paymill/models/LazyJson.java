@@ -0,0 +1,106 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Raw JSON of a lazily read PAYMILL model. <br>
+ * The scalar fields are read together on first access, by a reader with a {@link Projection}, which skips the nested objects
+ * token by token. A nested object is read each time its getter is called, the fields before it are skipped the same way.
+ * Nothing is cached besides the scalars, so a model, which is only passed on, costs little more than its bytes.
+ * @since 5.2.0
+ */
+final class LazyJson<T> {
+
+  private final byte[]       json;
+  private final ObjectReader scalars;
+
+  private volatile T         value;
+
+  /**
+   * @param json
+   *          The JSON object of the model.
+   * @param scalars
+   *          Reads the scalar fields of the model.
+   */
+  LazyJson( final byte[] json, final ObjectReader scalars ) {
+    if( json == null )
+      throw new IllegalArgumentException( "JSON can not be null" );
+    this.json = json;
+    this.scalars = scalars;
+  }
+
+  static ObjectReader reader( final Class<?> type ) {
+    return ModelMapper.reader( type );
+  }
+
+  static ObjectReader listReader( final Class<?> type ) {
+    return ModelMapper.listReader( type );
+  }
+
+  static <T> ObjectReader reader( final Class<T> type, final Projection<T> projection ) {
+    return ModelMapper.reader( type ).withAttribute( Projection.class, projection );
+  }
+
+  byte[] getJson() {
+    return this.json;
+  }
+
+  /**
+   * @return The model with its scalar fields, the nested objects are <code>null</code>.
+   */
+  T scalars() {
+    T value = this.value;
+    if( value == null ) {
+      // a race reads the same values twice, which is cheaper than locking every access
+      value = LazyJson.read( this.scalars, this.json );
+      this.value = value;
+    }
+    return value;
+  }
+
+  /**
+   * @return The whole model including its nested objects, read by the given reader.
+   */
+  T all( final ObjectReader reader ) {
+    return LazyJson.read( reader, this.json );
+  }
+
+  /**
+   * @return The nested object of the given field, read by the given reader, or <code>null</code> if the field is missing.
+   */
+  <N> N nested( final String field, final ObjectReader reader ) {
+    try {
+      JsonParser parser = ModelMapper.createParser( this.json );
+      try {
+        if( parser.nextToken() == JsonToken.START_OBJECT ) {
+          while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if( field.equals( name ) ) {
+              return reader.readValue( parser );
+            }
+            parser.skipChildren();
+          }
+        }
+        return null;
+      } finally {
+        parser.close();
+      }
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  private static <V> V read( final ObjectReader reader, final byte[] json ) {
+    try {
+      return reader.readValue( json );
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.paymill.models;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * A {@link Subscription}, which keeps its raw JSON, e.g. from a webhook payload, and reads it on demand. The scalar fields are
+ * read on first access, the nested {@link Offer}, {@link Payment} and {@link Client} each time their getter is called. Invalid
+ * JSON fails on first access with a {@link RuntimeException}.
+ * @since 5.2.0
+ */
+public final class LazySubscription {
+
+  private final static ObjectReader     SCALARS      = LazyJson.reader( Subscription.class, Subscription.createProjection( "id",
+                                                         "livemode", "amount", "temp_amount", "currency", "name", "interval",
+                                                         "trial_start", "trial_end", "period_of_validity", "end_of_period",
+                                                         "next_capture_at", "created_at", "updated_at", "canceled_at", "app_id",
+                                                         "status", "is_canceled", "is_deleted", "mandate_reference" ) );
+  private final static ObjectReader     SUBSCRIPTION = LazyJson.reader( Subscription.class );
+  private final static ObjectReader     OFFER        = LazyJson.reader( Offer.class );
+  private final static ObjectReader     PAYMENT      = LazyJson.reader( Payment.class );
+  private final static ObjectReader     CLIENT       = LazyJson.reader( Client.class );
+
+  private final LazyJson<Subscription> json;
+
+  /**
+   * @param json
+   *          The JSON object of the {@link Subscription} in UTF-8, which is not copied.
+   */
+  public LazySubscription( final byte[] json ) {
+    this.json = new LazyJson<Subscription>( json, LazySubscription.SCALARS );
+  }
+
+  /**
+   * @return The raw JSON, which is not copied.
+   */
+  public byte[] getJson() {
+    return this.json.getJson();
+  }
+
+  /**
+   * Reads the whole {@link Subscription} including all nested objects.
+   * @return A new {@link Subscription}.
+   */
+  public Subscription toSubscription() {
+    return this.json.all( LazySubscription.SUBSCRIPTION );
+  }
+
+  public String getId() {
+    return this.json.scalars().getId();
+  }
+
+  public Boolean getLivemode() {
+    return this.json.scalars().getLivemode();
+  }
+
+  public Integer getAmount() {
+    return this.json.scalars().getAmount();
+  }
+
+  public Integer getTempAmount() {
+    return this.json.scalars().getTempAmount();
+  }
+
+  public String getCurrency() {
+    return this.json.scalars().getCurrency();
+  }
+
+  public String getName() {
+    return this.json.scalars().getName();
+  }
+
+  public Interval.PeriodWithChargeDay getInterval() {
+    return this.json.scalars().getInterval();
+  }
+
+  public Interval.Period getPeriodOfValidity() {
+    return this.json.scalars().getPeriodOfValidity();
+  }
+
+  public Date getTrialStart() {
+    return this.json.scalars().getTrialStart();
+  }
+
+  public Date getTrialEnd() {
+    return this.json.scalars().getTrialEnd();
+  }
+
+  public Date getEndOfPeriod() {
+    return this.json.scalars().getEndOfPeriod();
+  }
+
+  public Date getNextCaptureAt() {
+    return this.json.scalars().getNextCaptureAt();
+  }
+
+  public Date getCreatedAt() {
+    return this.json.scalars().getCreatedAt();
+  }
+
+  public Date getUpdatedAt() {
+    return this.json.scalars().getUpdatedAt();
+  }
+
+  public Date getCanceledAt() {
+    return this.json.scalars().getCanceledAt();
+  }
+
+  public String getAppId() {
+    return this.json.scalars().getAppId();
+  }
+
+  public Subscription.Status getStatus() {
+    return this.json.scalars().getStatus();
+  }
+
+  public Boolean getCanceled() {
+    return this.json.scalars().getCanceled();
+  }
+
+  public Boolean getDeleted() {
+    return this.json.scalars().getDeleted();
+  }
+
+  public String getMandateReference() {
+    return this.json.scalars().getMandateReference();
+  }
+
+  public Offer getOffer() {
+    return this.json.nested( "offer", LazySubscription.OFFER );
+  }
+
+  public Payment getPayment() {
+    return this.json.nested( "payment", LazySubscription.PAYMENT );
+  }
+
+  public Client getClient() {
+    return this.json.nested( "client", LazySubscription.CLIENT );
+  }
+
+}
@@ -0,0 +1,128 @@
+package com.paymill.models;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * A {@link Transaction}, which keeps its raw JSON, e.g. from a webhook payload, and reads it on demand. The scalar fields are
+ * read on first access, the nested {@link Payment}, {@link Client}, {@link Preauthorization}, {@link Refund}s and {@link Fee}s
+ * each time their getter is called. Invalid JSON fails on first access with a {@link RuntimeException}.
+ * @since 5.2.0
+ */
+public final class LazyTransaction {
+
+  private final static ObjectReader    SCALARS          = LazyJson.reader( Transaction.class, Transaction.createProjection( "id",
+                                                            "amount", "origin_amount", "currency", "status", "description",
+                                                            "livemode", "created_at", "updated_at", "response_code", "short_id",
+                                                            "is_fraud", "app_id", "mandate_reference" ) );
+  private final static ObjectReader    TRANSACTION      = LazyJson.reader( Transaction.class );
+  private final static ObjectReader    PAYMENT          = LazyJson.reader( Payment.class );
+  private final static ObjectReader    CLIENT           = LazyJson.reader( Client.class );
+  private final static ObjectReader    PREAUTHORIZATION = LazyJson.reader( Preauthorization.class );
+  private final static ObjectReader    REFUNDS          = LazyJson.listReader( Refund.class );
+  private final static ObjectReader    FEES             = LazyJson.listReader( Fee.class );
+
+  private final LazyJson<Transaction> json;
+
+  /**
+   * @param json
+   *          The JSON object of the {@link Transaction} in UTF-8, which is not copied.
+   */
+  public LazyTransaction( final byte[] json ) {
+    this.json = new LazyJson<Transaction>( json, LazyTransaction.SCALARS );
+  }
+
+  /**
+   * @return The raw JSON, which is not copied.
+   */
+  public byte[] getJson() {
+    return this.json.getJson();
+  }
+
+  /**
+   * Reads the whole {@link Transaction} including all nested objects.
+   * @return A new {@link Transaction}.
+   */
+  public Transaction toTransaction() {
+    return this.json.all( LazyTransaction.TRANSACTION );
+  }
+
+  public String getId() {
+    return this.json.scalars().getId();
+  }
+
+  public Integer getAmount() {
+    return this.json.scalars().getAmount();
+  }
+
+  public Integer getOriginAmount() {
+    return this.json.scalars().getOriginAmount();
+  }
+
+  public String getCurrency() {
+    return this.json.scalars().getCurrency();
+  }
+
+  public Transaction.Status getStatus() {
+    return this.json.scalars().getStatus();
+  }
+
+  public String getDescription() {
+    return this.json.scalars().getDescription();
+  }
+
+  public Boolean getLivemode() {
+    return this.json.scalars().getLivemode();
+  }
+
+  public Date getCreatedAt() {
+    return this.json.scalars().getCreatedAt();
+  }
+
+  public Date getUpdatedAt() {
+    return this.json.scalars().getUpdatedAt();
+  }
+
+  public Integer getResponseCode() {
+    return this.json.scalars().getResponseCode();
+  }
+
+  public String getShortId() {
+    return this.json.scalars().getShortId();
+  }
+
+  public Boolean getFraud() {
+    return this.json.scalars().getFraud();
+  }
+
+  public String getAppId() {
+    return this.json.scalars().getAppId();
+  }
+
+  public String getMandateReference() {
+    return this.json.scalars().getMandateReference();
+  }
+
+  public Payment getPayment() {
+    return this.json.nested( "payment", LazyTransaction.PAYMENT );
+  }
+
+  public Client getClient() {
+    return this.json.nested( "client", LazyTransaction.CLIENT );
+  }
+
+  public Preauthorization getPreauthorization() {
+    return this.json.nested( "preauthorization", LazyTransaction.PREAUTHORIZATION );
+  }
+
+  public List<Refund> getRefunds() {
+    return this.json.nested( "refunds", LazyTransaction.REFUNDS );
+  }
+
+  public List<Fee> getFees() {
+    return this.json.nested( "fees", LazyTransaction.FEES );
+  }
+
+}
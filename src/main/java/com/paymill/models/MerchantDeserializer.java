@@ -0,0 +1,58 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Merchant}s.
+ * @since 5.2.0
+ */
+final class MerchantDeserializer extends ModelDeserializer<Merchant, MerchantDeserializer.Property> {
+
+  private final static long            serialVersionUID = 1L;
+
+  final static MerchantDeserializer    INSTANCE         = new MerchantDeserializer();
+
+  enum Property {
+    IDENTIFIER_KEY, EMAIL, LOCALE, COUNTRY, METHODS
+  }
+
+  private MerchantDeserializer() {
+    super( Merchant.class, Property.class );
+  }
+
+  @Override
+  Merchant create() {
+    return new Merchant();
+  }
+
+  @Override
+  Merchant create( final String value ) {
+    return new Merchant( value );
+  }
+
+  @Override
+  void read( final Merchant bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case IDENTIFIER_KEY:
+        bean.setIdentifier( ModelDeserializer.readString( parser, context ) );
+        break;
+      case EMAIL:
+        bean.setEmail( ModelDeserializer.readString( parser, context ) );
+        break;
+      case LOCALE:
+        bean.setLocale( ModelDeserializer.readString( parser, context ) );
+        break;
+      case COUNTRY:
+        bean.setCountry( ModelDeserializer.readString( parser, context ) );
+        break;
+      case METHODS:
+        bean.setMethods( ModelDeserializer.readStrings( parser, context ) );
+        break;
+    }
+  }
+
+}
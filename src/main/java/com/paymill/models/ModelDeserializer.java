@@ -0,0 +1,238 @@
+package com.paymill.models;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.DateDeserializers;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Base of the hand written deserializers of the PAYMILL models, which set the properties by direct calls instead of
+ * reflection. <br>
+ * The properties of a model are the constants of an enum named like the JSON fields, e.g. <code>CREATED_AT</code> for
+ * <code>created_at</code>, so the field of a token is looked up once in a map and dispatched by a switch. Values are read
+ * straight from the common tokens; other tokens, e.g. an amount sent as string, are passed to the deserializers of Jackson,
+ * so the results are the same as with the bean deserializers. An array, which PAYMILL sends instead of an empty object, is read
+ * as <code>null</code>. <br>
+ * A {@link Projection} of the model, passed as attribute of the reader, limits the fields of the top-level models, all other
+ * fields are skipped without reading their values.
+ * @since 5.2.0
+ */
+abstract class ModelDeserializer<T, P extends Enum<P>> extends StdDeserializer<T> {
+
+  private final static long    serialVersionUID = 1L;
+
+  private final Map<String, P> properties;
+  private final boolean        ignoreUnknown;
+
+  ModelDeserializer( final Class<T> type, final Class<P> propertyType ) {
+    super( type );
+    this.properties = new HashMap<String, P>();
+    for( P property : propertyType.getEnumConstants() ) {
+      this.properties.put( property.name().toLowerCase( Locale.ENGLISH ), property );
+    }
+    JsonIgnoreProperties ignored = type.getAnnotation( JsonIgnoreProperties.class );
+    this.ignoreUnknown = ignored != null && ignored.ignoreUnknown();
+  }
+
+  /**
+   * @return The property named like the given JSON field or <code>null</code>.
+   */
+  final P getProperty( final String name ) {
+    return this.properties.get( name );
+  }
+
+  final int getPropertyCount() {
+    return this.properties.size();
+  }
+
+  /**
+   * @return A new, empty model.
+   */
+  abstract T create();
+
+  /**
+   * @param value
+   *          The string, which was sent instead of an object, usually the id.
+   * @return A new model or <code>null</code> if the model can not be created from a string.
+   */
+  T create( final String value ) {
+    return null;
+  }
+
+  /**
+   * Reads the value of a property, the parser is positioned at its first token.
+   */
+  abstract void read( T bean, P property, JsonParser parser, DeserializationContext context ) throws IOException;
+
+  @Override
+  public T deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    Object projection = context.getAttribute( Projection.class );
+    if( projection instanceof Projection && ( (Projection<?>) projection ).deserializer == this ) {
+      return this.deserializeFields( parser, context, (Projection<?>) projection );
+    }
+    return this.deserializeFields( parser, context, null );
+  }
+
+  /**
+   * @param projection
+   *          The fields to read or <code>null</code> for all.
+   */
+  private T deserializeFields( final JsonParser parser, final DeserializationContext context, final Projection<?> projection )
+      throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.START_ARRAY ) {
+      parser.skipChildren();
+      return null;
+    }
+    if( token == JsonToken.VALUE_STRING ) {
+      T bean = this.create( parser.getText() );
+      if( bean == null ) {
+        throw context.mappingException( super.handledType(), token );
+      }
+      return bean;
+    }
+    if( token == JsonToken.START_OBJECT ) {
+      token = parser.nextToken();
+    } else if( token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT ) {
+      throw context.mappingException( super.handledType(), token );
+    }
+    T bean = this.create();
+    for( ; token == JsonToken.FIELD_NAME; token = parser.nextToken() ) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      P property = this.properties.get( name );
+      if( property != null && projection != null && !projection.includes( property ) ) {
+        parser.skipChildren();
+      } else if( property != null ) {
+        try {
+          this.read( bean, property, parser, context );
+        } catch( IllegalArgumentException exc ) {
+          throw JsonMappingException.wrapWithPath( exc, bean, name );
+        }
+      } else if( this.ignoreUnknown ) {
+        parser.skipChildren();
+      } else if( !context.handleUnknownProperty( parser, this, bean, name ) ) {
+        context.reportUnknownProperty( bean, name, this );
+        parser.skipChildren();
+      }
+    }
+    return bean;
+  }
+
+  static String readString( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_STRING ) {
+      return parser.getText();
+    }
+    return token == JsonToken.VALUE_NULL ? null : context.readValue( parser, String.class );
+  }
+
+  static Integer readInteger( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT ) {
+      return parser.getIntValue();
+    } else if( token == JsonToken.VALUE_STRING ) {
+      // PAYMILL sends some amounts as strings, read like the Integer deserializer of Jackson
+      String text = parser.getText().trim();
+      if( text.length() == 0 || "null".equals( text ) ) {
+        return null;
+      }
+      try {
+        return Integer.valueOf( text );
+      } catch( NumberFormatException exc ) {
+        throw context.weirdStringException( text, Integer.class, "not a valid Integer value" );
+      }
+    }
+    return token == JsonToken.VALUE_NULL ? null : context.readValue( parser, Integer.class );
+  }
+
+  static Boolean readBoolean( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_TRUE ) {
+      return Boolean.TRUE;
+    } else if( token == JsonToken.VALUE_FALSE ) {
+      return Boolean.FALSE;
+    }
+    return token == JsonToken.VALUE_NULL ? null : context.readValue( parser, Boolean.class );
+  }
+
+  /**
+   * Reads a timestamp in seconds for the <code>long</code> setters of the models, <code>null</code> is read as <code>0</code>
+   * like for any primitive.
+   */
+  static long readSeconds( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NUMBER_INT ) {
+      return parser.getLongValue();
+    }
+    return token == JsonToken.VALUE_NULL ? 0L : context.readValue( parser, Long.TYPE );
+  }
+
+  static Date readDate( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : DateDeserializers.DateDeserializer.instance.deserialize(
+        parser, context );
+  }
+
+  /**
+   * @return <code>true</code> if the value is a string, e.g. for the enums, which are created from their text.
+   */
+  static boolean isText( final JsonParser parser ) {
+    return parser.getCurrentToken() == JsonToken.VALUE_STRING;
+  }
+
+  /**
+   * Reads a value, which is not a string, with the deserializer of Jackson.
+   */
+  static <V> V readOther( final JsonParser parser, final DeserializationContext context, final Class<V> type ) throws IOException {
+    return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : context.readValue( parser, type );
+  }
+
+  static <M> M readModel( final JsonParser parser, final DeserializationContext context, final ModelDeserializer<M, ?> deserializer )
+      throws IOException {
+    // nested models are always read completely
+    return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : deserializer.deserializeFields( parser, context, null );
+  }
+
+  static <M> List<M> readModels( final JsonParser parser, final DeserializationContext context,
+      final ModelDeserializer<M, ?> deserializer ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NULL ) {
+      return null;
+    }
+    if( token != JsonToken.START_ARRAY ) {
+      throw context.mappingException( List.class, token );
+    }
+    List<M> models = new ArrayList<M>();
+    while( parser.nextToken() != JsonToken.END_ARRAY ) {
+      models.add( ModelDeserializer.readModel( parser, context, deserializer ) );
+    }
+    return models;
+  }
+
+  static List<String> readStrings( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NULL ) {
+      return null;
+    }
+    if( token != JsonToken.START_ARRAY ) {
+      throw context.mappingException( List.class, token );
+    }
+    List<String> values = new ArrayList<String>();
+    while( parser.nextToken() != JsonToken.END_ARRAY ) {
+      values.add( ModelDeserializer.readString( parser, context ) );
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,139 @@
+package com.paymill.models;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * The {@link ObjectMapper}, which reads responses and lazy models and writes exports, with the deserializers of
+ * {@link DeserializerModule}. <br>
+ * The mapper itself is private, so changes of the settings of {@link com.paymill.context.PaymillContext#PARSER} do not affect
+ * it; only its immutable readers are handed out, which are shared by all threads without locking. They, and the parsers and
+ * generators created here, use a factory of their own, whose codec is not the mapper, so the mapper can not be reached and
+ * reconfigured through them. Dates are written in seconds, like PAYMILL sends them.
+ * @since 5.2.0
+ */
+public final class ModelMapper {
+
+  private final static ObjectMapper MAPPER = new ObjectMapper();
+
+  static {
+    // fixed settings, which are the defaults of Jackson 2.5
+    MAPPER.registerModule( DeserializerModule.create() );
+    MAPPER.registerModule( new SimpleModule( "PaymillDates" ).addSerializer( Date.class, new SecondsSerializer() ) );
+    MAPPER.enable( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, DeserializationFeature.EAGER_DESERIALIZER_FETCH );
+  }
+
+  private final static JsonFactory  FACTORY = new JsonFactory();
+
+  private final static ObjectWriter WRITER  = MAPPER.writer();
+
+  private ModelMapper() {
+  }
+
+  /**
+   * @param type
+   *          The type to read.
+   * @return Reader of a single value of the type.
+   */
+  public static ObjectReader reader( final Class<?> type ) {
+    return MAPPER.reader( type ).with( FACTORY );
+  }
+
+  /**
+   * @param type
+   *          The type of the elements.
+   * @return Reader of a {@link List} of the type.
+   */
+  public static ObjectReader listReader( final Class<?> type ) {
+    return MAPPER.reader( MAPPER.getTypeFactory().constructCollectionType( List.class, type ) ).with( FACTORY );
+  }
+
+  /**
+   * Writes a model.
+   * @param generator
+   *          {@link JsonGenerator} to write to.
+   * @param value
+   *          The model to write.
+   * @throws IOException
+   *           If the model can not be written.
+   */
+  public static void writeValue( final JsonGenerator generator, final Object value ) throws IOException {
+    WRITER.writeValue( generator, value );
+  }
+
+  /**
+   * @param content
+   *          JSON to parse.
+   * @return New {@link JsonParser} of the content.
+   * @throws IOException
+   *           If the parser can not be created.
+   */
+  public static JsonParser createParser( final String content ) throws IOException {
+    return FACTORY.createParser( content );
+  }
+
+  /**
+   * @param content
+   *          JSON to parse, encoded in UTF-8.
+   * @return New {@link JsonParser} of the content.
+   * @throws IOException
+   *           If the parser can not be created.
+   */
+  public static JsonParser createParser( final byte[] content ) throws IOException {
+    return FACTORY.createParser( content );
+  }
+
+  /**
+   * @param writer
+   *          {@link Writer} to write the JSON to.
+   * @return New {@link JsonGenerator}, which writes to the writer.
+   * @throws IOException
+   *           If the generator can not be created.
+   */
+  public static JsonGenerator createGenerator( final Writer writer ) throws IOException {
+    return FACTORY.createGenerator( writer );
+  }
+
+  /**
+   * @param parser
+   *          {@link JsonParser} at the start of a value.
+   * @return The value as tree.
+   * @throws IOException
+   *           If the value can not be read.
+   */
+  public static JsonNode readTree( final JsonParser parser ) throws IOException {
+    return MAPPER.readTree( parser );
+  }
+
+  /**
+   * Writes dates in seconds.
+   */
+  private final static class SecondsSerializer extends StdSerializer<Date> {
+
+    private static final long serialVersionUID = -5316829046113384297L;
+
+    SecondsSerializer() {
+      super( Date.class );
+    }
+
+    @Override
+    public void serialize( final Date value, final JsonGenerator generator, final SerializerProvider provider ) throws IOException {
+      generator.writeNumber( value.getTime() / 1000 );
+    }
+  }
+
+}
@@ -179,6 +179,16 @@ public final class Offer {
     this.updatedAt = new Date( seconds * 1000 );
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Offer}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Offer> createProjection( final String... fields ) {
+    return new Projection<Offer>( OfferDeserializer.INSTANCE, fields );
+  }
+
   public static Offer.Filter createFilter() {
     return new Offer.Filter();
   }
@@ -0,0 +1,99 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Offer}s.
+ * @since 5.2.0
+ */
+final class OfferDeserializer extends ModelDeserializer<Offer, OfferDeserializer.Property> {
+
+  private final static long         serialVersionUID = 1L;
+
+  final static OfferDeserializer    INSTANCE         = new OfferDeserializer();
+
+  enum Property {
+    ID, NAME, AMOUNT, INTERVAL, TRIAL_PERIOD_DAYS, CURRENCY, CREATED_AT, UPDATED_AT, APP_ID, SUBSCRIPTION_COUNT
+  }
+
+  private OfferDeserializer() {
+    super( Offer.class, Property.class );
+  }
+
+  @Override
+  Offer create() {
+    return new Offer();
+  }
+
+  @Override
+  Offer create( final String value ) {
+    return new Offer( value );
+  }
+
+  @Override
+  void read( final Offer bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case NAME:
+        bean.setName( ModelDeserializer.readString( parser, context ) );
+        break;
+      case AMOUNT:
+        bean.setAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case INTERVAL:
+        bean.setInterval( ModelDeserializer.isText( parser ) ? new Interval.Period( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Interval.Period.class ) );
+        break;
+      case TRIAL_PERIOD_DAYS:
+        bean.setTrialPeriodDays( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case CURRENCY:
+        bean.setCurrency( ModelDeserializer.readString( parser, context ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case SUBSCRIPTION_COUNT:
+        bean.setSubscriptionCount( this.readSubscriptionCount( bean, parser, context ) );
+        break;
+    }
+  }
+
+  private Offer.SubscriptionCount readSubscriptionCount( final Offer bean, final JsonParser parser,
+      final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NULL ) {
+      return null;
+    }
+    if( token != JsonToken.START_OBJECT ) {
+      throw context.mappingException( Offer.SubscriptionCount.class, token );
+    }
+    Offer.SubscriptionCount count = bean.new SubscriptionCount();
+    while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      if( "active".equals( name ) ) {
+        count.setActive( ModelDeserializer.readString( parser, context ) );
+      } else if( "inactive".equals( name ) ) {
+        count.setInactive( ModelDeserializer.readInteger( parser, context ) );
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return count;
+  }
+
+}
@@ -382,6 +382,16 @@ public final class Payment {
     this.usableForPreauthorization = usableForPreauthorization;
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Payment}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Payment> createProjection( final String... fields ) {
+    return new Projection<Payment>( PaymentDeserializer.INSTANCE, fields );
+  }
+
   public static Payment.Filter createFilter() {
     return new Payment.Filter();
   }
@@ -0,0 +1,97 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Payment}s.
+ * @since 5.2.0
+ */
+final class PaymentDeserializer extends ModelDeserializer<Payment, PaymentDeserializer.Property> {
+
+  private final static long           serialVersionUID = 1L;
+
+  final static PaymentDeserializer    INSTANCE         = new PaymentDeserializer();
+
+  enum Property {
+    ID, TYPE, CREATED_AT, UPDATED_AT, APP_ID, CODE, ACCOUNT, HOLDER, CLIENT, CARD_TYPE, COUNTRY, EXPIRE_MONTH, EXPIRE_YEAR,
+    CARD_HOLDER, LAST4, IS_RECURRING, IS_USABLE_FOR_PREAUTHORIZATION
+  }
+
+  private PaymentDeserializer() {
+    super( Payment.class, Property.class );
+  }
+
+  @Override
+  Payment create() {
+    return new Payment();
+  }
+
+  @Override
+  Payment create( final String value ) {
+    return new Payment( value );
+  }
+
+  @Override
+  void read( final Payment bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case TYPE:
+        bean.setType( ModelDeserializer.isText( parser ) ? Payment.Type.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Payment.Type.class ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case CODE:
+        bean.setCode( ModelDeserializer.readString( parser, context ) );
+        break;
+      case ACCOUNT:
+        bean.setAccount( ModelDeserializer.readString( parser, context ) );
+        break;
+      case HOLDER:
+        bean.setHolder( ModelDeserializer.readString( parser, context ) );
+        break;
+      case CLIENT:
+        bean.setClient( ModelDeserializer.readModel( parser, context, ClientDeserializer.INSTANCE ) );
+        break;
+      case CARD_TYPE:
+        bean.setCardType( ModelDeserializer.isText( parser ) ? Payment.CardType.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Payment.CardType.class ) );
+        break;
+      case COUNTRY:
+        bean.setCountry( ModelDeserializer.readString( parser, context ) );
+        break;
+      case EXPIRE_MONTH:
+        bean.setExpireMonth( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case EXPIRE_YEAR:
+        bean.setExpireYear( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case CARD_HOLDER:
+        bean.setCardHolder( ModelDeserializer.readString( parser, context ) );
+        break;
+      case LAST4:
+        bean.setLast4( ModelDeserializer.readString( parser, context ) );
+        break;
+      case IS_RECURRING:
+        bean.setRecurring( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case IS_USABLE_FOR_PREAUTHORIZATION:
+        bean.setUsableForPreauthorization( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+    }
+  }
+
+}
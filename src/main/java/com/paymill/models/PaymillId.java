@@ -0,0 +1,267 @@
+package com.paymill.models;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary form of a PAYMILL id, e.g. <code>tran_54645bcb98ba7acfe204</code>, for keys of caches, indexes and sets. An id is a
+ * prefix of its type and up to 32 lower case hex digits, which are packed into two <code>long</code>s, so a
+ * {@link PaymillId} takes about half the memory of the {@link String} and {@link #equals(Object)}, {@link #hashCode()} and
+ * {@link #compareTo(PaymillId)} compare numbers without allocating. {@link #toString()} creates the id again, e.g. for API
+ * calls. <br>
+ * {@link #hashCode(String)} and {@link #matches(String)} work on the {@link String} without parsing it, so an index keyed by
+ * {@link PaymillId}s can be probed with ids as received. The other way round, a {@link PaymillId} is a {@link CharSequence}
+ * of the id, e.g. for {@link TransactionLedger#find(CharSequence)}. Ids of other types or with other characters are not encodable, see
+ * {@link #isEncodable(String)}.
+ * @since 5.2.0
+ */
+public final class PaymillId implements CharSequence, Comparable<PaymillId> {
+
+  /**
+   * Size of the binary form of {@link #writeTo(ByteBuffer)}.
+   */
+  public final static int                BYTES      = 18;
+
+  /**
+   * Maximal number of hex digits.
+   */
+  public final static int                MAX_DIGITS = 32;
+
+  private final static PaymillId.Type[]  TYPES      = PaymillId.Type.values();
+
+  private final PaymillId.Type           type;
+  private final byte                     digits;
+  private final long                     high;
+  private final long                     low;
+
+  private PaymillId( final PaymillId.Type type, final int digits, final long high, final long low ) {
+    this.type = type;
+    this.digits = (byte) digits;
+    this.high = high;
+    this.low = low;
+  }
+
+  /**
+   * @param id
+   *          A PAYMILL id.
+   * @return The binary form of the id.
+   * @throws IllegalArgumentException
+   *           if the id is not encodable.
+   */
+  public static PaymillId parse( final String id ) {
+    PaymillId.Type type = PaymillId.typeOf( id );
+    if( type == null || !PaymillId.isHex( id, type.prefix.length() ) )
+      throw new IllegalArgumentException( "Id " + id + " is not encodable" );
+    int start = type.prefix.length();
+    int split = Math.max( start, id.length() - 16 );
+    return new PaymillId( type, id.length() - start, PaymillId.value( id, start, split ), PaymillId.value( id, split, id.length() ) );
+  }
+
+  /**
+   * @return <code>true</code> if the given id has a known type and up to {@link #MAX_DIGITS} lower case hex digits.
+   */
+  public static boolean isEncodable( final String id ) {
+    PaymillId.Type type = PaymillId.typeOf( id );
+    return type != null && PaymillId.isHex( id, type.prefix.length() );
+  }
+
+  /**
+   * Reads the binary form written by {@link #writeTo(ByteBuffer)}.
+   */
+  public static PaymillId readFrom( final ByteBuffer buffer ) {
+    int ordinal = buffer.get();
+    int digits = buffer.get();
+    long high = buffer.getLong();
+    long low = buffer.getLong();
+    if( ordinal < 0 || ordinal >= TYPES.length || digits < 1 || digits > MAX_DIGITS )
+      throw new IllegalArgumentException( "No binary PAYMILL id" );
+    return new PaymillId( TYPES[ordinal], digits, high, low );
+  }
+
+  /**
+   * Computes {@link #hashCode()} of the binary form of an encodable id without creating it.
+   * @param id
+   *          An encodable id.
+   * @return The hash code of the binary form.
+   */
+  public static int hashCode( final String id ) {
+    PaymillId.Type type = PaymillId.typeOf( id );
+    if( type == null || !PaymillId.isHex( id, type.prefix.length() ) )
+      throw new IllegalArgumentException( "Id " + id + " is not encodable" );
+    int start = type.prefix.length();
+    int split = Math.max( start, id.length() - 16 );
+    return PaymillId.hash( type, id.length() - start, PaymillId.value( id, start, split ), PaymillId.value( id, split,
+        id.length() ) );
+  }
+
+  /**
+   * Writes the {@link #BYTES} of the binary form.
+   */
+  public void writeTo( final ByteBuffer buffer ) {
+    buffer.put( (byte) this.type.ordinal() );
+    buffer.put( this.digits );
+    buffer.putLong( this.high );
+    buffer.putLong( this.low );
+  }
+
+  /**
+   * Compares with an id as {@link String} without allocating.
+   * @return <code>true</code> if the given id is this one.
+   */
+  public boolean matches( final String id ) {
+    if( id == null || !id.startsWith( this.type.prefix ) || id.length() != this.type.prefix.length() + this.digits ) {
+      return false;
+    }
+    for( int i = 0; i < this.digits; i++ ) {
+      if( id.charAt( id.length() - 1 - i ) != Character.forDigit( this.digit( i ), 16 ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public PaymillId.Type getType() {
+    return this.type;
+  }
+
+  @Override
+  public boolean equals( final Object object ) {
+    if( this == object ) {
+      return true;
+    }
+    if( !(object instanceof PaymillId) ) {
+      return false;
+    }
+    PaymillId other = (PaymillId) object;
+    return this.low == other.low && this.high == other.high && this.type == other.type && this.digits == other.digits;
+  }
+
+  @Override
+  public int hashCode() {
+    return PaymillId.hash( this.type, this.digits, this.high, this.low );
+  }
+
+  @Override
+  public int compareTo( final PaymillId other ) {
+    if( this.type != other.type ) {
+      return this.type.compareTo( other.type );
+    }
+    if( this.digits != other.digits ) {
+      return this.digits < other.digits ? -1 : 1;
+    }
+    if( this.high != other.high ) {
+      return this.high < other.high ? -1 : 1;
+    }
+    return this.low == other.low ? 0 : this.low < other.low ? -1 : 1;
+  }
+
+  @Override
+  public int length() {
+    return this.type.prefix.length() + this.digits;
+  }
+
+  @Override
+  public char charAt( final int index ) {
+    if( index < 0 || index >= this.length() )
+      throw new IndexOutOfBoundsException( "Index " + index + " of " + this.length() );
+    int prefix = this.type.prefix.length();
+    return index < prefix ? this.type.prefix.charAt( index ) : Character.forDigit( this.digit( this.length() - 1 - index ), 16 );
+  }
+
+  @Override
+  public CharSequence subSequence( final int start, final int end ) {
+    return this.toString().subSequence( start, end );
+  }
+
+  /**
+   * @return The id as sent by PAYMILL.
+   */
+  @Override
+  public String toString() {
+    char[] chars = new char[this.type.prefix.length() + this.digits];
+    this.type.prefix.getChars( 0, this.type.prefix.length(), chars, 0 );
+    for( int i = 0; i < this.digits; i++ ) {
+      chars[chars.length - 1 - i] = Character.forDigit( this.digit( i ), 16 );
+    }
+    return new String( chars );
+  }
+
+  /**
+   * @return The hex digit at the given position from the right.
+   */
+  private int digit( final int position ) {
+    long bits = position < 16 ? this.low >>> ( position * 4 ) : this.high >>> ( ( position - 16 ) * 4 );
+    return (int) ( bits & 0xF );
+  }
+
+  private static PaymillId.Type typeOf( final String id ) {
+    if( id == null ) {
+      return null;
+    }
+    for( PaymillId.Type type : TYPES ) {
+      if( id.startsWith( type.prefix ) ) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isHex( final String id, final int start ) {
+    int digits = id.length() - start;
+    if( digits < 1 || digits > MAX_DIGITS ) {
+      return false;
+    }
+    for( int i = start; i < id.length(); i++ ) {
+      char c = id.charAt( i );
+      if( ( c < '0' || c > '9' ) && ( c < 'a' || c > 'f' ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long value( final String id, final int from, final int to ) {
+    long value = 0;
+    for( int i = from; i < to; i++ ) {
+      value = ( value << 4 ) | Character.digit( id.charAt( i ), 16 );
+    }
+    return value;
+  }
+
+  private static int hash( final PaymillId.Type type, final int digits, final long high, final long low ) {
+    long hash = ( low * 0x9E3779B97F4A7C15L + high ) * 31 + ( type.ordinal() << 8 | digits );
+    return (int) ( hash ^ ( hash >>> 32 ) );
+  }
+
+  /**
+   * Types of PAYMILL ids and their prefixes.
+   */
+  public enum Type {
+
+    TRANSACTION("tran_"),
+
+    PAYMENT("pay_"),
+
+    CLIENT("client_"),
+
+    SUBSCRIPTION("sub_"),
+
+    OFFER("offer_"),
+
+    REFUND("refund_"),
+
+    PREAUTHORIZATION("preauth_"),
+
+    WEBHOOK("hook_");
+
+    private final String prefix;
+
+    private Type( final String prefix ) {
+      this.prefix = prefix;
+    }
+
+    public String getPrefix() {
+      return this.prefix;
+    }
+  }
+
+}
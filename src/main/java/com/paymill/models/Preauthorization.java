@@ -223,6 +223,16 @@ public final class Preauthorization {
     }
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Preauthorization}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Preauthorization> createProjection( final String... fields ) {
+    return new Projection<Preauthorization>( PreauthorizationDeserializer.INSTANCE, fields );
+  }
+
   public static Preauthorization.Filter createFilter() {
     return new Preauthorization.Filter();
   }
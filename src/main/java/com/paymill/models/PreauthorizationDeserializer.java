@@ -0,0 +1,80 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Preauthorization}s.
+ * @since 5.2.0
+ */
+final class PreauthorizationDeserializer extends ModelDeserializer<Preauthorization, PreauthorizationDeserializer.Property> {
+
+  private final static long                    serialVersionUID = 1L;
+
+  final static PreauthorizationDeserializer    INSTANCE         = new PreauthorizationDeserializer();
+
+  enum Property {
+    ID, AMOUNT, CURRENCY, DESCRIPTION, STATUS, LIVEMODE, PAYMENT, CLIENT, TRANSACTION, CREATED_AT, UPDATED_AT, APP_ID
+  }
+
+  private PreauthorizationDeserializer() {
+    super( Preauthorization.class, Property.class );
+  }
+
+  @Override
+  Preauthorization create() {
+    return new Preauthorization();
+  }
+
+  @Override
+  Preauthorization create( final String value ) {
+    return new Preauthorization( value );
+  }
+
+  @Override
+  void read( final Preauthorization bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case AMOUNT:
+        bean.setAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case CURRENCY:
+        bean.setCurrency( ModelDeserializer.readString( parser, context ) );
+        break;
+      case DESCRIPTION:
+        bean.setDescription( ModelDeserializer.readString( parser, context ) );
+        break;
+      case STATUS:
+        bean.setStatus( ModelDeserializer.isText( parser ) ? Preauthorization.Status.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Preauthorization.Status.class ) );
+        break;
+      case LIVEMODE:
+        bean.setLivemode( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case PAYMENT:
+        bean.setPayment( ModelDeserializer.readModel( parser, context, PaymentDeserializer.INSTANCE ) );
+        break;
+      case CLIENT:
+        bean.setClient( ModelDeserializer.readModel( parser, context, ClientDeserializer.INSTANCE ) );
+        break;
+      case TRANSACTION:
+        bean.setTransaction( ModelDeserializer.readModel( parser, context, TransactionDeserializer.INSTANCE ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.paymill.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Names the fields of a PAYMILL model, which are read from a list. All other fields, including nested objects like the
+ * {@link Payment} and {@link Client} of a {@link Transaction}, are skipped token by token without creating their objects and
+ * stay <code>null</code>. Fields are named like in the JSON of the API, e.g. <code>created_at</code>. Projections are immutable
+ * and can be shared. <br>
+ * Created by the <code>createProjection</code> method of a model, e.g.
+ * <code>Transaction.createProjection( "id", "amount", "currency", "status", "created_at" )</code>.
+ * @since 5.2.0
+ */
+public final class Projection<T> {
+
+  final ModelDeserializer<T, ?> deserializer;
+  private final boolean[]       included;
+  private final List<String>    fields;
+
+  Projection( final ModelDeserializer<T, ?> deserializer, final String... fields ) {
+    if( fields == null || fields.length == 0 )
+      throw new IllegalArgumentException( "Fields can not be null or empty" );
+    this.deserializer = deserializer;
+    this.included = new boolean[deserializer.getPropertyCount()];
+    List<String> names = new ArrayList<String>( fields.length );
+    for( String field : fields ) {
+      Enum<?> property = deserializer.getProperty( field );
+      if( property == null )
+        throw new IllegalArgumentException( "Unknown field " + field + " of " + deserializer.handledType().getSimpleName() );
+      this.included[property.ordinal()] = true;
+      names.add( field );
+    }
+    this.fields = Collections.unmodifiableList( names );
+  }
+
+  /**
+   * @return The names of the fields, which are read.
+   */
+  public List<String> getFields() {
+    return this.fields;
+  }
+
+  boolean includes( final Enum<?> property ) {
+    return this.included[property.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    return "Projection" + this.fields;
+  }
+
+}
@@ -178,6 +178,16 @@ public final class Refund {
       this.updatedAt = new Date( seconds * 1000 );
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Refund}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Refund> createProjection( final String... fields ) {
+    return new Projection<Refund>( RefundDeserializer.INSTANCE, fields );
+  }
+
   public static Refund.Filter createFilter() {
     return new Refund.Filter();
   }
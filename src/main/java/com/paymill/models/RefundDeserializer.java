@@ -0,0 +1,74 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Refund}s.
+ * @since 5.2.0
+ */
+final class RefundDeserializer extends ModelDeserializer<Refund, RefundDeserializer.Property> {
+
+  private final static long          serialVersionUID = 1L;
+
+  final static RefundDeserializer    INSTANCE         = new RefundDeserializer();
+
+  enum Property {
+    ID, TRANSACTION, AMOUNT, STATUS, DESCRIPTION, LIVEMODE, CREATED_AT, UPDATED_AT, RESPONSE_CODE, APP_ID
+  }
+
+  private RefundDeserializer() {
+    super( Refund.class, Property.class );
+  }
+
+  @Override
+  Refund create() {
+    return new Refund();
+  }
+
+  @Override
+  Refund create( final String value ) {
+    return new Refund( value );
+  }
+
+  @Override
+  void read( final Refund bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case TRANSACTION:
+        bean.setTransaction( ModelDeserializer.readModel( parser, context, TransactionDeserializer.INSTANCE ) );
+        break;
+      case AMOUNT:
+        bean.setAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case STATUS:
+        bean.setStatus( ModelDeserializer.isText( parser ) ? Refund.Status.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Refund.Status.class ) );
+        break;
+      case DESCRIPTION:
+        bean.setDescription( ModelDeserializer.readString( parser, context ) );
+        break;
+      case LIVEMODE:
+        bean.setLivemode( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case RESPONSE_CODE:
+        bean.setResponseCode( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+    }
+  }
+
+}
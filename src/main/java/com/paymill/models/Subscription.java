@@ -411,6 +411,16 @@ public final class Subscription {
       this.updatedAt = new Date( seconds * 1000 );
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Subscription}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Subscription> createProjection( final String... fields ) {
+    return new Projection<Subscription>( SubscriptionDeserializer.INSTANCE, fields );
+  }
+
   public static Subscription.Filter createFilter() {
     return new Subscription.Filter();
   }
@@ -0,0 +1,117 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Subscription}s.
+ * @since 5.2.0
+ */
+final class SubscriptionDeserializer extends ModelDeserializer<Subscription, SubscriptionDeserializer.Property> {
+
+  private final static long                serialVersionUID = 1L;
+
+  final static SubscriptionDeserializer    INSTANCE         = new SubscriptionDeserializer();
+
+  enum Property {
+    ID, OFFER, LIVEMODE, AMOUNT, TEMP_AMOUNT, CURRENCY, NAME, INTERVAL, TRIAL_START, TRIAL_END, PERIOD_OF_VALIDITY,
+    END_OF_PERIOD, NEXT_CAPTURE_AT, CREATED_AT, UPDATED_AT, CANCELED_AT, PAYMENT, CLIENT, APP_ID, STATUS, IS_CANCELED,
+    IS_DELETED, MANDATE_REFERENCE
+  }
+
+  private SubscriptionDeserializer() {
+    super( Subscription.class, Property.class );
+  }
+
+  @Override
+  Subscription create() {
+    return new Subscription();
+  }
+
+  @Override
+  Subscription create( final String value ) {
+    return new Subscription( value );
+  }
+
+  @Override
+  void read( final Subscription bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case OFFER:
+        bean.setOffer( ModelDeserializer.readModel( parser, context, OfferDeserializer.INSTANCE ) );
+        break;
+      case LIVEMODE:
+        bean.setLivemode( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case AMOUNT:
+        bean.setAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case TEMP_AMOUNT:
+        bean.setTempAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case CURRENCY:
+        bean.setCurrency( ModelDeserializer.readString( parser, context ) );
+        break;
+      case NAME:
+        bean.setName( ModelDeserializer.readString( parser, context ) );
+        break;
+      case INTERVAL:
+        bean.setInterval( ModelDeserializer.isText( parser ) ? new Interval.PeriodWithChargeDay( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Interval.PeriodWithChargeDay.class ) );
+        break;
+      case TRIAL_START:
+        bean.setTrialStart( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case TRIAL_END:
+        bean.setTrialEnd( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case PERIOD_OF_VALIDITY:
+        bean.setPeriodOfValidity( ModelDeserializer.isText( parser ) ? new Interval.Period( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Interval.Period.class ) );
+        break;
+      case END_OF_PERIOD:
+        bean.setEndOfPeriod( ModelDeserializer.readDate( parser, context ) );
+        break;
+      case NEXT_CAPTURE_AT:
+        bean.setNextCaptureAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case CANCELED_AT:
+        bean.setCanceledAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case PAYMENT:
+        bean.setPayment( ModelDeserializer.readModel( parser, context, PaymentDeserializer.INSTANCE ) );
+        break;
+      case CLIENT:
+        bean.setClient( ModelDeserializer.readModel( parser, context, ClientDeserializer.INSTANCE ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case STATUS:
+        bean.setStatus( ModelDeserializer.isText( parser ) ? Subscription.Status.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Subscription.Status.class ) );
+        break;
+      case IS_CANCELED:
+        bean.setCanceled( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case IS_DELETED:
+        bean.setDeleted( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case MANDATE_REFERENCE:
+        bean.setMandateReference( ModelDeserializer.readString( parser, context ) );
+        break;
+    }
+  }
+
+}
@@ -383,6 +383,16 @@ public final class Transaction {
     return this.mandateReference;
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Transaction}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Transaction> createProjection( final String... fields ) {
+    return new Projection<Transaction>( TransactionDeserializer.INSTANCE, fields );
+  }
+
   public static Transaction.Filter createFilter() {
     return new Transaction.Filter();
   }
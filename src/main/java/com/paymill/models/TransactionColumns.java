@@ -0,0 +1,360 @@
+package com.paymill.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Columnar container of {@link Transaction}s for aggregations over many transactions. Each field is stored in its own primitive
+ * array, which grows by doubling: amounts, timestamps in seconds since the epoch, statuses as ordinals and currencies and client
+ * ids as codes of a dictionary. The ids are packed into one <code>char</code> array. Pages of a list are decoded straight from
+ * the buffer of the parser into the arrays by
+ * {@link com.paymill.services.TransactionService#listColumns(Transaction.Filter, Transaction.Order, Integer, Integer, TransactionColumns)},
+ * so a row creates no objects; strings are only created once per distinct currency and client and by {@link #getId(int)}.
+ * <br>
+ * Filters return the selected rows as {@link BitSet}, which can be combined with its <code>and</code> and <code>or</code>
+ * operations and passed to the aggregations. A missing amount or date is <code>0</code>. Not thread-safe.
+ * @since 5.2.0
+ */
+public final class TransactionColumns {
+
+  private final static Transaction.Status[] STATUSES      = Transaction.Status.values();
+
+  private final static int                  ID_LENGTH     = 24;
+
+  private final Dictionary                  currencies    = new Dictionary();
+  private final Dictionary                  clients       = new Dictionary();
+
+  private int                               size;
+  private char[]                            idChars;
+  private int                               idCharsUsed;
+  private int[]                             idStarts;
+  // -1 for a missing id
+  private int[]                             idLengths;
+  private int[]                             amounts;
+  private int[]                             currencyCodes;
+  private byte[]                            statuses;
+  private long[]                            createdAt;
+  private int[]                             clientCodes;
+
+  public TransactionColumns() {
+    this( 1024 );
+  }
+
+  /**
+   * @param capacity
+   *          Initial number of rows.
+   */
+  public TransactionColumns( final int capacity ) {
+    if( capacity < 1 )
+      throw new IllegalArgumentException( "Capacity must be positive" );
+    this.idChars = new char[capacity * ID_LENGTH];
+    this.idStarts = new int[capacity];
+    this.idLengths = new int[capacity];
+    this.amounts = new int[capacity];
+    this.currencyCodes = new int[capacity];
+    this.statuses = new byte[capacity];
+    this.createdAt = new long[capacity];
+    this.clientCodes = new int[capacity];
+  }
+
+  /**
+   * @return Number of rows.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return The id of the row, as new {@link String}.
+   */
+  public String getId( final int row ) {
+    int length = this.idLengths[this.check( row )];
+    return length < 0 ? null : new String( this.idChars, this.idStarts[row], length );
+  }
+
+  public int getAmount( final int row ) {
+    return this.amounts[this.check( row )];
+  }
+
+  public String getCurrency( final int row ) {
+    return this.currencies.get( this.currencyCodes[this.check( row )] );
+  }
+
+  public Transaction.Status getStatus( final int row ) {
+    return Compact.toEnum( STATUSES, this.statuses[this.check( row )] );
+  }
+
+  /**
+   * @return Creation date in seconds since the epoch.
+   */
+  public long getCreatedAt( final int row ) {
+    return this.createdAt[this.check( row )];
+  }
+
+  public String getClientId( final int row ) {
+    return this.clients.get( this.clientCodes[this.check( row )] );
+  }
+
+  /**
+   * @return The rows with the given status.
+   */
+  public BitSet selectByStatus( final Transaction.Status status ) {
+    byte ordinal = Compact.toOrdinal( status );
+    BitSet rows = new BitSet( this.size );
+    for( int row = 0; row < this.size; row++ ) {
+      if( this.statuses[row] == ordinal ) {
+        rows.set( row );
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @return The rows with the given currency.
+   */
+  public BitSet selectByCurrency( final String currency ) {
+    return TransactionColumns.select( this.currencyCodes, this.size, this.currencies.find( currency ) );
+  }
+
+  /**
+   * @return The rows of the given client.
+   */
+  public BitSet selectByClientId( final String clientId ) {
+    return TransactionColumns.select( this.clientCodes, this.size, this.clients.find( clientId ) );
+  }
+
+  /**
+   * @param from
+   *          First second, inclusive.
+   * @param until
+   *          Last second, exclusive.
+   * @return The rows created in the given range.
+   */
+  public BitSet selectByCreatedAt( final long from, final long until ) {
+    BitSet rows = new BitSet( this.size );
+    for( int row = 0; row < this.size; row++ ) {
+      long seconds = this.createdAt[row];
+      if( seconds >= from && seconds < until ) {
+        rows.set( row );
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @param min
+   *          Smallest amount, inclusive.
+   * @param max
+   *          Largest amount, inclusive.
+   * @return The rows with an amount in the given range.
+   */
+  public BitSet selectByAmount( final int min, final int max ) {
+    BitSet rows = new BitSet( this.size );
+    for( int row = 0; row < this.size; row++ ) {
+      int amount = this.amounts[row];
+      if( amount >= min && amount <= max ) {
+        rows.set( row );
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @return Sum of the amounts of all rows.
+   */
+  public long sumAmounts() {
+    long sum = 0;
+    for( int row = 0; row < this.size; row++ ) {
+      sum += this.amounts[row];
+    }
+    return sum;
+  }
+
+  /**
+   * @param rows
+   *          Selected rows, e.g. from {@link #selectByStatus(Transaction.Status)}.
+   * @return Sum of the amounts of the selected rows.
+   */
+  public long sumAmounts( final BitSet rows ) {
+    if( rows == null )
+      throw new IllegalArgumentException( "Rows can not be null" );
+    long sum = 0;
+    for( int row = rows.nextSetBit( 0 ); row >= 0 && row < this.size; row = rows.nextSetBit( row + 1 ) ) {
+      sum += this.amounts[row];
+    }
+    return sum;
+  }
+
+  /**
+   * Prepares the row after the last one. Its fields are set by the deserializer and the row is only counted by
+   * {@link #commitRow()}, so a row, which fails to decode, leaves nothing behind.
+   * @return Index of the row.
+   */
+  int startRow() {
+    if( this.size == this.amounts.length ) {
+      this.grow();
+    }
+    int row = this.size;
+    this.idLengths[row] = -1;
+    this.amounts[row] = 0;
+    this.currencyCodes[row] = -1;
+    this.statuses[row] = -1;
+    this.createdAt[row] = 0;
+    this.clientCodes[row] = -1;
+    return row;
+  }
+
+  void setId( final int row, final char[] chars, final int offset, final int length ) {
+    if( this.idCharsUsed + length > this.idChars.length ) {
+      this.idChars = Arrays.copyOf( this.idChars, Math.max( this.idChars.length * 2, this.idCharsUsed + length ) );
+    }
+    System.arraycopy( chars, offset, this.idChars, this.idCharsUsed, length );
+    this.idStarts[row] = this.idCharsUsed;
+    this.idLengths[row] = length;
+  }
+
+  void setAmount( final int row, final int amount ) {
+    this.amounts[row] = amount;
+  }
+
+  void setCurrency( final int row, final char[] chars, final int offset, final int length ) {
+    this.currencyCodes[row] = this.currencies.encode( chars, offset, length );
+  }
+
+  void setStatus( final int row, final Transaction.Status status ) {
+    this.statuses[row] = Compact.toOrdinal( status );
+  }
+
+  void setCreatedAt( final int row, final long createdAt ) {
+    this.createdAt[row] = createdAt;
+  }
+
+  void setClientId( final int row, final char[] chars, final int offset, final int length ) {
+    this.clientCodes[row] = this.clients.encode( chars, offset, length );
+  }
+
+  /**
+   * Counts the row prepared by {@link #startRow()}.
+   */
+  void commitRow() {
+    this.idCharsUsed += Math.max( 0, this.idLengths[this.size] );
+    this.size++;
+  }
+
+  private void grow() {
+    int capacity = this.amounts.length * 2;
+    this.idStarts = Arrays.copyOf( this.idStarts, capacity );
+    this.idLengths = Arrays.copyOf( this.idLengths, capacity );
+    this.amounts = Arrays.copyOf( this.amounts, capacity );
+    this.currencyCodes = Arrays.copyOf( this.currencyCodes, capacity );
+    this.statuses = Arrays.copyOf( this.statuses, capacity );
+    this.createdAt = Arrays.copyOf( this.createdAt, capacity );
+    this.clientCodes = Arrays.copyOf( this.clientCodes, capacity );
+  }
+
+  private int check( final int row ) {
+    if( row < 0 || row >= this.size )
+      throw new IndexOutOfBoundsException( "Row " + row + " of " + this.size );
+    return row;
+  }
+
+  private static BitSet select( final int[] codes, final int size, final int code ) {
+    BitSet rows = new BitSet( size );
+    if( code < 0 ) {
+      return rows;
+    }
+    for( int row = 0; row < size; row++ ) {
+      if( codes[row] == code ) {
+        rows.set( row );
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Codes of distinct values, <code>-1</code> for <code>null</code>. Values are looked up by open addressing straight from a
+   * <code>char</code> array, so a {@link String} is only created for a new value.
+   */
+  private final static class Dictionary {
+
+    private final List<String> values = new ArrayList<String>();
+    // code + 1 of the value in each slot, 0 for a free slot
+    private int[]              slots  = new int[16];
+
+    int encode( final char[] chars, final int offset, final int length ) {
+      int mask = this.slots.length - 1;
+      for( int i = Dictionary.hash( chars, offset, length ) & mask;; i = ( i + 1 ) & mask ) {
+        int slot = this.slots[i];
+        if( slot == 0 ) {
+          int code = this.values.size();
+          this.values.add( new String( chars, offset, length ) );
+          this.slots[i] = code + 1;
+          if( this.values.size() * 2 > this.slots.length ) {
+            this.rehash();
+          }
+          return code;
+        }
+        if( Dictionary.matches( this.values.get( slot - 1 ), chars, offset, length ) ) {
+          return slot - 1;
+        }
+      }
+    }
+
+    int find( final String value ) {
+      if( value == null ) {
+        return -1;
+      }
+      char[] chars = value.toCharArray();
+      int mask = this.slots.length - 1;
+      for( int i = Dictionary.hash( chars, 0, chars.length ) & mask;; i = ( i + 1 ) & mask ) {
+        int slot = this.slots[i];
+        if( slot == 0 ) {
+          return -1;
+        }
+        if( this.values.get( slot - 1 ).equals( value ) ) {
+          return slot - 1;
+        }
+      }
+    }
+
+    String get( final int code ) {
+      return code < 0 ? null : this.values.get( code );
+    }
+
+    private void rehash() {
+      this.slots = new int[this.slots.length * 2];
+      int mask = this.slots.length - 1;
+      for( int code = 0; code < this.values.size(); code++ ) {
+        String value = this.values.get( code );
+        int i = Dictionary.hash( value.toCharArray(), 0, value.length() ) & mask;
+        while( this.slots[i] != 0 ) {
+          i = ( i + 1 ) & mask;
+        }
+        this.slots[i] = code + 1;
+      }
+    }
+
+    private static int hash( final char[] chars, final int offset, final int length ) {
+      int hash = 0;
+      for( int i = offset; i < offset + length; i++ ) {
+        hash = 31 * hash + chars[i];
+      }
+      return hash ^ ( hash >>> 16 );
+    }
+
+    private static boolean matches( final String value, final char[] chars, final int offset, final int length ) {
+      if( value.length() != length ) {
+        return false;
+      }
+      for( int i = 0; i < length; i++ ) {
+        if( value.charAt( i ) != chars[offset + i] ) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Deserializer of an array of {@link Transaction}s into {@link TransactionColumns}. Only the fields of the columns are read,
+ * all others are skipped token by token; the id of the client is taken from a string or from the nested object. Text is passed
+ * to the columns in the buffer of the parser and numbers are parsed in place, like by {@link TransactionViewDeserializer}. Read
+ * into an existing instance, the rows are appended.
+ * @since 5.2.0
+ */
+final class TransactionColumnsDeserializer extends StdDeserializer<TransactionColumns> {
+
+  private final static long                  serialVersionUID = 1L;
+
+  final static TransactionColumnsDeserializer INSTANCE         = new TransactionColumnsDeserializer();
+
+  private TransactionColumnsDeserializer() {
+    super( TransactionColumns.class );
+  }
+
+  @Override
+  public TransactionColumns deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    return this.deserialize( parser, context, new TransactionColumns() );
+  }
+
+  @Override
+  public TransactionColumns deserialize( final JsonParser parser, final DeserializationContext context,
+      final TransactionColumns columns ) throws IOException {
+    if( parser.getCurrentToken() != JsonToken.START_ARRAY ) {
+      throw context.mappingException( TransactionColumns.class, parser.getCurrentToken() );
+    }
+    JsonToken token;
+    while( ( token = parser.nextToken() ) != JsonToken.END_ARRAY ) {
+      if( token == JsonToken.START_OBJECT ) {
+        TransactionColumnsDeserializer.readRow( parser, context, columns );
+      } else if( token != JsonToken.VALUE_NULL ) {
+        throw context.mappingException( Transaction.class, token );
+      }
+    }
+    return columns;
+  }
+
+  private static void readRow( final JsonParser parser, final DeserializationContext context, final TransactionColumns columns )
+      throws IOException {
+    int row = columns.startRow();
+    while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      // names are canonicalized by the parser, so they are compared without copying
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if( "id".equals( name ) ) {
+        if( TransactionColumnsDeserializer.readText( parser, context ) ) {
+          columns.setId( row, parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength() );
+        }
+      } else if( "amount".equals( name ) ) {
+        columns.setAmount( row, TransactionViewDeserializer.readInt( parser, context ) );
+      } else if( "currency".equals( name ) ) {
+        if( TransactionColumnsDeserializer.readText( parser, context ) ) {
+          columns.setCurrency( row, parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength() );
+        }
+      } else if( "status".equals( name ) ) {
+        columns.setStatus( row, TransactionViewDeserializer.readStatus( parser, context ) );
+      } else if( "created_at".equals( name ) ) {
+        columns.setCreatedAt( row, ModelDeserializer.readSeconds( parser, context ) );
+      } else if( "client".equals( name ) && token == JsonToken.VALUE_STRING ) {
+        columns.setClientId( row, parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength() );
+      } else if( "client".equals( name ) && token == JsonToken.START_OBJECT ) {
+        TransactionColumnsDeserializer.readClientId( parser, context, columns, row );
+      } else {
+        parser.skipChildren();
+      }
+    }
+    columns.commitRow();
+  }
+
+  /**
+   * Reads the id of the nested client and skips its other fields.
+   */
+  private static void readClientId( final JsonParser parser, final DeserializationContext context,
+      final TransactionColumns columns, final int row ) throws IOException {
+    while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      if( "id".equals( name ) && TransactionColumnsDeserializer.readText( parser, context ) ) {
+        columns.setClientId( row, parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength() );
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the value is a string or another scalar, whose text is in the buffer of the parser,
+   *         <code>false</code> for <code>null</code>. Objects and arrays fail like for a {@link String} field.
+   */
+  private static boolean readText( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NULL ) {
+      return false;
+    }
+    if( !token.isScalarValue() ) {
+      throw context.mappingException( String.class, token );
+    }
+    return true;
+  }
+
+}
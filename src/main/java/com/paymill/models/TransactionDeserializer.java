@@ -0,0 +1,102 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Transaction}s.
+ * @since 5.2.0
+ */
+final class TransactionDeserializer extends ModelDeserializer<Transaction, TransactionDeserializer.Property> {
+
+  private final static long               serialVersionUID = 1L;
+
+  final static TransactionDeserializer    INSTANCE         = new TransactionDeserializer();
+
+  enum Property {
+    ID, AMOUNT, ORIGIN_AMOUNT, CURRENCY, STATUS, DESCRIPTION, LIVEMODE, REFUNDS, PAYMENT, CLIENT, PREAUTHORIZATION, CREATED_AT,
+    UPDATED_AT, RESPONSE_CODE, SHORT_ID, IS_FRAUD, FEES, APP_ID, MANDATE_REFERENCE
+  }
+
+  private TransactionDeserializer() {
+    super( Transaction.class, Property.class );
+  }
+
+  @Override
+  Transaction create() {
+    return new Transaction();
+  }
+
+  @Override
+  Transaction create( final String value ) {
+    return new Transaction( value );
+  }
+
+  @Override
+  void read( final Transaction bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case AMOUNT:
+        bean.setAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case ORIGIN_AMOUNT:
+        bean.setOriginAmount( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case CURRENCY:
+        bean.setCurrency( ModelDeserializer.readString( parser, context ) );
+        break;
+      case STATUS:
+        bean.setStatus( ModelDeserializer.isText( parser ) ? Transaction.Status.create( parser.getText() ) :
+            ModelDeserializer.readOther( parser, context, Transaction.Status.class ) );
+        break;
+      case DESCRIPTION:
+        bean.setDescription( ModelDeserializer.readString( parser, context ) );
+        break;
+      case LIVEMODE:
+        bean.setLivemode( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case REFUNDS:
+        bean.setRefunds( ModelDeserializer.readModels( parser, context, RefundDeserializer.INSTANCE ) );
+        break;
+      case PAYMENT:
+        bean.setPayment( ModelDeserializer.readModel( parser, context, PaymentDeserializer.INSTANCE ) );
+        break;
+      case CLIENT:
+        bean.setClient( ModelDeserializer.readModel( parser, context, ClientDeserializer.INSTANCE ) );
+        break;
+      case PREAUTHORIZATION:
+        bean.setPreauthorization( ModelDeserializer.readModel( parser, context, PreauthorizationDeserializer.INSTANCE ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case RESPONSE_CODE:
+        bean.setResponseCode( ModelDeserializer.readInteger( parser, context ) );
+        break;
+      case SHORT_ID:
+        bean.setShortId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case IS_FRAUD:
+        bean.setFraud( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case FEES:
+        bean.setFees( ModelDeserializer.readModels( parser, context, FeeDeserializer.INSTANCE ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case MANDATE_REFERENCE:
+        bean.setMandateReference( ModelDeserializer.readString( parser, context ) );
+        break;
+    }
+  }
+
+}
@@ -0,0 +1,448 @@
+package com.paymill.models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Off-heap store of the fields of {@link Transaction}s and {@link Refund}s, which reconciliation needs: id, amount, origin
+ * amount, currency, status, creation date, client id and payment id. Each record has a fixed layout of {@link #RECORD_SIZE}
+ * bytes in a direct or memory-mapped buffer, so millions of records add neither objects nor GC work. Ids, which are at most
+ * {@link #MAX_ID_LENGTH} ASCII characters, are found through a hash index, which is also off-heap. <br>
+ * Records are read through a {@link TransactionLedger.Record}, a flyweight, which is moved from slot to slot and reads the fields
+ * straight from the buffer; apart from the id getters it does not allocate. A refund keeps the client and payment of its
+ * transaction, if the transaction was expanded. Missing amounts and dates are stored as <code>0</code>. <br>
+ * A ledger has a single writer, records can be read concurrently through one {@link TransactionLedger.Record} per thread, as long
+ * as no record is written. <br>
+ * The records are addressed with <code>int</code> offsets, so a ledger holds at most {@link #MAX_CAPACITY} records, about 17.9
+ * million; a longer history is split into several ledgers, e.g. one per month.
+ * @since 5.2.0
+ */
+public final class TransactionLedger {
+
+  /**
+   * Size of a record in bytes.
+   */
+  public final static int                   RECORD_SIZE          = 120;
+
+  /**
+   * Largest capacity of a ledger, the number of records, which fit into a buffer addressed by <code>int</code>.
+   */
+  public final static int                   MAX_CAPACITY         = Integer.MAX_VALUE / RECORD_SIZE;
+
+  /**
+   * Longest id, which can be stored.
+   */
+  public final static int                   MAX_ID_LENGTH        = 31;
+
+  private final static Transaction.Status[] TRANSACTION_STATUSES = Transaction.Status.values();
+  private final static Refund.Status[]      REFUND_STATUSES      = Refund.Status.values();
+
+  private final static byte                 EMPTY                = 0;
+  private final static byte                 TRANSACTION          = 1;
+  private final static byte                 REFUND               = 2;
+
+  private final static int                  KIND                 = 0;
+  private final static int                  STATUS               = 1;
+  private final static int                  CURRENCY             = 2;
+  private final static int                  AMOUNT               = 8;
+  private final static int                  ORIGIN_AMOUNT        = 12;
+  private final static int                  CREATED_AT           = 16;
+  private final static int                  ID                   = 24;
+  private final static int                  CLIENT_ID            = 56;
+  private final static int                  PAYMENT_ID           = 88;
+
+  private final ByteBuffer                  records;
+  private final IntBuffer                   index;
+  private final int                         capacity;
+  private final String[]                    currencies           = new String[26 * 26 * 26];
+  private int                               size;
+
+  private TransactionLedger( final ByteBuffer records, final int capacity ) {
+    this.records = records;
+    this.capacity = capacity;
+    int slots = Integer.highestOneBit( capacity * 2 - 1 ) << 1;
+    // slot + 1 per entry, 0 is free
+    this.index = ByteBuffer.allocateDirect( slots * 4 ).asIntBuffer();
+    while( this.size < capacity && records.get( this.size * RECORD_SIZE + KIND ) != EMPTY ) {
+      this.addToIndex( this.size++ );
+    }
+  }
+
+  /**
+   * Creates an empty ledger in a direct buffer.
+   * @param capacity
+   *          Maximal number of records.
+   */
+  public TransactionLedger( final int capacity ) {
+    this( ByteBuffer.allocateDirect( TransactionLedger.checkCapacity( capacity ) * RECORD_SIZE ), capacity );
+  }
+
+  /**
+   * Opens a ledger in a memory-mapped file, which is created or extended if necessary. The records of an existing file are
+   * kept and indexed again.
+   * @param file
+   *          The file of the records.
+   * @param capacity
+   *          Maximal number of records.
+   * @return The ledger of the file.
+   */
+  public static TransactionLedger map( final File file, final int capacity ) {
+    if( file == null )
+      throw new IllegalArgumentException( "File can not be null" );
+    TransactionLedger.checkCapacity( capacity );
+    try {
+      RandomAccessFile access = new RandomAccessFile( file, "rw" );
+      try {
+        MappedByteBuffer records = access.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE );
+        return new TransactionLedger( records, capacity );
+      } finally {
+        access.close();
+      }
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * @return Number of records.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return Maximal number of records.
+   */
+  public int capacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Stores a {@link Transaction}, replacing the record with the same id.
+   * @param transaction
+   *          The {@link Transaction} to store.
+   * @return Slot of the record.
+   */
+  public int put( final Transaction transaction ) {
+    if( transaction == null )
+      throw new IllegalArgumentException( "Transaction can not be null" );
+    String clientId = transaction.getClient() == null ? null : transaction.getClient().getId();
+    String paymentId = transaction.getPayment() == null ? null : transaction.getPayment().getId();
+    TransactionLedger.validate( transaction.getId(), transaction.getCurrency(), clientId, paymentId );
+    int slot = this.slotFor( transaction.getId() );
+    int position = slot * RECORD_SIZE;
+    this.records.put( position + KIND, TRANSACTION );
+    this.records.put( position + STATUS, Compact.toOrdinal( transaction.getStatus() ) );
+    this.writeCurrency( position, transaction.getCurrency() );
+    this.records.putInt( position + AMOUNT, Compact.toInt( transaction.getAmount() ) );
+    this.records.putInt( position + ORIGIN_AMOUNT, Compact.toInt( transaction.getOriginAmount() ) );
+    this.records.putLong( position + CREATED_AT, Compact.toSeconds( transaction.getCreatedAt() ) );
+    this.writeId( position + CLIENT_ID, clientId );
+    this.writeId( position + PAYMENT_ID, paymentId );
+    return slot;
+  }
+
+  /**
+   * Stores a {@link Refund}, replacing the record with the same id.
+   * @param refund
+   *          The {@link Refund} to store.
+   * @return Slot of the record.
+   */
+  public int put( final Refund refund ) {
+    if( refund == null )
+      throw new IllegalArgumentException( "Refund can not be null" );
+    Transaction transaction = refund.getTransaction();
+    String currency = transaction == null ? null : transaction.getCurrency();
+    String clientId = transaction == null || transaction.getClient() == null ? null : transaction.getClient().getId();
+    String paymentId = transaction == null || transaction.getPayment() == null ? null : transaction.getPayment().getId();
+    TransactionLedger.validate( refund.getId(), currency, clientId, paymentId );
+    int slot = this.slotFor( refund.getId() );
+    int position = slot * RECORD_SIZE;
+    this.records.put( position + KIND, REFUND );
+    this.records.put( position + STATUS, Compact.toOrdinal( refund.getStatus() ) );
+    this.writeCurrency( position, currency );
+    this.records.putInt( position + AMOUNT, Compact.toInt( refund.getAmount() ) );
+    this.records.putInt( position + ORIGIN_AMOUNT, 0 );
+    this.records.putLong( position + CREATED_AT, Compact.toSeconds( refund.getCreatedAt() ) );
+    this.writeId( position + CLIENT_ID, clientId );
+    this.writeId( position + PAYMENT_ID, paymentId );
+    return slot;
+  }
+
+  /**
+   * Finds a record without allocating.
+   * @param id
+   *          Id of a {@link Transaction} or {@link Refund}, as {@link String} or {@link PaymillId}.
+   * @return Slot of the record or <code>-1</code>.
+   */
+  public int find( final CharSequence id ) {
+    if( id == null || id.length() > MAX_ID_LENGTH ) {
+      return -1;
+    }
+    int mask = this.index.capacity() - 1;
+    for( int entry = TransactionLedger.hash( id ) & mask;; entry = ( entry + 1 ) & mask ) {
+      int slot = this.index.get( entry ) - 1;
+      if( slot < 0 ) {
+        return -1;
+      }
+      if( this.idEquals( slot * RECORD_SIZE + ID, id ) ) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * @return A new flyweight for reading records, e.g. one per thread.
+   */
+  public TransactionLedger.Record record() {
+    return new TransactionLedger.Record( this );
+  }
+
+  /**
+   * Writes the records of a memory-mapped ledger to its file.
+   */
+  public void flush() {
+    if( this.records instanceof MappedByteBuffer ) {
+      ( (MappedByteBuffer) this.records ).force();
+    }
+  }
+
+  /**
+   * Checks all fields of a record before the first one is written, so a record is either written completely or not at all.
+   */
+  private static void validate( final String id, final String currency, final String clientId, final String paymentId ) {
+    if( id == null )
+      throw new IllegalArgumentException( "Id can not be null" );
+    TransactionLedger.checkId( id );
+    TransactionLedger.checkId( clientId );
+    TransactionLedger.checkId( paymentId );
+    if( currency != null && currency.length() != 3 )
+      throw new IllegalArgumentException( "Currency " + currency + " is not an ISO 4217 code" );
+  }
+
+  private static void checkId( final String id ) {
+    int length = id == null ? 0 : id.length();
+    if( length > MAX_ID_LENGTH )
+      throw new IllegalArgumentException( "Id " + id + " is longer than " + MAX_ID_LENGTH + " characters" );
+    for( int i = 0; i < length; i++ ) {
+      if( id.charAt( i ) > 127 )
+        throw new IllegalArgumentException( "Id " + id + " is not ASCII" );
+    }
+  }
+
+  /**
+   * @return Slot of the record with the id, a new one is added to the index.
+   */
+  private int slotFor( final String id ) {
+    int slot = this.find( id );
+    if( slot >= 0 ) {
+      return slot;
+    }
+    if( this.size == this.capacity )
+      throw new IllegalStateException( "Ledger is full, capacity is " + this.capacity );
+    slot = this.size;
+    this.writeId( slot * RECORD_SIZE + ID, id );
+    this.addToIndex( slot );
+    this.size++;
+    return slot;
+  }
+
+  private void addToIndex( final int slot ) {
+    int mask = this.index.capacity() - 1;
+    int entry = this.hash( slot * RECORD_SIZE + ID ) & mask;
+    while( this.index.get( entry ) != 0 ) {
+      entry = ( entry + 1 ) & mask;
+    }
+    this.index.put( entry, slot + 1 );
+  }
+
+  private void writeId( final int position, final String id ) {
+    int length = id == null ? 0 : id.length();
+    this.records.put( position, (byte) length );
+    for( int i = 0; i < length; i++ ) {
+      this.records.put( position + 1 + i, (byte) id.charAt( i ) );
+    }
+  }
+
+  private String readId( final int position ) {
+    int length = this.records.get( position );
+    if( length == 0 ) {
+      return null;
+    }
+    char[] chars = new char[length];
+    for( int i = 0; i < length; i++ ) {
+      chars[i] = (char) this.records.get( position + 1 + i );
+    }
+    return new String( chars );
+  }
+
+  private boolean idEquals( final int position, final CharSequence id ) {
+    int length = this.records.get( position );
+    if( length != id.length() ) {
+      return false;
+    }
+    for( int i = 0; i < length; i++ ) {
+      if( this.records.get( position + 1 + i ) != id.charAt( i ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void writeCurrency( final int position, final String currency ) {
+    for( int i = 0; i < 3; i++ ) {
+      this.records.put( position + CURRENCY + i, currency == null ? 0 : (byte) currency.charAt( i ) );
+    }
+  }
+
+  /**
+   * Reads the currency, codes of upper case letters are cached, so each is created once.
+   */
+  private String readCurrency( final int position ) {
+    byte first = this.records.get( position + CURRENCY );
+    if( first == 0 ) {
+      return null;
+    }
+    byte second = this.records.get( position + CURRENCY + 1 );
+    byte third = this.records.get( position + CURRENCY + 2 );
+    if( first < 'A' || first > 'Z' || second < 'A' || second > 'Z' || third < 'A' || third > 'Z' ) {
+      return new String( new char[] { (char) first, (char) second, (char) third } );
+    }
+    int code = ( ( first - 'A' ) * 26 + second - 'A' ) * 26 + third - 'A';
+    String currency = this.currencies[code];
+    if( currency == null ) {
+      currency = new String( new char[] { (char) first, (char) second, (char) third } );
+      this.currencies[code] = currency;
+    }
+    return currency;
+  }
+
+  private int hash( final int position ) {
+    int length = this.records.get( position );
+    int hash = 0x811c9dc5;
+    for( int i = 0; i < length; i++ ) {
+      hash = ( hash ^ this.records.get( position + 1 + i ) ) * 0x01000193;
+    }
+    return hash ^ ( hash >>> 16 );
+  }
+
+  private static int hash( final CharSequence id ) {
+    int hash = 0x811c9dc5;
+    for( int i = 0; i < id.length(); i++ ) {
+      hash = ( hash ^ (byte) id.charAt( i ) ) * 0x01000193;
+    }
+    return hash ^ ( hash >>> 16 );
+  }
+
+  private static int checkCapacity( final int capacity ) {
+    if( capacity < 1 || capacity > MAX_CAPACITY )
+      throw new IllegalArgumentException( "Capacity must be between 1 and " + MAX_CAPACITY );
+    return capacity;
+  }
+
+  /**
+   * Flyweight over the records of a {@link TransactionLedger}, which reads the fields of its current slot straight from the
+   * buffer.
+   */
+  public final static class Record {
+
+    private final TransactionLedger ledger;
+    private int                     slot     = -1;
+    private int                     position = -1;
+
+    private Record( final TransactionLedger ledger ) {
+      this.ledger = ledger;
+    }
+
+    /**
+     * @param slot
+     *          Slot of a record, e.g. from {@link TransactionLedger#find(CharSequence)}.
+     * @return This flyweight, positioned at the given slot.
+     */
+    public TransactionLedger.Record moveTo( final int slot ) {
+      if( slot < 0 || slot >= this.ledger.size )
+        throw new IndexOutOfBoundsException( "Slot " + slot + " of " + this.ledger.size );
+      this.slot = slot;
+      this.position = slot * RECORD_SIZE;
+      return this;
+    }
+
+    public int getSlot() {
+      return this.slot;
+    }
+
+    public boolean isRefund() {
+      return this.ledger.records.get( this.position + KIND ) == REFUND;
+    }
+
+    /**
+     * Compares the id without allocating.
+     */
+    public boolean idEquals( final CharSequence id ) {
+      return id != null && this.ledger.idEquals( this.position + ID, id );
+    }
+
+    /**
+     * @return The id, a new {@link String}.
+     */
+    public String getId() {
+      return this.ledger.readId( this.position + ID );
+    }
+
+    public int getAmount() {
+      return this.ledger.records.getInt( this.position + AMOUNT );
+    }
+
+    /**
+     * @return The origin amount of a transaction or <code>0</code> for a refund.
+     */
+    public int getOriginAmount() {
+      return this.ledger.records.getInt( this.position + ORIGIN_AMOUNT );
+    }
+
+    public String getCurrency() {
+      return this.ledger.readCurrency( this.position );
+    }
+
+    /**
+     * @return The status of a transaction or <code>null</code> for a refund.
+     */
+    public Transaction.Status getTransactionStatus() {
+      return this.isRefund() ? null : Compact.toEnum( TRANSACTION_STATUSES, this.ledger.records.get( this.position + STATUS ) );
+    }
+
+    /**
+     * @return The status of a refund or <code>null</code> for a transaction.
+     */
+    public Refund.Status getRefundStatus() {
+      return this.isRefund() ? Compact.toEnum( REFUND_STATUSES, this.ledger.records.get( this.position + STATUS ) ) : null;
+    }
+
+    /**
+     * @return Creation date in seconds since the epoch.
+     */
+    public long getCreatedAt() {
+      return this.ledger.records.getLong( this.position + CREATED_AT );
+    }
+
+    /**
+     * @return The client id, a new {@link String}.
+     */
+    public String getClientId() {
+      return this.ledger.readId( this.position + CLIENT_ID );
+    }
+
+    /**
+     * @return The payment id, a new {@link String}.
+     */
+    public String getPaymentId() {
+      return this.ledger.readId( this.position + PAYMENT_ID );
+    }
+  }
+
+}
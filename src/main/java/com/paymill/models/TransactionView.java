@@ -0,0 +1,142 @@
+package com.paymill.models;
+
+/**
+ * Mutable flyweight of a {@link Transaction}, which is filled with each transaction of a list in turn and handed to a
+ * {@link TransactionVisitor}. Numbers are primitives and text is kept in reused buffers, exposed as {@link CharSequence}s, so
+ * visiting allocates no memory per transaction. Values are valid until the visitor returns; <code>toString()</code> copies a
+ * text. <br>
+ * A missing text is empty, a missing number <code>0</code> and a missing flag <code>false</code>; the nested payment and client
+ * are read as their ids.
+ * @since 5.2.0
+ */
+public final class TransactionView {
+
+  private final StringBuilder id          = new StringBuilder( 32 );
+  private final StringBuilder currency    = new StringBuilder( 3 );
+  private final StringBuilder description = new StringBuilder( 64 );
+  private final StringBuilder shortId     = new StringBuilder( 16 );
+  private final StringBuilder clientId    = new StringBuilder( 32 );
+  private final StringBuilder paymentId   = new StringBuilder( 32 );
+
+  int                         amount;
+  int                         originAmount;
+  Transaction.Status          status;
+  boolean                     livemode;
+  boolean                     fraud;
+  int                         responseCode;
+  long                        createdAt;
+  long                        updatedAt;
+  int                         pageElements;
+
+  public CharSequence getId() {
+    return this.id;
+  }
+
+  public int getAmount() {
+    return this.amount;
+  }
+
+  public int getOriginAmount() {
+    return this.originAmount;
+  }
+
+  public CharSequence getCurrency() {
+    return this.currency;
+  }
+
+  public Transaction.Status getStatus() {
+    return this.status;
+  }
+
+  public CharSequence getDescription() {
+    return this.description;
+  }
+
+  public boolean isLivemode() {
+    return this.livemode;
+  }
+
+  public boolean isFraud() {
+    return this.fraud;
+  }
+
+  public int getResponseCode() {
+    return this.responseCode;
+  }
+
+  public CharSequence getShortId() {
+    return this.shortId;
+  }
+
+  public CharSequence getClientId() {
+    return this.clientId;
+  }
+
+  public CharSequence getPaymentId() {
+    return this.paymentId;
+  }
+
+  /**
+   * @return Creation date in seconds since the epoch.
+   */
+  public long getCreatedAt() {
+    return this.createdAt;
+  }
+
+  /**
+   * @return Last update in seconds since the epoch.
+   */
+  public long getUpdatedAt() {
+    return this.updatedAt;
+  }
+
+  /**
+   * @return Count of the elements of the page, which was decoded last, including <code>null</code> elements, which are not
+   *         visited. Valid after the page is decoded.
+   */
+  public int getPageElements() {
+    return this.pageElements;
+  }
+
+  StringBuilder id() {
+    return this.id;
+  }
+
+  StringBuilder currency() {
+    return this.currency;
+  }
+
+  StringBuilder description() {
+    return this.description;
+  }
+
+  StringBuilder shortId() {
+    return this.shortId;
+  }
+
+  StringBuilder clientId() {
+    return this.clientId;
+  }
+
+  StringBuilder paymentId() {
+    return this.paymentId;
+  }
+
+  void reset() {
+    this.id.setLength( 0 );
+    this.currency.setLength( 0 );
+    this.description.setLength( 0 );
+    this.shortId.setLength( 0 );
+    this.clientId.setLength( 0 );
+    this.paymentId.setLength( 0 );
+    this.amount = 0;
+    this.originAmount = 0;
+    this.status = null;
+    this.livemode = false;
+    this.fraud = false;
+    this.responseCode = 0;
+    this.createdAt = 0;
+    this.updatedAt = 0;
+  }
+
+}
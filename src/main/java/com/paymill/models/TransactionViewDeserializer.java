@@ -0,0 +1,198 @@
+package com.paymill.models;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Deserializer of an array of {@link Transaction}s into a {@link TransactionView}, which is handed to the
+ * {@link TransactionVisitor} passed as attribute of the reader after each element. Text is copied from the buffer of the parser
+ * into the view and numbers, which PAYMILL sends as strings, are parsed in place, so no object is created per element. Once the
+ * visitor returns <code>false</code>, the rest of the array is skipped.
+ * @since 5.2.0
+ */
+final class TransactionViewDeserializer extends StdDeserializer<TransactionView> {
+
+  private final static long                 serialVersionUID = 1L;
+
+  private final static Transaction.Status[] STATUSES         = Transaction.Status.values();
+
+  final static TransactionViewDeserializer  INSTANCE         = new TransactionViewDeserializer();
+
+  private TransactionViewDeserializer() {
+    super( TransactionView.class );
+  }
+
+  @Override
+  public TransactionView deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    return this.deserialize( parser, context, new TransactionView() );
+  }
+
+  @Override
+  public TransactionView deserialize( final JsonParser parser, final DeserializationContext context, final TransactionView view )
+      throws IOException {
+    if( parser.getCurrentToken() != JsonToken.START_ARRAY ) {
+      throw context.mappingException( TransactionView.class, parser.getCurrentToken() );
+    }
+    Object visitor = context.getAttribute( TransactionVisitor.class );
+    if( !( visitor instanceof TransactionVisitor ) ) {
+      throw context.mappingException( "No TransactionVisitor for " + TransactionView.class.getName() );
+    }
+    boolean visiting = true;
+    view.pageElements = 0;
+    JsonToken token;
+    while( ( token = parser.nextToken() ) != JsonToken.END_ARRAY ) {
+      view.pageElements++;
+      if( !visiting || token == JsonToken.VALUE_NULL ) {
+        parser.skipChildren();
+      } else if( token == JsonToken.START_OBJECT ) {
+        view.reset();
+        TransactionViewDeserializer.readRow( parser, context, view );
+        visiting = ( (TransactionVisitor) visitor ).visit( view );
+      } else {
+        throw context.mappingException( Transaction.class, token );
+      }
+    }
+    return view;
+  }
+
+  private static void readRow( final JsonParser parser, final DeserializationContext context, final TransactionView view )
+      throws IOException {
+    while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      // names are canonicalized by the parser, so they are compared without copying
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if( "id".equals( name ) ) {
+        TransactionViewDeserializer.readText( parser, view.id() );
+      } else if( "amount".equals( name ) ) {
+        view.amount = TransactionViewDeserializer.readInt( parser, context );
+      } else if( "origin_amount".equals( name ) ) {
+        view.originAmount = TransactionViewDeserializer.readInt( parser, context );
+      } else if( "currency".equals( name ) ) {
+        TransactionViewDeserializer.readText( parser, view.currency() );
+      } else if( "status".equals( name ) ) {
+        view.status = TransactionViewDeserializer.readStatus( parser, context );
+      } else if( "description".equals( name ) ) {
+        TransactionViewDeserializer.readText( parser, view.description() );
+      } else if( "livemode".equals( name ) ) {
+        view.livemode = token == JsonToken.VALUE_TRUE;
+      } else if( "is_fraud".equals( name ) ) {
+        view.fraud = token == JsonToken.VALUE_TRUE;
+      } else if( "response_code".equals( name ) ) {
+        view.responseCode = TransactionViewDeserializer.readInt( parser, context );
+      } else if( "short_id".equals( name ) ) {
+        TransactionViewDeserializer.readText( parser, view.shortId() );
+      } else if( "created_at".equals( name ) ) {
+        view.createdAt = ModelDeserializer.readSeconds( parser, context );
+      } else if( "updated_at".equals( name ) ) {
+        view.updatedAt = ModelDeserializer.readSeconds( parser, context );
+      } else if( "client".equals( name ) ) {
+        TransactionViewDeserializer.readId( parser, view.clientId() );
+      } else if( "payment".equals( name ) ) {
+        TransactionViewDeserializer.readId( parser, view.paymentId() );
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  /**
+   * Copies a string into the given buffer, any other value leaves it empty.
+   */
+  private static void readText( final JsonParser parser, final StringBuilder text ) throws IOException {
+    if( parser.getCurrentToken() == JsonToken.VALUE_STRING ) {
+      text.append( parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength() );
+    } else {
+      parser.skipChildren();
+    }
+  }
+
+  /**
+   * Reads the id of a nested model, which is sent as string or as object, and skips its other fields.
+   */
+  private static void readId( final JsonParser parser, final StringBuilder id ) throws IOException {
+    if( parser.getCurrentToken() != JsonToken.START_OBJECT ) {
+      TransactionViewDeserializer.readText( parser, id );
+      return;
+    }
+    while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      if( "id".equals( name ) ) {
+        TransactionViewDeserializer.readText( parser, id );
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  /**
+   * Reads a number or the digits of a string like {@link ModelDeserializer#readInteger(JsonParser, DeserializationContext)},
+   * <code>null</code> is read as <code>0</code>.
+   */
+  static int readInt( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if( token == JsonToken.VALUE_NUMBER_INT ) {
+      return parser.getIntValue();
+    }
+    if( token != JsonToken.VALUE_STRING ) {
+      return Compact.toInt( ModelDeserializer.readInteger( parser, context ) );
+    }
+    char[] chars = parser.getTextCharacters();
+    int start = parser.getTextOffset();
+    int end = start + parser.getTextLength();
+    while( start < end && Character.isWhitespace( chars[start] ) ) {
+      start++;
+    }
+    while( end > start && Character.isWhitespace( chars[end - 1] ) ) {
+      end--;
+    }
+    boolean negative = start < end && chars[start] == '-';
+    int i = negative || start < end && chars[start] == '+' ? start + 1 : start;
+    if( i == end || end - i > 9 ) {
+      // empty, "null" or long values are left to the common path
+      return Compact.toInt( ModelDeserializer.readInteger( parser, context ) );
+    }
+    int value = 0;
+    for( ; i < end; i++ ) {
+      int digit = chars[i] - '0';
+      if( digit < 0 || digit > 9 ) {
+        return Compact.toInt( ModelDeserializer.readInteger( parser, context ) );
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Matches the text of the status against the values of {@link Transaction.Status} without creating a string.
+   */
+  static Transaction.Status readStatus( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    if( !ModelDeserializer.isText( parser ) ) {
+      return ModelDeserializer.readOther( parser, context, Transaction.Status.class );
+    }
+    char[] chars = parser.getTextCharacters();
+    int offset = parser.getTextOffset();
+    int length = parser.getTextLength();
+    for( Transaction.Status status : STATUSES ) {
+      String value = status.getValue();
+      if( value.length() == length && TransactionViewDeserializer.regionMatches( value, chars, offset ) ) {
+        return status;
+      }
+    }
+    return Transaction.Status.UNDEFINED;
+  }
+
+  private static boolean regionMatches( final String value, final char[] chars, final int offset ) {
+    for( int i = 0; i < value.length(); i++ ) {
+      if( value.charAt( i ) != chars[offset + i] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
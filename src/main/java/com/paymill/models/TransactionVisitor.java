@@ -0,0 +1,17 @@
+package com.paymill.models;
+
+/**
+ * Callback of {@link com.paymill.services.TransactionService#scan(Transaction.Filter, Transaction.Order, TransactionVisitor)},
+ * which is called for each {@link Transaction} of a list.
+ * @since 5.2.0
+ */
+public interface TransactionVisitor {
+
+  /**
+   * @param transaction
+   *          The current transaction, which is overwritten by the next one, so values, which are kept, must be copied.
+   * @return <code>true</code> to continue with the next transaction, <code>false</code> to stop.
+   */
+  boolean visit( TransactionView transaction );
+
+}
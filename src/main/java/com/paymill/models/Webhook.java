@@ -208,6 +208,16 @@ public final class Webhook {
       this.updatedAt = new Date( seconds * 1000 );
   }
 
+  /**
+   * Creates a {@link Projection}, which limits the fields read from a list of {@link Webhook}s.
+   * @param fields
+   *          Names of the fields as in the JSON of the API, e.g. <code>created_at</code>.
+   * @return {@link Projection} of the given fields.
+   */
+  public static Projection<Webhook> createProjection( final String... fields ) {
+    return new Projection<Webhook>( WebhookDeserializer.INSTANCE, fields );
+  }
+
   public static Webhook.Filter createFilter() {
     return new Webhook.Filter();
   }
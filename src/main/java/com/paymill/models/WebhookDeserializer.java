@@ -0,0 +1,82 @@
+package com.paymill.models;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializer of {@link Webhook}s.
+ * @since 5.2.0
+ */
+final class WebhookDeserializer extends ModelDeserializer<Webhook, WebhookDeserializer.Property> {
+
+  private final static long           serialVersionUID = 1L;
+
+  final static WebhookDeserializer    INSTANCE         = new WebhookDeserializer();
+
+  enum Property {
+    ID, URL, EMAIL, LIVEMODE, CREATED_AT, UPDATED_AT, EVENT_TYPES, APP_ID
+  }
+
+  private WebhookDeserializer() {
+    super( Webhook.class, Property.class );
+  }
+
+  @Override
+  Webhook create() {
+    return new Webhook();
+  }
+
+  @Override
+  Webhook create( final String value ) {
+    return new Webhook( value );
+  }
+
+  @Override
+  void read( final Webhook bean, final Property property, final JsonParser parser, final DeserializationContext context )
+      throws IOException {
+    switch( property ) {
+      case ID:
+        bean.setId( ModelDeserializer.readString( parser, context ) );
+        break;
+      case URL:
+        bean.setUrl( ModelDeserializer.readString( parser, context ) );
+        break;
+      case EMAIL:
+        bean.setEmail( ModelDeserializer.readString( parser, context ) );
+        break;
+      case LIVEMODE:
+        bean.setLivemode( ModelDeserializer.readBoolean( parser, context ) );
+        break;
+      case CREATED_AT:
+        bean.setCreatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case UPDATED_AT:
+        bean.setUpdatedAt( ModelDeserializer.readSeconds( parser, context ) );
+        break;
+      case EVENT_TYPES:
+        bean.setEventTypes( this.readEventTypes( parser, context ) );
+        break;
+      case APP_ID:
+        bean.setAppId( ModelDeserializer.readString( parser, context ) );
+        break;
+    }
+  }
+
+  private Webhook.EventType[] readEventTypes( final JsonParser parser, final DeserializationContext context ) throws IOException {
+    if( parser.getCurrentToken() != JsonToken.START_ARRAY ) {
+      return ModelDeserializer.readOther( parser, context, Webhook.EventType[].class );
+    }
+    List<Webhook.EventType> eventTypes = new ArrayList<Webhook.EventType>();
+    while( parser.nextToken() != JsonToken.END_ARRAY ) {
+      eventTypes.add( ModelDeserializer.isText( parser ) ? Webhook.EventType.create( parser.getText() ) :
+          ModelDeserializer.readOther( parser, context, Webhook.EventType.class ) );
+    }
+    return eventTypes.toArray( new Webhook.EventType[eventTypes.size()] );
+  }
+
+}
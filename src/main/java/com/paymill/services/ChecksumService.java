@@ -20,7 +20,7 @@ import com.paymill.utils.ParameterMap;
  */
 public class ChecksumService extends AbstractService {
 
-  private ChecksumService(HttpClient httpClient) {
+  ChecksumService(HttpClient httpClient) {
     super(httpClient);
   }
 
@@ -194,7 +194,7 @@ public class ChecksumService extends AbstractService {
     this.parametrizeAddress(billing, params, "billing_address");
     this.parametrizeAddress(shipping, params, "shipping_address");
 
-    return RestfulUtils.create(ChecksumService.PATH, params, Checksum.class, super.httpClient);
+    return RestfulUtils.create(ChecksumService.PATH, params, ModelReader.CHECKSUM, super.httpClient);
   }
 
   private void parametrizeItems(List<ShoppingCartItem> items, ParameterMap<String, String> params) {
@@ -2,12 +2,14 @@ package com.paymill.services;
 
 import java.util.List;
 
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 import org.apache.commons.lang3.StringUtils;
 
 import com.paymill.models.Client;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 
 /**
  * The {@link ClientService} is used to list, create, edit, delete and update PAYMILL {@link Client}s.
@@ -16,7 +18,7 @@ import com.paymill.models.PaymillList;
  */
 public class ClientService extends AbstractService {
 
-  private ClientService( HttpClient httpClient ) {
+  ClientService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -70,7 +72,47 @@ public class ClientService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Client}s and their total count.
    */
   public PaymillList<Client> list( Client.Filter filter, Client.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( ClientService.PATH, filter, order, count, offset, Client.class, super.httpClient );
+    return RestfulUtils.list( ClientService.PATH, filter, order, count, offset, ModelReader.CLIENT, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Client} objects. In which order this list is returned depends on the
+   * optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Client.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Client.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Client}s and their total count.
+   */
+  public PaymillList<Client> list( Client.Filter filter, Client.Order order, Integer count, Integer offset,
+      Projection<Client> projection ) {
+    return RestfulUtils.list( ClientService.PATH, filter, order, count, offset, projection, ModelReader.CLIENT, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Client}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Client.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Client.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Client}s.
+   */
+  public int export( Client.Filter filter, Client.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( ClientService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -80,7 +122,7 @@ public class ClientService extends AbstractService {
    * @return Refreshed instance of the given {@link Client}.
    */
   public Client get( Client client ) {
-    return RestfulUtils.show( ClientService.PATH, client, Client.class, super.httpClient );
+    return RestfulUtils.show( ClientService.PATH, client, ModelReader.CLIENT, super.httpClient );
   }
 
   /**
@@ -136,7 +178,7 @@ public class ClientService extends AbstractService {
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( ClientService.PATH, params, Client.class, super.httpClient );
+    return RestfulUtils.create( ClientService.PATH, params, ModelReader.CLIENT, super.httpClient );
   }
 
   /**
@@ -147,7 +189,7 @@ public class ClientService extends AbstractService {
    *          A {@link Client} with Id.
    */
   public void update( Client client ) {
-    RestfulUtils.update( ClientService.PATH, client, Client.class, super.httpClient );
+    RestfulUtils.update( ClientService.PATH, client, ModelReader.CLIENT, super.httpClient );
   }
 
   /**
@@ -156,7 +198,7 @@ public class ClientService extends AbstractService {
    *          A {@link Client} with Id.
    */
   public void delete( Client client ) {
-    RestfulUtils.delete( ClientService.PATH, client, Client.class, super.httpClient );
+    RestfulUtils.delete( ClientService.PATH, client, ModelReader.CLIENT, super.httpClient );
   }
 
   /**
@@ -0,0 +1,77 @@
+package com.paymill.services;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.paymill.models.Checksum;
+import com.paymill.models.Client;
+import com.paymill.models.ModelMapper;
+import com.paymill.models.Offer;
+import com.paymill.models.Payment;
+import com.paymill.models.Preauthorization;
+import com.paymill.models.Refund;
+import com.paymill.models.Subscription;
+import com.paymill.models.Transaction;
+import com.paymill.models.TransactionColumns;
+import com.paymill.models.TransactionView;
+import com.paymill.models.TransactionVisitor;
+import com.paymill.models.Webhook;
+
+/**
+ * Registry of the {@link ObjectReader}s, which read a PAYMILL model and a list of it. <br>
+ * The readers are created once from the {@link ModelMapper}, so changes of the settings of
+ * {@link com.paymill.context.PaymillContext#PARSER} do not affect responses. Readers are immutable and their deserializers
+ * are resolved on creation, so they are shared by all threads and contexts without locking and a service reaches its reader
+ * by a static field.
+ * @since 5.2.0
+ */
+final class ModelReader<T> {
+
+  final static ModelReader<Checksum>         CHECKSUM         = new ModelReader<Checksum>( Checksum.class );
+  final static ModelReader<Client>           CLIENT           = new ModelReader<Client>( Client.class );
+  final static ModelReader<Offer>            OFFER            = new ModelReader<Offer>( Offer.class );
+  final static ModelReader<Payment>          PAYMENT          = new ModelReader<Payment>( Payment.class );
+  final static ModelReader<Preauthorization> PREAUTHORIZATION = new ModelReader<Preauthorization>( Preauthorization.class );
+  final static ModelReader<Refund>           REFUND           = new ModelReader<Refund>( Refund.class );
+  final static ModelReader<Subscription>     SUBSCRIPTION     = new ModelReader<Subscription>( Subscription.class );
+  final static ModelReader<Transaction>      TRANSACTION      = new ModelReader<Transaction>( Transaction.class );
+  final static ModelReader<Webhook>          WEBHOOK          = new ModelReader<Webhook>( Webhook.class );
+
+  /**
+   * Reads an array of {@link Transaction}s into {@link TransactionColumns}.
+   */
+  final static ObjectReader                  COLUMNS          = ModelMapper.reader( TransactionColumns.class );
+
+  /**
+   * Reads an array of {@link Transaction}s into a {@link TransactionView}, which is handed to the {@link TransactionVisitor}
+   * passed as attribute.
+   */
+  final static ObjectReader                  VIEW             = ModelMapper.reader( TransactionView.class );
+
+  /**
+   * Reads a single model.
+   */
+  final ObjectReader                         object;
+
+  /**
+   * Reads a {@link List} of models.
+   */
+  final ObjectReader                         list;
+
+  private ModelReader( final Class<T> type ) {
+    this.object = ModelMapper.reader( type );
+    this.list = ModelMapper.listReader( type );
+  }
+
+  static JsonParser createParser( final String content ) throws IOException {
+    return ModelMapper.createParser( content );
+  }
+
+  static JsonNode readTree( final JsonParser parser ) throws IOException {
+    return ModelMapper.readTree( parser );
+  }
+
+}
@@ -6,6 +6,8 @@ import com.paymill.models.Client;
 import com.paymill.models.Interval;
 import com.paymill.models.Offer;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 
@@ -16,7 +18,7 @@ import com.paymill.utils.ParameterMap;
  */
 public class OfferService extends AbstractService {
 
-  private OfferService( HttpClient httpClient ) {
+  OfferService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -70,7 +72,47 @@ public class OfferService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Offer}s and their total count.
    */
   public PaymillList<Offer> list( Offer.Filter filter, Offer.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( OfferService.PATH, filter, order, count, offset, Offer.class, super.httpClient );
+    return RestfulUtils.list( OfferService.PATH, filter, order, count, offset, ModelReader.OFFER, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Offer} objects. In which order this list is returned depends on the
+   * optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Offer.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Offer.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Offer}s and their total count.
+   */
+  public PaymillList<Offer> list( Offer.Filter filter, Offer.Order order, Integer count, Integer offset,
+      Projection<Offer> projection ) {
+    return RestfulUtils.list( OfferService.PATH, filter, order, count, offset, projection, ModelReader.OFFER, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Offer}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Offer.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Offer.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Offer}s.
+   */
+  public int export( Offer.Filter filter, Offer.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( OfferService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -80,7 +122,7 @@ public class OfferService extends AbstractService {
    * @return Refreshed instance of the given {@link Offer}.
    */
   public Offer get( Offer offer ) {
-    return RestfulUtils.show( OfferService.PATH, offer, Offer.class, super.httpClient );
+    return RestfulUtils.show( OfferService.PATH, offer, ModelReader.OFFER, super.httpClient );
   }
 
   /**
@@ -138,7 +180,7 @@ public class OfferService extends AbstractService {
     if( trialPeriodDays != null )
       params.add( "trial_period_days", String.valueOf( trialPeriodDays ) );
 
-    return RestfulUtils.create( OfferService.PATH, params, Offer.class, super.httpClient );
+    return RestfulUtils.create( OfferService.PATH, params, ModelReader.OFFER, super.httpClient );
   }
 
   /**
@@ -195,7 +237,7 @@ public class OfferService extends AbstractService {
   public Offer update( Offer offer, boolean updateSubscriptions ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "update_subscriptions", String.valueOf( updateSubscriptions ) );
-    return RestfulUtils.update( OfferService.PATH, offer, params, true, Offer.class, super.httpClient );
+    return RestfulUtils.update( OfferService.PATH, offer, params, true, ModelReader.OFFER, super.httpClient );
   }
 
   /**
@@ -208,7 +250,7 @@ public class OfferService extends AbstractService {
   public void delete( Offer offer, boolean removeWithSubscriptions ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "remove_with_subscriptions", String.valueOf( removeWithSubscriptions ) );
-    RestfulUtils.delete( OfferService.PATH, offer, params, Offer.class, super.httpClient );
+    RestfulUtils.delete( OfferService.PATH, offer, params, ModelReader.OFFER, super.httpClient );
   }
 
   /**
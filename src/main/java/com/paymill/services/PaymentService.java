@@ -5,6 +5,8 @@ import java.util.List;
 import com.paymill.models.Client;
 import com.paymill.models.Payment;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 
@@ -17,7 +19,7 @@ public class PaymentService extends AbstractService {
 
   private final static String PATH = "/payments";
 
-  private PaymentService( HttpClient httpClient ) {
+  PaymentService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -69,7 +71,47 @@ public class PaymentService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Payment}s and their total count.
    */
   public PaymillList<Payment> list( Payment.Filter filter, Payment.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( PaymentService.PATH, filter, order, count, offset, Payment.class, super.httpClient );
+    return RestfulUtils.list( PaymentService.PATH, filter, order, count, offset, ModelReader.PAYMENT, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Payment} objects. In which order this list is returned depends on the
+   * optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Payment.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Payment.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Payment}s and their total count.
+   */
+  public PaymillList<Payment> list( Payment.Filter filter, Payment.Order order, Integer count, Integer offset,
+      Projection<Payment> projection ) {
+    return RestfulUtils.list( PaymentService.PATH, filter, order, count, offset, projection, ModelReader.PAYMENT, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Payment}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Payment.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Payment.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Payment}s.
+   */
+  public int export( Payment.Filter filter, Payment.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( PaymentService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -79,7 +121,7 @@ public class PaymentService extends AbstractService {
    * @return Refreshed instance of the given {@link Payment}.
    */
   public Payment get( Payment payment ) {
-    return RestfulUtils.show( PaymentService.PATH, payment, Payment.class, super.httpClient );
+    return RestfulUtils.show( PaymentService.PATH, payment, ModelReader.PAYMENT, super.httpClient );
   }
 
   /**
@@ -104,7 +146,7 @@ public class PaymentService extends AbstractService {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "token", token );
 
-    return RestfulUtils.create( PaymentService.PATH, params, Payment.class, super.httpClient );
+    return RestfulUtils.create( PaymentService.PATH, params, ModelReader.PAYMENT, super.httpClient );
   }
 
   /**
@@ -139,7 +181,7 @@ public class PaymentService extends AbstractService {
     params.add( "token", token );
     params.add( "client", clientId );
 
-    return RestfulUtils.create( PaymentService.PATH, params, Payment.class, super.httpClient );
+    return RestfulUtils.create( PaymentService.PATH, params, ModelReader.PAYMENT, super.httpClient );
   }
 
   /**
@@ -148,7 +190,7 @@ public class PaymentService extends AbstractService {
    *          {@link Payment} to be deleted.
    */
   public void delete( Payment payment ) {
-    RestfulUtils.delete( PaymentService.PATH, payment, Payment.class, super.httpClient );
+    RestfulUtils.delete( PaymentService.PATH, payment, ModelReader.PAYMENT, super.httpClient );
   }
 
   /**
@@ -2,13 +2,14 @@ package com.paymill.services;
 
 import java.util.List;
 
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 import org.apache.commons.lang3.StringUtils;
 
-import com.paymill.context.PaymillContext;
 import com.paymill.models.Payment;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 import com.paymill.models.Preauthorization;
 import com.paymill.models.Transaction;
 
@@ -21,7 +22,7 @@ public class PreauthorizationService extends AbstractService {
 
   private final static String PATH = "/preauthorizations";
 
-  private PreauthorizationService( final HttpClient httpClient ) {
+  PreauthorizationService( final HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -73,7 +74,47 @@ public class PreauthorizationService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Preauthorization}s and their total count.
    */
   public PaymillList<Preauthorization> list( final Preauthorization.Filter filter, final Preauthorization.Order order, final Integer count, final Integer offset ) {
-    return RestfulUtils.list( PreauthorizationService.PATH, filter, order, count, offset, Preauthorization.class, super.httpClient );
+    return RestfulUtils.list( PreauthorizationService.PATH, filter, order, count, offset, ModelReader.PREAUTHORIZATION, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Preauthorization} objects. In which order this list is returned
+   * depends on the optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default
+   * count and offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Preauthorization.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Preauthorization.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Preauthorization}s and their total count.
+   */
+  public PaymillList<Preauthorization> list( final Preauthorization.Filter filter, final Preauthorization.Order order, final Integer count, final Integer offset,
+      final Projection<Preauthorization> projection ) {
+    return RestfulUtils.list( PreauthorizationService.PATH, filter, order, count, offset, projection, ModelReader.PREAUTHORIZATION, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Preauthorization}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Preauthorization.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Preauthorization.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Preauthorization}s.
+   */
+  public int export( final Preauthorization.Filter filter, final Preauthorization.Order order, final ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( PreauthorizationService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -83,7 +124,7 @@ public class PreauthorizationService extends AbstractService {
    * @return Refreshed instance of the given {@link Preauthorization}.
    */
   public Preauthorization get( final Preauthorization preauthorization ) {
-    return RestfulUtils.show( PreauthorizationService.PATH, preauthorization, Preauthorization.class, super.httpClient );
+    return RestfulUtils.show( PreauthorizationService.PATH, preauthorization, ModelReader.PREAUTHORIZATION, super.httpClient );
   }
 
   /**
@@ -132,12 +173,12 @@ public class PreauthorizationService extends AbstractService {
     params.add( "token", token );
     params.add( "amount", String.valueOf( amount ) );
     params.add( "currency", currency );
-    params.add( "source", String.format( "%s-%s", PaymillContext.getProjectName(), PaymillContext.getProjectVersion() ) );
+    params.add( "source", RestfulUtils.SOURCE );
 
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( PreauthorizationService.PATH, params, Preauthorization.class, super.httpClient );
+    return RestfulUtils.create( PreauthorizationService.PATH, params, ModelReader.PREAUTHORIZATION, super.httpClient );
   }
 
   /**
@@ -178,12 +219,12 @@ public class PreauthorizationService extends AbstractService {
     params.add( "payment", payment.getId() );
     params.add( "amount", String.valueOf( amount ) );
     params.add( "currency", currency );
-    params.add( "source", String.format( "%s-%s", PaymillContext.getProjectName(), PaymillContext.getProjectVersion() ) );
+    params.add( "source", RestfulUtils.SOURCE );
 
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( PreauthorizationService.PATH, params, Preauthorization.class, super.httpClient );
+    return RestfulUtils.create( PreauthorizationService.PATH, params, ModelReader.PREAUTHORIZATION, super.httpClient );
   }
 
   /**
@@ -192,7 +233,7 @@ public class PreauthorizationService extends AbstractService {
    *          The {@link Preauthorization} object to be deleted.
    */
   public void delete( final Preauthorization preauthorization ) {
-    RestfulUtils.delete( PreauthorizationService.PATH, preauthorization, Preauthorization.class, super.httpClient );
+    RestfulUtils.delete( PreauthorizationService.PATH, preauthorization, ModelReader.PREAUTHORIZATION, super.httpClient );
   }
 
   /**
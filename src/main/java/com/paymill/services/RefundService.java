@@ -1,8 +1,10 @@
 package com.paymill.services;
 
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 import com.paymill.models.Refund;
 import com.paymill.models.Transaction;
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 import org.apache.commons.lang3.StringUtils;
@@ -18,7 +20,7 @@ public class RefundService extends AbstractService {
 
   private final static String PATH = "/refunds";
 
-  private RefundService( HttpClient httpClient ) {
+  RefundService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -70,7 +72,47 @@ public class RefundService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Refund}s and their total count.
    */
   public PaymillList<Refund> list( Refund.Filter filter, Refund.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( RefundService.PATH, filter, order, count, offset, Refund.class, super.httpClient );
+    return RestfulUtils.list( RefundService.PATH, filter, order, count, offset, ModelReader.REFUND, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Refund} objects. In which order this list is returned depends on the
+   * optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Refund.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Refund.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Refund}s and their total count.
+   */
+  public PaymillList<Refund> list( Refund.Filter filter, Refund.Order order, Integer count, Integer offset,
+      Projection<Refund> projection ) {
+    return RestfulUtils.list( RefundService.PATH, filter, order, count, offset, projection, ModelReader.REFUND, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Refund}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Refund.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Refund.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Refund}s.
+   */
+  public int export( Refund.Filter filter, Refund.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( RefundService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -80,7 +122,7 @@ public class RefundService extends AbstractService {
    * @return Refreshed instance of the given {@link Refund}.
    */
   public Refund get( Refund refund ) {
-    return RestfulUtils.show( RefundService.PATH, refund, Refund.class, super.httpClient );
+    return RestfulUtils.show( RefundService.PATH, refund, ModelReader.REFUND, super.httpClient );
   }
 
   /**
@@ -185,7 +227,7 @@ public class RefundService extends AbstractService {
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( RefundService.PATH + "/" + transaction.getId(), params, Refund.class, super.httpClient );
+    return RestfulUtils.create( RefundService.PATH + "/" + transaction.getId(), params, ModelReader.REFUND, super.httpClient );
   }
 
 }
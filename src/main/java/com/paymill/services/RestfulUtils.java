@@ -2,76 +2,148 @@ package com.paymill.services;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import com.paymill.utils.ExecutionMode;
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.paymill.context.PaymillContext;
 import com.paymill.exceptions.PaymillException;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 import com.paymill.models.SnakeCase;
+import com.paymill.models.TransactionColumns;
 import com.paymill.models.Updateable;
 
 final class RestfulUtils {
 
-  private final static String ENDPOINT = "https://api.paymill.com/v2.1";
+  private final static String ENDPOINT         = PaymillContext.ENDPOINT;
 
-  static <T> PaymillList<T> list( String path, Object filter, Object order, Integer count, Integer offset, Class<?> clazz, HttpClient httpClient ) {
-    ParameterMap<String, String> params = RestfulUtils.prepareFilterParameters( filter );
-    String param = RestfulUtils.prepareOrderParameter( order );
-    if( StringUtils.isNotBlank( param ) && !StringUtils.startsWith( param, "_" ) ) {
-      params.add( "order", param );
-    }
-    if( count != null && count > 0 ) {
-      params.add( "count", String.valueOf( count ) );
-    }
-    if( offset != null && offset >= 0 ) {
-      params.add( "offset", String.valueOf( offset ) );
+  /**
+   * Count of the pages, which are requested by an export, the maximum of the API.
+   */
+  private final static int    EXPORT_PAGE_SIZE = 100;
+
+  /**
+   * Value of the <code>source</code> parameter, which identifies this library in created transactions and preauthorizations.
+   */
+  final static String         SOURCE           = PaymillContext.getProjectName() + "-" + PaymillContext.getProjectVersion();
+
+  static <T> PaymillList<T> list( String path, Object filter, Object order, Integer count, Integer offset, ModelReader<T> reader, HttpClient httpClient ) {
+    return RestfulUtils.list( path, filter, order, count, offset, null, reader, httpClient );
+  }
+
+  static <T> PaymillList<T> list( String path, Object filter, Object order, Integer count, Integer offset, Projection<T> projection, ModelReader<T> reader, HttpClient httpClient ) {
+    ParameterMap<String, String> params = RestfulUtils.prepareListParameters( filter, order, count, offset );
+    ObjectReader list = projection == null ? reader.list : reader.list.withAttribute( Projection.class, projection );
+    return RestfulUtils.deserializeList( httpClient.get( ENDPOINT + path, params ), list );
+  }
+
+  /**
+   * Reads the <code>data</code> array of a page with the given reader, which updates an existing value, e.g. the
+   * {@link TransactionColumns} to append to.
+   * @return The <code>data_count</code> of the response.
+   */
+  static int listInto( String path, Object filter, Object order, Integer count, Integer offset, ObjectReader reader, HttpClient httpClient ) {
+    ParameterMap<String, String> params = RestfulUtils.prepareListParameters( filter, order, count, offset );
+    return RestfulUtils.deserializeInto( httpClient.get( ENDPOINT + path, params ), reader, null );
+  }
+
+  /**
+   * Writes all pages of a list to the given writer. The next page is requested while the current one is written, so at most two
+   * pages are held in memory and the export is limited by the API rather than by writing. The prefetch runs on an executor of
+   * the export, which is shut down when the export ends.
+   * @return The count of written rows.
+   */
+  static int export( final String path, final Object filter, final Object order, final ExportWriter writer,
+      final HttpClient httpClient ) {
+    int start = writer.getCount();
+    ExportPage current = new ExportPage( writer );
+    ExecutorService executor = null;
+    String page = new PageRequest( path, filter, order, 0, httpClient ).call();
+    int offset = 0;
+    int total = -1;
+    try {
+      while( page != null ) {
+        Future<String> next = null;
+        if( total >= 0 && offset + EXPORT_PAGE_SIZE < total ) {
+          if( executor == null ) {
+            executor = ExecutionMode.getDefault().newExecutor( "paymill-export" );
+          }
+          next = executor.submit( new PageRequest( path, filter, order, offset + EXPORT_PAGE_SIZE, httpClient ) );
+        }
+        try {
+          current.elements = 0;
+          total = RestfulUtils.deserializeInto( page, null, current );
+          page = null;
+          if( current.elements == EXPORT_PAGE_SIZE && offset + current.elements < total ) {
+            page = next != null ? RestfulUtils.result( next ) : new PageRequest( path, filter, order, offset
+                + current.elements, httpClient ).call();
+            next = null;
+          }
+          offset += current.elements;
+        } finally {
+          if( next != null ) {
+            next.cancel( true );
+          }
+        }
+      }
+    } finally {
+      if( executor != null ) {
+        executor.shutdownNow();
+      }
     }
-    return RestfulUtils.deserializeList( httpClient.get( ENDPOINT + path, params ), clazz );
+    return writer.getCount() - start;
   }
 
-  static <T> T show( String path, T target, Class<?> clazz, HttpClient httpClient ) {
+  static <T> T show( String path, T target, ModelReader<T> reader, HttpClient httpClient ) {
     String id = RestfulUtils.getIdByReflection( target );
-    T source = RestfulUtils.deserializeObject( httpClient.get( ENDPOINT + path + "/" + id ), clazz );
+    T source = RestfulUtils.deserializeObject( httpClient.get( ENDPOINT + path + "/" + id ), reader );
     return RestfulUtils.refreshInstance( source, target );
   }
 
-  static <T> T create( String path, ParameterMap<String, String> params, Class<T> clazz, HttpClient httpClient ) {
-    return RestfulUtils.deserializeObject( httpClient.post( ENDPOINT + path, params ), clazz );
+  static <T> T create( String path, ParameterMap<String, String> params, ModelReader<T> reader, HttpClient httpClient ) {
+    return RestfulUtils.deserializeObject( httpClient.post( ENDPOINT + path, params ), reader );
   }
 
-  static <T> T update( String path, T target, Class<?> clazz, HttpClient httpClient ) {
+  static <T> T update( String path, T target, ModelReader<T> reader, HttpClient httpClient ) {
     ParameterMap<String, String> params = RestfulUtils.prepareEditableParameters( target );
     String id = RestfulUtils.getIdByReflection( target );
-    T source = RestfulUtils.deserializeObject( httpClient.put( ENDPOINT + path + "/" + id, params ), clazz );
+    T source = RestfulUtils.deserializeObject( httpClient.put( ENDPOINT + path + "/" + id, params ), reader );
     return RestfulUtils.refreshInstance( source, target );
   }
 
-  static <T> T update( String path, T target, ParameterMap<String, String> params, boolean includeTargetUpdateables, Class<?> clazz, HttpClient httpClient ) {
+  static <T> T update( String path, T target, ParameterMap<String, String> params, boolean includeTargetUpdateables, ModelReader<T> reader, HttpClient httpClient ) {
     String id = RestfulUtils.getIdByReflection( target );
     if( includeTargetUpdateables ) {
       params.putAll( RestfulUtils.prepareEditableParameters( target ) );
     }
-    T source = RestfulUtils.deserializeObject( httpClient.put( ENDPOINT + path + "/" + id, params ), clazz );
+    T source = RestfulUtils.deserializeObject( httpClient.put( ENDPOINT + path + "/" + id, params ), reader );
     return RestfulUtils.refreshInstance( source, target );
   }
 
-  static <T> T delete( String path, T target, ParameterMap<String, String> params, Class<?> clazz, HttpClient httpClient ) {
+  static <T> T delete( String path, T target, ParameterMap<String, String> params, ModelReader<T> reader, HttpClient httpClient ) {
     String id = RestfulUtils.getIdByReflection( target );
-    T source = RestfulUtils.deserializeObject( httpClient.delete( ENDPOINT + path + "/" + id, params ), clazz );
+    T source = RestfulUtils.deserializeObject( httpClient.delete( ENDPOINT + path + "/" + id, params ), reader );
     return RestfulUtils.refreshInstance( source, target );
   }
 
-  static <T> T delete( String path, T target, Class<?> clazz, HttpClient httpClient ) {
+  static <T> T delete( String path, T target, ModelReader<T> reader, HttpClient httpClient ) {
     String id = RestfulUtils.getIdByReflection( target );
-    T source = RestfulUtils.deserializeObject( httpClient.delete( ENDPOINT + path + "/" + id, null ), clazz );
+    T source = RestfulUtils.deserializeObject( httpClient.delete( ENDPOINT + path + "/" + id, null ), reader );
     return RestfulUtils.refreshInstance( source, target );
   }
 
@@ -89,54 +161,158 @@ final class RestfulUtils {
     }
   }
 
-  @SuppressWarnings( "unchecked" )
-  private static <T> T deserializeObject( String content, Class<?> clazz ) {
+  /**
+   * Binds the <code>data</code> object of the response while parsing it, without building a tree and parsing its text again.
+   */
+  private static <T> T deserializeObject( String content, ModelReader<T> reader ) {
+    JsonParser parser = null;
     try {
-      JsonNode wrappedNode = PaymillContext.PARSER.readValue( content, JsonNode.class );
-      if( wrappedNode.has( "data" ) ) {
-        JsonNode dataNode = wrappedNode.get( "data" );
-        if( !dataNode.isArray() ) {
-          return (T) PaymillContext.PARSER.readValue( dataNode.toString(), clazz );
+      parser = ModelReader.createParser( content );
+      JsonNode error = null;
+      if( parser.nextToken() == JsonToken.START_OBJECT ) {
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+          String field = parser.getCurrentName();
+          JsonToken value = parser.nextToken();
+          if( "data".equals( field ) && value != JsonToken.START_ARRAY ) {
+            return reader.object.readValue( parser );
+          } else if( "error".equals( field ) ) {
+            error = ModelReader.readTree( parser );
+          } else {
+            parser.skipChildren();
+          }
         }
       }
-      if( wrappedNode.has( "error" ) ) {
-        throw new PaymillException( wrappedNode.get( "error" ).toString() );
+      if( error != null ) {
+        throw new PaymillException( error.toString() );
       }
     } catch( IOException exc ) {
       throw new RuntimeException( exc );
+    } finally {
+      RestfulUtils.close( parser );
     }
     return null;
   }
 
-  @SuppressWarnings( "unchecked" )
-  private static <T> PaymillList<T> deserializeList( String content, Class<?> clazz ) {
+  /**
+   * Binds the <code>data</code> array of the response while parsing it, like {@link #deserializeObject(String, ModelReader)}.
+   */
+  private static <T> PaymillList<T> deserializeList( String content, ObjectReader reader ) {
+    JsonParser parser = null;
     try {
-      JsonNode wrappedNode = PaymillContext.PARSER.readValue( content, JsonNode.class );
-      PaymillList<T> wrapper = PaymillContext.PARSER.readValue( wrappedNode.toString(), PaymillList.class );
-      if( wrappedNode.has( "data" ) ) {
-        JsonNode dataNode = wrappedNode.get( "data" );
-        if( dataNode.isArray() ) {
-          List<T> objects = new ArrayList<T>();
-          for( Object object : PaymillContext.PARSER.readValue( wrappedNode.toString(), PaymillList.class ).getData() ) {
-            try {
-              objects.add( (T) PaymillContext.PARSER.readValue( PaymillContext.PARSER.writeValueAsString( object ), clazz ) );
-            } catch( Exception exc ) {
-              throw new RuntimeException( exc );
-            }
+      parser = ModelReader.createParser( content );
+      List<T> data = null;
+      int dataCount = 0;
+      JsonNode error = null;
+      if( parser.nextToken() == JsonToken.START_OBJECT ) {
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+          String field = parser.getCurrentName();
+          JsonToken value = parser.nextToken();
+          if( "data".equals( field ) && value == JsonToken.START_ARRAY ) {
+            data = reader.readValue( parser );
+          } else if( "data_count".equals( field ) ) {
+            dataCount = parser.getValueAsInt();
+          } else if( "error".equals( field ) ) {
+            error = ModelReader.readTree( parser );
+          } else {
+            parser.skipChildren();
           }
-          wrapper.setData( objects );
-          return wrapper;
         }
       }
-      if( wrappedNode.has( "error" ) ) {
-        throw new PaymillException( wrappedNode.get( "error" ).toString() );
+      if( data != null ) {
+        PaymillList<T> wrapper = new PaymillList<T>();
+        wrapper.setData( data );
+        wrapper.setDataCount( dataCount );
+        return wrapper;
+      }
+      if( error != null ) {
+        throw new PaymillException( error.toString() );
       }
     } catch( IOException exc ) {
       throw new RuntimeException( exc );
+    } finally {
+      RestfulUtils.close( parser );
     }
     return null;
   }
 
+  /**
+   * Passes the <code>data</code> array of the response to the given reader or its elements to the writer of the given page while
+   * parsing it, like {@link #deserializeList(String, ObjectReader)}.
+   * @return The <code>data_count</code> of the response.
+   */
+  private static int deserializeInto( String content, ObjectReader reader, ExportPage page ) {
+    JsonParser parser = null;
+    try {
+      parser = ModelReader.createParser( content );
+      boolean data = false;
+      int dataCount = 0;
+      JsonNode error = null;
+      if( parser.nextToken() == JsonToken.START_OBJECT ) {
+        while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+          String field = parser.getCurrentName();
+          JsonToken value = parser.nextToken();
+          if( "data".equals( field ) && value == JsonToken.START_ARRAY && reader != null ) {
+            reader.readValue( parser );
+            data = true;
+          } else if( "data".equals( field ) && value == JsonToken.START_ARRAY ) {
+            while( parser.nextToken() != JsonToken.END_ARRAY ) {
+              page.writer.write( parser );
+              page.elements++;
+            }
+            data = true;
+          } else if( "data_count".equals( field ) ) {
+            dataCount = parser.getValueAsInt();
+          } else if( "error".equals( field ) ) {
+            error = ModelReader.readTree( parser );
+          } else {
+            parser.skipChildren();
+          }
+        }
+      }
+      if( !data && error != null ) {
+        throw new PaymillException( error.toString() );
+      }
+      return dataCount;
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    } finally {
+      RestfulUtils.close( parser );
+    }
+  }
+
+  private static String result( final Future<String> future ) {
+    try {
+      return future.get();
+    } catch( ExecutionException exc ) {
+      Throwable cause = exc.getCause();
+      if( cause instanceof RuntimeException ) {
+        throw (RuntimeException) cause;
+      }
+      if( cause instanceof Error ) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException( cause );
+    } catch( InterruptedException exc ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    }
+  }
+
+  private static ParameterMap<String, String> prepareListParameters( Object filter, Object order, Integer count, Integer offset ) {
+    ParameterMap<String, String> params = RestfulUtils.prepareFilterParameters( filter );
+    String param = RestfulUtils.prepareOrderParameter( order );
+    if( StringUtils.isNotBlank( param ) && !StringUtils.startsWith( param, "_" ) ) {
+      params.add( "order", param );
+    }
+    if( count != null && count > 0 ) {
+      params.add( "count", String.valueOf( count ) );
+    }
+    if( offset != null && offset >= 0 ) {
+      params.add( "offset", String.valueOf( offset ) );
+    }
+    return params;
+  }
+
   private static ParameterMap<String, String> prepareEditableParameters( Object instance ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
 
@@ -215,6 +391,16 @@ final class RestfulUtils {
     return sortEntry + order;
   }
 
+  private static void close( JsonParser parser ) {
+    if( parser != null ) {
+      try {
+        parser.close();
+      } catch( IOException exc ) {
+        // nothing to release for a string
+      }
+    }
+  }
+
   private static <T> T refreshInstance( T source, T target ) {
     if( source == null ) {
       return target;
@@ -227,4 +413,44 @@ final class RestfulUtils {
     return target;
   }
 
+  /**
+   * Request of a page of an export.
+   */
+  private final static class PageRequest implements Callable<String> {
+
+    private final String     path;
+    private final Object     filter;
+    private final Object     order;
+    private final int        offset;
+    private final HttpClient httpClient;
+
+    PageRequest( final String path, final Object filter, final Object order, final int offset, final HttpClient httpClient ) {
+      this.path = path;
+      this.filter = filter;
+      this.order = order;
+      this.offset = offset;
+      this.httpClient = httpClient;
+    }
+
+    @Override
+    public String call() {
+      ParameterMap<String, String> params = RestfulUtils.prepareListParameters( this.filter, this.order, EXPORT_PAGE_SIZE, this.offset );
+      return this.httpClient.get( ENDPOINT + this.path, params );
+    }
+  }
+
+  /**
+   * Page of an export, counts the elements of the <code>data</code> array including <code>null</code>, which the writer skips, so
+   * the offset of the next page matches the API.
+   */
+  private final static class ExportPage {
+
+    private final ExportWriter writer;
+    private int                elements;
+
+    ExportPage( final ExportWriter writer ) {
+      this.writer = writer;
+    }
+  }
+
 }
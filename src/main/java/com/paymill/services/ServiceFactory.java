@@ -0,0 +1,52 @@
+package com.paymill.services;
+
+import com.paymill.context.PaymillContext;
+import com.paymill.utils.HttpClient;
+
+/**
+ * Creates the services for {@link PaymillContext} without reflection. The services should not be created directly, they have
+ * to be obtained by the context's accessors.
+ * @since 5.2.0
+ */
+public final class ServiceFactory {
+
+  private ServiceFactory() {
+  }
+
+  public static ChecksumService createChecksumService( final HttpClient httpClient ) {
+    return new ChecksumService( httpClient );
+  }
+
+  public static ClientService createClientService( final HttpClient httpClient ) {
+    return new ClientService( httpClient );
+  }
+
+  public static OfferService createOfferService( final HttpClient httpClient ) {
+    return new OfferService( httpClient );
+  }
+
+  public static PaymentService createPaymentService( final HttpClient httpClient ) {
+    return new PaymentService( httpClient );
+  }
+
+  public static PreauthorizationService createPreauthorizationService( final HttpClient httpClient ) {
+    return new PreauthorizationService( httpClient );
+  }
+
+  public static RefundService createRefundService( final HttpClient httpClient ) {
+    return new RefundService( httpClient );
+  }
+
+  public static SubscriptionService createSubscriptionService( final HttpClient httpClient ) {
+    return new SubscriptionService( httpClient );
+  }
+
+  public static TransactionService createTransactionService( final HttpClient httpClient ) {
+    return new TransactionService( httpClient );
+  }
+
+  public static WebhookService createWebhookService( final HttpClient httpClient ) {
+    return new WebhookService( httpClient );
+  }
+
+}
@@ -8,8 +8,10 @@ import com.paymill.models.Interval;
 import com.paymill.models.Offer;
 import com.paymill.models.Payment;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 import com.paymill.models.Subscription;
 import com.paymill.models.Subscription.Creator;
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 
@@ -22,7 +24,7 @@ public class SubscriptionService extends AbstractService {
 
   private final static String PATH = "/subscriptions";
 
-  private SubscriptionService( HttpClient httpClient ) {
+  SubscriptionService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -74,7 +76,47 @@ public class SubscriptionService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Subscription}s and their total count.
    */
   public PaymillList<Subscription> list( Subscription.Filter filter, Subscription.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( SubscriptionService.PATH, filter, order, count, offset, Subscription.class, super.httpClient );
+    return RestfulUtils.list( SubscriptionService.PATH, filter, order, count, offset, ModelReader.SUBSCRIPTION, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Subscription} objects. In which order this list is returned depends on
+   * the optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Subscription.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Subscription.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Subscription}s and their total count.
+   */
+  public PaymillList<Subscription> list( Subscription.Filter filter, Subscription.Order order, Integer count, Integer offset,
+      Projection<Subscription> projection ) {
+    return RestfulUtils.list( SubscriptionService.PATH, filter, order, count, offset, projection, ModelReader.SUBSCRIPTION, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Subscription}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Subscription.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Subscription.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Subscription}s.
+   */
+  public int export( Subscription.Filter filter, Subscription.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( SubscriptionService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -84,7 +126,7 @@ public class SubscriptionService extends AbstractService {
    * @return Refreshed instance of the given {@link Subscription}.
    */
   public Subscription get( Subscription subscription ) {
-    return RestfulUtils.show( SubscriptionService.PATH, subscription, Subscription.class, super.httpClient );
+    return RestfulUtils.show( SubscriptionService.PATH, subscription, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -185,7 +227,7 @@ public class SubscriptionService extends AbstractService {
       params.add( "period_of_validity", periodOfValidity.toString() );
     }
 
-    return RestfulUtils.create( SubscriptionService.PATH, params, Subscription.class, super.httpClient );
+    return RestfulUtils.create( SubscriptionService.PATH, params, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -230,7 +272,7 @@ public class SubscriptionService extends AbstractService {
   public Subscription pause( Subscription subscription ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "pause", String.valueOf( true ) );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -261,7 +303,7 @@ public class SubscriptionService extends AbstractService {
   public Subscription unpause( Subscription subscription ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "pause", String.valueOf( false ) );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -381,7 +423,7 @@ public class SubscriptionService extends AbstractService {
       ValidationUtils.validatesIntervalPeriodWithChargeDay( interval );
       params.add( "interval", interval.toString() );
     }
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -491,7 +533,7 @@ public class SubscriptionService extends AbstractService {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "offer", offer.getId() );
     params.add( "offer_change_type", String.valueOf( type ) );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -503,7 +545,7 @@ public class SubscriptionService extends AbstractService {
   public Subscription endTrial( Subscription subscription ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "trial_end", String.valueOf( false ) );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -527,7 +569,7 @@ public class SubscriptionService extends AbstractService {
   public Subscription endTrialAt( Subscription subscription, Date date ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "trial_end", String.valueOf( date.getTime() / 1000 ) );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -554,7 +596,7 @@ public class SubscriptionService extends AbstractService {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     ValidationUtils.validatesIntervalPeriod( newValidity );
     params.add( "period_of_validity", newValidity.toString() );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -602,7 +644,7 @@ public class SubscriptionService extends AbstractService {
   public Subscription unlimitValidity( Subscription subscription ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "period_of_validity", "remove" );
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, params, false, ModelReader.SUBSCRIPTION, super.httpClient );
 
   }
 
@@ -663,7 +705,7 @@ public class SubscriptionService extends AbstractService {
   private Subscription delete( Subscription subscription, boolean remove ) {
     ParameterMap<String, String> params = new ParameterMap<String, String>();
     params.add( "remove", String.valueOf( remove ) );
-    return RestfulUtils.delete( SubscriptionService.PATH, subscription, params, Subscription.class, super.httpClient );
+    return RestfulUtils.delete( SubscriptionService.PATH, subscription, params, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 
   /**
@@ -696,6 +738,6 @@ public class SubscriptionService extends AbstractService {
    * @return the updated subscription
    */
   public Subscription update( Subscription subscription ) {
-    return RestfulUtils.update( SubscriptionService.PATH, subscription, Subscription.class, super.httpClient );
+    return RestfulUtils.update( SubscriptionService.PATH, subscription, ModelReader.SUBSCRIPTION, super.httpClient );
   }
 }
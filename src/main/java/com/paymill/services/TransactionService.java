@@ -2,17 +2,23 @@ package com.paymill.services;
 
 import java.util.List;
 
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 import org.apache.commons.lang3.StringUtils;
 
-import com.paymill.context.PaymillContext;
+import com.fasterxml.jackson.databind.ObjectReader;
+
 import com.paymill.models.Client;
 import com.paymill.models.Fee;
 import com.paymill.models.Payment;
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 import com.paymill.models.Preauthorization;
 import com.paymill.models.Transaction;
+import com.paymill.models.TransactionColumns;
+import com.paymill.models.TransactionView;
+import com.paymill.models.TransactionVisitor;
 
 /**
  * The {@link TransactionService} is used to list, create, edit and update PAYMILL {@link Transaction}s.
@@ -21,9 +27,15 @@ import com.paymill.models.Transaction;
  */
 public class TransactionService extends AbstractService {
 
-  private final static String PATH = "/transactions";
+  private final static String PATH      = "/transactions";
+
+  /**
+   * Count of the pages, which are requested by {@link #scan(Transaction.Filter, Transaction.Order, TransactionVisitor)}, the
+   * maximum of the API.
+   */
+  private final static int    PAGE_SIZE = 100;
 
-  private TransactionService( HttpClient httpClient ) {
+  TransactionService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -75,7 +87,123 @@ public class TransactionService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Transaction}s and their total count.
    */
   public PaymillList<Transaction> list( Transaction.Filter filter, Transaction.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( TransactionService.PATH, filter, order, count, offset, Transaction.class, super.httpClient );
+    return RestfulUtils.list( TransactionService.PATH, filter, order, count, offset, ModelReader.TRANSACTION, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Transaction} objects. In which order this list is returned depends on
+   * the optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Transaction.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Transaction.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Transaction}s and their total count.
+   */
+  public PaymillList<Transaction> list( Transaction.Filter filter, Transaction.Order order, Integer count, Integer offset,
+      Projection<Transaction> projection ) {
+    return RestfulUtils.list( TransactionService.PATH, filter, order, count, offset, projection, ModelReader.TRANSACTION, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Transaction}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Transaction.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Transaction.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Transaction}s.
+   */
+  public int export( Transaction.Filter filter, Transaction.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( TransactionService.PATH, filter, order, writer, super.httpClient );
+  }
+
+  /**
+   * This function appends a page of PAYMILL {@link Transaction}s to the given {@link TransactionColumns}, without creating a
+   * {@link Transaction} per row. Filter, order, count and offset work like for
+   * {@link #list(Transaction.Filter, Transaction.Order, Integer, Integer)}.
+   * @param filter
+   *          {@link com.paymill.models.Transaction.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Transaction.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects.
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param columns
+   *          {@link TransactionColumns} to append to.
+   * @return The total count of {@link Transaction}s, which match the filter.
+   */
+  public int listColumns( Transaction.Filter filter, Transaction.Order order, Integer count, Integer offset,
+      TransactionColumns columns ) {
+    if( columns == null )
+      throw new IllegalArgumentException( "Columns can not be null" );
+    return RestfulUtils.listInto( TransactionService.PATH, filter, order, count, offset,
+        ModelReader.COLUMNS.withValueToUpdate( columns ), super.httpClient );
+  }
+
+  /**
+   * This function hands each PAYMILL {@link Transaction} of a page to the given {@link TransactionVisitor}. All transactions are
+   * decoded into the same {@link TransactionView}, which is overwritten after the visitor returns, so no object is created per
+   * transaction. Filter, order, count and offset work like for {@link #list(Transaction.Filter, Transaction.Order, Integer, Integer)}.
+   * @param filter
+   *          {@link com.paymill.models.Transaction.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Transaction.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects.
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param visitor
+   *          {@link TransactionVisitor}, which returns <code>false</code> to skip the rest of the page.
+   * @return The total count of {@link Transaction}s, which match the filter.
+   */
+  public int visit( Transaction.Filter filter, Transaction.Order order, Integer count, Integer offset, TransactionVisitor visitor ) {
+    if( visitor == null )
+      throw new IllegalArgumentException( "Visitor can not be null" );
+    return RestfulUtils.listInto( TransactionService.PATH, filter, order, count, offset,
+        ModelReader.VIEW.withAttribute( TransactionVisitor.class, visitor ).withValueToUpdate( new TransactionView() ),
+        super.httpClient );
+  }
+
+  /**
+   * This function hands all PAYMILL {@link Transaction}s, which match the filter, to the given {@link TransactionVisitor}, page
+   * by page like {@link #visit(Transaction.Filter, Transaction.Order, Integer, Integer, TransactionVisitor)}. One
+   * {@link TransactionView} is reused for the whole scan, so the memory does not grow with the count of transactions.
+   * @param filter
+   *          {@link com.paymill.models.Transaction.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Transaction.Order} or <code>null</code>
+   * @param visitor
+   *          {@link TransactionVisitor}, which returns <code>false</code> to stop the scan.
+   * @return The count of visited {@link Transaction}s.
+   */
+  public int scan( Transaction.Filter filter, Transaction.Order order, TransactionVisitor visitor ) {
+    if( visitor == null )
+      throw new IllegalArgumentException( "Visitor can not be null" );
+    Scan scan = new Scan( visitor );
+    TransactionView view = new TransactionView();
+    ObjectReader reader = ModelReader.VIEW.withAttribute( TransactionVisitor.class, scan ).withValueToUpdate( view );
+    int offset = 0;
+    int total;
+    do {
+      total = RestfulUtils.listInto( TransactionService.PATH, filter, order, PAGE_SIZE, offset, reader, super.httpClient );
+      // null elements are not visited, but count for the offset
+      offset += view.getPageElements();
+    } while( !scan.stopped && view.getPageElements() == PAGE_SIZE && offset < total );
+    return scan.visited;
   }
 
   /**
@@ -85,7 +213,7 @@ public class TransactionService extends AbstractService {
    * @return Refreshed instance of the given {@link Transaction}.
    */
   public Transaction get( Transaction transaction ) {
-    return RestfulUtils.show( TransactionService.PATH, transaction, Transaction.class, super.httpClient );
+    return RestfulUtils.show( TransactionService.PATH, transaction, ModelReader.TRANSACTION, super.httpClient );
   }
 
   /**
@@ -168,7 +296,7 @@ public class TransactionService extends AbstractService {
     params.add( "token", token );
     params.add( "amount", String.valueOf( amount ) );
     params.add( "currency", currency );
-    params.add( "source", String.format( "%s-%s", PaymillContext.getProjectName(), PaymillContext.getProjectVersion() ) );
+    params.add( "source", RestfulUtils.SOURCE );
 
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
@@ -177,7 +305,7 @@ public class TransactionService extends AbstractService {
     if( fee != null && StringUtils.isNotBlank( fee.getPayment() ) )
       params.add( "fee_payment", fee.getPayment() );
 
-    return RestfulUtils.create( TransactionService.PATH, params, Transaction.class, super.httpClient );
+    return RestfulUtils.create( TransactionService.PATH, params, ModelReader.TRANSACTION, super.httpClient );
   }
 
   /**
@@ -219,12 +347,12 @@ public class TransactionService extends AbstractService {
     params.add( "payment", payment.getId() );
     params.add( "amount", String.valueOf( amount ) );
     params.add( "currency", currency );
-    params.add( "source", String.format( "%s-%s", PaymillContext.getProjectName(), PaymillContext.getProjectVersion() ) );
+    params.add( "source", RestfulUtils.SOURCE );
 
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( TransactionService.PATH, params, Transaction.class, super.httpClient );
+    return RestfulUtils.create( TransactionService.PATH, params, ModelReader.TRANSACTION, super.httpClient );
   }
 
   /**
@@ -300,12 +428,12 @@ public class TransactionService extends AbstractService {
     params.add( "client", client.getId() );
     params.add( "amount", String.valueOf( amount ) );
     params.add( "currency", currency );
-    params.add( "source", String.format( "%s-%s", PaymillContext.getProjectName(), PaymillContext.getProjectVersion() ) );
+    params.add( "source", RestfulUtils.SOURCE );
 
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( TransactionService.PATH, params, Transaction.class, super.httpClient );
+    return RestfulUtils.create( TransactionService.PATH, params, ModelReader.TRANSACTION, super.httpClient );
   }
 
   /**
@@ -391,12 +519,12 @@ public class TransactionService extends AbstractService {
     params.add( "preauthorization", preauthorizationId );
     params.add( "amount", String.valueOf( amount ) );
     params.add( "currency", currency );
-    params.add( "source", String.format( "%s-%s", PaymillContext.getProjectName(), PaymillContext.getProjectVersion() ) );
+    params.add( "source", RestfulUtils.SOURCE );
 
     if( StringUtils.isNotBlank( description ) )
       params.add( "description", description );
 
-    return RestfulUtils.create( TransactionService.PATH, params, Transaction.class, super.httpClient );
+    return RestfulUtils.create( TransactionService.PATH, params, ModelReader.TRANSACTION, super.httpClient );
   }
 
   /**
@@ -405,7 +533,28 @@ public class TransactionService extends AbstractService {
    *          A {@link Transaction} to be updated.
    */
   public void update( Transaction transaction ) {
-    RestfulUtils.update( TransactionService.PATH, transaction, Transaction.class, super.httpClient );
+    RestfulUtils.update( TransactionService.PATH, transaction, ModelReader.TRANSACTION, super.httpClient );
+  }
+
+  /**
+   * Counts the visited transactions of a scan and remembers whether the visitor stopped it.
+   */
+  private final static class Scan implements TransactionVisitor {
+
+    private final TransactionVisitor visitor;
+    private int                      visited;
+    private boolean                  stopped;
+
+    private Scan( final TransactionVisitor visitor ) {
+      this.visitor = visitor;
+    }
+
+    @Override
+    public boolean visit( final TransactionView transaction ) {
+      this.visited++;
+      this.stopped = !this.visitor.visit( transaction );
+      return !this.stopped;
+    }
   }
 
 }
@@ -3,8 +3,10 @@ package com.paymill.services;
 import java.util.List;
 
 import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
 import com.paymill.models.Webhook;
 import com.paymill.models.Webhook.EventType;
+import com.paymill.utils.ExportWriter;
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
 
@@ -17,7 +19,7 @@ public class WebhookService extends AbstractService {
 
   private final static String PATH = "/webhooks";
 
-  private WebhookService( HttpClient httpClient ) {
+  WebhookService( HttpClient httpClient ) {
     super( httpClient );
   }
 
@@ -69,7 +71,47 @@ public class WebhookService extends AbstractService {
    * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Webhook}s and their total count.
    */
   public PaymillList<Webhook> list( Webhook.Filter filter, Webhook.Order order, Integer count, Integer offset ) {
-    return RestfulUtils.list( WebhookService.PATH, filter, order, count, offset, Webhook.class, super.httpClient );
+    return RestfulUtils.list( WebhookService.PATH, filter, order, count, offset, ModelReader.WEBHOOK, super.httpClient );
+  }
+
+  /**
+   * This function returns a {@link List} of PAYMILL {@link Webhook} objects. In which order this list is returned depends on the
+   * optional parameters. If <code>null</code> is given, no filter or order will be applied, overriding the default count and
+   * offset.
+   * Only the fields of the given {@link Projection} are read, all others stay <code>null</code>.
+   * @param filter
+   *          {@link com.paymill.models.Webhook.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Webhook.Order} or <code>null</code>
+   * @param count
+   *          Max {@link Integer} of returned objects in the {@link PaymillList}
+   * @param offset
+   *          {@link Integer} to start from.
+   * @param projection
+   *          {@link Projection} of the fields to read or <code>null</code> for all fields.
+   * @return {@link PaymillList} which contains a {@link List} of PAYMILL {@link Webhook}s and their total count.
+   */
+  public PaymillList<Webhook> list( Webhook.Filter filter, Webhook.Order order, Integer count, Integer offset,
+      Projection<Webhook> projection ) {
+    return RestfulUtils.list( WebhookService.PATH, filter, order, count, offset, projection, ModelReader.WEBHOOK, super.httpClient );
+  }
+
+  /**
+   * This function writes all PAYMILL {@link Webhook}s, which match the filter, to the given {@link ExportWriter}. Pages are copied
+   * to the writer while they are parsed, without creating models, and the next page is requested while the current one is
+   * written.
+   * @param filter
+   *          {@link com.paymill.models.Webhook.Filter} or <code>null</code>
+   * @param order
+   *          {@link com.paymill.models.Webhook.Order} or <code>null</code>
+   * @param writer
+   *          {@link ExportWriter} to write to, which stays open.
+   * @return The count of written {@link Webhook}s.
+   */
+  public int export( Webhook.Filter filter, Webhook.Order order, ExportWriter writer ) {
+    if( writer == null )
+      throw new IllegalArgumentException( "Writer can not be null" );
+    return RestfulUtils.export( WebhookService.PATH, filter, order, writer, super.httpClient );
   }
 
   /**
@@ -79,7 +121,7 @@ public class WebhookService extends AbstractService {
    * @return Refreshed instance of the given {@link Webhook}.
    */
   public Webhook get( Webhook webhook ) {
-    return RestfulUtils.show( WebhookService.PATH, webhook, Webhook.class, super.httpClient );
+    return RestfulUtils.show( WebhookService.PATH, webhook, ModelReader.WEBHOOK, super.httpClient );
   }
 
   /**
@@ -107,7 +149,7 @@ public class WebhookService extends AbstractService {
     for( Webhook.EventType eventType : eventTypes )
       params.add( "event_types[]", eventType.getValue() );
 
-    return RestfulUtils.create( WebhookService.PATH, params, Webhook.class, super.httpClient );
+    return RestfulUtils.create( WebhookService.PATH, params, ModelReader.WEBHOOK, super.httpClient );
   }
 
   /**
@@ -125,7 +167,7 @@ public class WebhookService extends AbstractService {
     for( Webhook.EventType eventType : eventTypes )
       params.add( "event_types[]", eventType.getValue() );
 
-    return RestfulUtils.create( WebhookService.PATH, params, Webhook.class, super.httpClient );
+    return RestfulUtils.create( WebhookService.PATH, params, ModelReader.WEBHOOK, super.httpClient );
   }
 
   /**
@@ -133,7 +175,7 @@ public class WebhookService extends AbstractService {
    * @param webhook
    */
   public void update( Webhook webhook ) {
-    RestfulUtils.update( WebhookService.PATH, webhook, Webhook.class, super.httpClient );
+    RestfulUtils.update( WebhookService.PATH, webhook, ModelReader.WEBHOOK, super.httpClient );
   }
 
   /**
@@ -142,7 +184,7 @@ public class WebhookService extends AbstractService {
    *          {@link Webhook} with existing Id.
    */
   public void delete( Webhook webhook ) {
-    RestfulUtils.delete( WebhookService.PATH, webhook, Webhook.class, super.httpClient );
+    RestfulUtils.delete( WebhookService.PATH, webhook, ModelReader.WEBHOOK, super.httpClient );
   }
 
   /**
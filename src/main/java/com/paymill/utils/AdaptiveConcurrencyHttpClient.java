@@ -0,0 +1,228 @@
+package com.paymill.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.paymill.exceptions.ConcurrencyLimitExceededException;
+
+/**
+ * {@link HttpClient} decorator, which limits the number of requests in flight and adapts the limit to the observed latency
+ * (AIMD). <br>
+ * While latencies stay close to the best latency observed recently, the limit grows by one per limit's worth of successful
+ * requests. When a request fails or its latency exceeds the tolerated multiple of the best latency, the limit is reduced by
+ * the backoff ratio, at most once per round trip. Callers above the limit wait up to a configurable time and are then
+ * rejected with a {@link ConcurrencyLimitExceededException}.
+ * @since 5.2.0
+ */
+public final class AdaptiveConcurrencyHttpClient implements HttpClient {
+
+  public final static int     DEFAULT_INITIAL_LIMIT = 20;
+  public final static int     DEFAULT_MIN_LIMIT     = 1;
+  public final static int     DEFAULT_MAX_LIMIT     = 200;
+
+  private final static double BACKOFF_RATIO         = 0.9d;
+  private final static double TOLERANCE             = 2.0d;
+  private final static int    BASELINE_WINDOW       = 500;
+
+  private final HttpClient    delegate;
+  private final int           minLimit;
+  private final int           maxLimit;
+  private final long          maxWait;
+
+  private final ReentrantLock lock                  = new ReentrantLock();
+  private final Condition     available             = this.lock.newCondition();
+  private double              limit;
+  private int                 inFlight;
+  private long                baseline;
+  private long                windowMin;
+  private int                 windowSamples;
+  private long                lastDecrease;
+  private long                rejected;
+
+  /**
+   * Creates an adaptive client starting at {@value #DEFAULT_INITIAL_LIMIT} requests in flight, adapting between
+   * {@value #DEFAULT_MIN_LIMIT} and {@value #DEFAULT_MAX_LIMIT}. Callers above the limit wait as long as necessary.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   */
+  public AdaptiveConcurrencyHttpClient( final HttpClient delegate ) {
+    this( delegate, DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, -1 );
+  }
+
+  /**
+   * Creates an adaptive client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param initialLimit
+   *          Number of requests in flight allowed at start.
+   * @param minLimit
+   *          Lower bound of the limit.
+   * @param maxLimit
+   *          Upper bound of the limit.
+   * @param maxWait
+   *          Max time in milliseconds a caller waits for a free slot. If <code>0</code> callers are rejected immediately, if
+   *          negative they wait as long as necessary. Waits are also bounded by the {@link Deadline} of the call.
+   */
+  public AdaptiveConcurrencyHttpClient( final HttpClient delegate, final int initialLimit, final int minLimit, final int maxLimit,
+      final long maxWait ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit )
+      throw new IllegalArgumentException( "Limits must be positive and initial limit must be between min and max limit" );
+    this.delegate = delegate;
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.maxWait = maxWait;
+    // every call starts after this, so its first congestion decreases the limit
+    this.lastDecrease = System.nanoTime() - 1;
+  }
+
+  /**
+   * @return Current number of requests allowed in flight.
+   */
+  public int getLimit() {
+    this.lock.lock();
+    try {
+      return (int) this.limit;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    this.lock.lock();
+    try {
+      return this.inFlight;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return Number of callers rejected, because no slot became free in time.
+   */
+  public long getRejected() {
+    this.lock.lock();
+    try {
+      return this.rejected;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.execute( HttpMethod.GET, path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.GET, path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.POST, path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.PUT, path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.DELETE, path, params );
+  }
+
+  private String execute( final HttpMethod method, final String path, final ParameterMap<String, String> params ) {
+    this.acquire();
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      String response = method.invoke( this.delegate, path, params );
+      failed = false;
+      return response;
+    } finally {
+      this.release( start, System.nanoTime() - start, failed );
+    }
+  }
+
+  private void acquire() {
+    CallOptions options = CallOptions.current();
+    long remaining = options.boundWait( this.maxWait < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos( this.maxWait ) );
+    Deadline deadline = options.getDeadline();
+    Runnable wakeUp = Deadline.signalAll( this.lock, this.available );
+    this.lock.lock();
+    try {
+      if( deadline != null ) {
+        deadline.addCancelListener( wakeUp );
+      }
+      while( this.inFlight >= (int) this.limit ) {
+        if( remaining < 0 ) {
+          this.available.await();
+        } else if( remaining == 0 || deadline != null && deadline.isCancelled() ) {
+          options.checkDeadline();
+          this.rejected++;
+          throw new ConcurrencyLimitExceededException( (int) this.limit );
+        } else {
+          remaining = Math.max( 0, this.available.awaitNanos( remaining ) );
+        }
+      }
+      this.inFlight++;
+    } catch( InterruptedException exc ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    } finally {
+      if( deadline != null ) {
+        deadline.removeCancelListener( wakeUp );
+      }
+      this.lock.unlock();
+    }
+  }
+
+  private void release( final long start, final long rtt, final boolean failed ) {
+    this.lock.lock();
+    try {
+      int before = (int) this.limit;
+      boolean saturated = this.inFlight * 2 >= before;
+      this.inFlight--;
+      if( failed || this.isCongested( rtt ) ) {
+        // nanoTime values may overflow, only their difference is meaningful
+        if( start - this.lastDecrease > 0 ) {
+          this.limit = Math.max( this.minLimit, this.limit * BACKOFF_RATIO );
+          this.lastDecrease = System.nanoTime();
+        }
+      } else if( saturated ) {
+        this.limit = Math.min( this.maxLimit, this.limit + 1 / this.limit );
+      }
+      if( (int) this.limit > before ) {
+        this.available.signalAll();
+      } else {
+        this.available.signal();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Compares the latency with the baseline, the best latency of the previous window of samples.
+   */
+  private boolean isCongested( final long rtt ) {
+    if( this.windowSamples == 0 || rtt < this.windowMin ) {
+      this.windowMin = rtt;
+    }
+    if( ++this.windowSamples >= BASELINE_WINDOW || this.baseline == 0 ) {
+      this.baseline = this.baseline == 0 ? this.windowMin : Math.min( this.windowMin, (long) (this.baseline * TOLERANCE) );
+      this.windowSamples = 0;
+    }
+    if( rtt < this.baseline ) {
+      this.baseline = rtt;
+    }
+    return rtt > this.baseline * TOLERANCE;
+  }
+
+}
@@ -0,0 +1,164 @@
+package com.paymill.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import com.paymill.exceptions.DeadlineExceededException;
+
+/**
+ * Immutable options of a call to PAYMILL, which are not part of the {@link HttpClient} signature. <br>
+ * The options are attached to the calling thread by {@link ScopedHttpClient} for the duration of a call, so decorators and
+ * transports further down can read them with {@link #current()}. Use {@link com.paymill.context.PaymillContext#withPriority},
+ * {@link com.paymill.context.PaymillContext#withDeadline} and {@link com.paymill.context.PaymillContext#withApiKey} to obtain
+ * services, which apply them.
+ * @since 5.2.0
+ */
+public final class CallOptions {
+
+  public final static CallOptions               DEFAULT = new CallOptions( Priority.NORMAL, null, null, null );
+
+  private final static ThreadLocal<CallOptions> CURRENT = new ThreadLocal<CallOptions>();
+
+  private final Priority                        priority;
+  private final Deadline                        deadline;
+  private final Credentials                     credentials;
+  private final StatusListener                  statusListener;
+
+  private CallOptions( final Priority priority, final Deadline deadline, final Credentials credentials,
+      final StatusListener statusListener ) {
+    this.priority = priority;
+    this.deadline = deadline;
+    this.credentials = credentials;
+    this.statusListener = statusListener;
+  }
+
+  /**
+   * @return The options of the call in progress on this thread or {@link #DEFAULT}.
+   */
+  public static CallOptions current() {
+    CallOptions options = CURRENT.get();
+    return options == null ? DEFAULT : options;
+  }
+
+  public Priority getPriority() {
+    return this.priority;
+  }
+
+  /**
+   * @return {@link Deadline} of the call or <code>null</code> if the call may take as long as the transport allows.
+   */
+  public Deadline getDeadline() {
+    return this.deadline;
+  }
+
+  /**
+   * @return {@link Credentials} of the call or <code>null</code> if the transport authenticates with its own API key.
+   */
+  public Credentials getCredentials() {
+    return this.credentials;
+  }
+
+  /**
+   * @param priority
+   *          {@link Priority} of the call.
+   * @return New {@link CallOptions} with the given priority.
+   */
+  public CallOptions withPriority( final Priority priority ) {
+    if( priority == null )
+      throw new IllegalArgumentException( "Priority can not be null" );
+    return new CallOptions( priority, this.deadline, this.credentials, this.statusListener );
+  }
+
+  /**
+   * @param deadline
+   *          {@link Deadline} of the call or <code>null</code> for none.
+   * @return New {@link CallOptions} with the given deadline.
+   */
+  public CallOptions withDeadline( final Deadline deadline ) {
+    return new CallOptions( this.priority, deadline, this.credentials, this.statusListener );
+  }
+
+  /**
+   * @param credentials
+   *          {@link Credentials} of the call or <code>null</code> to use the API key of the transport.
+   * @return New {@link CallOptions} with the given credentials.
+   */
+  public CallOptions withCredentials( final Credentials credentials ) {
+    return new CallOptions( this.priority, this.deadline, credentials, this.statusListener );
+  }
+
+  /**
+   * @param statusListener
+   *          {@link StatusListener}, which is told the HTTP status of the responses of the call.
+   * @return New {@link CallOptions} with the given listener.
+   */
+  CallOptions withStatusListener( final StatusListener statusListener ) {
+    return new CallOptions( this.priority, this.deadline, this.credentials, statusListener );
+  }
+
+  StatusListener getStatusListener() {
+    return this.statusListener;
+  }
+
+  /**
+   * Called by the transport for every response of the call.
+   * @param status
+   *          HTTP status of the response.
+   */
+  void onStatus( final int status ) {
+    if( this.statusListener != null ) {
+      this.statusListener.onStatus( status );
+    }
+  }
+
+  /**
+   * Limits a wait to the time left until the deadline.
+   * @param wait
+   *          Wait in nanoseconds or negative for no limit.
+   * @return The given wait or the time left, whichever is shorter, negative only if both are unlimited.
+   */
+  long boundWait( final long wait ) {
+    if( this.deadline == null ) {
+      return wait;
+    }
+    long remaining = this.deadline.remaining( TimeUnit.NANOSECONDS );
+    return wait < 0 ? remaining : Math.min( wait, remaining );
+  }
+
+  /**
+   * @throws DeadlineExceededException
+   *           if the deadline expired or was cancelled.
+   */
+  void checkDeadline() {
+    if( this.deadline != null && this.deadline.isExpired() ) {
+      throw new DeadlineExceededException( this.deadline.isCancelled() );
+    }
+  }
+
+  /**
+   * Attaches the options to the current thread.
+   * @return The options attached before, which have to be passed to {@link #detach(CallOptions)}.
+   */
+  static CallOptions attach( final CallOptions options ) {
+    CallOptions previous = CURRENT.get();
+    CURRENT.set( options );
+    return previous;
+  }
+
+  static void detach( final CallOptions previous ) {
+    if( previous == null ) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set( previous );
+    }
+  }
+
+  /**
+   * Receives the HTTP status of responses, which are returned as body by the {@link HttpClient} and not thrown.
+   */
+  interface StatusListener {
+
+    void onStatus( int status );
+
+  }
+
+}
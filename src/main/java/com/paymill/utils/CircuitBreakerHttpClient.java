@@ -0,0 +1,377 @@
+package com.paymill.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.paymill.exceptions.CircuitBreakerOpenException;
+
+/**
+ * {@link HttpClient} decorator with one circuit breaker per resource, e.g. <code>/subscriptions</code> and
+ * <code>/transactions</code>, so a degraded resource does not affect healthy ones. <br>
+ * Each breaker tracks the failure rate and the slow call rate over a rolling window of the last calls. When one of them reaches
+ * its threshold, the breaker opens and calls fail fast with a {@link CircuitBreakerOpenException} before any connection is
+ * used. After a while it lets a few probe calls through (half open) and closes again, if they succeed. <br>
+ * Failures are thrown exceptions, e.g. timeouts, and responses with a 5xx status, which are returned as body. A call, which
+ * fails after the {@link Deadline} set by the caller expired or was cancelled, is not recorded, because it says nothing about
+ * the resource.
+ * @since 5.2.0
+ */
+public final class CircuitBreakerHttpClient implements HttpClient {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN;
+  }
+
+  private final HttpClient                     delegate;
+  private final Settings                       settings;
+  private final ConcurrentMap<String, Breaker> breakers = new ConcurrentHashMap<String, Breaker>();
+
+  /**
+   * Creates a circuit breaker client with default {@link Settings}.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   */
+  public CircuitBreakerHttpClient( final HttpClient delegate ) {
+    this( delegate, CircuitBreakerHttpClient.createSettings() );
+  }
+
+  /**
+   * Creates a circuit breaker client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param settings
+   *          {@link Settings} applied to the breaker of every resource.
+   */
+  public CircuitBreakerHttpClient( final HttpClient delegate, final Settings settings ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( settings == null )
+      throw new IllegalArgumentException( "Settings can not be null" );
+    this.delegate = delegate;
+    this.settings = settings.copy();
+  }
+
+  public static Settings createSettings() {
+    return new Settings();
+  }
+
+  /**
+   * @param resource
+   *          Resource path, e.g. <code>/subscriptions</code>.
+   * @return Current {@link State} of the resource's breaker, {@link State#CLOSED} if it was never called.
+   */
+  public State getState( final String resource ) {
+    Breaker breaker = this.breakers.get( resource );
+    return breaker == null ? State.CLOSED : breaker.getState();
+  }
+
+  /**
+   * @param resource
+   *          Resource path, e.g. <code>/subscriptions</code>.
+   * @return Number of calls to the resource rejected without contacting PAYMILL.
+   */
+  public long getNotPermittedCalls( final String resource ) {
+    Breaker breaker = this.breakers.get( resource );
+    return breaker == null ? 0 : breaker.getNotPermitted();
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.execute( HttpMethod.GET, path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.GET, path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.POST, path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.PUT, path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.DELETE, path, params );
+  }
+
+  private String execute( final HttpMethod method, final String path, final ParameterMap<String, String> params ) {
+    String resource = RequestPaths.resourceOf( path );
+    Breaker breaker = this.getBreaker( resource );
+    long permit = breaker.acquire();
+    if( permit < 0 ) {
+      throw new CircuitBreakerOpenException( resource );
+    }
+    CallOptions options = CallOptions.current();
+    Deadline deadline = options.getDeadline();
+    StatusRecorder status = new StatusRecorder( options.getStatusListener() );
+    CallOptions previous = CallOptions.attach( options.withStatusListener( status ) );
+    long start = System.nanoTime();
+    boolean thrown = true;
+    try {
+      String response = method.invoke( this.delegate, path, params );
+      thrown = false;
+      return response;
+    } finally {
+      CallOptions.detach( previous );
+      if( thrown && deadline != null && deadline.isExpired() ) {
+        breaker.onIgnored( permit );
+      } else {
+        breaker.onResult( permit, System.nanoTime() - start, thrown || status.serverError );
+      }
+    }
+  }
+
+  private Breaker getBreaker( final String resource ) {
+    Breaker breaker = this.breakers.get( resource );
+    if( breaker == null ) {
+      Breaker created = new Breaker( this.settings );
+      breaker = this.breakers.putIfAbsent( resource, created );
+      if( breaker == null ) {
+        breaker = created;
+      }
+    }
+    return breaker;
+  }
+
+  /**
+   * Settings of the circuit breakers. Thresholds are percentages.
+   */
+  public final static class Settings {
+
+    private int  windowSize            = 100;
+    private int  minimumCalls          = 20;
+    private int  failureRateThreshold  = 50;
+    private int  slowCallRateThreshold = 80;
+    private long slowCallDuration      = TimeUnit.SECONDS.toNanos( 5 );
+    private long openDuration          = TimeUnit.SECONDS.toNanos( 30 );
+    private int  halfOpenProbes        = 5;
+
+    private Settings() {
+      super();
+    }
+
+    /**
+     * @param windowSize
+     *          Number of last calls to evaluate, 100 by default.
+     * @param minimumCalls
+     *          Number of calls required before the rates are evaluated, 20 by default.
+     * @return Same {@link Settings} instance.
+     */
+    public Settings withWindow( final int windowSize, final int minimumCalls ) {
+      if( windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize )
+        throw new IllegalArgumentException( "Window size and minimum calls must be positive, minimum calls can not exceed window size" );
+      this.windowSize = windowSize;
+      this.minimumCalls = minimumCalls;
+      return this;
+    }
+
+    /**
+     * @param failureRateThreshold
+     *          Percentage of failed calls, which opens the breaker, 50 by default.
+     * @return Same {@link Settings} instance.
+     */
+    public Settings withFailureRateThreshold( final int failureRateThreshold ) {
+      CircuitBreakerHttpClient.validatesPercentage( failureRateThreshold );
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /**
+     * @param slowCallDuration
+     *          Duration in milliseconds, after which a call is considered slow, 5 seconds by default.
+     * @param slowCallRateThreshold
+     *          Percentage of slow calls, which opens the breaker, 80 by default.
+     * @return Same {@link Settings} instance.
+     */
+    public Settings withSlowCallThreshold( final long slowCallDuration, final int slowCallRateThreshold ) {
+      if( slowCallDuration < 1 )
+        throw new IllegalArgumentException( "Slow call duration must be positive" );
+      CircuitBreakerHttpClient.validatesPercentage( slowCallRateThreshold );
+      this.slowCallDuration = TimeUnit.MILLISECONDS.toNanos( slowCallDuration );
+      this.slowCallRateThreshold = slowCallRateThreshold;
+      return this;
+    }
+
+    /**
+     * @param openDuration
+     *          Time in milliseconds an open breaker rejects all calls before probing, 30 seconds by default.
+     * @param halfOpenProbes
+     *          Number of probe calls in half open state, 5 by default.
+     * @return Same {@link Settings} instance.
+     */
+    public Settings withOpenDuration( final long openDuration, final int halfOpenProbes ) {
+      if( openDuration < 0 || halfOpenProbes < 1 )
+        throw new IllegalArgumentException( "Open duration can not be negative and half open probes must be positive" );
+      this.openDuration = TimeUnit.MILLISECONDS.toNanos( openDuration );
+      this.halfOpenProbes = halfOpenProbes;
+      return this;
+    }
+
+    private Settings copy() {
+      Settings copy = new Settings();
+      copy.windowSize = this.windowSize;
+      copy.minimumCalls = this.minimumCalls;
+      copy.failureRateThreshold = this.failureRateThreshold;
+      copy.slowCallRateThreshold = this.slowCallRateThreshold;
+      copy.slowCallDuration = this.slowCallDuration;
+      copy.openDuration = this.openDuration;
+      copy.halfOpenProbes = this.halfOpenProbes;
+      return copy;
+    }
+  }
+
+  private static void validatesPercentage( final int percentage ) {
+    if( percentage < 1 || percentage > 100 )
+      throw new IllegalArgumentException( "Threshold must be a percentage between 1 and 100" );
+  }
+
+  /**
+   * Remembers, whether PAYMILL answered with a 5xx status, and passes the status on to the listener of the caller.
+   */
+  private final static class StatusRecorder implements CallOptions.StatusListener {
+
+    private final CallOptions.StatusListener next;
+    private volatile boolean                 serverError;
+
+    StatusRecorder( final CallOptions.StatusListener next ) {
+      this.next = next;
+    }
+
+    @Override
+    public void onStatus( final int status ) {
+      if( status >= 500 ) {
+        this.serverError = true;
+      }
+      if( this.next != null ) {
+        this.next.onStatus( status );
+      }
+    }
+  }
+
+  /**
+   * Breaker of a single resource. All methods are short and never called during I/O, so plain synchronization is sufficient.
+   */
+  private final static class Breaker {
+
+    private final static byte FAILED = 1;
+    private final static byte SLOW   = 2;
+
+    private final Settings    settings;
+    private final byte[]      outcomes;
+    private State             state  = State.CLOSED;
+    private int               next;
+    private int               calls;
+    private int               failures;
+    private int               slows;
+    private long              openedAt;
+    private long              generation;
+    private int               probesStarted;
+    private int               probesDone;
+    private int               probeFailures;
+    private int               probeSlows;
+    private long              notPermitted;
+
+    Breaker( final Settings settings ) {
+      this.settings = settings;
+      this.outcomes = new byte[settings.windowSize];
+    }
+
+    /**
+     * @return <code>-1</code> if the call is rejected, <code>0</code> for a regular call or the half open generation for a probe.
+     */
+    synchronized long acquire() {
+      if( this.state == State.OPEN && System.nanoTime() - this.openedAt >= this.settings.openDuration ) {
+        this.state = State.HALF_OPEN;
+        this.generation++;
+        this.probesStarted = 0;
+        this.probesDone = 0;
+        this.probeFailures = 0;
+        this.probeSlows = 0;
+      }
+      if( this.state == State.CLOSED ) {
+        return 0;
+      }
+      if( this.state == State.HALF_OPEN && this.probesStarted < this.settings.halfOpenProbes ) {
+        this.probesStarted++;
+        return this.generation;
+      }
+      this.notPermitted++;
+      return -1;
+    }
+
+    synchronized void onResult( final long permit, final long duration, final boolean failed ) {
+      byte outcome = (byte) ((failed ? FAILED : 0) | (duration >= this.settings.slowCallDuration ? SLOW : 0));
+      if( permit == 0 && this.state == State.CLOSED ) {
+        this.record( outcome );
+        if( this.calls >= this.settings.minimumCalls && this.exceedsThresholds( this.failures, this.slows, this.calls ) ) {
+          this.open();
+        }
+      } else if( permit > 0 && permit == this.generation && this.state == State.HALF_OPEN ) {
+        this.probesDone++;
+        this.probeFailures += outcome & FAILED;
+        this.probeSlows += (outcome & SLOW) >> 1;
+        if( this.exceedsThresholds( this.probeFailures, this.probeSlows, this.settings.halfOpenProbes ) ) {
+          this.open();
+        } else if( this.probesDone >= this.settings.halfOpenProbes ) {
+          this.close();
+        }
+      }
+    }
+
+    /**
+     * Releases the permit of a call, whose outcome is not recorded, so a probe can be repeated.
+     */
+    synchronized void onIgnored( final long permit ) {
+      if( permit > 0 && permit == this.generation && this.state == State.HALF_OPEN ) {
+        this.probesStarted--;
+      }
+    }
+
+    synchronized State getState() {
+      return this.state;
+    }
+
+    synchronized long getNotPermitted() {
+      return this.notPermitted;
+    }
+
+    private boolean exceedsThresholds( final int failed, final int slow, final int total ) {
+      return failed * 100 >= this.settings.failureRateThreshold * total || slow * 100 >= this.settings.slowCallRateThreshold * total;
+    }
+
+    private void record( final byte outcome ) {
+      if( this.calls == this.outcomes.length ) {
+        byte evicted = this.outcomes[this.next];
+        this.failures -= evicted & FAILED;
+        this.slows -= (evicted & SLOW) >> 1;
+      } else {
+        this.calls++;
+      }
+      this.outcomes[this.next] = outcome;
+      this.failures += outcome & FAILED;
+      this.slows += (outcome & SLOW) >> 1;
+      this.next = (this.next + 1) % this.outcomes.length;
+    }
+
+    private void open() {
+      this.state = State.OPEN;
+      this.openedAt = System.nanoTime();
+    }
+
+    private void close() {
+      this.state = State.CLOSED;
+      this.next = 0;
+      this.calls = 0;
+      this.failures = 0;
+      this.slows = 0;
+    }
+  }
+
+}
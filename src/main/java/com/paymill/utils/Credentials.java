@@ -0,0 +1,60 @@
+package com.paymill.utils;
+
+import java.nio.charset.Charset;
+
+import org.glassfish.jersey.internal.util.Base64;
+
+/**
+ * API key of a merchant with its <code>Authorization</code> header, which is computed once, so a transport shared by many
+ * merchants only has to set it per request. Obtain contexts, which send their calls with credentials, by
+ * {@link com.paymill.context.PaymillContext#withApiKey(String)}.
+ * @since 5.2.0
+ */
+public final class Credentials {
+
+  private final static Charset UTF_8 = Charset.forName( "UTF-8" );
+
+  private final String         apiKey;
+  private final String         authorization;
+
+  /**
+   * @param apiKey
+   *          Private key from PAYMILL merchant center.
+   */
+  public Credentials( final String apiKey ) {
+    if( apiKey == null || apiKey.length() == 0 )
+      throw new IllegalArgumentException( "API key can not be blank" );
+    this.apiKey = apiKey;
+    this.authorization = "Basic " + Base64.encodeAsString( (apiKey + ":").getBytes( UTF_8 ) );
+  }
+
+  public String getApiKey() {
+    return this.apiKey;
+  }
+
+  /**
+   * @return Value of the <code>Authorization</code> header for HTTP basic authentication.
+   */
+  public String getAuthorization() {
+    return this.authorization;
+  }
+
+  @Override
+  public boolean equals( final Object other ) {
+    return other instanceof Credentials && this.apiKey.equals( ((Credentials) other).apiKey );
+  }
+
+  @Override
+  public int hashCode() {
+    return this.apiKey.hashCode();
+  }
+
+  /**
+   * @return Masked API key, which is safe to log.
+   */
+  @Override
+  public String toString() {
+    return this.apiKey.substring( 0, Math.min( 4, this.apiKey.length() ) ) + "...";
+  }
+
+}
@@ -0,0 +1,170 @@
+package com.paymill.utils;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import com.paymill.exceptions.DeadlineExceededException;
+
+/**
+ * Point in time, after which the result of a call is useless. <br>
+ * A deadline is created once for a whole flow, e.g. create payment then charge, and the same instance is passed to every step
+ * with {@link com.paymill.context.PaymillContext#withDeadline(Deadline)}, so each step only gets the time left. The transport
+ * uses the remaining time as connect and read timeout, and waits in decorators are bounded by it. A deadline can also be
+ * cancelled, which aborts waiting and in-flight calls with a {@link DeadlineExceededException}.
+ * @since 5.2.0
+ */
+public final class Deadline {
+
+  private final long           expiresAt;
+  private final Set<Future<?>> inFlight  = Collections.newSetFromMap( new ConcurrentHashMap<Future<?>, Boolean>() );
+  private final Set<Runnable>  listeners = Collections.newSetFromMap( new ConcurrentHashMap<Runnable, Boolean>() );
+  private volatile boolean     cancelled;
+
+  private Deadline( final long expiresAt ) {
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * @param duration
+   *          Time budget from now.
+   * @param unit
+   *          {@link TimeUnit} of the duration.
+   * @return New {@link Deadline}.
+   */
+  public static Deadline after( final long duration, final TimeUnit unit ) {
+    return new Deadline( System.nanoTime() + unit.toNanos( duration ) );
+  }
+
+  /**
+   * @param unit
+   *          {@link TimeUnit} of the result.
+   * @return Time left, <code>0</code> if expired or cancelled.
+   */
+  public long remaining( final TimeUnit unit ) {
+    if( this.cancelled ) {
+      return 0;
+    }
+    return Math.max( 0, unit.convert( this.expiresAt - System.nanoTime(), TimeUnit.NANOSECONDS ) );
+  }
+
+  public boolean isExpired() {
+    return this.cancelled || this.expiresAt - System.nanoTime() <= 0;
+  }
+
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+
+  /**
+   * Cancels the deadline. Calls in flight and calls queued for a slot of a decorator fail immediately, calls started later fail
+   * before they are sent. A call, which already reserved a token of a {@link TokenBucket}, waits for it and then fails before it
+   * is sent.
+   */
+  public void cancel() {
+    this.cancelled = true;
+    for( Future<?> future : this.inFlight ) {
+      future.cancel( true );
+    }
+    for( Runnable listener : this.listeners ) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Registers a listener, which wakes a waiting call, when the deadline is cancelled. It is run by {@link #cancel()} or right
+   * away, if the deadline is already cancelled, and may run more than once.
+   */
+  void addCancelListener( final Runnable listener ) {
+    this.listeners.add( listener );
+    if( this.cancelled ) {
+      listener.run();
+    }
+  }
+
+  void removeCancelListener( final Runnable listener ) {
+    this.listeners.remove( listener );
+  }
+
+  /**
+   * @return Listener, which signals all threads waiting for the condition.
+   */
+  static Runnable signalAll( final Lock lock, final Condition condition ) {
+    return new Signal( lock, condition );
+  }
+
+  /**
+   * @return Milliseconds left, at least one.
+   * @throws DeadlineExceededException
+   *           if expired or cancelled.
+   */
+  long checkRemainingMillis() {
+    long remaining = this.remaining( TimeUnit.MILLISECONDS );
+    if( remaining <= 0 ) {
+      throw new DeadlineExceededException( this.cancelled );
+    }
+    return remaining;
+  }
+
+  /**
+   * Waits for the future until the deadline and cancels it, if the deadline is exceeded or cancelled meanwhile.
+   */
+  <T> T await( final Future<T> future ) {
+    this.inFlight.add( future );
+    try {
+      if( this.cancelled ) {
+        future.cancel( true );
+      }
+      return future.get( this.checkRemainingMillis(), TimeUnit.MILLISECONDS );
+    } catch( TimeoutException exc ) {
+      future.cancel( true );
+      throw new DeadlineExceededException( false );
+    } catch( CancellationException exc ) {
+      throw new DeadlineExceededException( this.cancelled );
+    } catch( ExecutionException exc ) {
+      Throwable cause = exc.getCause();
+      if( cause instanceof RuntimeException ) {
+        throw (RuntimeException) cause;
+      }
+      if( cause instanceof Error ) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException( cause );
+    } catch( InterruptedException exc ) {
+      future.cancel( true );
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    } finally {
+      this.inFlight.remove( future );
+    }
+  }
+
+  private final static class Signal implements Runnable {
+
+    private final Lock      lock;
+    private final Condition condition;
+
+    Signal( final Lock lock, final Condition condition ) {
+      this.lock = lock;
+      this.condition = condition;
+    }
+
+    @Override
+    public void run() {
+      this.lock.lock();
+      try {
+        this.condition.signalAll();
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+
+}
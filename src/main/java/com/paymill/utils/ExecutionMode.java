@@ -0,0 +1,141 @@
+package com.paymill.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kind of threads, on which the library runs work it fans out internally, e.g. hedged requests and asynchronous requests
+ * under a {@link Deadline}. <br>
+ * The service API stays blocking. With {@link #VIRTUAL_THREADS} each of these tasks gets its own virtual thread, so tens of
+ * thousands of blocking calls can be in flight without large pools of platform threads. Virtual threads require Java 21, on
+ * older runtimes {@link #VIRTUAL_THREADS} falls back to {@link #PLATFORM_THREADS}. The decorators of this package guard their
+ * state with short <code>synchronized</code> sections or {@link java.util.concurrent.locks.ReentrantLock}s and never hold a
+ * monitor while sleeping or doing I/O, so they do not pin carrier threads.
+ * @since 5.2.0
+ */
+public enum ExecutionMode {
+
+  /**
+   * Cached pool of daemon platform threads.
+   */
+  PLATFORM_THREADS {
+
+    @Override
+    public ExecutorService newExecutor( final String name ) {
+      return Executors.newCachedThreadPool( new DaemonThreadFactory( name ) );
+    }
+  },
+
+  /**
+   * New virtual thread per task, falls back to {@link #PLATFORM_THREADS} before Java 21.
+   */
+  VIRTUAL_THREADS {
+
+    @Override
+    public ExecutorService newExecutor( final String name ) {
+      if( !ExecutionMode.isVirtualThreadsSupported() ) {
+        return PLATFORM_THREADS.newExecutor( name );
+      }
+      try {
+        Object builder = VirtualThreads.NAME.invoke( VirtualThreads.OF_VIRTUAL.invoke( null ), name + "-", 1L );
+        ThreadFactory factory = (ThreadFactory) VirtualThreads.FACTORY.invoke( builder );
+        return (ExecutorService) VirtualThreads.NEW_EXECUTOR.invoke( null, factory );
+      } catch( Exception exc ) {
+        throw new IllegalStateException( "Can not create virtual thread executor", exc );
+      }
+    }
+  };
+
+  private static volatile ExecutionMode defaultMode = PLATFORM_THREADS;
+
+  /**
+   * Creates an {@link ExecutorService} of this mode. The caller is responsible to shut it down, though its threads never keep
+   * the JVM alive.
+   * @param name
+   *          Prefix of the thread names.
+   * @return New {@link ExecutorService}.
+   */
+  public abstract ExecutorService newExecutor( final String name );
+
+  /**
+   * @return <code>true</code> if the runtime supports virtual threads.
+   */
+  public static boolean isVirtualThreadsSupported() {
+    return VirtualThreads.NEW_EXECUTOR != null;
+  }
+
+  /**
+   * @return The {@link ExecutionMode} used by clients created without an explicit executor.
+   */
+  public static ExecutionMode getDefault() {
+    return ExecutionMode.defaultMode;
+  }
+
+  /**
+   * Sets the {@link ExecutionMode} used by clients created afterwards without an explicit executor.
+   * @param mode
+   *          The new default mode.
+   */
+  public static void setDefault( final ExecutionMode mode ) {
+    if( mode == null )
+      throw new IllegalArgumentException( "Execution mode can not be null" );
+    ExecutionMode.defaultMode = mode;
+  }
+
+  /**
+   * Looks up the virtual thread API reflectively, as the library is compiled for older Java versions.
+   */
+  private final static class VirtualThreads {
+
+    private final static Method OF_VIRTUAL;
+    private final static Method NAME;
+    private final static Method FACTORY;
+    private final static Method NEW_EXECUTOR;
+
+    static {
+      Method ofVirtual = null;
+      Method name = null;
+      Method factory = null;
+      Method newExecutor = null;
+      try {
+        Class<?> builder = Class.forName( "java.lang.Thread$Builder" );
+        ofVirtual = Thread.class.getMethod( "ofVirtual" );
+        name = builder.getMethod( "name", String.class, long.class );
+        factory = builder.getMethod( "factory" );
+        newExecutor = Executors.class.getMethod( "newThreadPerTaskExecutor", ThreadFactory.class );
+        // throws on runtimes, where virtual threads are a preview feature and not enabled
+        ofVirtual.invoke( null );
+      } catch( Exception exc ) {
+        newExecutor = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      NAME = name;
+      FACTORY = factory;
+      NEW_EXECUTOR = newExecutor;
+    }
+  }
+
+  /**
+   * Creates daemon platform threads, which are numbered after the given name.
+   */
+  final static class DaemonThreadFactory implements ThreadFactory {
+
+    private final String        name;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    DaemonThreadFactory( final String name ) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread( final Runnable runnable ) {
+      Thread thread = new Thread( runnable, this.name + "-" + this.counter.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    }
+  }
+
+}
@@ -0,0 +1,20 @@
+package com.paymill.utils;
+
+/**
+ * Output format of an {@link ExportWriter}.
+ * @since 5.2.0
+ */
+public enum ExportFormat {
+
+  /**
+   * One JSON object per line, nested models are written as they are.
+   */
+  NDJSON,
+
+  /**
+   * Comma separated values after a header line of the columns. A nested model is written as its id, a list as its values or ids
+   * separated by spaces.
+   */
+  CSV;
+
+}
@@ -0,0 +1,315 @@
+package com.paymill.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.paymill.models.ModelMapper;
+
+/**
+ * Writes PAYMILL models as NDJSON or CSV to a stream, optionally compressed with GZIP. <br>
+ * Rows are copied token by token from the JSON of a response, so a page is exported without creating models and the memory
+ * does not grow with the count of rows; the services export all pages of a list with <code>export</code>, e.g.
+ * {@link com.paymill.services.TransactionService#export(com.paymill.models.Transaction.Filter, com.paymill.models.Transaction.Order, ExportWriter)}.
+ * Models held locally are written with {@link #writeModel(Object)}, their dates in seconds like in the responses. <br>
+ * Columns are the names of the JSON fields, e.g. <code>created_at</code>. NDJSON without columns contains all fields, with
+ * columns only these in the order of the response; CSV requires columns and writes them in the given order. A writer is not
+ * thread-safe. I/O errors are thrown as {@link RuntimeException}.
+ * @since 5.2.0
+ */
+public final class ExportWriter implements Closeable, Flushable {
+
+  private final static int           BUFFER_SIZE = 64 * 1024;
+
+  private final ExportFormat         format;
+  private final String[]             columns;
+  private final Map<String, Integer> positions;
+  private final Writer               writer;
+  private final JsonGenerator        generator;
+  private final String[]             values;
+  private int                        count;
+
+  /**
+   * @param output
+   *          {@link OutputStream} to write to, which is closed with the writer.
+   * @param format
+   *          {@link ExportFormat} of the rows.
+   * @param compressed
+   *          <code>true</code> to compress the output with GZIP.
+   * @param columns
+   *          Names of the fields to write, none for all fields of NDJSON.
+   */
+  public ExportWriter( final OutputStream output, final ExportFormat format, final boolean compressed, final String... columns ) {
+    if( output == null )
+      throw new IllegalArgumentException( "Output can not be null" );
+    if( format == null )
+      throw new IllegalArgumentException( "Format can not be null" );
+    if( format == ExportFormat.CSV && columns.length == 0 )
+      throw new IllegalArgumentException( "CSV requires columns" );
+    this.format = format;
+    this.columns = columns.length == 0 ? null : Arrays.copyOf( columns, columns.length );
+    this.positions = new HashMap<String, Integer>();
+    for( int i = 0; i < columns.length; i++ ) {
+      if( columns[i] == null )
+        throw new IllegalArgumentException( "Column can not be null" );
+      this.positions.put( columns[i], i );
+    }
+    this.values = new String[columns.length];
+    try {
+      OutputStream stream = compressed ? new GZIPOutputStream( output, BUFFER_SIZE ) : new BufferedOutputStream( output,
+          BUFFER_SIZE );
+      this.writer = new OutputStreamWriter( stream, "UTF-8" );
+      if( format == ExportFormat.NDJSON ) {
+        this.generator = ModelMapper.createGenerator( this.writer );
+        this.generator.setRootValueSeparator( null );
+      } else {
+        this.generator = null;
+        this.writeCsvRow( this.columns );
+      }
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * Creates a writer to a file, which is replaced.
+   * @param file
+   *          {@link File} to write to.
+   * @param format
+   *          {@link ExportFormat} of the rows.
+   * @param compressed
+   *          <code>true</code> to compress the output with GZIP.
+   * @param columns
+   *          Names of the fields to write, none for all fields of NDJSON.
+   * @return New {@link ExportWriter}.
+   */
+  public static ExportWriter open( final File file, final ExportFormat format, final boolean compressed, final String... columns ) {
+    if( file == null )
+      throw new IllegalArgumentException( "File can not be null" );
+    OutputStream output = null;
+    try {
+      output = new FileOutputStream( file );
+      return new ExportWriter( output, format, compressed, columns );
+    } catch( IOException exc ) {
+      ExportWriter.close( output );
+      throw new RuntimeException( exc );
+    } catch( RuntimeException exc ) {
+      ExportWriter.close( output );
+      throw exc;
+    }
+  }
+
+  /**
+   * Closes the output of a writer, which could not be created, the cause is thrown instead of errors on closing.
+   */
+  private static void close( final OutputStream output ) {
+    if( output == null ) {
+      return;
+    }
+    try {
+      output.close();
+    } catch( IOException ignored ) {
+      // the cause is thrown
+    }
+  }
+
+  /**
+   * @return The count of rows written so far.
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * Writes the object at the current token of the parser as row and moves the parser to its end. <code>null</code> is skipped.
+   * @param parser
+   *          {@link JsonParser} at the start of the object.
+   */
+  public void write( final JsonParser parser ) {
+    try {
+      JsonToken token = parser.getCurrentToken();
+      if( token == JsonToken.VALUE_NULL ) {
+        return;
+      }
+      if( token != JsonToken.START_OBJECT )
+        throw new IllegalArgumentException( "Row must be an object, but was " + token );
+      if( this.format == ExportFormat.NDJSON ) {
+        this.writeJson( parser );
+      } else {
+        this.writeCsv( parser );
+      }
+      this.count++;
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * Writes a model, e.g. a {@link com.paymill.models.Transaction} held locally, as row.
+   * @param model
+   *          The model to write.
+   */
+  public void writeModel( final Object model ) {
+    if( model == null )
+      throw new IllegalArgumentException( "Model can not be null" );
+    try {
+      TokenBuffer buffer = new TokenBuffer( (ObjectCodec) null, false );
+      ModelMapper.writeValue( buffer, model );
+      JsonParser parser = buffer.asParser();
+      parser.nextToken();
+      this.write( parser );
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * Writes models held locally as rows.
+   * @param models
+   *          The models to write.
+   * @return The count of written rows.
+   */
+  public int writeModels( final Iterable<?> models ) {
+    if( models == null )
+      throw new IllegalArgumentException( "Models can not be null" );
+    int start = this.count;
+    for( Object model : models ) {
+      this.writeModel( model );
+    }
+    return this.count - start;
+  }
+
+  @Override
+  public void flush() {
+    try {
+      if( this.generator != null ) {
+        this.generator.flush();
+      }
+      this.writer.flush();
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * Writes the buffered rows, finishes the compression and closes the output.
+   */
+  @Override
+  public void close() {
+    try {
+      if( this.generator != null ) {
+        this.generator.close();
+      }
+      this.writer.close();
+    } catch( IOException exc ) {
+      throw new RuntimeException( exc );
+    }
+  }
+
+  private void writeJson( final JsonParser parser ) throws IOException {
+    if( this.columns == null ) {
+      this.generator.copyCurrentStructure( parser );
+    } else {
+      this.generator.writeStartObject();
+      while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        if( this.positions.containsKey( name ) ) {
+          this.generator.writeFieldName( name );
+          this.generator.copyCurrentStructure( parser );
+        } else {
+          parser.skipChildren();
+        }
+      }
+      this.generator.writeEndObject();
+    }
+    this.generator.writeRaw( '\n' );
+  }
+
+  private void writeCsv( final JsonParser parser ) throws IOException {
+    Arrays.fill( this.values, null );
+    while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+      Integer position = this.positions.get( parser.getCurrentName() );
+      JsonToken token = parser.nextToken();
+      if( position == null ) {
+        parser.skipChildren();
+      } else if( token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY ) {
+        this.values[position] = ExportWriter.toCell( ModelMapper.readTree( parser ) );
+      } else if( token != JsonToken.VALUE_NULL ) {
+        this.values[position] = parser.getText();
+      }
+    }
+    this.writeCsvRow( this.values );
+  }
+
+  /**
+   * @return The id of a model, the values of a list separated by spaces or the JSON of any other object.
+   */
+  private static String toCell( final JsonNode node ) {
+    if( node.isObject() ) {
+      JsonNode id = node.get( "id" );
+      return id != null && id.isValueNode() ? id.asText() : node.toString();
+    }
+    if( node.isArray() ) {
+      StringBuilder cell = new StringBuilder();
+      for( JsonNode element : node ) {
+        cell.append( cell.length() == 0 ? "" : " " ).append( ExportWriter.toCell( element ) );
+      }
+      return cell.toString();
+    }
+    return node.isNull() ? null : node.asText();
+  }
+
+  private void writeCsvRow( final String[] row ) throws IOException {
+    for( int i = 0; i < row.length; i++ ) {
+      if( i > 0 ) {
+        this.writer.write( ',' );
+      }
+      if( row[i] != null ) {
+        ExportWriter.writeCsvValue( this.writer, row[i] );
+      }
+    }
+    this.writer.write( "\r\n" );
+  }
+
+  /**
+   * Writes a value as defined by RFC 4180, quoted if it contains a separator, quote or line break.
+   */
+  private static void writeCsvValue( final Writer writer, final String value ) throws IOException {
+    boolean quoted = false;
+    for( int i = 0; i < value.length() && !quoted; i++ ) {
+      char c = value.charAt( i );
+      quoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+    }
+    if( !quoted ) {
+      writer.write( value );
+      return;
+    }
+    writer.write( '"' );
+    for( int i = 0; i < value.length(); i++ ) {
+      char c = value.charAt( i );
+      if( c == '"' ) {
+        writer.write( '"' );
+      }
+      writer.write( c );
+    }
+    writer.write( '"' );
+  }
+
+}
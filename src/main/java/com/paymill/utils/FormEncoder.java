@@ -0,0 +1,228 @@
+package com.paymill.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes <code>application/x-www-form-urlencoded</code> request bodies straight into a byte buffer, which is reused by the
+ * calls of a thread. <br>
+ * The encoding is the same as {@link java.net.URLEncoder} with UTF-8, but without intermediate strings. Parameter names used
+ * by the services, like <code>amount</code> and <code>currency</code>, are encoded once per JVM.
+ * @since 5.2.0
+ */
+public final class FormEncoder {
+
+  private final static int                      INITIAL_CAPACITY = 256;
+  private final static int                      MAX_RETAINED     = 16 * 1024;
+  private final static byte[]                   HEX              = "0123456789ABCDEF".getBytes();
+
+  private final static Map<String, byte[]>      KEYS             = new HashMap<String, byte[]>();
+
+  private final static ThreadLocal<FormEncoder> ENCODERS         = new ThreadLocal<FormEncoder>();
+
+  static {
+    for( String key : new String[] { "amount", "currency", "description", "source", "token", "payment", "client", "offer",
+        "preauthorization", "interval", "period_of_validity", "trial_end", "pause", "name", "email", "fee_amount",
+        "fee_payment", "fee_currency", "count", "offset", "order" } ) {
+      FormEncoder encoder = new FormEncoder();
+      encoder.encode( key );
+      KEYS.put( key, encoder.toByteArray() );
+    }
+  }
+
+  private byte[]                                buffer           = new byte[INITIAL_CAPACITY];
+  private int                                   length;
+
+  /**
+   * Creates an encoder, which is not shared with other calls.
+   */
+  public FormEncoder() {
+  }
+
+  /**
+   * @return The empty encoder of the current thread. Its content is valid until the thread asks for it again.
+   */
+  public static FormEncoder local() {
+    FormEncoder encoder = ENCODERS.get();
+    if( encoder == null || encoder.buffer.length > MAX_RETAINED ) {
+      encoder = new FormEncoder();
+      ENCODERS.set( encoder );
+    }
+    encoder.length = 0;
+    return encoder;
+  }
+
+  /**
+   * Encodes all parameters of the map. A <code>null</code> value is written as name without value.
+   * @param params
+   *          Parameters or <code>null</code> for an empty body.
+   * @return This encoder.
+   */
+  public FormEncoder addAll( final ParameterMap<String, String> params ) {
+    if( params != null ) {
+      for( Map.Entry<String, List<String>> entry : params.entrySet() ) {
+        for( String value : entry.getValue() ) {
+          this.add( entry.getKey(), value );
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @param key
+   *          Name of the parameter.
+   * @param value
+   *          Value of the parameter or <code>null</code> to write the name only.
+   * @return This encoder.
+   */
+  public FormEncoder add( final String key, final String value ) {
+    this.appendKey( key );
+    if( value != null ) {
+      this.append( (byte) '=' );
+      this.encode( value );
+    }
+    return this;
+  }
+
+  /**
+   * Adds a numeric parameter, e.g. an amount, without creating a string for it.
+   * @param key
+   *          Name of the parameter.
+   * @param value
+   *          Value of the parameter.
+   * @return This encoder.
+   */
+  public FormEncoder add( final String key, final long value ) {
+    this.appendKey( key );
+    this.append( (byte) '=' );
+    if( value == Long.MIN_VALUE ) {
+      this.encode( String.valueOf( value ) );
+      return this;
+    }
+    long remainder = value;
+    if( remainder < 0 ) {
+      this.append( (byte) '-' );
+      remainder = -remainder;
+    }
+    int start = this.length;
+    do {
+      this.append( (byte) ('0' + remainder % 10) );
+      remainder /= 10;
+    } while( remainder > 0 );
+    for( int i = start, j = this.length - 1; i < j; i++, j-- ) {
+      byte digit = this.buffer[i];
+      this.buffer[i] = this.buffer[j];
+      this.buffer[j] = digit;
+    }
+    return this;
+  }
+
+  /**
+   * Appends content encoded before, e.g. constant parameters.
+   * @param encoded
+   *          Encoded parameters, as returned by {@link #toByteArray()}.
+   * @return This encoder.
+   */
+  public FormEncoder addEncoded( final byte[] encoded ) {
+    if( encoded.length > 0 ) {
+      if( this.length > 0 ) {
+        this.append( (byte) '&' );
+      }
+      this.ensureCapacity( encoded.length );
+      System.arraycopy( encoded, 0, this.buffer, this.length, encoded.length );
+      this.length += encoded.length;
+    }
+    return this;
+  }
+
+  public int length() {
+    return this.length;
+  }
+
+  /**
+   * @return Copy of the encoded content.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf( this.buffer, this.length );
+  }
+
+  @Override
+  public String toString() {
+    char[] chars = new char[this.length];
+    for( int i = 0; i < this.length; i++ ) {
+      chars[i] = (char) this.buffer[i];
+    }
+    return new String( chars );
+  }
+
+  private void appendKey( final String key ) {
+    if( this.length > 0 ) {
+      this.append( (byte) '&' );
+    }
+    byte[] encoded = KEYS.get( key );
+    if( encoded != null ) {
+      this.ensureCapacity( encoded.length );
+      System.arraycopy( encoded, 0, this.buffer, this.length, encoded.length );
+      this.length += encoded.length;
+    } else {
+      this.encode( key );
+    }
+  }
+
+  /**
+   * Encodes like {@link java.net.URLEncoder}: letters, digits and <code>.-*_</code> are kept, space becomes <code>+</code>, all
+   * other characters are written as percent encoded UTF-8 bytes.
+   */
+  private void encode( final String value ) {
+    int size = value.length();
+    for( int i = 0; i < size; i++ ) {
+      char c = value.charAt( i );
+      if( (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '*'
+          || c == '_' ) {
+        this.append( (byte) c );
+      } else if( c == ' ' ) {
+        this.append( (byte) '+' );
+      } else if( c < 0x80 ) {
+        this.appendEscaped( c );
+      } else if( c < 0x800 ) {
+        this.appendEscaped( 0xC0 | (c >> 6) );
+        this.appendEscaped( 0x80 | (c & 0x3F) );
+      } else if( Character.isHighSurrogate( c ) && i + 1 < size && Character.isLowSurrogate( value.charAt( i + 1 ) ) ) {
+        int codePoint = Character.toCodePoint( c, value.charAt( ++i ) );
+        this.appendEscaped( 0xF0 | (codePoint >> 18) );
+        this.appendEscaped( 0x80 | ((codePoint >> 12) & 0x3F) );
+        this.appendEscaped( 0x80 | ((codePoint >> 6) & 0x3F) );
+        this.appendEscaped( 0x80 | (codePoint & 0x3F) );
+      } else if( c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE ) {
+        // unpaired surrogate, replaced like the UTF-8 encoder of the JDK does
+        this.appendEscaped( '?' );
+      } else {
+        this.appendEscaped( 0xE0 | (c >> 12) );
+        this.appendEscaped( 0x80 | ((c >> 6) & 0x3F) );
+        this.appendEscaped( 0x80 | (c & 0x3F) );
+      }
+    }
+  }
+
+  private void appendEscaped( final int b ) {
+    this.ensureCapacity( 3 );
+    this.buffer[this.length++] = '%';
+    this.buffer[this.length++] = HEX[(b >> 4) & 0x0F];
+    this.buffer[this.length++] = HEX[b & 0x0F];
+  }
+
+  private void append( final byte b ) {
+    this.ensureCapacity( 1 );
+    this.buffer[this.length++] = b;
+  }
+
+  private void ensureCapacity( final int additional ) {
+    if( this.length + additional > this.buffer.length ) {
+      this.buffer = Arrays.copyOf( this.buffer, Math.max( this.buffer.length * 2, this.length + additional ) );
+    }
+  }
+
+}
@@ -0,0 +1,396 @@
+package com.paymill.utils;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link HttpClient} decorator, which hedges GET requests to cut tail latency. <br>
+ * The primary request runs on the calling thread. If it has not completed after the configured percentile of recently
+ * observed GET latencies, a second identical request is sent from the executor on another connection and the first response
+ * wins. The hedge delay is kept by a single timer thread shared by all clients, so no thread waits for it. The loser is
+ * cancelled: a hedge runs under its own {@link Deadline}, which is cancelled when the primary wins, and a losing primary is
+ * interrupted, which aborts waits and requests under a {@link Deadline}, while blocking I/O of an
+ * <code>HttpURLConnection</code> can only finish or time out, so the caller may wait for it. Hedges are drawn from a
+ * {@link RetryingHttpClient.RetryBudget}, so they can only add a small ratio of extra load. Writes are passed through
+ * unchanged. <br>
+ * An executor created by the client is shut down by {@link #close()}.
+ * @since 5.2.0
+ */
+public final class HedgingHttpClient implements HttpClient, Closeable {
+
+  public final static double                   DEFAULT_PERCENTILE  = 0.95d;
+  public final static long                     DEFAULT_MIN_DELAY   = 50;
+  public final static double                   DEFAULT_HEDGE_RATIO = 0.05d;
+
+  /**
+   * Time budget of a hedge of a call without {@link Deadline}, the transport bounds it by its own timeout.
+   */
+  private final static long                    UNBOUNDED           = TimeUnit.DAYS.toNanos( 1 );
+
+  private final HttpClient                     delegate;
+  private final ExecutorService                executor;
+  private final boolean                        ownsExecutor;
+  private final LatencyTracker                 latencies;
+  private final long                           minDelay;
+  private final RetryingHttpClient.RetryBudget budget;
+  private final AtomicLong                     hedged              = new AtomicLong();
+  private final AtomicLong                     hedgeWins           = new AtomicLong();
+
+  /**
+   * Creates a hedging client, which hedges after the 95th percentile, but not earlier than {@value #DEFAULT_MIN_DELAY}
+   * milliseconds, and for at most 5% of the requests.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   */
+  public HedgingHttpClient( final HttpClient delegate ) {
+    this( delegate, DEFAULT_PERCENTILE, DEFAULT_MIN_DELAY, new RetryingHttpClient.RetryBudget( DEFAULT_HEDGE_RATIO ), null );
+  }
+
+  /**
+   * Creates a hedging client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param percentile
+   *          Percentile of observed GET latencies, after which a hedge is sent, e.g. <code>0.95</code>.
+   * @param minDelay
+   *          Lower bound of the hedge delay in milliseconds, also used until enough latencies are observed.
+   * @param budget
+   *          {@link RetryingHttpClient.RetryBudget} for the hedges, which may be shared with a {@link RetryingHttpClient} to cap
+   *          the total extra load.
+   * @param executor
+   *          {@link ExecutorService} running the hedges or <code>null</code> to use an own executor of the default
+   *          {@link ExecutionMode}, which is shut down by {@link #close()}.
+   */
+  public HedgingHttpClient( final HttpClient delegate, final double percentile, final long minDelay,
+      final RetryingHttpClient.RetryBudget budget, final ExecutorService executor ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( percentile <= 0 || percentile >= 1 )
+      throw new IllegalArgumentException( "Percentile must be between 0 and 1" );
+    if( minDelay < 0 )
+      throw new IllegalArgumentException( "Min delay can not be negative" );
+    if( budget == null )
+      throw new IllegalArgumentException( "Hedge budget can not be null" );
+    this.delegate = delegate;
+    this.latencies = new LatencyTracker( percentile );
+    this.minDelay = minDelay;
+    this.budget = budget;
+    this.executor = executor != null ? executor : ExecutionMode.getDefault().newExecutor( "paymill-hedging" );
+    this.ownsExecutor = executor == null;
+  }
+
+  /**
+   * @return Number of requests, for which a hedge was sent.
+   */
+  public long getHedged() {
+    return this.hedged.get();
+  }
+
+  /**
+   * @return Number of requests, which were answered by the hedge.
+   */
+  public long getHedgeWins() {
+    return this.hedgeWins.get();
+  }
+
+  /**
+   * @return Current hedge delay in milliseconds.
+   */
+  public long getHedgeDelay() {
+    return Math.max( this.minDelay, TimeUnit.NANOSECONDS.toMillis( this.latencies.getPercentile() ) );
+  }
+
+  /**
+   * Shuts down the executor, if it was created by this client. Hedges in flight complete, no new hedges are sent.
+   */
+  @Override
+  public void close() {
+    if( this.ownsExecutor ) {
+      this.executor.shutdown();
+    }
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.hedge( path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.hedge( path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.delegate.post( path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.delegate.put( path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.delegate.delete( path, params );
+  }
+
+  private String hedge( final String path, final ParameterMap<String, String> params ) {
+    this.budget.onRequest();
+    Race race = new Race( path, params );
+    race.schedule( this.getHedgeDelay() );
+    String response;
+    long start = System.nanoTime();
+    try {
+      response = HttpMethod.GET.invoke( this.delegate, path, params );
+    } catch( RuntimeException exc ) {
+      if( race.onPrimaryFailed() ) {
+        this.hedgeWins.incrementAndGet();
+        return race.response;
+      }
+      throw exc;
+    }
+    if( race.onPrimaryDone() ) {
+      this.latencies.record( System.nanoTime() - start );
+      return response;
+    }
+    this.hedgeWins.incrementAndGet();
+    return race.response;
+  }
+
+  /**
+   * Race of the primary request on the calling thread against a hedge, which the timer sends from the executor after the hedge
+   * delay. The first success wins; the hedge interrupts the primary, when it wins, and the primary cancels the deadline of the
+   * hedge, when it wins.
+   */
+  private final class Race implements Runnable {
+
+    private final String                       path;
+    private final ParameterMap<String, String> params;
+    private final CallOptions                  options;
+    private final Thread                       caller;
+    private ScheduledFuture<?>                 timer;
+    private Deadline                           deadline;
+    private boolean                            primaryDone;
+    private boolean                            primaryFailed;
+    private boolean                            hedgeSent;
+    private boolean                            hedgeDone;
+    private boolean                            hedgeWon;
+    private boolean                            interrupted;
+    private String                             response;
+
+    Race( final String path, final ParameterMap<String, String> params ) {
+      this.path = path;
+      this.params = params;
+      this.options = CallOptions.current();
+      this.caller = Thread.currentThread();
+    }
+
+    /**
+     * Lets the timer send the hedge after the delay, unless the primary is done by then.
+     */
+    synchronized void schedule( final long delay ) {
+      this.timer = Timer.TIMER.schedule( new Send( this ), delay, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Sends the hedge, if the primary is still running and the budget allows it. Runs on the timer thread.
+     */
+    void send() {
+      synchronized( this ) {
+        if( this.primaryDone || !HedgingHttpClient.this.budget.tryAcquireRetry() ) {
+          return;
+        }
+        Deadline deadline = this.options.getDeadline();
+        this.deadline = Deadline.after( deadline != null ? deadline.remaining( TimeUnit.NANOSECONDS ) : UNBOUNDED,
+            TimeUnit.NANOSECONDS );
+        this.hedgeSent = true;
+        HedgingHttpClient.this.hedged.incrementAndGet();
+      }
+      try {
+        HedgingHttpClient.this.executor.execute( this );
+      } catch( RejectedExecutionException exc ) {
+        // closed, the primary runs without hedge
+        HedgingHttpClient.this.hedged.decrementAndGet();
+        this.onHedgeDone( null );
+      }
+    }
+
+    /**
+     * Runs the hedge on the executor.
+     */
+    @Override
+    public void run() {
+      CallOptions previous = CallOptions.attach( this.options.withDeadline( this.deadline ) );
+      try {
+        long start = System.nanoTime();
+        String response = HttpMethod.GET.invoke( HedgingHttpClient.this.delegate, this.path, this.params );
+        HedgingHttpClient.this.latencies.record( System.nanoTime() - start );
+        this.onHedgeDone( response );
+      } catch( RuntimeException exc ) {
+        this.onHedgeDone( null );
+      } finally {
+        CallOptions.detach( previous );
+      }
+    }
+
+    private synchronized void onHedgeDone( final String response ) {
+      this.hedgeDone = true;
+      if( response != null && !this.primaryDone ) {
+        this.hedgeWon = true;
+        this.response = response;
+        // an interrupt, which the caller already has, is left to the caller
+        if( !this.primaryFailed && !this.caller.isInterrupted() ) {
+          this.caller.interrupt();
+          this.interrupted = true;
+        }
+      }
+      this.notifyAll();
+    }
+
+    /**
+     * @return <code>true</code> if the response of the primary wins.
+     */
+    synchronized boolean onPrimaryDone() {
+      this.primaryDone = true;
+      this.notifyAll();
+      if( this.hedgeWon ) {
+        this.clearInterrupt();
+        return false;
+      }
+      this.cancelHedge();
+      return true;
+    }
+
+    /**
+     * Waits for a hedge in flight, which may still succeed.
+     * @return <code>true</code> if the hedge won.
+     */
+    synchronized boolean onPrimaryFailed() {
+      if( this.hedgeWon ) {
+        this.clearInterrupt();
+        return true;
+      }
+      this.primaryFailed = true;
+      Deadline deadline = this.options.getDeadline();
+      if( deadline != null && deadline.isCancelled() ) {
+        this.cancelHedge();
+      }
+      boolean interrupted = false;
+      while( this.hedgeSent && !this.hedgeDone ) {
+        try {
+          this.wait();
+        } catch( InterruptedException exc ) {
+          interrupted = true;
+        }
+      }
+      this.primaryDone = true;
+      this.cancelHedge();
+      if( interrupted ) {
+        Thread.currentThread().interrupt();
+      }
+      return this.hedgeWon;
+    }
+
+    /**
+     * Stops the timer and aborts a hedge in flight.
+     */
+    private void cancelHedge() {
+      if( this.timer != null ) {
+        this.timer.cancel( false );
+      }
+      if( this.hedgeSent && !this.hedgeDone ) {
+        this.deadline.cancel();
+      }
+    }
+
+    /**
+     * Clears the interrupt, which the hedge sent to the primary, once the primary has returned.
+     */
+    private void clearInterrupt() {
+      if( this.interrupted ) {
+        Thread.interrupted();
+        this.interrupted = false;
+      }
+    }
+  }
+
+  /**
+   * Task of the timer, which sends the hedge of a race.
+   */
+  private final static class Send implements Runnable {
+
+    private final Race race;
+
+    Send( final Race race ) {
+      this.race = race;
+    }
+
+    @Override
+    public void run() {
+      this.race.send();
+    }
+  }
+
+  /**
+   * Timer of the hedge delays of all clients, created on the first hedged request. Its single daemon thread only hands the
+   * hedges to the executors, cancelled delays are removed right away.
+   */
+  private final static class Timer {
+
+    private final static ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor( 1,
+                                                                 new ExecutionMode.DaemonThreadFactory( "paymill-hedging-timer" ) );
+
+    static {
+      TIMER.setRemoveOnCancelPolicy( true );
+    }
+  }
+
+  /**
+   * Keeps the latencies of the last requests and recomputes the percentile every few samples.
+   */
+  final static class LatencyTracker {
+
+    private final static int SAMPLES     = 1024;
+    private final static int MIN_SAMPLES = 32;
+    private final static int RECOMPUTE   = 64;
+
+    private final double     percentile;
+    private final long[]     samples     = new long[SAMPLES];
+    private int              count;
+    private int              next;
+    private int              sinceRecompute;
+    private volatile long    value;
+
+    LatencyTracker( final double percentile ) {
+      this.percentile = percentile;
+    }
+
+    synchronized void record( final long nanos ) {
+      this.samples[this.next] = nanos;
+      this.next = (this.next + 1) % SAMPLES;
+      this.count = Math.min( this.count + 1, SAMPLES );
+      this.sinceRecompute++;
+      if( this.count >= MIN_SAMPLES && (this.value == 0 || this.sinceRecompute >= RECOMPUTE) ) {
+        long[] sorted = Arrays.copyOf( this.samples, this.count );
+        Arrays.sort( sorted );
+        this.value = sorted[Math.min( this.count - 1, (int) (this.percentile * this.count) )];
+        this.sinceRecompute = 0;
+      }
+    }
+
+    /**
+     * @return The percentile in nanoseconds or <code>0</code> if not enough latencies are observed yet.
+     */
+    long getPercentile() {
+      return this.value;
+    }
+  }
+
+}
@@ -0,0 +1,30 @@
+package com.paymill.utils;
+
+/**
+ * The HTTP methods of {@link HttpClient}, used by decorators to dispatch a call to their delegate.
+ */
+enum HttpMethod {
+
+  GET, POST, PUT, DELETE;
+
+  /**
+   * @return <code>true</code> if the request can be repeated without side effects on PAYMILL.
+   */
+  boolean isIdempotentRead() {
+    return this == HttpMethod.GET;
+  }
+
+  String invoke( final HttpClient client, final String path, final ParameterMap<String, String> params ) {
+    switch( this ) {
+      case GET:
+        return params == null ? client.get( path ) : client.get( path, params );
+      case POST:
+        return client.post( path, params );
+      case PUT:
+        return client.put( path, params );
+      default:
+        return client.delete( path, params );
+    }
+  }
+
+}
@@ -1,18 +1,25 @@
 package com.paymill.utils;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.MultivaluedHashMap;
-import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
+import org.glassfish.jersey.client.ClientAsyncExecutor;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import org.glassfish.jersey.spi.ExecutorServiceProvider;
 
 import com.paymill.utils.HttpClient;
 import com.paymill.utils.ParameterMap;
@@ -20,27 +27,38 @@ import com.paymill.utils.ParameterMap;
 public final class JerseyClient implements HttpClient {
 
   private final Client httpClient;
+  private final int    timeout;
 
   public JerseyClient( final String apiKey ) {
     this( apiKey, null );
   }
 
+  /**
+   * @param apiKey
+   *          Private key from PAYMILL merchant center or <code>null</code> for a transport shared by many merchants, whose calls
+   *          carry their own {@link Credentials}.
+   * @param timeout
+   *          Timeout in milliseconds for connect and read or <code>null</code> for none.
+   */
   public JerseyClient( final String apiKey, final Integer timeout ) {
     ClientConfig configuration = new ClientConfig();
     if( timeout != null ) {
       configuration.property( ClientProperties.CONNECT_TIMEOUT, timeout );
       configuration.property( ClientProperties.READ_TIMEOUT, timeout );
     }
+    configuration.register( new AsyncExecutorProvider( ExecutionMode.getDefault() ) );
+    this.timeout = timeout != null ? timeout : 0;
     this.httpClient = ClientBuilder.newClient( configuration );
 
-    HttpAuthenticationFeature authFeature = HttpAuthenticationFeature.basic( apiKey, StringUtils.EMPTY );
-    this.httpClient.register( authFeature );
+    if( apiKey != null ) {
+      HttpAuthenticationFeature authFeature = HttpAuthenticationFeature.basic( apiKey, StringUtils.EMPTY );
+      this.httpClient.register( authFeature );
+    }
   }
 
   public String get( String path ) {
     WebTarget webResource = httpClient.target( path );
-    Response response = webResource.request( MediaType.APPLICATION_JSON_TYPE ).get();
-    return response.readEntity( String.class );
+    return this.execute( webResource, HttpMethod.GET, null );
   }
 
   public String get( String path, ParameterMap<String, String> params ) {
@@ -50,20 +68,17 @@ public final class JerseyClient implements HttpClient {
         webResource = webResource.queryParam( key, params.get( key ).toArray() );
       }
     }
-    Response response = webResource.request( MediaType.APPLICATION_JSON_TYPE ).get();
-    return response.readEntity( String.class );
+    return this.execute( webResource, HttpMethod.GET, null );
   }
 
   public String post( String path, ParameterMap<String, String> params ) {
     WebTarget webResource = httpClient.target( path );
-    Response response = webResource.request( MediaType.APPLICATION_JSON_TYPE ).post( Entity.form( convertMap( params ) ) );
-    return response.readEntity( String.class );
+    return this.execute( webResource, HttpMethod.POST, JerseyClient.form( params ) );
   }
 
   public String put( String path, ParameterMap<String, String> params ) {
     WebTarget webResource = httpClient.target( path );
-    Response response = webResource.request( MediaType.APPLICATION_JSON_TYPE ).put( Entity.form( convertMap( params ) ) );
-    return response.readEntity( String.class );
+    return this.execute( webResource, HttpMethod.PUT, JerseyClient.form( params ) );
   }
 
   public String delete( String path, ParameterMap<String, String> params ) {
@@ -73,16 +88,111 @@ public final class JerseyClient implements HttpClient {
         webResource = webResource.queryParam( key, params.get( key ).toArray() );
       }
     }
-    Response response = webResource.request( MediaType.APPLICATION_JSON_TYPE ).delete();
+    return this.execute( webResource, HttpMethod.DELETE, null );
+  }
+
+  /**
+   * Without a {@link Deadline} the request is executed on the calling thread. With a deadline the time left is used as connect
+   * and read timeout and the request is executed asynchronously, so the caller can give up, when the deadline expires or is
+   * cancelled, while the socket is released at the latest by the timeout. A response, which arrives after the caller gave up, is
+   * closed, so its connection is not leaked. {@link Credentials} of the call take precedence over
+   * the API key of the client. The status of the response is passed to the {@link CallOptions.StatusListener} of the call.
+   */
+  private String execute( final WebTarget webResource, final HttpMethod httpMethod, final Entity<?> entity ) {
+    String method = httpMethod.name();
+    Invocation.Builder request = webResource.request( MediaType.APPLICATION_JSON_TYPE );
+    CallOptions options = CallOptions.current();
+    if( options.getCredentials() != null ) {
+      request.header( HttpHeaders.AUTHORIZATION, options.getCredentials().getAuthorization() );
+    }
+    Deadline deadline = options.getDeadline();
+    Response response;
+    if( deadline == null ) {
+      response = entity == null ? request.method( method ) : request.method( method, entity );
+    } else {
+      long remaining = deadline.checkRemainingMillis();
+      int timeout = (int) Math.min( remaining, this.timeout > 0 ? this.timeout : Integer.MAX_VALUE );
+      request.property( ClientProperties.CONNECT_TIMEOUT, timeout );
+      request.property( ClientProperties.READ_TIMEOUT, timeout );
+      LateResponseCloser closer = new LateResponseCloser();
+      AsyncInvoker invoker = request.async();
+      Future<Response> future = entity == null ? invoker.method( method, closer ) : invoker.method( method, entity, closer );
+      try {
+        response = deadline.await( future );
+      } catch( RuntimeException exc ) {
+        closer.abandon();
+        throw exc;
+      }
+    }
+    options.onStatus( response.getStatus() );
     return response.readEntity( String.class );
   }
 
-  private static MultivaluedMap<String, String> convertMap( final ParameterMap<String, String> map ) {
-    if( map == null ) {
-      return null;
+  /**
+   * Encodes the parameters directly into the reusable buffer of the thread, only the finished body is copied.
+   */
+  private static Entity<byte[]> form( final ParameterMap<String, String> params ) {
+    return Entity.entity( FormEncoder.local().addAll( params ).toByteArray(), MediaType.APPLICATION_FORM_URLENCODED_TYPE );
+  }
+
+  /**
+   * Closes the {@link Response} of an asynchronous request, which the caller abandoned, because its {@link Deadline} expired or
+   * was cancelled. Cancelling the future does not stop a response, which is already on its way.
+   */
+  private final static class LateResponseCloser implements InvocationCallback<Response> {
+
+    private Response response;
+    private boolean  abandoned;
+
+    @Override
+    public void completed( final Response response ) {
+      synchronized( this ) {
+        if( !this.abandoned ) {
+          this.response = response;
+          return;
+        }
+      }
+      response.close();
+    }
+
+    @Override
+    public void failed( final Throwable throwable ) {
+      // thrown to the caller by the future, if still waiting
+    }
+
+    void abandon() {
+      Response late;
+      synchronized( this ) {
+        this.abandoned = true;
+        late = this.response;
+        this.response = null;
+      }
+      if( late != null ) {
+        late.close();
+      }
+    }
+  }
+
+  /**
+   * Runs asynchronous requests on threads of the {@link ExecutionMode}, which was the default when the client was created.
+   */
+  @ClientAsyncExecutor
+  private final static class AsyncExecutorProvider implements ExecutorServiceProvider {
+
+    private final ExecutionMode mode;
+
+    AsyncExecutorProvider( final ExecutionMode mode ) {
+      this.mode = mode;
+    }
+
+    @Override
+    public ExecutorService getExecutorService() {
+      return this.mode.newExecutor( "paymill-async" );
+    }
+
+    @Override
+    public void dispose( final ExecutorService executorService ) {
+      executorService.shutdown();
     }
-    MultivaluedMap<String, String> params = new MultivaluedHashMap<String, String>();
-    params.putAll( map );
-    return params;
   }
 }
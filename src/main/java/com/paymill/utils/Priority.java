@@ -0,0 +1,24 @@
+package com.paymill.utils;
+
+/**
+ * Priority class of a request, used by {@link PriorityLaneHttpClient} to schedule requests in separate lanes.
+ * @since 5.2.0
+ */
+public enum Priority {
+
+  /**
+   * Customer facing calls, e.g. charges during checkout.
+   */
+  INTERACTIVE,
+
+  /**
+   * Default for all calls.
+   */
+  NORMAL,
+
+  /**
+   * Background work, e.g. exports and reconciliation.
+   */
+  BULK;
+
+}
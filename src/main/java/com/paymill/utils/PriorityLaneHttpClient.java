@@ -0,0 +1,261 @@
+package com.paymill.utils;
+
+import java.util.LinkedList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.paymill.exceptions.DeadlineExceededException;
+
+/**
+ * {@link HttpClient} decorator, which schedules requests in lanes by their {@link Priority}, taken from
+ * {@link CallOptions#current()}. <br>
+ * At most <code>capacity</code> requests are in flight, of which <code>reserved</code> slots can only be used by
+ * {@link Priority#INTERACTIVE} requests, so a large export can never occupy all connections. When slots become free, waiting
+ * requests are dispatched by smooth weighted round robin between the lanes, so lower lanes are slowed down, but never starve.
+ * Waiting is bounded by the {@link Deadline} of the call and ends, when it is cancelled.
+ * @since 5.2.0
+ */
+public final class PriorityLaneHttpClient implements HttpClient {
+
+  public final static int         DEFAULT_INTERACTIVE_WEIGHT = 8;
+  public final static int         DEFAULT_NORMAL_WEIGHT      = 4;
+  public final static int         DEFAULT_BULK_WEIGHT        = 1;
+
+  private final HttpClient        delegate;
+  private final int               capacity;
+  private final int               reserved;
+  private final Lane[]            lanes;
+
+  private final ReentrantLock     lock                       = new ReentrantLock();
+  private int                     inFlight;
+  private int                     sharedInFlight;
+
+  /**
+   * Creates a client with the default lane weights of 8 (interactive), 4 (normal) and 1 (bulk).
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param capacity
+   *          Max number of requests in flight.
+   * @param reserved
+   *          Number of slots only interactive requests may use.
+   */
+  public PriorityLaneHttpClient( final HttpClient delegate, final int capacity, final int reserved ) {
+    this( delegate, capacity, reserved, DEFAULT_INTERACTIVE_WEIGHT, DEFAULT_NORMAL_WEIGHT, DEFAULT_BULK_WEIGHT );
+  }
+
+  /**
+   * Creates a client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param capacity
+   *          Max number of requests in flight.
+   * @param reserved
+   *          Number of slots only interactive requests may use.
+   * @param interactiveWeight
+   *          Share of dispatches for waiting interactive requests.
+   * @param normalWeight
+   *          Share of dispatches for waiting normal requests.
+   * @param bulkWeight
+   *          Share of dispatches for waiting bulk requests.
+   */
+  public PriorityLaneHttpClient( final HttpClient delegate, final int capacity, final int reserved, final int interactiveWeight,
+      final int normalWeight, final int bulkWeight ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( capacity < 1 || reserved < 0 || reserved >= capacity )
+      throw new IllegalArgumentException( "Capacity must be positive and greater than the reserved slots" );
+    if( interactiveWeight < 1 || normalWeight < 1 || bulkWeight < 1 )
+      throw new IllegalArgumentException( "Weights must be positive" );
+    this.delegate = delegate;
+    this.capacity = capacity;
+    this.reserved = reserved;
+    this.lanes = new Lane[Priority.values().length];
+    this.lanes[Priority.INTERACTIVE.ordinal()] = new Lane( interactiveWeight );
+    this.lanes[Priority.NORMAL.ordinal()] = new Lane( normalWeight );
+    this.lanes[Priority.BULK.ordinal()] = new Lane( bulkWeight );
+  }
+
+  /**
+   * @param priority
+   *          {@link Priority} of the lane.
+   * @return Number of requests of the lane in flight.
+   */
+  public int getInFlight( final Priority priority ) {
+    this.lock.lock();
+    try {
+      return this.lanes[priority.ordinal()].inFlight;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @param priority
+   *          {@link Priority} of the lane.
+   * @return Number of requests of the lane waiting for a slot.
+   */
+  public int getQueued( final Priority priority ) {
+    this.lock.lock();
+    try {
+      return this.lanes[priority.ordinal()].waiters.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.execute( HttpMethod.GET, path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.GET, path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.POST, path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.PUT, path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.DELETE, path, params );
+  }
+
+  private String execute( final HttpMethod method, final String path, final ParameterMap<String, String> params ) {
+    CallOptions options = CallOptions.current();
+    Priority priority = options.getPriority();
+    this.acquire( options );
+    try {
+      return method.invoke( this.delegate, path, params );
+    } finally {
+      this.release( priority );
+    }
+  }
+
+  private void acquire( final CallOptions options ) {
+    Priority priority = options.getPriority();
+    Lane lane = this.lanes[priority.ordinal()];
+    this.lock.lock();
+    try {
+      if( lane.waiters.isEmpty() && this.canRun( priority ) ) {
+        this.start( priority );
+        return;
+      }
+      options.checkDeadline();
+      Deadline deadline = options.getDeadline();
+      Condition granted = this.lock.newCondition();
+      Runnable wakeUp = Deadline.signalAll( this.lock, granted );
+      lane.waiters.addLast( granted );
+      try {
+        long remaining = options.boundWait( -1 );
+        if( deadline != null ) {
+          deadline.addCancelListener( wakeUp );
+        }
+        while( lane.waiters.contains( granted ) ) {
+          if( remaining < 0 ) {
+            granted.await();
+          } else if( remaining > 0 && !deadline.isCancelled() ) {
+            remaining = Math.max( 0, granted.awaitNanos( remaining ) );
+          } else {
+            lane.waiters.remove( granted );
+            throw new DeadlineExceededException( deadline.isCancelled() );
+          }
+        }
+      } catch( InterruptedException exc ) {
+        if( !lane.waiters.remove( granted ) ) {
+          // slot was already granted, hand it on
+          this.finish( priority );
+          this.dispatch();
+        }
+        Thread.currentThread().interrupt();
+        throw new RuntimeException( exc );
+      } finally {
+        if( deadline != null ) {
+          deadline.removeCancelListener( wakeUp );
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void release( final Priority priority ) {
+    this.lock.lock();
+    try {
+      this.finish( priority );
+      this.dispatch();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private boolean canRun( final Priority priority ) {
+    if( this.inFlight >= this.capacity ) {
+      return false;
+    }
+    return priority == Priority.INTERACTIVE || this.sharedInFlight < this.capacity - this.reserved;
+  }
+
+  private void start( final Priority priority ) {
+    this.inFlight++;
+    this.lanes[priority.ordinal()].inFlight++;
+    if( priority != Priority.INTERACTIVE ) {
+      this.sharedInFlight++;
+    }
+  }
+
+  private void finish( final Priority priority ) {
+    this.inFlight--;
+    this.lanes[priority.ordinal()].inFlight--;
+    if( priority != Priority.INTERACTIVE ) {
+      this.sharedInFlight--;
+    }
+  }
+
+  /**
+   * Grants free slots to waiting requests by smooth weighted round robin among the lanes, which may run.
+   */
+  private void dispatch() {
+    while( true ) {
+      Priority selected = null;
+      int total = 0;
+      for( Priority priority : Priority.values() ) {
+        Lane lane = this.lanes[priority.ordinal()];
+        if( !lane.waiters.isEmpty() && this.canRun( priority ) ) {
+          lane.current += lane.weight;
+          total += lane.weight;
+          if( selected == null || lane.current > this.lanes[selected.ordinal()].current ) {
+            selected = priority;
+          }
+        }
+      }
+      if( selected == null ) {
+        return;
+      }
+      Lane lane = this.lanes[selected.ordinal()];
+      lane.current -= total;
+      this.start( selected );
+      lane.waiters.removeFirst().signal();
+    }
+  }
+
+  private final static class Lane {
+
+    private final int                   weight;
+    private final LinkedList<Condition> waiters = new LinkedList<Condition>();
+    private int                         current;
+    private int                         inFlight;
+
+    Lane( final int weight ) {
+      this.weight = weight;
+    }
+  }
+
+}
@@ -0,0 +1,198 @@
+package com.paymill.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.paymill.exceptions.RateLimitExceededException;
+
+/**
+ * {@link HttpClient} decorator, which smooths bursts on the client side instead of being throttled by PAYMILL. <br>
+ * Reads (GET) and writes (POST, PUT, DELETE) take their tokens from separate {@link TokenBucket}s, which are grouped in
+ * {@link Limits}. The limits are owned by the client, so all services and contexts over the same transport draw from the same
+ * budget. Calls with {@link Credentials}, e.g. of a view created by
+ * {@link com.paymill.context.PaymillContext#withApiKey(String)}, draw from the limits of their API key, which are created on the
+ * first call with the rates of the default limits and dropped with {@link #removeLimits(String)}; all other calls draw from
+ * the default limits.
+ * @since 5.2.0
+ */
+public final class RateLimitingHttpClient implements HttpClient {
+
+  public final static double                       DEFAULT_READS_PER_SECOND  = 20;
+  public final static double                       DEFAULT_WRITES_PER_SECOND = 10;
+
+  private final HttpClient                         delegate;
+  private final Limits                             limits;
+  private final ConcurrentMap<Credentials, Limits> merchants;
+  private final long                               maxWait;
+
+  /**
+   * Creates a rate limiting client with defaults of {@value #DEFAULT_READS_PER_SECOND} reads and
+   * {@value #DEFAULT_WRITES_PER_SECOND} writes per second, which waits as long as necessary.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   */
+  public RateLimitingHttpClient( final HttpClient delegate ) {
+    this( delegate, new Limits( new TokenBucket( DEFAULT_READS_PER_SECOND, (int) DEFAULT_READS_PER_SECOND ), new TokenBucket(
+        DEFAULT_WRITES_PER_SECOND, (int) DEFAULT_WRITES_PER_SECOND ) ), -1 );
+  }
+
+  /**
+   * Creates a rate limiting client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param limits
+   *          Default {@link Limits}, which are also the template of the limits per API key.
+   * @param maxWait
+   *          Max time in milliseconds to wait for a token, before a {@link RateLimitExceededException} is thrown. If negative,
+   *          calls wait as long as necessary. Waits are also bounded by the {@link Deadline} of the call.
+   */
+  public RateLimitingHttpClient( final HttpClient delegate, final Limits limits, final long maxWait ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( limits == null )
+      throw new IllegalArgumentException( "Limits can not be null" );
+    this.delegate = delegate;
+    this.limits = limits;
+    this.merchants = new ConcurrentHashMap<Credentials, Limits>();
+    this.maxWait = maxWait;
+  }
+
+  /**
+   * @return The default {@link Limits} of calls without {@link Credentials}.
+   */
+  public Limits getLimits() {
+    return this.limits;
+  }
+
+  /**
+   * @param apiKey
+   *          Private key from PAYMILL merchant center.
+   * @return The {@link Limits} of the given API key or <code>null</code> if no call was made with it yet.
+   */
+  public Limits getLimits( final String apiKey ) {
+    return this.merchants.get( new Credentials( apiKey ) );
+  }
+
+  /**
+   * Sets the {@link Limits} of the calls with the given API key, e.g. for a merchant with a higher quota.
+   * @param apiKey
+   *          Private key from PAYMILL merchant center.
+   * @param limits
+   *          {@link Limits} for the key.
+   */
+  public void setLimits( final String apiKey, final Limits limits ) {
+    if( limits == null )
+      throw new IllegalArgumentException( "Limits can not be null" );
+    this.merchants.put( new Credentials( apiKey ), limits );
+  }
+
+  /**
+   * Drops the {@link Limits} of the given API key, e.g. when a merchant leaves the platform. A later call with the key starts
+   * with full default limits.
+   * @param apiKey
+   *          Private key from PAYMILL merchant center.
+   * @return <code>true</code> if limits were registered for the key.
+   */
+  public boolean removeLimits( final String apiKey ) {
+    return this.merchants.remove( new Credentials( apiKey ) ) != null;
+  }
+
+  @Override
+  public String get( final String path ) {
+    this.acquire( this.resolve().reads );
+    return this.delegate.get( path );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    this.acquire( this.resolve().reads );
+    return this.delegate.get( path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    this.acquire( this.resolve().writes );
+    return this.delegate.post( path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    this.acquire( this.resolve().writes );
+    return this.delegate.put( path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    this.acquire( this.resolve().writes );
+    return this.delegate.delete( path, params );
+  }
+
+  /**
+   * @return The {@link Limits} of the credentials of the current call or the default limits.
+   */
+  private Limits resolve() {
+    Credentials credentials = CallOptions.current().getCredentials();
+    if( credentials == null ) {
+      return this.limits;
+    }
+    Limits limits = this.merchants.get( credentials );
+    if( limits == null ) {
+      Limits created = this.limits.copy();
+      limits = this.merchants.putIfAbsent( credentials, created );
+      if( limits == null ) {
+        limits = created;
+      }
+    }
+    return limits;
+  }
+
+  private void acquire( final TokenBucket bucket ) {
+    CallOptions options = CallOptions.current();
+    long wait = options.boundWait( this.maxWait < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos( this.maxWait ) );
+    try {
+      if( wait < 0 ) {
+        bucket.acquire();
+      } else if( !bucket.tryAcquire( wait, TimeUnit.NANOSECONDS ) ) {
+        options.checkDeadline();
+        throw new RateLimitExceededException( this.maxWait );
+      }
+    } catch( InterruptedException exc ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    }
+  }
+
+  /**
+   * Separate {@link TokenBucket}s for reads and writes.
+   */
+  public final static class Limits {
+
+    private final TokenBucket reads;
+    private final TokenBucket writes;
+
+    public Limits( final TokenBucket reads, final TokenBucket writes ) {
+      if( reads == null || writes == null )
+        throw new IllegalArgumentException( "Token buckets can not be null" );
+      this.reads = reads;
+      this.writes = writes;
+    }
+
+    public TokenBucket getReads() {
+      return this.reads;
+    }
+
+    public TokenBucket getWrites() {
+      return this.writes;
+    }
+
+    /**
+     * @return New, full {@link Limits} with the rates of these.
+     */
+    Limits copy() {
+      return new Limits( this.reads.copy(), this.writes.copy() );
+    }
+
+  }
+
+}
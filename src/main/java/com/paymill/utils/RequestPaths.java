@@ -0,0 +1,62 @@
+package com.paymill.utils;
+
+/**
+ * Helpers for the request paths, which the services pass to {@link HttpClient}, e.g.
+ * <code>https://api.paymill.com/v2.1/transactions/tran_54645bcb98ba7acfe204</code>.
+ */
+final class RequestPaths {
+
+  private RequestPaths() {
+    super();
+  }
+
+  /**
+   * Extracts the resource of a request path, which corresponds to the <code>PATH</code> constant of the service, which sent it.
+   * Scheme, host, API version, ids and query are stripped.
+   * @param path
+   *          Absolute or relative request path.
+   * @return The resource, e.g. <code>/transactions</code> or <code>/</code> if the path has none.
+   */
+  static String resourceOf( final String path ) {
+    if( path == null ) {
+      return "/";
+    }
+    int start = path.indexOf( "://" );
+    start = start < 0 ? 0 : path.indexOf( '/', start + 3 );
+    if( start < 0 ) {
+      return "/";
+    }
+    int length = path.length();
+    while( start < length ) {
+      while( start < length && path.charAt( start ) == '/' ) {
+        start++;
+      }
+      int end = start;
+      while( end < length && path.charAt( end ) != '/' && path.charAt( end ) != '?' && path.charAt( end ) != '#' ) {
+        end++;
+      }
+      if( end == start ) {
+        return "/";
+      }
+      if( !RequestPaths.isVersion( path, start, end ) ) {
+        return "/" + path.substring( start, end );
+      }
+      start = end;
+    }
+    return "/";
+  }
+
+  private static boolean isVersion( final String path, final int start, final int end ) {
+    if( end - start < 2 || path.charAt( start ) != 'v' ) {
+      return false;
+    }
+    for( int i = start + 1; i < end; i++ ) {
+      char c = path.charAt( i );
+      if( (c < '0' || c > '9') && c != '.' ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,245 @@
+package com.paymill.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HttpClient} decorator, which retries transient transport failures with exponential backoff and full jitter. <br>
+ * By default only safe cases are retried: GET requests (which includes all list calls) on any I/O failure and all other
+ * requests only when the connection could not be established, i.e. the request never reached PAYMILL. Retries are further
+ * limited by a {@link RetryingHttpClient.RetryBudget} shared by all calls, so that an outage does not turn into a retry storm,
+ * and by the {@link Deadline} of the call, if any.
+ * @since 5.2.0
+ */
+public final class RetryingHttpClient implements HttpClient {
+
+  public final static int    DEFAULT_MAX_ATTEMPTS     = 3;
+  public final static long   DEFAULT_BASE_DELAY       = 50;
+  public final static long   DEFAULT_MAX_DELAY        = 2000;
+  public final static double DEFAULT_RETRY_RATIO      = 0.1d;
+
+  private final static Random RANDOM                  = new Random();
+
+  private final HttpClient   delegate;
+  private final int          maxAttempts;
+  private final long         baseDelay;
+  private final long         maxDelay;
+  private final RetryBudget  budget;
+
+  /**
+   * Creates a retrying client with at most {@value #DEFAULT_MAX_ATTEMPTS} attempts per call, backoff between
+   * {@value #DEFAULT_BASE_DELAY} and {@value #DEFAULT_MAX_DELAY} milliseconds and a retry budget of 10% of all requests.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   */
+  public RetryingHttpClient( final HttpClient delegate ) {
+    this( delegate, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, new RetryBudget( DEFAULT_RETRY_RATIO ) );
+  }
+
+  /**
+   * Creates a retrying client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param maxAttempts
+   *          Max number of attempts per call, including the first one.
+   * @param baseDelay
+   *          Backoff in milliseconds for the first retry, doubled on every further retry.
+   * @param maxDelay
+   *          Upper bound of the backoff in milliseconds.
+   * @param budget
+   *          {@link RetryBudget}, which can be shared between several clients.
+   */
+  public RetryingHttpClient( final HttpClient delegate, final int maxAttempts, final long baseDelay, final long maxDelay,
+      final RetryBudget budget ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( maxAttempts < 1 )
+      throw new IllegalArgumentException( "Max attempts must be greater than zero" );
+    if( baseDelay < 0 || maxDelay < baseDelay )
+      throw new IllegalArgumentException( "Delays must be positive and max delay can not be less than base delay" );
+    if( budget == null )
+      throw new IllegalArgumentException( "Retry budget can not be null" );
+    this.delegate = delegate;
+    this.maxAttempts = maxAttempts;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+    this.budget = budget;
+  }
+
+  public RetryBudget getBudget() {
+    return this.budget;
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.execute( HttpMethod.GET, path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.GET, path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.POST, path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.PUT, path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.DELETE, path, params );
+  }
+
+  private String execute( final HttpMethod method, final String path, final ParameterMap<String, String> params ) {
+    this.budget.onRequest();
+    int attempt = 1;
+    while( true ) {
+      try {
+        return method.invoke( this.delegate, path, params );
+      } catch( RuntimeException exc ) {
+        if( attempt >= this.maxAttempts || !RetryingHttpClient.isRetryable( method, exc ) || !this.budget.tryAcquireRetry() ) {
+          throw exc;
+        }
+        long delay = this.backoff( attempt );
+        Deadline deadline = CallOptions.current().getDeadline();
+        if( deadline != null && deadline.remaining( TimeUnit.MILLISECONDS ) <= delay ) {
+          // no time left for another attempt
+          throw exc;
+        }
+        try {
+          Thread.sleep( delay );
+        } catch( InterruptedException ie ) {
+          Thread.currentThread().interrupt();
+          throw exc;
+        }
+        attempt++;
+      }
+    }
+  }
+
+  /**
+   * Full jitter: a random delay between zero and the exponential backoff of the given attempt.
+   */
+  long backoff( final int attempt ) {
+    long ceiling = this.baseDelay << Math.min( attempt - 1, 30 );
+    if( ceiling <= 0 || ceiling > this.maxDelay ) {
+      ceiling = this.maxDelay;
+    }
+    return (long) (RANDOM.nextDouble() * ceiling);
+  }
+
+  static boolean isRetryable( final HttpMethod method, final Throwable exc ) {
+    if( method.isIdempotentRead() ) {
+      return RetryingHttpClient.isTransient( exc );
+    }
+    return RetryingHttpClient.isConnectFailure( exc );
+  }
+
+  static boolean isTransient( final Throwable exc ) {
+    for( Throwable cause = exc; cause != null; cause = cause.getCause() ) {
+      if( cause instanceof IOException ) {
+        return true;
+      }
+      if( cause.getCause() == cause ) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  static boolean isConnectFailure( final Throwable exc ) {
+    for( Throwable cause = exc; cause != null; cause = cause.getCause() ) {
+      if( cause instanceof ConnectException || cause instanceof NoRouteToHostException || cause instanceof UnknownHostException ) {
+        return true;
+      }
+      if( cause instanceof SocketTimeoutException && "connect timed out".equals( cause.getMessage() ) ) {
+        return true;
+      }
+      if( cause.getCause() == cause ) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Limits retries to a ratio of the requests. Every request deposits <code>ratio</code> tokens, every retry withdraws one.
+   * The balance is capped, so a long healthy period can not be saved up for a retry storm later. A small reserve allows a few
+   * retries even at low traffic.
+   */
+  public final static class RetryBudget {
+
+    private final double ratio;
+    private final double maxBalance;
+    private double       balance;
+    private long         requests;
+    private long         retries;
+    private long         rejected;
+
+    /**
+     * @param ratio
+     *          Allowed retries per request, e.g. <code>0.1</code> for 10%.
+     */
+    public RetryBudget( final double ratio ) {
+      this( ratio, 10 );
+    }
+
+    /**
+     * @param ratio
+     *          Allowed retries per request, e.g. <code>0.1</code> for 10%.
+     * @param reserve
+     *          Number of retries available up front and upper bound of the saved up balance.
+     */
+    public RetryBudget( final double ratio, final int reserve ) {
+      if( ratio < 0 )
+        throw new IllegalArgumentException( "Retry ratio can not be negative" );
+      if( reserve < 0 )
+        throw new IllegalArgumentException( "Retry reserve can not be negative" );
+      this.ratio = ratio;
+      this.maxBalance = Math.max( reserve, 1 );
+      this.balance = reserve;
+    }
+
+    synchronized void onRequest() {
+      this.requests++;
+      this.balance = Math.min( this.maxBalance, this.balance + this.ratio );
+    }
+
+    synchronized boolean tryAcquireRetry() {
+      if( this.balance >= 1 ) {
+        this.balance -= 1;
+        this.retries++;
+        return true;
+      }
+      this.rejected++;
+      return false;
+    }
+
+    public synchronized long getRequests() {
+      return this.requests;
+    }
+
+    public synchronized long getRetries() {
+      return this.retries;
+    }
+
+    /**
+     * @return Number of retries, which were not executed, because the budget was exhausted.
+     */
+    public synchronized long getRejected() {
+      return this.rejected;
+    }
+
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.paymill.utils;
+
+/**
+ * {@link HttpClient} view, which attaches {@link CallOptions} to the calling thread for the duration of every call.
+ * @since 5.2.0
+ */
+public final class ScopedHttpClient implements HttpClient {
+
+  private final HttpClient  delegate;
+  private final CallOptions options;
+
+  public ScopedHttpClient( final HttpClient delegate, final CallOptions options ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( options == null )
+      throw new IllegalArgumentException( "Call options can not be null" );
+    this.delegate = delegate;
+    this.options = options;
+  }
+
+  public CallOptions getOptions() {
+    return this.options;
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.execute( HttpMethod.GET, path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.GET, path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.POST, path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.PUT, path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.DELETE, path, params );
+  }
+
+  private String execute( final HttpMethod method, final String path, final ParameterMap<String, String> params ) {
+    CallOptions previous = CallOptions.attach( this.options );
+    try {
+      return method.invoke( this.delegate, path, params );
+    } finally {
+      CallOptions.detach( previous );
+    }
+  }
+
+}
@@ -0,0 +1,454 @@
+package com.paymill.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.paymill.exceptions.DeadlineExceededException;
+import com.paymill.exceptions.RateLimitExceededException;
+
+/**
+ * {@link HttpClient} decorator, which isolates the merchants sharing one transport from each other. <br>
+ * The tenant of a call is the API key of its {@link Credentials}, taken from {@link CallOptions#current()}; calls without
+ * credentials form one tenant of their own. Each tenant may have at most <code>tenantLimit</code> of the <code>capacity</code>
+ * requests in flight and, optionally, draws from its own {@link TokenBucket}. When slots become free, they are granted round
+ * robin to the tenants with waiting calls, so a tenant with a long queue, e.g. a bulk export, gets no more slots than a tenant
+ * with a single checkout call. Waiting for a slot is bounded by the {@link Deadline} of the call and ends, when it is cancelled.
+ * <br>
+ * A tenant keeps its metrics between calls. Only a tenant without calls for the idle timeout, whose rate quota has refilled, is
+ * dropped together with its metrics, so the client keeps no state for merchants, which stopped calling.
+ * @since 5.2.0
+ */
+public final class TenantFairHttpClient implements HttpClient {
+
+  /**
+   * Time in milliseconds, after which a tenant without calls is dropped, unless set otherwise.
+   */
+  public final static long          DEFAULT_IDLE_TIMEOUT = 10 * 60 * 1000;
+
+  private final static String       NO_TENANT            = "";
+  private final static int          MIN_SWEEP            = 64;
+
+  private final HttpClient          delegate;
+  private final int                 capacity;
+  private final int                 tenantLimit;
+  private final double              permitsPerSecond;
+  private final long                idleTimeout;
+
+  private final ReentrantLock       lock                 = new ReentrantLock();
+  private final Map<String, Tenant> tenants              = new HashMap<String, Tenant>();
+  private final LinkedList<Tenant>  waiting              = new LinkedList<Tenant>();
+  private int                       inFlight;
+  private int                       sweepAt              = MIN_SWEEP;
+  private long                      sweptAt              = System.nanoTime();
+
+  /**
+   * Creates a client without rate quotas.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param capacity
+   *          Max number of requests in flight.
+   * @param tenantLimit
+   *          Max number of requests in flight per tenant.
+   */
+  public TenantFairHttpClient( final HttpClient delegate, final int capacity, final int tenantLimit ) {
+    this( delegate, capacity, tenantLimit, 0 );
+  }
+
+  /**
+   * Creates a client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param capacity
+   *          Max number of requests in flight.
+   * @param tenantLimit
+   *          Max number of requests in flight per tenant.
+   * @param permitsPerSecond
+   *          Requests per second each tenant may send, <code>0</code> for no rate quota.
+   */
+  public TenantFairHttpClient( final HttpClient delegate, final int capacity, final int tenantLimit, final double permitsPerSecond ) {
+    this( delegate, capacity, tenantLimit, permitsPerSecond, DEFAULT_IDLE_TIMEOUT );
+  }
+
+  /**
+   * Creates a client.
+   * @param delegate
+   *          The {@link HttpClient} doing the actual work.
+   * @param capacity
+   *          Max number of requests in flight.
+   * @param tenantLimit
+   *          Max number of requests in flight per tenant.
+   * @param permitsPerSecond
+   *          Requests per second each tenant may send, <code>0</code> for no rate quota.
+   * @param idleTimeout
+   *          Time in milliseconds, after which a tenant without calls is dropped with its metrics, e.g. longer than the interval
+   *          of the monitoring, which reads them.
+   */
+  public TenantFairHttpClient( final HttpClient delegate, final int capacity, final int tenantLimit, final double permitsPerSecond,
+      final long idleTimeout ) {
+    if( delegate == null )
+      throw new IllegalArgumentException( "Delegate can not be null" );
+    if( capacity < 1 || tenantLimit < 1 || tenantLimit > capacity )
+      throw new IllegalArgumentException( "Capacity must be positive and tenant limit must be between 1 and capacity" );
+    if( permitsPerSecond < 0 )
+      throw new IllegalArgumentException( "Permits per second can not be negative" );
+    if( idleTimeout < 0 )
+      throw new IllegalArgumentException( "Idle timeout can not be negative" );
+    this.delegate = delegate;
+    this.capacity = capacity;
+    this.tenantLimit = tenantLimit;
+    this.permitsPerSecond = permitsPerSecond;
+    this.idleTimeout = TimeUnit.MILLISECONDS.toNanos( idleTimeout );
+  }
+
+  /**
+   * @param apiKey
+   *          API key of the tenant or <code>null</code> for calls without credentials.
+   * @return Number of requests of the tenant in flight.
+   */
+  public int getInFlight( final String apiKey ) {
+    this.lock.lock();
+    try {
+      Tenant tenant = this.tenants.get( TenantFairHttpClient.key( apiKey ) );
+      return tenant == null ? 0 : tenant.inFlight;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @param apiKey
+   *          API key of the tenant or <code>null</code> for calls without credentials.
+   * @return Number of requests of the tenant waiting for a slot.
+   */
+  public int getQueued( final String apiKey ) {
+    this.lock.lock();
+    try {
+      Tenant tenant = this.tenants.get( TenantFairHttpClient.key( apiKey ) );
+      return tenant == null ? 0 : tenant.waiters.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @param apiKey
+   *          API key of the tenant or <code>null</code> for calls without credentials.
+   * @return Number of requests of the tenant, which were sent.
+   */
+  public long getCalls( final String apiKey ) {
+    this.lock.lock();
+    try {
+      Tenant tenant = this.tenants.get( TenantFairHttpClient.key( apiKey ) );
+      return tenant == null ? 0 : tenant.calls;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @param apiKey
+   *          API key of the tenant or <code>null</code> for calls without credentials.
+   * @param unit
+   *          {@link TimeUnit} of the result.
+   * @return Total time the sent requests of the tenant waited for their rate quota and a slot. Divide by
+   *         {@link #getCalls(String)} for the average.
+   */
+  public long getQueueingDelay( final String apiKey, final TimeUnit unit ) {
+    this.lock.lock();
+    try {
+      Tenant tenant = this.tenants.get( TenantFairHttpClient.key( apiKey ) );
+      return tenant == null ? 0 : unit.convert( tenant.queueingDelay, TimeUnit.NANOSECONDS );
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @param apiKey
+   *          API key of the tenant or <code>null</code> for calls without credentials.
+   * @param unit
+   *          {@link TimeUnit} of the result.
+   * @return Longest time a sent request of the tenant waited for its rate quota and a slot.
+   */
+  public long getMaxQueueingDelay( final String apiKey, final TimeUnit unit ) {
+    this.lock.lock();
+    try {
+      Tenant tenant = this.tenants.get( TenantFairHttpClient.key( apiKey ) );
+      return tenant == null ? 0 : unit.convert( tenant.maxQueueingDelay, TimeUnit.NANOSECONDS );
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return Number of tenants, which have calls, called within the idle timeout or whose rate quota is still refilling.
+   */
+  public int getTenantCount() {
+    this.lock.lock();
+    try {
+      return this.tenants.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.execute( HttpMethod.GET, path, null );
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.GET, path, params );
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.POST, path, params );
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.PUT, path, params );
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.execute( HttpMethod.DELETE, path, params );
+  }
+
+  private String execute( final HttpMethod method, final String path, final ParameterMap<String, String> params ) {
+    CallOptions options = CallOptions.current();
+    Credentials credentials = options.getCredentials();
+    Tenant tenant = this.enter( credentials == null ? NO_TENANT : credentials.getApiKey() );
+    boolean started = false;
+    try {
+      long start = System.nanoTime();
+      this.acquireQuota( tenant, options );
+      this.acquireSlot( tenant, options, start );
+      started = true;
+      return method.invoke( this.delegate, path, params );
+    } finally {
+      this.release( tenant, started );
+    }
+  }
+
+  /**
+   * @return The tenant of the API key, which is kept at least until the call is released.
+   */
+  private Tenant enter( final String apiKey ) {
+    this.lock.lock();
+    try {
+      Tenant tenant = this.tenants.get( apiKey );
+      if( tenant == null ) {
+        long now = System.nanoTime();
+        if( this.tenants.size() >= this.sweepAt || now - this.sweptAt >= this.idleTimeout ) {
+          this.sweep( now );
+        }
+        TokenBucket quota = this.permitsPerSecond > 0 ? new TokenBucket( this.permitsPerSecond, Math.max( 1,
+            (int) this.permitsPerSecond ) ) : null;
+        tenant = new Tenant( apiKey, quota );
+        this.tenants.put( apiKey, tenant );
+      }
+      tenant.entered++;
+      return tenant;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void acquireQuota( final Tenant tenant, final CallOptions options ) {
+    if( tenant.quota == null ) {
+      return;
+    }
+    long wait = options.boundWait( -1 );
+    try {
+      if( wait < 0 ) {
+        tenant.quota.acquire();
+      } else if( !tenant.quota.tryAcquire( wait, TimeUnit.NANOSECONDS ) ) {
+        options.checkDeadline();
+        throw new RateLimitExceededException( TimeUnit.NANOSECONDS.toMillis( wait ) );
+      }
+    } catch( InterruptedException exc ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    }
+  }
+
+  private void acquireSlot( final Tenant tenant, final CallOptions options, final long start ) {
+    this.lock.lock();
+    try {
+      if( tenant.waiters.isEmpty() && this.canRun( tenant ) ) {
+        this.start( tenant, start );
+        return;
+      }
+      options.checkDeadline();
+      Deadline deadline = options.getDeadline();
+      Condition granted = this.lock.newCondition();
+      Runnable wakeUp = Deadline.signalAll( this.lock, granted );
+      if( tenant.waiters.isEmpty() ) {
+        this.waiting.addLast( tenant );
+      }
+      tenant.waiters.addLast( granted );
+      try {
+        long remaining = options.boundWait( -1 );
+        if( deadline != null ) {
+          deadline.addCancelListener( wakeUp );
+        }
+        while( tenant.waiters.contains( granted ) ) {
+          if( remaining < 0 ) {
+            granted.await();
+          } else if( remaining > 0 && !deadline.isCancelled() ) {
+            remaining = Math.max( 0, granted.awaitNanos( remaining ) );
+          } else {
+            this.abandon( tenant, granted );
+            throw new DeadlineExceededException( deadline.isCancelled() );
+          }
+        }
+        this.record( tenant, start );
+      } catch( InterruptedException exc ) {
+        if( !this.abandon( tenant, granted ) ) {
+          // slot was already granted, hand it on
+          this.finish( tenant );
+          this.dispatch();
+        }
+        Thread.currentThread().interrupt();
+        throw new RuntimeException( exc );
+      } finally {
+        if( deadline != null ) {
+          deadline.removeCancelListener( wakeUp );
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void release( final Tenant tenant, final boolean started ) {
+    this.lock.lock();
+    try {
+      if( started ) {
+        this.finish( tenant );
+        this.dispatch();
+      }
+      tenant.entered--;
+      tenant.lastCall = System.nanoTime();
+      if( tenant.isIdle( tenant.lastCall, this.idleTimeout ) ) {
+        this.tenants.remove( tenant.apiKey );
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Drops the idle tenants. Runs only when a new tenant arrives and the count of tenants has doubled or the idle timeout passed
+   * since the last sweep, so it costs amortized constant time per new tenant.
+   */
+  private void sweep( final long now ) {
+    for( Iterator<Tenant> iterator = this.tenants.values().iterator(); iterator.hasNext(); ) {
+      if( iterator.next().isIdle( now, this.idleTimeout ) ) {
+        iterator.remove();
+      }
+    }
+    this.sweepAt = Math.max( MIN_SWEEP, this.tenants.size() * 2 );
+    this.sweptAt = now;
+  }
+
+  private boolean canRun( final Tenant tenant ) {
+    return this.inFlight < this.capacity && tenant.inFlight < this.tenantLimit;
+  }
+
+  private void start( final Tenant tenant, final long start ) {
+    this.inFlight++;
+    tenant.inFlight++;
+    this.record( tenant, start );
+  }
+
+  private void record( final Tenant tenant, final long start ) {
+    long delay = System.nanoTime() - start;
+    tenant.calls++;
+    tenant.queueingDelay += delay;
+    tenant.maxQueueingDelay = Math.max( tenant.maxQueueingDelay, delay );
+  }
+
+  private void finish( final Tenant tenant ) {
+    this.inFlight--;
+    tenant.inFlight--;
+  }
+
+  /**
+   * @return <code>true</code> if the waiter was still queued.
+   */
+  private boolean abandon( final Tenant tenant, final Condition waiter ) {
+    boolean queued = tenant.waiters.remove( waiter );
+    if( queued && tenant.waiters.isEmpty() ) {
+      this.waiting.remove( tenant );
+    }
+    return queued;
+  }
+
+  /**
+   * Grants free slots round robin to the waiting tenants below their limit. A tenant, which got a slot, moves to the end of the
+   * queue.
+   */
+  private void dispatch() {
+    while( this.inFlight < this.capacity ) {
+      Tenant selected = null;
+      for( Iterator<Tenant> iterator = this.waiting.iterator(); iterator.hasNext(); ) {
+        Tenant tenant = iterator.next();
+        if( tenant.inFlight < this.tenantLimit ) {
+          iterator.remove();
+          selected = tenant;
+          break;
+        }
+      }
+      if( selected == null ) {
+        return;
+      }
+      this.inFlight++;
+      selected.inFlight++;
+      selected.waiters.removeFirst().signal();
+      if( !selected.waiters.isEmpty() ) {
+        this.waiting.addLast( selected );
+      }
+    }
+  }
+
+  private static String key( final String apiKey ) {
+    return apiKey == null ? NO_TENANT : apiKey;
+  }
+
+  private final static class Tenant {
+
+    private final String                apiKey;
+    private final TokenBucket           quota;
+    private final LinkedList<Condition> waiters = new LinkedList<Condition>();
+    // calls between enter and release, whether waiting for their quota, queued or in flight
+    private int                         entered;
+    private int                         inFlight;
+    private long                        calls;
+    private long                        queueingDelay;
+    private long                        maxQueueingDelay;
+    private long                        lastCall;
+
+    Tenant( final String apiKey, final TokenBucket quota ) {
+      this.apiKey = apiKey;
+      this.quota = quota;
+    }
+
+    /**
+     * @return <code>true</code> if the tenant has no calls for the idle timeout and a fresh quota would not allow more than its
+     *         current one.
+     */
+    boolean isIdle( final long now, final long idleTimeout ) {
+      return this.entered == 0 && now - this.lastCall >= idleTimeout && ( this.quota == null || this.quota.isFull() );
+    }
+  }
+
+}
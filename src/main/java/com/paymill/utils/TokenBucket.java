@@ -0,0 +1,148 @@
+package com.paymill.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter. The bucket refills at a constant rate up to its capacity, which is the allowed burst. <br>
+ * A caller, which has to wait, reserves its token up front and sleeps outside the lock, so waiting callers are served in
+ * order of arrival and never block each other.
+ * @since 5.2.0
+ */
+public final class TokenBucket {
+
+  private final double permitsPerSecond;
+  private final double capacity;
+  private final double permitsPerNano;
+  private double       tokens;
+  private long         refilledAt;
+
+  private long         acquired;
+  private long         rejected;
+  private long         waited;
+
+  /**
+   * Creates a full token bucket.
+   * @param permitsPerSecond
+   *          Sustained rate.
+   * @param capacity
+   *          Max burst.
+   */
+  public TokenBucket( final double permitsPerSecond, final int capacity ) {
+    if( permitsPerSecond <= 0 )
+      throw new IllegalArgumentException( "Permits per second must be positive" );
+    if( capacity < 1 )
+      throw new IllegalArgumentException( "Capacity must be greater than zero" );
+    this.permitsPerSecond = permitsPerSecond;
+    this.capacity = capacity;
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos( 1 );
+    this.tokens = capacity;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /**
+   * @return A new, full token bucket with the rate and capacity of this one.
+   */
+  TokenBucket copy() {
+    return new TokenBucket( this.permitsPerSecond, (int) this.capacity );
+  }
+
+  /**
+   * Takes a token, waiting as long as necessary.
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public void acquire() throws InterruptedException {
+    TimeUnit.NANOSECONDS.sleep( this.reserve( Long.MAX_VALUE ) );
+  }
+
+  /**
+   * Takes a token, if one is available right now.
+   * @return <code>true</code> if the token was taken.
+   */
+  public boolean tryAcquire() {
+    return this.reserve( 0 ) == 0;
+  }
+
+  /**
+   * Takes a token, if one becomes available within the given timeout. Returns immediately, if it does not.
+   * @param timeout
+   *          Max time to wait.
+   * @param unit
+   *          {@link TimeUnit} of the timeout.
+   * @return <code>true</code> if the token was taken.
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public boolean tryAcquire( final long timeout, final TimeUnit unit ) throws InterruptedException {
+    long wait = this.reserve( unit.toNanos( timeout ) );
+    if( wait < 0 ) {
+      return false;
+    }
+    TimeUnit.NANOSECONDS.sleep( wait );
+    return true;
+  }
+
+  /**
+   * @return Number of tokens available right now, negative if callers are waiting.
+   */
+  public synchronized double getAvailablePermits() {
+    this.refill( System.nanoTime() );
+    return this.tokens;
+  }
+
+  /**
+   * @return <code>true</code> if the bucket has refilled up to its capacity.
+   */
+  synchronized boolean isFull() {
+    this.refill( System.nanoTime() );
+    return this.tokens >= this.capacity;
+  }
+
+  /**
+   * @return Number of tokens taken so far.
+   */
+  public synchronized long getAcquired() {
+    return this.acquired;
+  }
+
+  /**
+   * @return Number of failed attempts to take a token.
+   */
+  public synchronized long getRejected() {
+    return this.rejected;
+  }
+
+  /**
+   * @param unit
+   *          {@link TimeUnit} of the result.
+   * @return Total time callers had to wait for their tokens.
+   */
+  public synchronized long getWaitTime( final TimeUnit unit ) {
+    return unit.convert( this.waited, TimeUnit.NANOSECONDS );
+  }
+
+  /**
+   * @return Nanoseconds to wait for the reserved token or <code>-1</code> if it is not available within the given timeout.
+   */
+  private synchronized long reserve( final long timeout ) {
+    long now = System.nanoTime();
+    this.refill( now );
+    long wait = this.tokens >= 1 ? 0 : (long) Math.ceil( (1 - this.tokens) / this.permitsPerNano );
+    if( wait > timeout ) {
+      this.rejected++;
+      return -1;
+    }
+    this.tokens -= 1;
+    this.acquired++;
+    this.waited += wait;
+    return wait;
+  }
+
+  private void refill( final long now ) {
+    if( now > this.refilledAt ) {
+      this.tokens = Math.min( this.capacity, this.tokens + (now - this.refilledAt) * this.permitsPerNano );
+      this.refilledAt = now;
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+package com.paymill.context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.exceptions.DeadlineExceededException;
+import com.paymill.models.Client;
+import com.paymill.models.PaymillList;
+import com.paymill.utils.CallOptions;
+import com.paymill.utils.Deadline;
+import com.paymill.utils.ExecutionMode;
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+
+public class AccountFanOutTest {
+
+  private final static AccountQuery<PaymillList<Client>> LIST_CLIENTS = new AccountQuery<PaymillList<Client>>() {
+    @Override
+    public PaymillList<Client> execute( final PaymillContext account ) {
+      return account.getClientService().list();
+    }
+  };
+
+  @Test
+  public void testSlowAccount_shouldNotBlockOthers() {
+    AccountsHttpClient transport = new AccountsHttpClient( 300 );
+    PaymillContext shared = new PaymillContext( transport );
+    AccountFanOut fanOut = new AccountFanOut( 2 );
+    Iterator<AccountResult<PaymillList<Client>>> results = fanOut.run( shared, Arrays.asList( "slow", "a", "b", "c", "d" ),
+        LIST_CLIENTS );
+
+    List<String> order = new ArrayList<String>();
+    while( results.hasNext() ) {
+      AccountResult<PaymillList<Client>> result = results.next();
+      Assert.assertTrue( result.isSuccess() );
+      Assert.assertEquals( result.getValue().getDataCount(), 1 );
+      order.add( result.getApiKey() );
+    }
+    Assert.assertEquals( order, Arrays.asList( "a", "b", "c", "d", "slow" ) );
+    Assert.assertTrue( transport.maxInFlight.get() <= 2 );
+    fanOut.close();
+  }
+
+  @Test
+  public void testTimeout_shouldFailOnlySlowAccount() {
+    PaymillContext shared = new PaymillContext( new AccountsHttpClient( 5000 ) );
+    long start = System.nanoTime();
+    Iterator<AccountResult<PaymillList<Client>>> results = new AccountFanOut( 4, 100, null ).run( shared, Arrays.asList( "slow",
+        "a" ), LIST_CLIENTS );
+
+    AccountResult<PaymillList<Client>> fast = results.next();
+    Assert.assertEquals( fast.getApiKey(), "a" );
+    AccountResult<PaymillList<Client>> slow = results.next();
+    Assert.assertEquals( slow.getApiKey(), "slow" );
+    Assert.assertFalse( slow.isSuccess() );
+    Assert.assertTrue( slow.getFailure() instanceof DeadlineExceededException );
+    Assert.assertFalse( results.hasNext() );
+    Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) < 2000 );
+  }
+
+  @Test
+  public void testContexts_shouldBeTaggedWithTheirContext() {
+    PaymillContext first = new PaymillContext( new AccountsHttpClient( 0 ) );
+    Iterator<AccountResult<PaymillList<Client>>> results = new AccountFanOut( 1 ).run( Arrays.asList( first ), LIST_CLIENTS );
+    AccountResult<PaymillList<Client>> result = results.next();
+    Assert.assertSame( result.getAccount(), first );
+    Assert.assertNull( result.getApiKey() );
+  }
+
+  @Test
+  public void testClose_shouldShutDownOwnExecutorOnly() {
+    ExecutorService executor = ExecutionMode.PLATFORM_THREADS.newExecutor( "paymill-test" );
+    try {
+      new AccountFanOut( 1, 0, executor ).close();
+      Assert.assertFalse( executor.isShutdown() );
+    } finally {
+      executor.shutdown();
+    }
+    AccountFanOut fanOut = new AccountFanOut( 1 );
+    fanOut.close();
+    try {
+      fanOut.run( Arrays.asList( new PaymillContext( new AccountsHttpClient( 0 ) ) ), LIST_CLIENTS ).next();
+      Assert.fail( "Expected rejected query" );
+    } catch( RejectedExecutionException exc ) {
+      // own executor is shut down
+    }
+  }
+
+  /**
+   * Answers a list with one client, the account <code>slow</code> takes the given time, but gives up at its deadline.
+   */
+  private final static class AccountsHttpClient implements HttpClient {
+
+    private final long          slowLatency;
+    private final AtomicInteger inFlight    = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    AccountsHttpClient( final long slowLatency ) {
+      this.slowLatency = slowLatency;
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      int current = this.inFlight.incrementAndGet();
+      int max;
+      while( current > (max = this.maxInFlight.get()) && !this.maxInFlight.compareAndSet( max, current ) ) {
+        // retry
+      }
+      try {
+        CallOptions options = CallOptions.current();
+        boolean slow = options.getCredentials() != null && options.getCredentials().getApiKey().equals( "slow" );
+        Deadline deadline = options.getDeadline();
+        if( slow && deadline != null && deadline.remaining( TimeUnit.MILLISECONDS ) < this.slowLatency ) {
+          Thread.sleep( deadline.remaining( TimeUnit.MILLISECONDS ) );
+          throw new DeadlineExceededException( false );
+        }
+        Thread.sleep( slow ? this.slowLatency : 20 );
+        return "{\"data\":[{\"id\":\"client_1\"}],\"data_count\":1,\"mode\":\"test\"}";
+      } catch( InterruptedException exc ) {
+        throw new RuntimeException( exc );
+      } finally {
+        this.inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public String get( final String path ) {
+      return this.get( path, null );
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
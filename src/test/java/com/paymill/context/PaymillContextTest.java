@@ -0,0 +1,79 @@
+package com.paymill.context;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.utils.CallOptions;
+import com.paymill.utils.Credentials;
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+import com.paymill.utils.Priority;
+
+public class PaymillContextTest {
+
+  @Test
+  public void testServices_shouldBeCreatedOncePerContext() {
+    PaymillContext paymill = new PaymillContext( new NoopHttpClient() );
+    Assert.assertNotNull( paymill.getTransactionService() );
+    Assert.assertSame( paymill.getTransactionService(), paymill.getTransactionService() );
+    Assert.assertSame( paymill.getChecksumService(), paymill.getChecksumService() );
+    Assert.assertSame( paymill.getWebhookService(), paymill.getWebhookService() );
+  }
+
+  @Test
+  public void testView_shouldHaveOwnServices() {
+    PaymillContext paymill = new PaymillContext( new NoopHttpClient() );
+    PaymillContext bulk = paymill.withPriority( Priority.BULK );
+    Assert.assertNotSame( bulk.getClientService(), paymill.getClientService() );
+  }
+
+  @Test
+  public void testApiKeyView_shouldSendCallsWithCredentials() {
+    NoopHttpClient shared = new NoopHttpClient();
+    PaymillContext paymill = new PaymillContext( shared );
+    paymill.withApiKey( "first" ).getClientService().list();
+    Assert.assertEquals( shared.credentials, new Credentials( "first" ) );
+    paymill.withApiKey( "second" ).withPriority( Priority.BULK ).getClientService().list();
+    Assert.assertEquals( shared.credentials, new Credentials( "second" ) );
+    paymill.getClientService().list();
+    Assert.assertNull( shared.credentials );
+  }
+
+  @Test
+  public void testProjectProperties_shouldBeLoaded() {
+    Assert.assertEquals( PaymillContext.getProjectName(), "paymill-java" );
+    Assert.assertEquals( PaymillContext.getProjectVersion(), "unit-tests" );
+  }
+
+  private final static class NoopHttpClient implements HttpClient {
+
+    private Credentials credentials;
+
+    @Override
+    public String get( final String path ) {
+      return null;
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      this.credentials = CallOptions.current().getCredentials();
+      return "{}";
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      return null;
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      return null;
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      return null;
+    }
+  }
+
+}
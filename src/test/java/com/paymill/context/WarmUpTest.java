@@ -0,0 +1,98 @@
+package com.paymill.context;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+
+public class WarmUpTest {
+
+  @Test
+  public void testWarmUp_shouldOpenConnectionsConcurrently() {
+    ConnectingHttpClient client = new ConnectingHttpClient( false );
+    Assert.assertEquals( new PaymillContext( client ).warmUp( 4 ), 4 );
+    Assert.assertEquals( client.calls.get(), 4 );
+    Assert.assertEquals( client.maxInFlight.get(), 4 );
+  }
+
+  @Test
+  public void testWarmUp_Unreachable_shouldNotThrow() {
+    Assert.assertEquals( new PaymillContext( new ConnectingHttpClient( true ) ).warmUp( 3 ), 0 );
+  }
+
+  @Test
+  public void testWarmUpAsync_shouldNotBlock() throws Exception {
+    ConnectingHttpClient client = new ConnectingHttpClient( false );
+    long start = System.nanoTime();
+    Integer connected = new PaymillContext( client ).warmUpAsync( 2 ).get( 5, TimeUnit.SECONDS );
+    Assert.assertEquals( connected.intValue(), 2 );
+    Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) >= 100 );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testWarmUp_NegativeConnections_shouldFail() {
+    new PaymillContext( new ConnectingHttpClient( false ) ).warmUp( -1 );
+  }
+
+  /**
+   * Takes 100 milliseconds per request, like a fresh TLS connection.
+   */
+  private final static class ConnectingHttpClient implements HttpClient {
+
+    private final AtomicInteger calls       = new AtomicInteger();
+    private final AtomicInteger inFlight    = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final boolean       unreachable;
+
+    ConnectingHttpClient( final boolean unreachable ) {
+      this.unreachable = unreachable;
+    }
+
+    @Override
+    public String get( final String path ) {
+      Assert.assertEquals( path, PaymillContext.ENDPOINT );
+      this.calls.incrementAndGet();
+      int current = this.inFlight.incrementAndGet();
+      int max;
+      while( current > (max = this.maxInFlight.get()) && !this.maxInFlight.compareAndSet( max, current ) ) {
+        // retry
+      }
+      try {
+        Thread.sleep( 100 );
+        if( this.unreachable ) {
+          throw new RuntimeException( "Connection refused" );
+        }
+        return "{}";
+      } catch( InterruptedException exc ) {
+        throw new RuntimeException( exc );
+      } finally {
+        this.inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      return this.get( path );
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.paymill.models;
+
+import java.util.Date;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.context.PaymillContext;
+
+public class CompactModelTest {
+
+  private final static String TRANSACTION  = "{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\",\"origin_amount\":4200,"
+                                               + "\"status\":\"closed\",\"description\":\"Test\",\"livemode\":false,"
+                                               + "\"refunds\":[],\"payment\":{\"id\":\"pay_2f82a672574647cd911d\"},"
+                                               + "\"client\":\"client_c781b1d2f7f0f664b4d9\",\"preauthorization\":[],\"currency\":\"EUR\","
+                                               + "\"created_at\":1349946151,\"updated_at\":1349946152,\"response_code\":20000,"
+                                               + "\"short_id\":\"0000.1212.3434\",\"is_fraud\":true,\"fees\":[],\"app_id\":null}";
+
+  private final static String SUBSCRIPTION = "{\"id\":\"sub_dc180b755d10da324864\",\"offer\":{\"id\":\"offer_40237e20a7d5a231d99b\"},"
+                                               + "\"livemode\":true,\"amount\":4200,\"temp_amount\":null,\"currency\":\"EUR\","
+                                               + "\"name\":\"Nerd\",\"interval\":\"1 MONTH,MONDAY\",\"period_of_validity\":\"2 YEAR\","
+                                               + "\"end_of_period\":1400000000000,\"next_capture_at\":1369563095,"
+                                               + "\"created_at\":1341935490,\"updated_at\":1349948920,\"canceled_at\":null,"
+                                               + "\"payment\":\"pay_2f82a672574647cd911d\",\"is_canceled\":false,\"is_deleted\":true,"
+                                               + "\"status\":\"active\"}";
+
+  @Test
+  public void testTransaction_shouldRoundTrip() throws Exception {
+    Transaction transaction = PaymillContext.PARSER.readValue( TRANSACTION, Transaction.class );
+    CompactTransaction compact = CompactTransaction.from( transaction );
+    Assert.assertEquals( compact.getAmount(), 4200 );
+    Assert.assertEquals( compact.getStatus(), Transaction.Status.CLOSED );
+    Assert.assertEquals( compact.getCreatedAt(), 1349946151L );
+    Assert.assertEquals( compact.getPaymentId(), "pay_2f82a672574647cd911d" );
+    Assert.assertNull( compact.getPreauthorizationId() );
+    Assert.assertFalse( compact.isLivemode() );
+    Assert.assertTrue( compact.isFraud() );
+
+    Transaction copy = compact.toTransaction();
+    Assert.assertEquals( copy.getId(), transaction.getId() );
+    Assert.assertEquals( copy.getAmount(), transaction.getAmount() );
+    Assert.assertEquals( copy.getOriginAmount(), transaction.getOriginAmount() );
+    Assert.assertEquals( copy.getCurrency(), transaction.getCurrency() );
+    Assert.assertEquals( copy.getStatus(), transaction.getStatus() );
+    Assert.assertEquals( copy.getClient().getId(), transaction.getClient().getId() );
+    Assert.assertEquals( copy.getResponseCode(), transaction.getResponseCode() );
+    Assert.assertEquals( copy.getShortId(), transaction.getShortId() );
+    Assert.assertEquals( copy.getCreatedAt(), transaction.getCreatedAt() );
+    Assert.assertEquals( copy.getUpdatedAt(), transaction.getUpdatedAt() );
+    Assert.assertNull( copy.getAppId() );
+  }
+
+  @Test
+  public void testSubscription_shouldRoundTrip() throws Exception {
+    Subscription subscription = PaymillContext.PARSER.readValue( SUBSCRIPTION, Subscription.class );
+    CompactSubscription compact = CompactSubscription.from( subscription );
+    Assert.assertEquals( compact.getTempAmount(), 0 );
+    Assert.assertEquals( compact.getCanceledAt(), 0L );
+    Assert.assertTrue( compact.isLivemode() );
+    Assert.assertFalse( compact.isCanceled() );
+    Assert.assertTrue( compact.isDeleted() );
+
+    Subscription copy = compact.toSubscription();
+    Assert.assertEquals( copy.getOffer().getId(), "offer_40237e20a7d5a231d99b" );
+    Assert.assertEquals( copy.getAmount(), Integer.valueOf( 4200 ) );
+    Assert.assertNull( copy.getTempAmount() );
+    Assert.assertEquals( copy.getInterval().toString(), subscription.getInterval().toString() );
+    Assert.assertEquals( copy.getPeriodOfValidity().toString(), "2 YEAR" );
+    Assert.assertEquals( copy.getStatus(), Subscription.Status.ACTIVE );
+    Assert.assertEquals( copy.getEndOfPeriod(), new Date( 1400000000000L ) );
+    Assert.assertEquals( copy.getNextCaptureAt(), subscription.getNextCaptureAt() );
+    Assert.assertNull( copy.getCanceledAt() );
+    Assert.assertNull( copy.getClient() );
+  }
+
+  @Test
+  public void testRefund_shouldRoundTrip() {
+    Refund refund = new Refund( "refund_87bc404a95d5ce616049" );
+    refund.setTransaction( new Transaction( "tran_54645bcb98ba7acfe204" ) );
+    refund.setAmount( 42 );
+    refund.setStatus( Refund.Status.REFUNDED );
+    refund.setCreatedAt( 1349947042L );
+    Refund copy = CompactRefund.from( refund ).toRefund();
+    Assert.assertEquals( copy.getTransaction().getId(), "tran_54645bcb98ba7acfe204" );
+    Assert.assertEquals( copy.getAmount(), Integer.valueOf( 42 ) );
+    Assert.assertEquals( copy.getStatus(), Refund.Status.REFUNDED );
+    Assert.assertEquals( copy.getCreatedAt(), refund.getCreatedAt() );
+    Assert.assertNull( copy.getUpdatedAt() );
+    Assert.assertEquals( copy.getLivemode(), Boolean.FALSE );
+  }
+
+  @Test
+  public void testCurrency_shouldBeShared() throws Exception {
+    CompactTransaction first = CompactTransaction.from( PaymillContext.PARSER.readValue( TRANSACTION, Transaction.class ) );
+    CompactTransaction second = CompactTransaction.from( PaymillContext.PARSER.readValue( TRANSACTION, Transaction.class ) );
+    Assert.assertSame( first.getCurrency(), second.getCurrency() );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testNullTransaction_shouldFail() {
+    CompactTransaction.from( null );
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.paymill.models;
+
+import java.nio.charset.Charset;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymill.context.PaymillContext;
+
+public class LazyModelTest {
+
+  private final static ObjectMapper MAPPER       = new ObjectMapper();
+
+  private final static Charset      UTF_8        = Charset.forName( "UTF-8" );
+
+  private final static String       CLIENT       = "{\"id\":\"client_c781b1d2f7f0f664b4d9\",\"email\":\"lovely-client@example.com\","
+                                                     + "\"description\":\"Lovely Client \\u00e4\",\"created_at\":1349946151,"
+                                                     + "\"updated_at\":1349946152,\"app_id\":null,\"payment\":[\"pay_2f82a672574647cd911d\"],"
+                                                     + "\"subscription\":null}";
+
+  private final static String       PAYMENT      = "{\"id\":\"pay_2f82a672574647cd911d\",\"type\":\"creditcard\","
+                                                     + "\"client\":\"client_c781b1d2f7f0f664b4d9\",\"card_type\":\"visa\",\"country\":\"DE\","
+                                                     + "\"expire_month\":\"12\",\"expire_year\":2015,\"card_holder\":\"Max\",\"last4\":\"1111\","
+                                                     + "\"created_at\":1349946151,\"updated_at\":1349946151,\"app_id\":null}";
+
+  private final static String       TRANSACTION  = "{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\",\"origin_amount\":4200,"
+                                                     + "\"status\":\"closed\",\"description\":\"Caf\u00e9\",\"livemode\":false,"
+                                                     + "\"refunds\":[{\"id\":\"refund_87bc404a95d5ce616049\",\"amount\":\"042\","
+                                                     + "\"status\":\"refunded\",\"transaction\":\"tran_54645bcb98ba7acfe204\","
+                                                     + "\"created_at\":1349947042,\"updated_at\":1349947042}],"
+                                                     + "\"payment\":" + PAYMENT + ",\"client\":" + CLIENT + ","
+                                                     + "\"preauthorization\":[],\"currency\":\"EUR\",\"created_at\":1349946151,"
+                                                     + "\"updated_at\":1349946151,\"response_code\":20000,\"short_id\":\"0000.1212.3434\","
+                                                     + "\"is_fraud\":false,\"invoices\":[],\"fees\":[],\"app_id\":null}";
+
+  private final static String       SUBSCRIPTION = "{\"id\":\"sub_dc180b755d10da324864\",\"offer\":{\"id\":\"offer_40237e20a7d5a231d99b\","
+                                                     + "\"name\":\"Nerd Special\",\"amount\":4200,\"currency\":\"EUR\",\"interval\":\"1 WEEK\"},"
+                                                     + "\"livemode\":false,\"amount\":4200,\"currency\":\"EUR\",\"name\":\"Nerd\","
+                                                     + "\"interval\":\"1 MONTH,MONDAY\",\"period_of_validity\":\"2 YEAR\","
+                                                     + "\"next_capture_at\":1369563095,\"created_at\":1341935490,\"updated_at\":1349948920,"
+                                                     + "\"payment\":" + PAYMENT + ",\"client\":\"client_c781b1d2f7f0f664b4d9\","
+                                                     + "\"is_canceled\":false,\"is_deleted\":false,\"status\":\"active\"}";
+
+  @Test
+  public void testTransaction_shouldMatchFullDeserialization() throws Exception {
+    Transaction expected = PaymillContext.PARSER.readValue( TRANSACTION, Transaction.class );
+    LazyTransaction lazy = new LazyTransaction( TRANSACTION.getBytes( UTF_8 ) );
+    Assert.assertEquals( lazy.getId(), expected.getId() );
+    Assert.assertEquals( lazy.getAmount(), expected.getAmount() );
+    Assert.assertEquals( lazy.getDescription(), "Caf\u00e9" );
+    Assert.assertEquals( lazy.getStatus(), expected.getStatus() );
+    Assert.assertEquals( lazy.getCreatedAt(), expected.getCreatedAt() );
+    Assert.assertEquals( lazy.getShortId(), expected.getShortId() );
+    Assert.assertEquals( lazy.getFraud(), expected.getFraud() );
+    this.assertSame( lazy.getPayment(), expected.getPayment() );
+    this.assertSame( lazy.getClient(), expected.getClient() );
+    this.assertSame( lazy.getRefunds(), expected.getRefunds() );
+    this.assertSame( lazy.getFees(), expected.getFees() );
+    Assert.assertNull( lazy.getPreauthorization() );
+    this.assertSame( lazy.toTransaction(), expected );
+  }
+
+  @Test
+  public void testSubscription_shouldMatchFullDeserialization() throws Exception {
+    Subscription expected = PaymillContext.PARSER.readValue( SUBSCRIPTION, Subscription.class );
+    LazySubscription lazy = new LazySubscription( SUBSCRIPTION.getBytes( UTF_8 ) );
+    Assert.assertEquals( lazy.getId(), expected.getId() );
+    Assert.assertEquals( lazy.getStatus(), Subscription.Status.ACTIVE );
+    Assert.assertEquals( lazy.getNextCaptureAt(), expected.getNextCaptureAt() );
+    Assert.assertEquals( lazy.getInterval().toString(), expected.getInterval().toString() );
+    this.assertSame( lazy.getOffer(), expected.getOffer() );
+    this.assertSame( lazy.getPayment(), expected.getPayment() );
+    Assert.assertEquals( lazy.getClient().getId(), "client_c781b1d2f7f0f664b4d9" );
+    this.assertSame( lazy.toSubscription(), expected );
+  }
+
+  @Test
+  public void testClient_shouldMatchFullDeserialization() throws Exception {
+    Client expected = PaymillContext.PARSER.readValue( CLIENT, Client.class );
+    LazyClient lazy = new LazyClient( CLIENT.getBytes( UTF_8 ) );
+    Assert.assertEquals( lazy.getEmail(), expected.getEmail() );
+    Assert.assertEquals( lazy.getDescription(), "Lovely Client \u00e4" );
+    Assert.assertEquals( lazy.getUpdatedAt(), expected.getUpdatedAt() );
+    Assert.assertEquals( lazy.getPayments().get( 0 ).getId(), "pay_2f82a672574647cd911d" );
+    Assert.assertNull( lazy.getSubscriptions() );
+    this.assertSame( lazy.toClient(), expected );
+  }
+
+  @Test
+  public void testNestedObject_shouldBeReadOnlyByItsGetter() {
+    String json = TRANSACTION.replace( "\"expire_year\":2015", "\"expire_year\":\"never\"" );
+    LazyTransaction lazy = new LazyTransaction( json.getBytes( UTF_8 ) );
+    Assert.assertEquals( lazy.getAmount(), Integer.valueOf( 4200 ) );
+    Assert.assertEquals( lazy.getClient().getId(), "client_c781b1d2f7f0f664b4d9" );
+    try {
+      lazy.getPayment();
+      Assert.fail( "Expected RuntimeException" );
+    } catch( RuntimeException exc ) {
+      Assert.assertTrue( exc.getMessage().contains( "never" ), exc.getMessage() );
+    }
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testNullJson_shouldFail() {
+    new LazyTransaction( null );
+  }
+
+  private void assertSame( final Object actual, final Object expected ) throws Exception {
+    Assert.assertEquals( MAPPER.writeValueAsString( actual ), MAPPER.writeValueAsString( expected ) );
+  }
+
+}
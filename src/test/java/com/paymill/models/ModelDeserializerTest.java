@@ -0,0 +1,111 @@
+package com.paymill.models;
+
+import java.util.Date;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.paymill.context.PaymillContext;
+
+public class ModelDeserializerTest {
+
+  /**
+   * Deserializes with the reflective bean deserializers of Jackson.
+   */
+  private final static ObjectMapper REFLECTIVE   = new ObjectMapper();
+
+  private final static String       CLIENT       = "{\"id\":\"client_c781b1d2f7f0f664b4d9\",\"email\":\"lovely-client@example.com\","
+                                                     + "\"description\":\"Lovely Client\",\"created_at\":1349946151,"
+                                                     + "\"updated_at\":1349946152,\"app_id\":null,\"payment\":[\"pay_2f82a672574647cd911d\"],"
+                                                     + "\"subscription\":null}";
+
+  private final static String       PAYMENT      = "{\"id\":\"pay_2f82a672574647cd911d\",\"type\":\"creditcard\","
+                                                     + "\"client\":\"client_c781b1d2f7f0f664b4d9\",\"card_type\":\"visa\",\"country\":\"DE\","
+                                                     + "\"expire_month\":\"12\",\"expire_year\":2015,\"card_holder\":\"Max\",\"last4\":\"1111\","
+                                                     + "\"created_at\":1349946151,\"updated_at\":1349946151,\"app_id\":null,"
+                                                     + "\"is_recurring\":true,\"is_usable_for_preauthorization\":false}";
+
+  private final static String       OFFER        = "{\"id\":\"offer_40237e20a7d5a231d99b\",\"name\":\"Nerd Special\",\"amount\":4200,"
+                                                     + "\"currency\":\"EUR\",\"interval\":\"1 WEEK\",\"trial_period_days\":0,"
+                                                     + "\"created_at\":1341935129,\"updated_at\":1349948920,"
+                                                     + "\"subscription_count\":{\"active\":\"3\",\"inactive\":0},\"app_id\":null}";
+
+  private final static String       FEE          = "{\"type\":\"application\",\"application\":\"app_1d70acbf80c8c35ce83680715c06be0d15c06be0d\","
+                                                     + "\"payment\":\"pay_917018675b21ca03c4fb\",\"amount\":420,\"currency\":\"EUR\","
+                                                     + "\"billed_at\":1349946151}";
+
+  private final static String       TRANSACTION  = "{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\",\"origin_amount\":4200,"
+                                                     + "\"status\":\"closed\",\"description\":\"Test\",\"livemode\":false,"
+                                                     + "\"refunds\":[{\"id\":\"refund_87bc404a95d5ce616049\",\"amount\":\"042\","
+                                                     + "\"status\":\"refunded\",\"description\":null,\"livemode\":false,"
+                                                     + "\"created_at\":1349947042,\"updated_at\":1349947042,\"response_code\":20000,"
+                                                     + "\"transaction\":\"tran_54645bcb98ba7acfe204\",\"app_id\":null}],"
+                                                     + "\"payment\":" + PAYMENT + ",\"client\":" + CLIENT + ","
+                                                     + "\"preauthorization\":null,\"currency\":\"EUR\",\"created_at\":1349946151,"
+                                                     + "\"updated_at\":1349946151,\"response_code\":20000,\"short_id\":\"0000.1212.3434\","
+                                                     + "\"is_fraud\":false,\"invoices\":[],\"fees\":[" + FEE + "],\"app_id\":null,"
+                                                     + "\"mandate_reference\":null}";
+
+  private final static String       SUBSCRIPTION = "{\"id\":\"sub_dc180b755d10da324864\",\"offer\":" + OFFER + ",\"livemode\":false,"
+                                                     + "\"amount\":4200,\"temp_amount\":null,\"currency\":\"EUR\",\"name\":\"Nerd\","
+                                                     + "\"interval\":\"1 MONTH,MONDAY\",\"period_of_validity\":\"2 YEAR\","
+                                                     + "\"trial_start\":null,\"trial_end\":null,\"end_of_period\":1400000000000,"
+                                                     + "\"next_capture_at\":1369563095,\"created_at\":1341935490,"
+                                                     + "\"updated_at\":1349948920,\"canceled_at\":null,\"payment\":" + PAYMENT + ","
+                                                     + "\"client\":\"client_c781b1d2f7f0f664b4d9\",\"app_id\":null,\"is_canceled\":false,"
+                                                     + "\"is_deleted\":false,\"status\":\"active\",\"mandate_reference\":null}";
+
+  @Test
+  public void testModels_shouldMatchReflectiveDeserialization() throws Exception {
+    this.assertSame( TRANSACTION, Transaction.class );
+    this.assertSame( SUBSCRIPTION, Subscription.class );
+    this.assertSame( CLIENT, Client.class );
+    this.assertSame( PAYMENT, Payment.class );
+    this.assertSame( OFFER, Offer.class );
+    this.assertSame( FEE, Fee.class );
+    this.assertSame( "{\"id\":\"refund_87bc404a95d5ce616049\",\"transaction\":" + TRANSACTION + ",\"amount\":42,"
+        + "\"status\":\"open\",\"created_at\":1349947042,\"updated_at\":1349947042}", Refund.class );
+    this.assertSame( "{\"id\":\"preauth_0b771c503680c341548e\",\"amount\":\"4200\",\"currency\":\"EUR\",\"status\":\"closed\","
+        + "\"livemode\":false,\"payment\":" + PAYMENT + ",\"client\":" + CLIENT + ",\"transaction\":null,"
+        + "\"created_at\":1349950324,\"updated_at\":1349950324,\"app_id\":null}", Preauthorization.class );
+    this.assertSame( "{\"id\":\"hook_40237e20a7d5a231d99b\",\"url\":\"your-webhook-url\",\"livemode\":false,"
+        + "\"event_types\":[\"transaction.succeeded\",\"subscription.created\",\"unknown.event\"],"
+        + "\"created_at\":1358982000,\"updated_at\":1358982000,\"app_id\":null}", Webhook.class );
+    this.assertSame( "{\"invoice_nr\":\"9876543210\",\"netto\":123,\"brutto\":146,\"status\":\"sent\","
+        + "\"period_from\":1354604400000,\"period_until\":\"2012-12-31T00:00:00.000+0000\",\"currency\":\"EUR\","
+        + "\"vat_rate\":19,\"billing_date\":null,\"invoice_type\":\"subscription\",\"last_reminder_date\":null}", Invoice.class );
+    this.assertSame( "{\"identifier_key\":\"mer_123\",\"email\":\"mail@example.com\",\"locale\":\"de_DE\",\"country\":\"DE\","
+        + "\"methods\":[\"visa\",\"mastercard\"],\"unknown\":{\"nested\":[1,2]}}", Merchant.class );
+  }
+
+  @Test
+  public void testEmptyArray_shouldBeNull() throws Exception {
+    Transaction transaction = PaymillContext.PARSER.readValue( "{\"id\":\"tran_1\",\"client\":[],\"payment\":[],"
+        + "\"preauthorization\":[],\"amount\":100}", Transaction.class );
+    Assert.assertNull( transaction.getClient() );
+    Assert.assertNull( transaction.getPayment() );
+    Assert.assertNull( transaction.getPreauthorization() );
+    Assert.assertEquals( transaction.getAmount(), Integer.valueOf( 100 ) );
+  }
+
+  @Test
+  public void testSeconds_shouldBeConverted() throws Exception {
+    Client client = PaymillContext.PARSER.readValue( CLIENT, Client.class );
+    Assert.assertEquals( client.getCreatedAt(), new Date( 1349946151000L ) );
+    Assert.assertEquals( client.getPayments().get( 0 ).getId(), "pay_2f82a672574647cd911d" );
+  }
+
+  @Test( expectedExceptions = UnrecognizedPropertyException.class )
+  public void testUnknownProperty_ofStrictModel_shouldFail() throws Exception {
+    PaymillContext.PARSER.readValue( "{\"type\":\"application\",\"unknown\":1}", Fee.class );
+  }
+
+  private void assertSame( final String json, final Class<?> type ) throws Exception {
+    Object expected = REFLECTIVE.readValue( json, type );
+    Object actual = PaymillContext.PARSER.readValue( json, type );
+    Assert.assertEquals( REFLECTIVE.writeValueAsString( actual ), REFLECTIVE.writeValueAsString( expected ), type.getSimpleName() );
+  }
+
+}
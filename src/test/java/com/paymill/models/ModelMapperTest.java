@@ -0,0 +1,24 @@
+package com.paymill.models;
+
+import java.io.StringWriter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ModelMapperTest {
+
+  @Test
+  public void testReadersAndParsers_shouldNotExposeMapper() throws Exception {
+    Assert.assertFalse( ModelMapper.reader( Transaction.class ).getFactory().getCodec() instanceof ObjectMapper );
+    Assert.assertFalse( ModelMapper.listReader( Transaction.class ).getFactory().getCodec() instanceof ObjectMapper );
+    JsonParser parser = ModelMapper.createParser( "{\"id\":\"tran_1\"}" );
+    Assert.assertFalse( parser.getCodec() instanceof ObjectMapper );
+    parser.nextToken();
+    Assert.assertEquals( ModelMapper.reader( Transaction.class ).<Transaction> readValue( parser ).getId(), "tran_1" );
+    Assert.assertFalse( ModelMapper.createGenerator( new StringWriter() ).getCodec() instanceof ObjectMapper );
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.paymill.models;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class PaymillIdTest {
+
+  private final static String[] IDS = { "tran_54645bcb98ba7acfe204", "pay_2f82a672574647cd911d", "client_c781b1d2f7f0f664b4d9",
+      "sub_dc180b755d10da324864", "offer_40237e20a7d5a231d99b", "refund_87bc404a95d5ce616049",
+      "preauth_0b771c503680c341548e", "hook_40237e20a7d5a231d99b", "tran_00000000000000000001",
+      "tran_ffffffffffffffffffffffffffffffff", "pay_1" };
+
+  @Test
+  public void testParse_shouldRoundTrip() {
+    for( String id : IDS ) {
+      PaymillId binary = PaymillId.parse( id );
+      Assert.assertEquals( binary.toString(), id );
+      Assert.assertTrue( binary.matches( id ), id );
+      Assert.assertEquals( binary.hashCode(), PaymillId.hashCode( id ), id );
+      Assert.assertEquals( binary, PaymillId.parse( id ) );
+      Assert.assertEquals( binary.length(), id.length() );
+      Assert.assertEquals( binary.charAt( id.length() - 1 ), id.charAt( id.length() - 1 ) );
+    }
+    Assert.assertEquals( PaymillId.parse( IDS[0] ).getType(), PaymillId.Type.TRANSACTION );
+  }
+
+  @Test
+  public void testIds_shouldDiffer() {
+    Set<PaymillId> ids = new HashSet<PaymillId>();
+    for( String id : IDS ) {
+      ids.add( PaymillId.parse( id ) );
+    }
+    Assert.assertEquals( ids.size(), IDS.length );
+    Assert.assertFalse( PaymillId.parse( "tran_01" ).equals( PaymillId.parse( "tran_1" ) ) );
+    Assert.assertFalse( PaymillId.parse( "tran_1" ).equals( PaymillId.parse( "pay_1" ) ) );
+    Assert.assertFalse( PaymillId.parse( "tran_54645bcb98ba7acfe204" ).matches( "tran_54645bcb98ba7acfe205" ) );
+    Assert.assertTrue( PaymillId.parse( "tran_1" ).compareTo( PaymillId.parse( "tran_2" ) ) < 0 );
+  }
+
+  @Test
+  public void testBuffer_shouldRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocate( PaymillId.BYTES * IDS.length );
+    for( String id : IDS ) {
+      PaymillId.parse( id ).writeTo( buffer );
+    }
+    buffer.flip();
+    for( String id : IDS ) {
+      Assert.assertEquals( PaymillId.readFrom( buffer ).toString(), id );
+    }
+  }
+
+  @Test
+  public void testIsEncodable() {
+    Assert.assertTrue( PaymillId.isEncodable( "tran_54645bcb98ba7acfe204" ) );
+    Assert.assertFalse( PaymillId.isEncodable( "tran_54645BCB98BA7ACFE204" ) );
+    Assert.assertFalse( PaymillId.isEncodable( "app_1d70acbf80c8c35ce83680715c06be0d15c06be0d" ) );
+    Assert.assertFalse( PaymillId.isEncodable( "tran_0123456789abcdef0123456789abcdef0" ) );
+    Assert.assertFalse( PaymillId.isEncodable( "tran_" ) );
+    Assert.assertFalse( PaymillId.isEncodable( null ) );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testParse_NotEncodable_shouldFail() {
+    PaymillId.parse( "tran_unknown" );
+  }
+
+  @Test
+  public void testLookup_shouldNotAllocate() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if( !(threads instanceof com.sun.management.ThreadMXBean)
+        || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported() ) {
+      throw new SkipException( "Allocated memory per thread is not supported by this JVM" );
+    }
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+    PaymillId[] ids = new PaymillId[IDS.length];
+    for( int i = 0; i < IDS.length; i++ ) {
+      ids[i] = PaymillId.parse( IDS[i] );
+    }
+    int matches = PaymillIdTest.lookup( ids );
+    long threadId = Thread.currentThread().getId();
+    long before = allocations.getThreadAllocatedBytes( threadId );
+    matches += PaymillIdTest.lookup( ids );
+    long allocated = allocations.getThreadAllocatedBytes( threadId ) - before;
+    Assert.assertEquals( matches, 2 * 1000 * IDS.length );
+    Assert.assertTrue( allocated < 1024, "Allocated " + allocated + " bytes" );
+  }
+
+  private static int lookup( final PaymillId[] ids ) {
+    int matches = 0;
+    for( int i = 0; i < 1000; i++ ) {
+      for( int j = 0; j < ids.length; j++ ) {
+        if( ids[j].hashCode() == PaymillId.hashCode( IDS[j] ) && ids[j].matches( IDS[j] ) && ids[j].equals( ids[j] ) ) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+}
@@ -0,0 +1,96 @@
+package com.paymill.models;
+
+import java.util.BitSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.paymill.context.PaymillContext;
+
+public class TransactionColumnsTest {
+
+  private final static String PAGE = "[{\"id\":\"tran_1\",\"amount\":\"4200\",\"currency\":\"EUR\",\"status\":\"closed\","
+                                       + "\"created_at\":1349946151,\"client\":{\"id\":\"client_1\",\"email\":null,\"payment\":[]},"
+                                       + "\"payment\":{\"id\":\"pay_1\",\"client\":\"client_1\"},\"refunds\":[]},"
+                                       + "{\"id\":\"tran_2\",\"amount\":100,\"currency\":\"USD\",\"status\":\"failed\","
+                                       + "\"created_at\":1349946200,\"client\":\"client_2\"},"
+                                       + "{\"id\":\"tran_3\",\"amount\":900,\"currency\":\"EUR\",\"status\":\"closed\","
+                                       + "\"created_at\":1349946300,\"client\":[]}]";
+
+  @Test
+  public void testPage_shouldBeDecodedIntoColumns() throws Exception {
+    TransactionColumns columns = PaymillContext.PARSER.readValue( PAGE, TransactionColumns.class );
+    Assert.assertEquals( columns.size(), 3 );
+    Assert.assertEquals( columns.getId( 0 ), "tran_1" );
+    Assert.assertEquals( columns.getAmount( 0 ), 4200 );
+    Assert.assertEquals( columns.getCurrency( 1 ), "USD" );
+    Assert.assertEquals( columns.getStatus( 1 ), Transaction.Status.FAILED );
+    Assert.assertEquals( columns.getCreatedAt( 2 ), 1349946300L );
+    Assert.assertEquals( columns.getClientId( 0 ), "client_1" );
+    Assert.assertEquals( columns.getClientId( 1 ), "client_2" );
+    Assert.assertNull( columns.getClientId( 2 ) );
+  }
+
+  @Test
+  public void testFilters_shouldSelectRows() throws Exception {
+    TransactionColumns columns = PaymillContext.PARSER.readValue( PAGE, TransactionColumns.class );
+    BitSet rows = columns.selectByCurrency( "EUR" );
+    rows.and( columns.selectByStatus( Transaction.Status.CLOSED ) );
+    Assert.assertEquals( rows.cardinality(), 2 );
+    Assert.assertEquals( columns.sumAmounts( rows ), 5100L );
+    Assert.assertEquals( columns.sumAmounts(), 5200L );
+    Assert.assertEquals( columns.selectByCreatedAt( 1349946151L, 1349946300L ).cardinality(), 2 );
+    Assert.assertEquals( columns.selectByAmount( 100, 900 ).cardinality(), 2 );
+    Assert.assertEquals( columns.selectByClientId( "client_2" ).nextSetBit( 0 ), 1 );
+    Assert.assertTrue( columns.selectByCurrency( "GBP" ).isEmpty() );
+  }
+
+  @Test
+  public void testColumns_shouldGrow() throws Exception {
+    TransactionColumns columns = new TransactionColumns( 1 );
+    for( int i = 0; i < 4; i++ ) {
+      PaymillContext.PARSER.readerForUpdating( columns ).readValue( PAGE );
+    }
+    Assert.assertEquals( columns.size(), 12 );
+    Assert.assertEquals( columns.getId( 11 ), "tran_3" );
+    Assert.assertEquals( columns.sumAmounts(), 4 * 5200L );
+  }
+
+  @Test
+  public void testDictionary_shouldFindManyValues() throws Exception {
+    StringBuilder page = new StringBuilder( "[" );
+    for( int i = 0; i < 100; i++ ) {
+      page.append( i == 0 ? "" : "," ).append( "{\"id\":\"tran_" ).append( i );
+      page.append( "\",\"client\":\"client_" ).append( i % 40 ).append( "\"}" );
+    }
+    TransactionColumns columns = PaymillContext.PARSER.readValue( page.append( "]" ).toString(), TransactionColumns.class );
+    Assert.assertEquals( columns.getId( 99 ), "tran_99" );
+    Assert.assertEquals( columns.getClientId( 99 ), "client_19" );
+    Assert.assertEquals( columns.selectByClientId( "client_19" ).cardinality(), 3 );
+    Assert.assertTrue( columns.selectByClientId( "client_40" ).isEmpty() );
+  }
+
+  @Test
+  public void testFailedRow_shouldLeaveNothing() throws Exception {
+    TransactionColumns columns = new TransactionColumns( 1 );
+    try {
+      PaymillContext.PARSER.readerForUpdating( columns ).readValue( "[{\"id\":\"tran_1\",\"amount\":1},"
+          + "{\"id\":\"tran_2\",\"amount\":2,\"currency\":{}}]" );
+      Assert.fail( "Expected invalid currency" );
+    } catch( JsonMappingException exc ) {
+      // the second row is invalid
+    }
+    Assert.assertEquals( columns.size(), 1 );
+    PaymillContext.PARSER.readerForUpdating( columns ).readValue( "[{\"id\":\"tran_3\",\"amount\":3}]" );
+    Assert.assertEquals( columns.size(), 2 );
+    Assert.assertEquals( columns.getId( 1 ), "tran_3" );
+    Assert.assertEquals( columns.sumAmounts(), 4L );
+  }
+
+  @Test( expectedExceptions = IndexOutOfBoundsException.class )
+  public void testRow_OutOfRange_shouldFail() {
+    new TransactionColumns().getAmount( 0 );
+  }
+
+}
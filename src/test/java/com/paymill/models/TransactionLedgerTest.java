@@ -0,0 +1,161 @@
+package com.paymill.models;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class TransactionLedgerTest {
+
+  @Test
+  public void testPut_shouldBeFoundById() {
+    TransactionLedger ledger = new TransactionLedger( 100 );
+    for( int i = 0; i < 100; i++ ) {
+      ledger.put( TransactionLedgerTest.transaction( i ) );
+    }
+    Assert.assertEquals( ledger.size(), 100 );
+    TransactionLedger.Record record = ledger.record().moveTo( ledger.find( "tran_00000000000000000042" ) );
+    Assert.assertEquals( record.getId(), "tran_00000000000000000042" );
+    Assert.assertEquals( record.getAmount(), 4200 );
+    Assert.assertEquals( record.getOriginAmount(), 4242 );
+    Assert.assertEquals( record.getCurrency(), "EUR" );
+    Assert.assertEquals( record.getTransactionStatus(), Transaction.Status.CLOSED );
+    Assert.assertNull( record.getRefundStatus() );
+    Assert.assertEquals( record.getCreatedAt(), 1349946151L + 42 );
+    Assert.assertEquals( record.getClientId(), "client_c781b1d2f7f0f664b4d9" );
+    Assert.assertEquals( record.getPaymentId(), "pay_2f82a672574647cd911d" );
+    Assert.assertFalse( record.isRefund() );
+    Assert.assertEquals( ledger.find( "tran_unknown" ), -1 );
+    Assert.assertEquals( ledger.find( PaymillId.parse( "tran_00000000000000000042" ) ), record.getSlot() );
+    Assert.assertTrue( record.idEquals( PaymillId.parse( "tran_00000000000000000042" ) ) );
+  }
+
+  @Test
+  public void testPut_SameId_shouldReplaceRecord() {
+    TransactionLedger ledger = new TransactionLedger( 10 );
+    Transaction transaction = TransactionLedgerTest.transaction( 1 );
+    int slot = ledger.put( transaction );
+    transaction.setStatus( Transaction.Status.REFUNDED );
+    transaction.setClient( null );
+    Assert.assertEquals( ledger.put( transaction ), slot );
+    Assert.assertEquals( ledger.size(), 1 );
+    TransactionLedger.Record record = ledger.record().moveTo( slot );
+    Assert.assertEquals( record.getTransactionStatus(), Transaction.Status.REFUNDED );
+    Assert.assertNull( record.getClientId() );
+  }
+
+  @Test
+  public void testPut_Refund_shouldKeepItsTransaction() {
+    TransactionLedger ledger = new TransactionLedger( 10 );
+    Refund refund = new Refund( "refund_87bc404a95d5ce616049" );
+    refund.setTransaction( TransactionLedgerTest.transaction( 1 ) );
+    refund.setAmount( 42 );
+    refund.setStatus( Refund.Status.REFUNDED );
+    TransactionLedger.Record record = ledger.record().moveTo( ledger.put( refund ) );
+    Assert.assertTrue( record.isRefund() );
+    Assert.assertEquals( record.getRefundStatus(), Refund.Status.REFUNDED );
+    Assert.assertNull( record.getTransactionStatus() );
+    Assert.assertEquals( record.getAmount(), 42 );
+    Assert.assertEquals( record.getCurrency(), "EUR" );
+    Assert.assertEquals( record.getPaymentId(), "pay_2f82a672574647cd911d" );
+    Assert.assertEquals( record.getCreatedAt(), 0L );
+  }
+
+  @Test( expectedExceptions = IllegalStateException.class )
+  public void testPut_Full_shouldFail() {
+    TransactionLedger ledger = new TransactionLedger( 1 );
+    ledger.put( TransactionLedgerTest.transaction( 1 ) );
+    ledger.put( TransactionLedgerTest.transaction( 2 ) );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testPut_LongId_shouldFail() {
+    new TransactionLedger( 1 ).put( new Transaction( "tran_000000000000000000000000000000" ) );
+  }
+
+  @Test
+  public void testPut_InvalidField_shouldLeaveNoRecord() {
+    TransactionLedger ledger = new TransactionLedger( 10 );
+    Transaction transaction = TransactionLedgerTest.transaction( 1 );
+    transaction.setPayment( new Payment( "pay_000000000000000000000000000000" ) );
+    try {
+      ledger.put( transaction );
+      Assert.fail( "Expected too long payment id" );
+    } catch( IllegalArgumentException exc ) {
+      // payment id does not fit
+    }
+    Assert.assertEquals( ledger.size(), 0 );
+    Assert.assertEquals( ledger.find( transaction.getId() ), -1 );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testCapacity_AboveMax_shouldFail() {
+    new TransactionLedger( TransactionLedger.MAX_CAPACITY + 1 );
+  }
+
+  @Test
+  public void testMap_shouldKeepRecords() throws Exception {
+    File file = File.createTempFile( "ledger", ".bin" );
+    file.deleteOnExit();
+    TransactionLedger ledger = TransactionLedger.map( file, 1000 );
+    for( int i = 0; i < 500; i++ ) {
+      ledger.put( TransactionLedgerTest.transaction( i ) );
+    }
+    ledger.flush();
+    TransactionLedger reopened = TransactionLedger.map( file, 1000 );
+    Assert.assertEquals( reopened.size(), 500 );
+    TransactionLedger.Record record = reopened.record().moveTo( reopened.find( "tran_00000000000000000499" ) );
+    Assert.assertEquals( record.getCreatedAt(), 1349946151L + 499 );
+  }
+
+  @Test
+  public void testRead_shouldNotAllocate() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if( !(threads instanceof com.sun.management.ThreadMXBean)
+        || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported() ) {
+      throw new SkipException( "Allocated memory per thread is not supported by this JVM" );
+    }
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+    TransactionLedger ledger = new TransactionLedger( 10000 );
+    String[] ids = new String[10000];
+    for( int i = 0; i < ids.length; i++ ) {
+      ids[i] = ledger.record().moveTo( ledger.put( TransactionLedgerTest.transaction( i ) ) ).getId();
+    }
+    TransactionLedger.Record record = ledger.record();
+    long sum = TransactionLedgerTest.sum( ledger, record, ids );
+    long threadId = Thread.currentThread().getId();
+    long before = allocations.getThreadAllocatedBytes( threadId );
+    sum += TransactionLedgerTest.sum( ledger, record, ids );
+    long allocated = allocations.getThreadAllocatedBytes( threadId ) - before;
+    Assert.assertEquals( sum, 2 * 10000L * 4200 );
+    Assert.assertTrue( allocated < 1024, "Allocated " + allocated + " bytes" );
+  }
+
+  private static long sum( final TransactionLedger ledger, final TransactionLedger.Record record, final String[] ids ) {
+    long sum = 0;
+    for( String id : ids ) {
+      record.moveTo( ledger.find( id ) );
+      if( record.getTransactionStatus() == Transaction.Status.CLOSED && "EUR".equals( record.getCurrency() ) ) {
+        sum += record.getAmount();
+      }
+    }
+    return sum;
+  }
+
+  private static Transaction transaction( final int number ) {
+    String digits = String.valueOf( number );
+    Transaction transaction = new Transaction( "tran_00000000000000000000".substring( 0, 25 - digits.length() ) + digits );
+    transaction.setAmount( 4200 );
+    transaction.setOriginAmount( 4242 );
+    transaction.setCurrency( "EUR" );
+    transaction.setStatus( Transaction.Status.CLOSED );
+    transaction.setCreatedAt( 1349946151L + number );
+    transaction.setClient( new Client( "client_c781b1d2f7f0f664b4d9" ) );
+    transaction.setPayment( new Payment( "pay_2f82a672574647cd911d" ) );
+    return transaction;
+  }
+
+}
@@ -0,0 +1,115 @@
+package com.paymill.services;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.paymill.context.PaymillContext;
+import com.paymill.models.Payment;
+import com.paymill.models.Transaction;
+import com.paymill.utils.FormEncoder;
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+
+/**
+ * Offline benchmark of the bytes, which the client allocates per charge. The transport encodes the form body like
+ * {@link com.paymill.utils.JerseyClient} and answers with a fixed transaction, so only the work of this library is measured.
+ */
+public class ChargeAllocationTest {
+
+  private final static int    WARM_UP    = 20000;
+  private final static int    ITERATIONS = 20000;
+
+  private final static String RESPONSE   = "{\"data\":{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\","
+                                             + "\"origin_amount\":4200,\"status\":\"closed\",\"description\":null,"
+                                             + "\"livemode\":false,\"refunds\":null,\"currency\":\"EUR\",\"created_at\":1349946151,"
+                                             + "\"updated_at\":1349946151,\"response_code\":20000,\"short_id\":\"0000.1212.3434\","
+                                             + "\"is_fraud\":false,\"invoices\":[],\"app_id\":null,\"fees\":[],\"payment\":{"
+                                             + "\"id\":\"pay_2f82a672574647cd911d\",\"type\":\"creditcard\",\"client\":\"client_c781b1d2f7f0f664b4d9\","
+                                             + "\"card_type\":\"visa\",\"country\":null,\"expire_month\":\"12\",\"expire_year\":\"2015\","
+                                             + "\"card_holder\":null,\"last4\":\"1111\",\"created_at\":1349946151,\"updated_at\":1349946151,"
+                                             + "\"app_id\":null},\"client\":{\"id\":\"client_c781b1d2f7f0f664b4d9\",\"email\":null,"
+                                             + "\"description\":null,\"created_at\":1349946151,\"updated_at\":1349946151,\"app_id\":null,"
+                                             + "\"payment\":[],\"subscription\":null},\"preauthorization\":null},\"mode\":\"test\"}";
+
+  @Test
+  public void testCreateWithPayment_shouldDecodeResponse() {
+    TransactionService service = new PaymillContext( new EncodingHttpClient() ).getTransactionService();
+    Transaction transaction = service.createWithPayment( "pay_2f82a672574647cd911d", 4200, "EUR" );
+    Assert.assertEquals( transaction.getId(), "tran_54645bcb98ba7acfe204" );
+    Assert.assertEquals( transaction.getOriginAmount(), Integer.valueOf( 4200 ) );
+    Assert.assertEquals( transaction.getPayment().getId(), "pay_2f82a672574647cd911d" );
+    Assert.assertEquals( transaction.getClient().getId(), "client_c781b1d2f7f0f664b4d9" );
+  }
+
+  @Test
+  public void testCreateWithToken_shouldSendSource() {
+    EncodingHttpClient client = new EncodingHttpClient();
+    new PaymillContext( client ).getTransactionService().createWithToken( "098f6bcd4621d373cade4e832627b4f6", 4200, "EUR" );
+    Assert.assertEquals( client.params.getFirst( "source" ), RestfulUtils.SOURCE );
+    Assert.assertEquals( client.params.getFirst( "amount" ), "4200" );
+  }
+
+  @Test
+  public void testCharge_shouldAllocateLessThan4Kb() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if( !(threads instanceof com.sun.management.ThreadMXBean)
+        || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported() ) {
+      throw new SkipException( "Allocated memory per thread is not supported by this JVM" );
+    }
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+    TransactionService service = new PaymillContext( new EncodingHttpClient() ).getTransactionService();
+    Payment payment = new Payment( "pay_2f82a672574647cd911d" );
+    Integer amount = 4200;
+    for( int i = 0; i < WARM_UP; i++ ) {
+      service.createWithPayment( payment, amount, "EUR" );
+    }
+    long threadId = Thread.currentThread().getId();
+    long before = allocations.getThreadAllocatedBytes( threadId );
+    for( int i = 0; i < ITERATIONS; i++ ) {
+      service.createWithPayment( payment, amount, "EUR" );
+    }
+    long perCharge = (allocations.getThreadAllocatedBytes( threadId ) - before) / ITERATIONS;
+    // about 16 KB before the response was decoded in a single pass and the source precomputed, about 3 KB after
+    Assert.assertTrue( perCharge < 4 * 1024, perCharge + " bytes per charge" );
+  }
+
+  /**
+   * Encodes the body into the reused buffer of the thread, like the real transport does, and answers with a fixed transaction.
+   */
+  private final static class EncodingHttpClient implements HttpClient {
+
+    private ParameterMap<String, String> params;
+
+    @Override
+    public String get( final String path ) {
+      return RESPONSE;
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      return RESPONSE;
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      this.params = params;
+      FormEncoder.local().addAll( params );
+      return RESPONSE;
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      return RESPONSE;
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      return RESPONSE;
+    }
+  }
+
+}
@@ -0,0 +1,337 @@
+package com.paymill.services;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Date;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.paymill.context.PaymillContext;
+import com.paymill.models.PaymillList;
+import com.paymill.models.Projection;
+import com.paymill.models.Transaction;
+import com.paymill.models.TransactionColumns;
+import com.paymill.models.TransactionView;
+import com.paymill.models.TransactionVisitor;
+import com.paymill.utils.ExportFormat;
+import com.paymill.utils.ExportWriter;
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+
+/**
+ * Offline tests of decoding and exporting pages of transactions, the transport answers with fixed pages.
+ */
+public class ListDecodingTest {
+
+  private final static int    ITERATIONS  = 500;
+
+  private final static String TRANSACTION = "{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\",\"origin_amount\":4200,"
+                                              + "\"status\":\"closed\",\"description\":\"Test\",\"livemode\":false,"
+                                              + "\"refunds\":[{\"id\":\"refund_87bc404a95d5ce616049\",\"amount\":\"042\","
+                                              + "\"status\":\"refunded\",\"transaction\":\"tran_54645bcb98ba7acfe204\","
+                                              + "\"created_at\":1349947042,\"updated_at\":1349947042}],\"payment\":{"
+                                              + "\"id\":\"pay_2f82a672574647cd911d\",\"type\":\"creditcard\","
+                                              + "\"client\":\"client_c781b1d2f7f0f664b4d9\",\"card_type\":\"visa\",\"country\":null,"
+                                              + "\"expire_month\":\"12\",\"expire_year\":\"2015\",\"last4\":\"1111\","
+                                              + "\"created_at\":1349946151,\"updated_at\":1349946151},\"client\":{"
+                                              + "\"id\":\"client_c781b1d2f7f0f664b4d9\",\"email\":null,\"created_at\":1349946151,"
+                                              + "\"updated_at\":1349946151,\"payment\":[],\"subscription\":null},"
+                                              + "\"preauthorization\":[],\"currency\":\"EUR\",\"created_at\":1349946151,"
+                                              + "\"updated_at\":1349946151,\"response_code\":20000,\"short_id\":\"0000.1212.3434\","
+                                              + "\"is_fraud\":false,\"invoices\":[],\"fees\":[],\"app_id\":null}";
+
+  @Test
+  public void testList_shouldDecodePage() {
+    PaymillList<Transaction> transactions = ListDecodingTest.transactionService( new PageHttpClient( 100 ) ).list();
+    Assert.assertEquals( transactions.getDataCount(), 100 );
+    Assert.assertEquals( transactions.getData().size(), 100 );
+    Transaction transaction = transactions.getData().get( 99 );
+    Assert.assertEquals( transaction.getAmount(), Integer.valueOf( 4200 ) );
+    Assert.assertEquals( transaction.getRefunds().get( 0 ).getAmount(), Integer.valueOf( 42 ) );
+    Assert.assertEquals( transaction.getPayment().getClient().getId(), "client_c781b1d2f7f0f664b4d9" );
+    Assert.assertNull( transaction.getPreauthorization() );
+  }
+
+  @Test
+  public void testList_Error_shouldThrow() {
+    try {
+      HttpClient httpClient = new PageHttpClient( "{\"error\":\"Access Denied\",\"exception\":\"InvalidAuthentication\"}" );
+      ListDecodingTest.transactionService( httpClient ).list();
+      Assert.fail( "Expected PaymillException" );
+    } catch( com.paymill.exceptions.PaymillException exc ) {
+      Assert.assertEquals( exc.getMessage(), "\"Access Denied\"" );
+    }
+  }
+
+  @Test
+  public void testList_Projection_shouldSkipOtherFields() {
+    Projection<Transaction> projection = Transaction.createProjection( "id", "amount", "currency", "status", "created_at" );
+    PaymillList<Transaction> transactions = ListDecodingTest.transactionService( new PageHttpClient( 100 ) ).list( null, null,
+        null, null, projection );
+    Assert.assertEquals( transactions.getDataCount(), 100 );
+    Transaction transaction = transactions.getData().get( 99 );
+    Assert.assertEquals( transaction.getId(), "tran_54645bcb98ba7acfe204" );
+    Assert.assertEquals( transaction.getAmount(), Integer.valueOf( 4200 ) );
+    Assert.assertEquals( transaction.getCurrency(), "EUR" );
+    Assert.assertEquals( transaction.getStatus(), Transaction.Status.CLOSED );
+    Assert.assertEquals( transaction.getCreatedAt(), new Date( 1349946151000L ) );
+    Assert.assertNull( transaction.getPayment() );
+    Assert.assertNull( transaction.getClient() );
+    Assert.assertNull( transaction.getRefunds() );
+    Assert.assertNull( transaction.getOriginAmount() );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testProjection_UnknownField_shouldFail() {
+    Transaction.createProjection( "id", "amount_in_cents" );
+  }
+
+  @Test
+  public void testListColumns_shouldAppendPages() {
+    TransactionService service = ListDecodingTest.transactionService( new PageHttpClient( 100 ) );
+    TransactionColumns columns = new TransactionColumns( 16 );
+    Assert.assertEquals( service.listColumns( null, null, 100, 0, columns ), 100 );
+    Assert.assertEquals( service.listColumns( null, null, 100, 100, columns ), 100 );
+    Assert.assertEquals( columns.size(), 200 );
+    Assert.assertEquals( columns.sumAmounts(), 200 * 4200L );
+    Assert.assertEquals( columns.getClientId( 199 ), "client_c781b1d2f7f0f664b4d9" );
+    Assert.assertEquals( columns.selectByStatus( Transaction.Status.CLOSED ).cardinality(), 200 );
+  }
+
+  @Test
+  public void testVisit_shouldReuseView() {
+    final TransactionView[] views = new TransactionView[2];
+    final long[] sum = new long[1];
+    TransactionService service = ListDecodingTest.transactionService( new PageHttpClient( 100 ) );
+    int total = service.visit( null, null, null, null, new TransactionVisitor() {
+      @Override
+      public boolean visit( final TransactionView transaction ) {
+        views[views[0] == null ? 0 : 1] = transaction;
+        sum[0] += transaction.getAmount();
+        return true;
+      }
+    } );
+    Assert.assertEquals( total, 100 );
+    Assert.assertEquals( sum[0], 100 * 4200L );
+    Assert.assertSame( views[1], views[0] );
+    TransactionView transaction = views[0];
+    Assert.assertEquals( transaction.getId().toString(), "tran_54645bcb98ba7acfe204" );
+    Assert.assertEquals( transaction.getOriginAmount(), 4200 );
+    Assert.assertEquals( transaction.getCurrency().toString(), "EUR" );
+    Assert.assertEquals( transaction.getStatus(), Transaction.Status.CLOSED );
+    Assert.assertEquals( transaction.getDescription().toString(), "Test" );
+    Assert.assertEquals( transaction.getResponseCode(), 20000 );
+    Assert.assertEquals( transaction.getShortId().toString(), "0000.1212.3434" );
+    Assert.assertEquals( transaction.getCreatedAt(), 1349946151L );
+    Assert.assertEquals( transaction.getClientId().toString(), "client_c781b1d2f7f0f664b4d9" );
+    Assert.assertEquals( transaction.getPaymentId().toString(), "pay_2f82a672574647cd911d" );
+    Assert.assertFalse( transaction.isLivemode() );
+    Assert.assertFalse( transaction.isFraud() );
+  }
+
+  @Test
+  public void testScan_shouldVisitAllPages() {
+    PageHttpClient httpClient = new PageHttpClient( 100, 250 );
+    final int[] count = new int[1];
+    int visited = ListDecodingTest.transactionService( httpClient ).scan( null, null, new TransactionVisitor() {
+      @Override
+      public boolean visit( final TransactionView transaction ) {
+        count[0]++;
+        return true;
+      }
+    } );
+    Assert.assertEquals( visited, 250 );
+    Assert.assertEquals( count[0], 250 );
+    Assert.assertEquals( httpClient.requests, 3 );
+  }
+
+  @Test
+  public void testScan_NullElements_shouldRequestNextPage() {
+    PageHttpClient httpClient = new PageHttpClient( 100, 250 ).withNull();
+    int visited = ListDecodingTest.transactionService( httpClient ).scan( null, null, new Total() );
+    Assert.assertEquals( visited, 247 );
+    Assert.assertEquals( httpClient.requests, 3 );
+  }
+
+  @Test
+  public void testScan_shouldStopWhenVisitorReturnsFalse() {
+    PageHttpClient httpClient = new PageHttpClient( 100, 250 );
+    int visited = ListDecodingTest.transactionService( httpClient ).scan( null, null, new TransactionVisitor() {
+      private int count;
+
+      @Override
+      public boolean visit( final TransactionView transaction ) {
+        return ++this.count < 120;
+      }
+    } );
+    Assert.assertEquals( visited, 120 );
+    Assert.assertEquals( httpClient.requests, 2 );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testScan_WithoutVisitor_shouldFail() {
+    ListDecodingTest.transactionService( new PageHttpClient( 100 ) ).scan( null, null, null );
+  }
+
+  @Test
+  public void testVisit_shouldNotAllocatePerTransaction() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if( !(threads instanceof com.sun.management.ThreadMXBean)
+        || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported() ) {
+      throw new SkipException( "Allocated memory per thread is not supported by this JVM" );
+    }
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+    TransactionService small = ListDecodingTest.transactionService( new PageHttpClient( 100 ) );
+    TransactionService large = ListDecodingTest.transactionService( new PageHttpClient( 2000 ) );
+    Total visitor = new Total();
+    for( int i = 0; i < ITERATIONS; i++ ) {
+      small.visit( null, null, null, null, visitor );
+      large.visit( null, null, null, null, visitor );
+    }
+    long threadId = Thread.currentThread().getId();
+    long before = allocations.getThreadAllocatedBytes( threadId );
+    small.visit( null, null, null, null, visitor );
+    long page = allocations.getThreadAllocatedBytes( threadId ) - before;
+    before = allocations.getThreadAllocatedBytes( threadId );
+    large.visit( null, null, null, null, visitor );
+    long pages = allocations.getThreadAllocatedBytes( threadId ) - before;
+    Assert.assertTrue( pages - page < 1024, "Allocated " + page + " and " + pages + " bytes" );
+  }
+
+  @Test
+  public void testExport_shouldWriteAllPages() throws Exception {
+    PageHttpClient httpClient = new PageHttpClient( 100, 250 );
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExportWriter writer = new ExportWriter( output, ExportFormat.CSV, false, "id", "amount", "status", "client" );
+    Assert.assertEquals( ListDecodingTest.transactionService( httpClient ).export( null, null, writer ), 250 );
+    writer.close();
+    String[] lines = output.toString( "UTF-8" ).split( "\r\n" );
+    Assert.assertEquals( lines.length, 251 );
+    Assert.assertEquals( lines[250], "tran_54645bcb98ba7acfe204,4200,closed,client_c781b1d2f7f0f664b4d9" );
+    Assert.assertEquals( httpClient.requests, 3 );
+  }
+
+  @Test
+  public void testExport_NullElements_shouldRequestNextPage() throws Exception {
+    PageHttpClient httpClient = new PageHttpClient( 100, 250 ).withNull();
+    ExportWriter writer = new ExportWriter( new ByteArrayOutputStream(), ExportFormat.NDJSON, false );
+    Assert.assertEquals( ListDecodingTest.transactionService( httpClient ).export( null, null, writer ), 247 );
+    writer.close();
+    Assert.assertEquals( httpClient.requests, 3 );
+  }
+
+  @Test
+  public void testExport_Error_shouldThrow() {
+    try {
+      HttpClient httpClient = new PageHttpClient( "{\"error\":\"Access Denied\",\"exception\":\"InvalidAuthentication\"}" );
+      ListDecodingTest.transactionService( httpClient ).export( null, null, new ExportWriter( new ByteArrayOutputStream(),
+          ExportFormat.NDJSON, false ) );
+      Assert.fail( "Expected PaymillException" );
+    } catch( com.paymill.exceptions.PaymillException exc ) {
+      Assert.assertEquals( exc.getMessage(), "\"Access Denied\"" );
+    }
+  }
+
+  private static TransactionService transactionService( final HttpClient httpClient ) {
+    return new PaymillContext( httpClient ).getTransactionService();
+  }
+
+  private final static class Total implements TransactionVisitor {
+
+    private long amount;
+
+    @Override
+    public boolean visit( final TransactionView transaction ) {
+      this.amount += transaction.getAmount();
+      return true;
+    }
+  }
+
+  private final static class PageHttpClient implements HttpClient {
+
+    private final String page;
+    private final String last;
+    private final int    size;
+    private final int    total;
+    private int          requests;
+
+    /**
+     * Answers with the same page for any offset.
+     */
+    PageHttpClient( final int size ) {
+      this.page = PageHttpClient.page( size, size );
+      this.last = this.page;
+      this.size = size;
+      this.total = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Answers with pages of the given size and the rest of the total after the last full page.
+     */
+    PageHttpClient( final int size, final int total ) {
+      this.page = PageHttpClient.page( size, total );
+      this.last = PageHttpClient.page( total % size, total );
+      this.size = size;
+      this.total = total;
+    }
+
+    PageHttpClient( final String page ) {
+      this( page, page, 0, Integer.MAX_VALUE );
+    }
+
+    private PageHttpClient( final String page, final String last, final int size, final int total ) {
+      this.page = page;
+      this.last = last;
+      this.size = size;
+      this.total = total;
+    }
+
+    /**
+     * @return Client, which answers with the same pages, but <code>null</code> as their first element.
+     */
+    PageHttpClient withNull() {
+      String first = "{\"data\":[" + TRANSACTION;
+      return new PageHttpClient( this.page.replace( first, "{\"data\":[null" ), this.last.replace( first, "{\"data\":[null" ),
+          this.size, this.total );
+    }
+
+    private static String page( final int size, final int total ) {
+      StringBuilder page = new StringBuilder( "{\"data\":[" );
+      for( int i = 0; i < size; i++ ) {
+        page.append( i == 0 ? "" : "," ).append( TRANSACTION );
+      }
+      return page.append( "],\"data_count\":" ).append( total ).append( ",\"mode\":\"test\"}" ).toString();
+    }
+
+    @Override
+    public String get( final String path ) {
+      return this.page;
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      this.requests++;
+      String offset = params.getFirst( "offset" );
+      return offset == null || Integer.parseInt( offset ) + this.size <= this.total ? this.page : this.last;
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      return this.page;
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      return this.page;
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      return this.page;
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.paymill.services;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.paymill.context.PaymillContext;
+import com.paymill.models.Transaction;
+import com.paymill.utils.HttpClient;
+import com.paymill.utils.ParameterMap;
+
+public class ModelReaderTest {
+
+  @Test
+  public void testGet_ReconfiguredParser_shouldNotAffectResponses() {
+    HttpClient httpClient = new ResponseHttpClient(
+        "{\"data\":{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\",\"client\":[]},\"mode\":\"test\"}" );
+    TransactionService service = new PaymillContext( httpClient ).getTransactionService();
+    PaymillContext.PARSER.enable( DeserializationFeature.UNWRAP_ROOT_VALUE );
+    try {
+      Transaction transaction = service.get( "tran_54645bcb98ba7acfe204" );
+      Assert.assertEquals( transaction.getId(), "tran_54645bcb98ba7acfe204" );
+      Assert.assertEquals( transaction.getAmount(), Integer.valueOf( 4200 ) );
+      Assert.assertNull( transaction.getClient() );
+    } finally {
+      PaymillContext.PARSER.disable( DeserializationFeature.UNWRAP_ROOT_VALUE );
+    }
+  }
+
+  private final static class ResponseHttpClient implements HttpClient {
+
+    private final String response;
+
+    ResponseHttpClient( final String response ) {
+      this.response = response;
+    }
+
+    @Override
+    public String get( final String path ) {
+      return this.response;
+    }
+
+    @Override
+    public String get( final String path, final ParameterMap<String, String> params ) {
+      return this.response;
+    }
+
+    @Override
+    public String post( final String path, final ParameterMap<String, String> params ) {
+      return this.response;
+    }
+
+    @Override
+    public String put( final String path, final ParameterMap<String, String> params ) {
+      return this.response;
+    }
+
+    @Override
+    public String delete( final String path, final ParameterMap<String, String> params ) {
+      return this.response;
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.paymill.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.exceptions.ConcurrencyLimitExceededException;
+
+public class AdaptiveConcurrencyHttpClientTest {
+
+  @Test
+  public void testFailures_shouldDecreaseLimit() {
+    StubHttpClient delegate = new StubHttpClient( 1, new RuntimeException( new IOException( "Connection reset" ) ) );
+    AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient( delegate, 10, 1, 20, -1 );
+    try {
+      client.get( "/transactions" );
+    } catch( RuntimeException exc ) {
+      // expected
+    }
+    Assert.assertEquals( client.getLimit(), 9 );
+    Assert.assertEquals( client.getInFlight(), 0 );
+  }
+
+  @Test
+  public void testSaturated_shouldIncreaseLimit() throws Exception {
+    final StubHttpClient delegate = new StubHttpClient().withLatency( 5 );
+    final AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient( delegate, 2, 1, 20, -1 );
+    List<Thread> threads = new ArrayList<Thread>();
+    for( int i = 0; i < 4; i++ ) {
+      Thread thread = new Thread( new Runnable() {
+        @Override
+        public void run() {
+          for( int j = 0; j < 20; j++ ) {
+            client.get( "/transactions" );
+          }
+        }
+      } );
+      threads.add( thread );
+      thread.start();
+    }
+    for( Thread thread : threads ) {
+      thread.join();
+    }
+    Assert.assertTrue( client.getLimit() > 2 );
+    Assert.assertTrue( delegate.maxInFlight.get() <= 20 );
+    Assert.assertEquals( client.getInFlight(), 0 );
+  }
+
+  @Test
+  public void testLimitReached_shouldReject() throws Exception {
+    StubHttpClient delegate = new StubHttpClient().withLatency( 200 );
+    final AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient( delegate, 1, 1, 1, 0 );
+    Thread thread = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        client.get( "/transactions" );
+      }
+    } );
+    thread.start();
+    while( delegate.inFlight.get() == 0 ) {
+      Thread.sleep( 1 );
+    }
+    try {
+      client.get( "/transactions" );
+      Assert.fail( "Expected exceeded concurrency limit" );
+    } catch( ConcurrencyLimitExceededException exc ) {
+      Assert.assertEquals( client.getRejected(), 1 );
+    }
+    thread.join();
+  }
+
+}
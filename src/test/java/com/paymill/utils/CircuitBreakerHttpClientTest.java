@@ -0,0 +1,135 @@
+package com.paymill.utils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.exceptions.CircuitBreakerOpenException;
+import com.paymill.exceptions.DeadlineExceededException;
+
+public class CircuitBreakerHttpClientTest {
+
+  private final static String TRANSACTIONS  = "https://api.paymill.com/v2.1/transactions";
+  private final static String SUBSCRIPTIONS = "https://api.paymill.com/v2.1/subscriptions/sub_1234";
+
+  @Test
+  public void testResourceOf() {
+    Assert.assertEquals( RequestPaths.resourceOf( TRANSACTIONS ), "/transactions" );
+    Assert.assertEquals( RequestPaths.resourceOf( SUBSCRIPTIONS ), "/subscriptions" );
+    Assert.assertEquals( RequestPaths.resourceOf( "https://api.paymill.com/v2.1/clients?count=10" ), "/clients" );
+    Assert.assertEquals( RequestPaths.resourceOf( "/offers/offer_1" ), "/offers" );
+    Assert.assertEquals( RequestPaths.resourceOf( "https://api.paymill.com" ), "/" );
+  }
+
+  @Test
+  public void testFailures_shouldOpenOnlyAffectedResource() {
+    StubHttpClient delegate = new StubHttpClient( 4, new RuntimeException( new IOException( "Connection reset" ) ) );
+    CircuitBreakerHttpClient client = new CircuitBreakerHttpClient( delegate, CircuitBreakerHttpClient.createSettings()
+        .withWindow( 4, 4 ).withFailureRateThreshold( 50 ).withOpenDuration( 60000, 1 ) );
+
+    for( int i = 0; i < 4; i++ ) {
+      try {
+        client.get( SUBSCRIPTIONS );
+      } catch( RuntimeException exc ) {
+        // expected
+      }
+    }
+    Assert.assertEquals( client.getState( "/subscriptions" ), CircuitBreakerHttpClient.State.OPEN );
+    try {
+      client.get( SUBSCRIPTIONS );
+      Assert.fail( "Expected open circuit" );
+    } catch( CircuitBreakerOpenException exc ) {
+      Assert.assertEquals( exc.getResource(), "/subscriptions" );
+    }
+    Assert.assertEquals( delegate.calls.get(), 4 );
+    Assert.assertEquals( client.getNotPermittedCalls( "/subscriptions" ), 1 );
+
+    Assert.assertEquals( client.get( TRANSACTIONS ), "ok" );
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.CLOSED );
+  }
+
+  @Test
+  public void testHalfOpen_SuccessfulProbes_shouldClose() throws Exception {
+    StubHttpClient delegate = new StubHttpClient( 2, new RuntimeException( new IOException( "Connection reset" ) ) );
+    CircuitBreakerHttpClient client = new CircuitBreakerHttpClient( delegate, CircuitBreakerHttpClient.createSettings()
+        .withWindow( 2, 2 ).withOpenDuration( 10, 2 ) );
+
+    for( int i = 0; i < 2; i++ ) {
+      try {
+        client.get( TRANSACTIONS );
+      } catch( RuntimeException exc ) {
+        // expected
+      }
+    }
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.OPEN );
+    Thread.sleep( 20 );
+
+    client.get( TRANSACTIONS );
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.HALF_OPEN );
+    client.get( TRANSACTIONS );
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.CLOSED );
+  }
+
+  @Test
+  public void testSlowCalls_shouldOpen() {
+    StubHttpClient delegate = new StubHttpClient().withLatency( 5 );
+    CircuitBreakerHttpClient client = new CircuitBreakerHttpClient( delegate, CircuitBreakerHttpClient.createSettings()
+        .withWindow( 3, 3 ).withSlowCallThreshold( 1, 100 ) );
+
+    for( int i = 0; i < 3; i++ ) {
+      client.get( TRANSACTIONS );
+    }
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.OPEN );
+  }
+
+  @Test
+  public void testServerErrors_shouldOpen() {
+    StubHttpClient delegate = new StubHttpClient().withStatus( 503 ).withResponse( "{\"error\":\"Service Unavailable\"}" );
+    CircuitBreakerHttpClient client = new CircuitBreakerHttpClient( delegate, CircuitBreakerHttpClient.createSettings()
+        .withWindow( 3, 3 ) );
+
+    for( int i = 0; i < 3; i++ ) {
+      client.get( TRANSACTIONS );
+    }
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.OPEN );
+  }
+
+  @Test
+  public void testClientErrors_shouldNotOpen() {
+    StubHttpClient delegate = new StubHttpClient().withStatus( 400 ).withResponse( "{\"error\":\"Bad Request\"}" );
+    CircuitBreakerHttpClient client = new CircuitBreakerHttpClient( delegate, CircuitBreakerHttpClient.createSettings()
+        .withWindow( 3, 3 ) );
+
+    for( int i = 0; i < 3; i++ ) {
+      client.get( TRANSACTIONS );
+    }
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.CLOSED );
+  }
+
+  @Test
+  public void testCallerDeadline_shouldNotCountAsFailure() {
+    StubHttpClient delegate = new StubHttpClient( 3, new DeadlineExceededException( true ) );
+    CircuitBreakerHttpClient client = new CircuitBreakerHttpClient( delegate, CircuitBreakerHttpClient.createSettings()
+        .withWindow( 3, 3 ) );
+    Deadline deadline = Deadline.after( 1, TimeUnit.MINUTES );
+    deadline.cancel();
+
+    CallOptions previous = CallOptions.attach( CallOptions.DEFAULT.withDeadline( deadline ) );
+    try {
+      for( int i = 0; i < 3; i++ ) {
+        try {
+          client.get( TRANSACTIONS );
+          Assert.fail( "Expected cancelled deadline" );
+        } catch( DeadlineExceededException exc ) {
+          Assert.assertTrue( exc.isCancelled() );
+        }
+      }
+    } finally {
+      CallOptions.detach( previous );
+    }
+    Assert.assertEquals( client.getState( "/transactions" ), CircuitBreakerHttpClient.State.CLOSED );
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.paymill.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CredentialsTest {
+
+  private ServerSocket       server;
+  private final List<String> authorizations = new CopyOnWriteArrayList<String>();
+
+  @BeforeMethod
+  public void startServer() throws IOException {
+    this.authorizations.clear();
+    this.server = new ServerSocket( 0 );
+    Thread acceptor = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        try {
+          while( true ) {
+            CredentialsTest.this.answer( CredentialsTest.this.server.accept() );
+          }
+        } catch( IOException exc ) {
+          // closed
+        }
+      }
+    } );
+    acceptor.setDaemon( true );
+    acceptor.start();
+  }
+
+  @AfterMethod
+  public void stopServer() throws IOException {
+    this.server.close();
+  }
+
+  @Test
+  public void testAuthorization_shouldBeBasicWithEmptyPassword() {
+    Credentials credentials = new Credentials( "key" );
+    Assert.assertEquals( credentials.getAuthorization(), "Basic a2V5Og==" );
+    Assert.assertEquals( credentials, new Credentials( "key" ) );
+    Assert.assertEquals( new Credentials( "4a1b2c3d4e" ).toString(), "4a1b..." );
+  }
+
+  @Test
+  public void testSharedTransport_shouldSendCredentialsOfEachCall() {
+    JerseyClient shared = new JerseyClient( null, 2000 );
+    new ScopedHttpClient( shared, CallOptions.DEFAULT.withCredentials( new Credentials( "first" ) ) ).get( this.url() );
+    new ScopedHttpClient( shared, CallOptions.DEFAULT.withCredentials( new Credentials( "second" ) ) ).get( this.url() );
+    shared.get( this.url() );
+    Assert.assertEquals( this.authorizations.get( 0 ), new Credentials( "first" ).getAuthorization() );
+    Assert.assertEquals( this.authorizations.get( 1 ), new Credentials( "second" ).getAuthorization() );
+    Assert.assertEquals( this.authorizations.get( 2 ), "" );
+  }
+
+  @Test
+  public void testCredentials_shouldTakePrecedenceOverClientKey() {
+    JerseyClient client = new JerseyClient( "own", 2000 );
+    client.get( this.url() );
+    new ScopedHttpClient( client, CallOptions.DEFAULT.withCredentials( new Credentials( "tenant" ) ) ).get( this.url() );
+    Assert.assertEquals( this.authorizations.get( 0 ), new Credentials( "own" ).getAuthorization() );
+    Assert.assertEquals( this.authorizations.get( 1 ), new Credentials( "tenant" ).getAuthorization() );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testBlankApiKey_shouldFail() {
+    new Credentials( "" );
+  }
+
+  private String url() {
+    return "http://localhost:" + this.server.getLocalPort() + "/v2.1/clients";
+  }
+
+  private void answer( final Socket socket ) throws IOException {
+    try {
+      BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(), "ISO-8859-1" ) );
+      String authorization = "";
+      String line;
+      while( (line = reader.readLine()) != null && line.length() > 0 ) {
+        if( line.toLowerCase().startsWith( "authorization:" ) ) {
+          authorization = line.substring( "authorization:".length() ).trim();
+        }
+      }
+      this.authorizations.add( authorization );
+      OutputStream output = socket.getOutputStream();
+      output.write( "HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 2\r\nConnection: close\r\n\r\n{}"
+          .getBytes( "ISO-8859-1" ) );
+      output.flush();
+    } finally {
+      socket.close();
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+package com.paymill.utils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.exceptions.DeadlineExceededException;
+
+public class DeadlineTest {
+
+  @Test
+  public void testRemaining_shouldShrink() throws Exception {
+    Deadline deadline = Deadline.after( 200, TimeUnit.MILLISECONDS );
+    long first = deadline.remaining( TimeUnit.NANOSECONDS );
+    Thread.sleep( 5 );
+    Assert.assertTrue( deadline.remaining( TimeUnit.NANOSECONDS ) < first );
+    Assert.assertFalse( deadline.isExpired() );
+    deadline.cancel();
+    Assert.assertTrue( deadline.isExpired() );
+    Assert.assertEquals( deadline.remaining( TimeUnit.MILLISECONDS ), 0 );
+  }
+
+  @Test( expectedExceptions = DeadlineExceededException.class )
+  public void testExpired_shouldFailBeforeSending() {
+    HttpClient client = new ScopedHttpClient( new JerseyClient( "key" ), CallOptions.DEFAULT.withDeadline( Deadline.after( 0,
+        TimeUnit.MILLISECONDS ) ) );
+    client.get( "http://localhost:1/v2.1/transactions" );
+  }
+
+  @Test
+  public void testJerseyClient_SilentServer_shouldGiveUpAtDeadline() throws Exception {
+    final ServerSocket server = new ServerSocket( 0 );
+    final List<Socket> accepted = new ArrayList<Socket>();
+    Thread acceptor = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        try {
+          while( true ) {
+            accepted.add( server.accept() );
+          }
+        } catch( IOException exc ) {
+          // closed
+        }
+      }
+    } );
+    acceptor.setDaemon( true );
+    acceptor.start();
+    try {
+      HttpClient client = new ScopedHttpClient( new JerseyClient( "key" ), CallOptions.DEFAULT.withDeadline( Deadline.after( 300,
+          TimeUnit.MILLISECONDS ) ) );
+      long start = System.nanoTime();
+      try {
+        client.get( "http://localhost:" + server.getLocalPort() + "/v2.1/transactions" );
+        Assert.fail( "Expected exceeded deadline" );
+      } catch( DeadlineExceededException exc ) {
+        Assert.assertFalse( exc.isCancelled() );
+      }
+      Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) < 2000 );
+    } finally {
+      server.close();
+    }
+  }
+
+  @Test
+  public void testCancel_shouldAbortInFlightCall() throws Exception {
+    final ServerSocket server = new ServerSocket( 0 );
+    final Deadline deadline = Deadline.after( 10, TimeUnit.SECONDS );
+    Thread canceller = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Socket socket = server.accept();
+          deadline.cancel();
+          socket.close();
+        } catch( IOException exc ) {
+          // closed
+        }
+      }
+    } );
+    canceller.start();
+    try {
+      new ScopedHttpClient( new JerseyClient( "key" ), CallOptions.DEFAULT.withDeadline( deadline ) ).get( "http://localhost:"
+          + server.getLocalPort() + "/v2.1/transactions" );
+      Assert.fail( "Expected cancelled deadline" );
+    } catch( DeadlineExceededException exc ) {
+      Assert.assertTrue( exc.isCancelled() );
+    } finally {
+      server.close();
+      canceller.join();
+    }
+  }
+
+  @Test
+  public void testRetry_NoTimeLeft_shouldNotRetry() {
+    StubHttpClient delegate = new StubHttpClient( 1, new RuntimeException( new IOException( "Connection reset" ) ) ) {
+      @Override
+      String answer() {
+        try {
+          // deadline expires during the first attempt
+          Thread.sleep( 100 );
+        } catch( InterruptedException exc ) {
+          throw new RuntimeException( exc );
+        }
+        return super.answer();
+      }
+    };
+    HttpClient client = new ScopedHttpClient( new RetryingHttpClient( delegate, 3, 500, 500, new RetryingHttpClient.RetryBudget(
+        1d ) ), CallOptions.DEFAULT.withDeadline( Deadline.after( 50, TimeUnit.MILLISECONDS ) ) );
+    try {
+      client.get( "/transactions" );
+      Assert.fail( "Expected failure" );
+    } catch( RuntimeException exc ) {
+      Assert.assertEquals( delegate.calls.get(), 1 );
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.paymill.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class ExecutionModeTest {
+
+  @AfterMethod
+  public void resetDefault() {
+    ExecutionMode.setDefault( ExecutionMode.PLATFORM_THREADS );
+  }
+
+  @Test
+  public void testPlatformThreads_shouldUseNamedDaemonThreads() throws Exception {
+    ExecutorService executor = ExecutionMode.PLATFORM_THREADS.newExecutor( "paymill-test" );
+    try {
+      Thread thread = executor.submit( new CurrentThread() ).get();
+      Assert.assertTrue( thread.isDaemon() );
+      Assert.assertTrue( thread.getName().startsWith( "paymill-test-" ) );
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testVirtualThreads_shouldRunOrFallBack() throws Exception {
+    ExecutorService executor = ExecutionMode.VIRTUAL_THREADS.newExecutor( "paymill-test" );
+    try {
+      Thread thread = executor.submit( new CurrentThread() ).get();
+      Assert.assertTrue( thread.getName().startsWith( "paymill-test-" ) );
+      Assert.assertEquals( ExecutionModeTest.isVirtual( thread ), ExecutionMode.isVirtualThreadsSupported() );
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testVirtualThreads_ManyBlockingCalls_shouldAllBeInFlight() throws Exception {
+    ExecutionMode.setDefault( ExecutionMode.VIRTUAL_THREADS );
+    StubHttpClient delegate = new StubHttpClient().withLatency( 200 );
+    final HttpClient client = new HedgingHttpClient( delegate, 0.99d, 10000, new RetryingHttpClient.RetryBudget( 0d ), null );
+    ExecutorService callers = ExecutionMode.getDefault().newExecutor( "paymill-caller" );
+    try {
+      List<Future<String>> responses = new ArrayList<Future<String>>();
+      for( int i = 0; i < 500; i++ ) {
+        responses.add( callers.submit( new Callable<String>() {
+          @Override
+          public String call() {
+            return client.get( "/transactions" );
+          }
+        } ) );
+      }
+      for( Future<String> response : responses ) {
+        response.get();
+      }
+      Assert.assertEquals( delegate.calls.get(), 500 );
+      Assert.assertTrue( delegate.maxInFlight.get() > 100 );
+    } finally {
+      callers.shutdown();
+    }
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testSetDefault_Null_shouldFail() {
+    ExecutionMode.setDefault( null );
+  }
+
+  private static boolean isVirtual( final Thread thread ) throws Exception {
+    try {
+      return (Boolean) Thread.class.getMethod( "isVirtual" ).invoke( thread );
+    } catch( NoSuchMethodException exc ) {
+      return false;
+    }
+  }
+
+  private final static class CurrentThread implements Callable<Thread> {
+
+    @Override
+    public Thread call() {
+      return Thread.currentThread();
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+package com.paymill.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.paymill.models.Client;
+import com.paymill.models.Transaction;
+
+public class ExportWriterTest {
+
+  private final static JsonFactory FACTORY     = new JsonFactory();
+
+  private final static String      TRANSACTION = "{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\",\"status\":\"closed\","
+                                                   + "\"description\":\"Order 42, \\\"express\\\"\",\"refunds\":[{\"id\":\"refund_1\"},"
+                                                   + "{\"id\":\"refund_2\"}],\"client\":{\"id\":\"client_c781b1d2f7f0f664b4d9\","
+                                                   + "\"payment\":[]},\"payment\":\"pay_2f82a672574647cd911d\",\"currency\":\"EUR\","
+                                                   + "\"created_at\":1349946151,\"app_id\":null}";
+
+  @Test
+  public void testNdjson_WithoutColumns_shouldCopyObjects() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExportWriter writer = new ExportWriter( output, ExportFormat.NDJSON, false );
+    this.write( writer, TRANSACTION, "null", "{\"id\":\"tran_2\"}" );
+    writer.close();
+    Assert.assertEquals( writer.getCount(), 2 );
+    Assert.assertEquals( output.toString( "UTF-8" ), TRANSACTION + "\n{\"id\":\"tran_2\"}\n" );
+  }
+
+  @Test
+  public void testNdjson_WithColumns_shouldKeepColumns() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExportWriter writer = new ExportWriter( output, ExportFormat.NDJSON, false, "id", "client", "amount" );
+    this.write( writer, TRANSACTION );
+    writer.close();
+    Assert.assertEquals( output.toString( "UTF-8" ), "{\"id\":\"tran_54645bcb98ba7acfe204\",\"amount\":\"4200\","
+        + "\"client\":{\"id\":\"client_c781b1d2f7f0f664b4d9\",\"payment\":[]}}\n" );
+  }
+
+  @Test
+  public void testCsv_shouldQuoteAndReduceNestedModels() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExportWriter writer = new ExportWriter( output, ExportFormat.CSV, false, "id", "amount", "description", "client",
+        "payment", "refunds", "app_id", "unknown" );
+    this.write( writer, TRANSACTION );
+    writer.close();
+    Assert.assertEquals( output.toString( "UTF-8" ), "id,amount,description,client,payment,refunds,app_id,unknown\r\n"
+        + "tran_54645bcb98ba7acfe204,4200,\"Order 42, \"\"express\"\"\",client_c781b1d2f7f0f664b4d9,"
+        + "pay_2f82a672574647cd911d,refund_1 refund_2,,\r\n" );
+  }
+
+  @Test
+  public void testCompressed_shouldBeGzip() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExportWriter writer = new ExportWriter( output, ExportFormat.CSV, true, "id", "currency" );
+    for( int i = 0; i < 1000; i++ ) {
+      this.write( writer, TRANSACTION );
+    }
+    writer.close();
+    InputStream input = new GZIPInputStream( new ByteArrayInputStream( output.toByteArray() ) );
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    for( int read; ( read = input.read( buffer ) ) > 0; ) {
+      content.write( buffer, 0, read );
+    }
+    String text = content.toString( "UTF-8" );
+    Assert.assertTrue( text.startsWith( "id,currency\r\ntran_54645bcb98ba7acfe204,EUR\r\n" ) );
+    Assert.assertEquals( text.split( "\r\n" ).length, 1001 );
+    Assert.assertTrue( output.size() < text.length() / 10, "Compressed to " + output.size() + " bytes" );
+  }
+
+  @Test
+  public void testWriteModels_shouldMatchResponseFields() throws Exception {
+    Transaction transaction = new Transaction( "tran_54645bcb98ba7acfe204" );
+    transaction.setAmount( 4200 );
+    transaction.setCurrency( "EUR" );
+    transaction.setStatus( Transaction.Status.CLOSED );
+    transaction.setCreatedAt( new Date( 1349946151000L ) );
+    transaction.setClient( new Client( "client_c781b1d2f7f0f664b4d9" ) );
+    ByteArrayOutputStream local = new ByteArrayOutputStream();
+    ExportWriter writer = new ExportWriter( local, ExportFormat.CSV, false, "id", "amount", "currency", "status", "created_at",
+        "client" );
+    Assert.assertEquals( writer.writeModels( Arrays.asList( transaction ) ), 1 );
+    writer.close();
+    ByteArrayOutputStream remote = new ByteArrayOutputStream();
+    writer = new ExportWriter( remote, ExportFormat.CSV, false, "id", "amount", "currency", "status", "created_at", "client" );
+    this.write( writer, TRANSACTION );
+    writer.close();
+    Assert.assertEquals( local.toString( "UTF-8" ), remote.toString( "UTF-8" ) );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testCsv_WithoutColumns_shouldFail() {
+    new ExportWriter( new ByteArrayOutputStream(), ExportFormat.CSV, false );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testWrite_NoObject_shouldFail() throws Exception {
+    this.write( new ExportWriter( new ByteArrayOutputStream(), ExportFormat.NDJSON, false ), "[1]" );
+  }
+
+  private void write( final ExportWriter writer, final String... rows ) throws Exception {
+    for( String row : rows ) {
+      JsonParser parser = FACTORY.createParser( row );
+      parser.nextToken();
+      writer.write( parser );
+      parser.close();
+    }
+  }
+
+}
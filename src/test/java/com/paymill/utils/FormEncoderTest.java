@@ -0,0 +1,116 @@
+package com.paymill.utils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FormEncoderTest {
+
+  @Test
+  public void testEncode_shouldMatchUrlEncoder() throws Exception {
+    for( String value : new String[] { "", "4200", "EUR", "Test Transaction", "a+b=c&d", "50% off!", "Zürich", "日本",
+        "tab\tnew\nline", "emoji 😀", "unpaired \uD83D", "-._*~'()" } ) {
+      Assert.assertEquals( new FormEncoder().add( "description", value ).toString(), "description="
+          + URLEncoder.encode( value, "UTF-8" ), value );
+    }
+    Assert.assertEquals( new FormEncoder().add( "items[0][name]", "x" ).toString(), URLEncoder.encode( "items[0][name]",
+        "UTF-8" ) + "=x" );
+  }
+
+  @Test
+  public void testAddLong_shouldWriteDigits() {
+    Assert.assertEquals( new FormEncoder().add( "amount", 4200 ).add( "fee_amount", 0 ).add( "offset", -15 ).toString(),
+        "amount=4200&fee_amount=0&offset=-15" );
+    Assert.assertEquals( new FormEncoder().add( "amount", Long.MIN_VALUE ).toString(), "amount=" + Long.MIN_VALUE );
+    Assert.assertEquals( new FormEncoder().add( "amount", Long.MAX_VALUE ).toString(), "amount=" + Long.MAX_VALUE );
+  }
+
+  @Test
+  public void testAddAll_shouldEncodeEveryValue() {
+    ParameterMap<String, String> params = new ParameterMap<String, String>();
+    params.add( "amount", "4200" );
+    params.add( "event_types[]", "transaction.succeeded" );
+    params.add( "event_types[]", "refund.succeeded" );
+    params.add( "pause", null );
+    Set<String> pairs = new HashSet<String>( Arrays.asList( new FormEncoder().addAll( params ).toString().split( "&" ) ) );
+    Assert.assertEquals( pairs, new HashSet<String>( Arrays.asList( "amount=4200", "event_types%5B%5D=transaction.succeeded",
+        "event_types%5B%5D=refund.succeeded", "pause" ) ) );
+  }
+
+  @Test
+  public void testLocal_shouldBeReusedEmpty() {
+    FormEncoder first = FormEncoder.local().add( "currency", "EUR" ).addEncoded( new FormEncoder().add( "source", "x" )
+        .toByteArray() );
+    Assert.assertEquals( first.toString(), "currency=EUR&source=x" );
+    FormEncoder second = FormEncoder.local();
+    Assert.assertSame( second, first );
+    Assert.assertEquals( second.length(), 0 );
+  }
+
+  @Test
+  public void testJerseyClient_shouldSendEncodedBody() throws Exception {
+    final ServerSocket server = new ServerSocket( 0 );
+    final String[] received = new String[2];
+    Thread acceptor = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Socket socket = server.accept();
+          DataInputStream input = new DataInputStream( socket.getInputStream() );
+          int contentLength = 0;
+          String line;
+          while( (line = FormEncoderTest.readLine( input )).length() > 0 ) {
+            if( line.toLowerCase().startsWith( "content-length:" ) ) {
+              contentLength = Integer.parseInt( line.substring( "content-length:".length() ).trim() );
+            } else if( line.toLowerCase().startsWith( "content-type:" ) ) {
+              received[0] = line.substring( "content-type:".length() ).trim();
+            }
+          }
+          byte[] body = new byte[contentLength];
+          input.readFully( body );
+          received[1] = new String( body, "UTF-8" );
+          OutputStream output = socket.getOutputStream();
+          output.write( "HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\n{}".getBytes( "ISO-8859-1" ) );
+          output.flush();
+          socket.close();
+        } catch( IOException exc ) {
+          // closed
+        }
+      }
+    } );
+    acceptor.setDaemon( true );
+    acceptor.start();
+    try {
+      ParameterMap<String, String> params = new ParameterMap<String, String>();
+      params.add( "description", "Zürich & more" );
+      Assert.assertEquals( new JerseyClient( "key", 2000 ).post( "http://localhost:" + server.getLocalPort() + "/v2.1/clients",
+          params ), "{}" );
+      acceptor.join( 2000 );
+      Assert.assertTrue( received[0].startsWith( "application/x-www-form-urlencoded" ) );
+      Assert.assertEquals( received[1], "description=" + URLEncoder.encode( "Zürich & more", "UTF-8" ) );
+    } finally {
+      server.close();
+    }
+  }
+
+  private static String readLine( final DataInputStream input ) throws IOException {
+    StringBuilder line = new StringBuilder();
+    int c;
+    while( (c = input.read()) != -1 && c != '\n' ) {
+      if( c != '\r' ) {
+        line.append( (char) c );
+      }
+    }
+    return line.toString();
+  }
+
+}
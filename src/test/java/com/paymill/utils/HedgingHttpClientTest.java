@@ -0,0 +1,187 @@
+package com.paymill.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HedgingHttpClientTest {
+
+  @Test
+  public void testGet_SlowPrimary_shouldBeAnsweredByHedge() {
+    SlowFirstClient delegate = new SlowFirstClient( 2000 );
+    HedgingHttpClient client = new HedgingHttpClient( delegate, 0.95d, 10, new RetryingHttpClient.RetryBudget( 0.05d ), null );
+
+    long start = System.nanoTime();
+    Assert.assertEquals( client.get( "/transactions/tran_1" ), "ok" );
+    Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) < 1000 );
+    Assert.assertEquals( client.getHedged(), 1 );
+    Assert.assertEquals( client.getHedgeWins(), 1 );
+    Assert.assertEquals( delegate.calls.get(), 2 );
+  }
+
+  @Test
+  public void testGet_FastPrimary_shouldNotHedge() {
+    StubHttpClient delegate = new StubHttpClient();
+    HedgingHttpClient client = new HedgingHttpClient( delegate, 0.95d, 1000, new RetryingHttpClient.RetryBudget( 0.05d ), null );
+
+    Assert.assertEquals( client.get( "/transactions/tran_1" ), "ok" );
+    Assert.assertEquals( client.getHedged(), 0 );
+    Assert.assertEquals( delegate.calls.get(), 1 );
+  }
+
+  @Test
+  public void testGet_Primary_shouldRunOnCallingThread() {
+    final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+    HttpClient delegate = new StubHttpClient() {
+      @Override
+      String answer() {
+        thread.set( Thread.currentThread() );
+        return super.answer();
+      }
+    };
+    HedgingHttpClient client = new HedgingHttpClient( delegate, 0.95d, 1000, new RetryingHttpClient.RetryBudget( 0.05d ), null );
+    try {
+      Assert.assertEquals( client.get( "/transactions/tran_1" ), "ok" );
+      Assert.assertSame( thread.get(), Thread.currentThread() );
+      Assert.assertFalse( Thread.currentThread().isInterrupted() );
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testGet_PrimaryFails_shouldWaitForHedge() {
+    StubHttpClient delegate = new StubHttpClient() {
+      private final AtomicInteger counter = new AtomicInteger();
+
+      @Override
+      String answer() {
+        if( this.counter.incrementAndGet() == 1 ) {
+          try {
+            Thread.sleep( 100 );
+          } catch( InterruptedException exc ) {
+            Thread.currentThread().interrupt();
+          }
+          throw new RuntimeException( "Connection reset" );
+        }
+        try {
+          Thread.sleep( 200 );
+        } catch( InterruptedException exc ) {
+          Thread.currentThread().interrupt();
+        }
+        return super.answer();
+      }
+    };
+    HedgingHttpClient client = new HedgingHttpClient( delegate, 0.95d, 10, new RetryingHttpClient.RetryBudget( 0.05d ), null );
+    try {
+      Assert.assertEquals( client.get( "/transactions/tran_1" ), "ok" );
+      Assert.assertEquals( client.getHedgeWins(), 1 );
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testGet_FastPrimary_shouldCancelHedge() throws Exception {
+    final CountDownLatch hedgeCancelled = new CountDownLatch( 1 );
+    StubHttpClient delegate = new StubHttpClient() {
+      private final AtomicInteger counter = new AtomicInteger();
+
+      @Override
+      String answer() {
+        if( this.counter.incrementAndGet() == 1 ) {
+          try {
+            Thread.sleep( 200 );
+          } catch( InterruptedException exc ) {
+            Thread.currentThread().interrupt();
+          }
+          return "primary";
+        }
+        Deadline deadline = CallOptions.current().getDeadline();
+        for( long until = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 ); System.nanoTime() < until; ) {
+          if( deadline.isCancelled() ) {
+            hedgeCancelled.countDown();
+            break;
+          }
+          Thread.yield();
+        }
+        return "hedge";
+      }
+    };
+    HedgingHttpClient client = new HedgingHttpClient( delegate, 0.95d, 10, new RetryingHttpClient.RetryBudget( 0.05d ), null );
+    try {
+      Assert.assertEquals( client.get( "/transactions/tran_1" ), "primary" );
+      Assert.assertEquals( client.getHedged(), 1 );
+      Assert.assertTrue( hedgeCancelled.await( 2, TimeUnit.SECONDS ) );
+      Assert.assertFalse( Thread.currentThread().isInterrupted() );
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testClose_shouldShutDownOwnExecutorOnly() {
+    ExecutorService executor = ExecutionMode.PLATFORM_THREADS.newExecutor( "paymill-test" );
+    try {
+      new HedgingHttpClient( new StubHttpClient(), 0.95d, 10, new RetryingHttpClient.RetryBudget( 0.05d ), executor ).close();
+      Assert.assertFalse( executor.isShutdown() );
+    } finally {
+      executor.shutdown();
+    }
+    HedgingHttpClient client = new HedgingHttpClient( new StubHttpClient() );
+    client.close();
+    Assert.assertEquals( client.get( "/transactions/tran_1" ), "ok" );
+  }
+
+  @Test
+  public void testGet_BudgetExhausted_shouldNotHedge() {
+    SlowFirstClient delegate = new SlowFirstClient( 50 );
+    HedgingHttpClient client = new HedgingHttpClient( delegate, 0.95d, 1, new RetryingHttpClient.RetryBudget( 0d, 0 ), null );
+
+    Assert.assertEquals( client.get( "/transactions/tran_1" ), "slow" );
+    Assert.assertEquals( client.getHedged(), 0 );
+  }
+
+  @Test
+  public void testLatencyTracker_shouldComputePercentile() {
+    HedgingHttpClient.LatencyTracker tracker = new HedgingHttpClient.LatencyTracker( 0.9d );
+    Assert.assertEquals( tracker.getPercentile(), 0 );
+    for( int i = 1; i <= 100; i++ ) {
+      tracker.record( i );
+    }
+    Assert.assertTrue( tracker.getPercentile() >= 28 && tracker.getPercentile() <= 100 );
+  }
+
+  /**
+   * Answers the first call after the given latency, all other calls immediately.
+   */
+  private static class SlowFirstClient extends StubHttpClient {
+
+    private final AtomicInteger counter = new AtomicInteger();
+    private final long          latency;
+
+    SlowFirstClient( final long latency ) {
+      this.latency = latency;
+    }
+
+    @Override
+    String answer() {
+      if( this.counter.incrementAndGet() == 1 ) {
+        this.calls.incrementAndGet();
+        try {
+          Thread.sleep( this.latency );
+        } catch( InterruptedException exc ) {
+          Thread.currentThread().interrupt();
+        }
+        return "slow";
+      }
+      return super.answer();
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+package com.paymill.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.context.PaymillContext;
+import com.paymill.exceptions.DeadlineExceededException;
+
+public class PriorityLaneHttpClientTest {
+
+  @Test
+  public void testReservedSlot_shouldOnlyBeUsedByInteractive() throws Exception {
+    BlockingClient delegate = new BlockingClient();
+    final PriorityLaneHttpClient client = new PriorityLaneHttpClient( delegate, 2, 1 );
+    final HttpClient bulk = new ScopedHttpClient( client, CallOptions.DEFAULT.withPriority( Priority.BULK ) );
+    HttpClient interactive = new ScopedHttpClient( client, CallOptions.DEFAULT.withPriority( Priority.INTERACTIVE ) );
+
+    Thread first = this.startGet( bulk );
+    Thread second = this.startGet( bulk );
+    while( client.getInFlight( Priority.BULK ) + client.getQueued( Priority.BULK ) < 2 ) {
+      Thread.sleep( 1 );
+    }
+    Assert.assertEquals( client.getInFlight( Priority.BULK ), 1 );
+    Assert.assertEquals( client.getQueued( Priority.BULK ), 1 );
+
+    delegate.release.countDown();
+    Assert.assertEquals( interactive.get( "/transactions" ), "ok" );
+    first.join();
+    second.join();
+    Assert.assertEquals( client.getInFlight( Priority.BULK ), 0 );
+  }
+
+  @Test
+  public void testInteractive_shouldNotWaitForBulk() throws Exception {
+    BlockingClient delegate = new BlockingClient();
+    PriorityLaneHttpClient client = new PriorityLaneHttpClient( delegate, 2, 1 );
+    HttpClient bulk = new ScopedHttpClient( client, CallOptions.DEFAULT.withPriority( Priority.BULK ) );
+
+    Thread first = this.startGet( bulk );
+    while( client.getInFlight( Priority.BULK ) < 1 ) {
+      Thread.sleep( 1 );
+    }
+    delegate.blockedPriority = Priority.BULK;
+    Assert.assertEquals( new ScopedHttpClient( client, CallOptions.DEFAULT.withPriority( Priority.INTERACTIVE ) ).get( "/transactions" ), "ok" );
+    delegate.release.countDown();
+    first.join();
+  }
+
+  @Test
+  public void testCancelledDeadline_shouldWakeQueuedCall() throws Exception {
+    BlockingClient delegate = new BlockingClient();
+    final PriorityLaneHttpClient client = new PriorityLaneHttpClient( delegate, 1, 0 );
+    Deadline deadline = Deadline.after( 10, TimeUnit.SECONDS );
+    final HttpClient queued = new ScopedHttpClient( client, CallOptions.DEFAULT.withDeadline( deadline ) );
+    final RuntimeException[] failure = new RuntimeException[1];
+
+    Thread first = this.startGet( client );
+    while( client.getInFlight( Priority.NORMAL ) < 1 ) {
+      Thread.sleep( 1 );
+    }
+    Thread second = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        try {
+          queued.get( "/transactions" );
+        } catch( RuntimeException exc ) {
+          failure[0] = exc;
+        }
+      }
+    } );
+    second.start();
+    while( client.getQueued( Priority.NORMAL ) < 1 ) {
+      Thread.sleep( 1 );
+    }
+    deadline.cancel();
+    second.join( 2000 );
+    Assert.assertFalse( second.isAlive() );
+    Assert.assertTrue( failure[0] instanceof DeadlineExceededException );
+    Assert.assertTrue( ( (DeadlineExceededException) failure[0] ).isCancelled() );
+    Assert.assertEquals( client.getQueued( Priority.NORMAL ), 0 );
+    delegate.release.countDown();
+    first.join();
+  }
+
+  @Test
+  public void testContextWithPriority_shouldAttachPriority() {
+    final Priority[] seen = new Priority[1];
+    PaymillContext paymill = new PaymillContext( new StubHttpClient() {
+      @Override
+      String answer() {
+        seen[0] = CallOptions.current().getPriority();
+        return "{\"data\":[],\"data_count\":0}";
+      }
+    } );
+
+    paymill.getTransactionService().list();
+    Assert.assertEquals( seen[0], Priority.NORMAL );
+    paymill.withPriority( Priority.BULK ).getTransactionService().list();
+    Assert.assertEquals( seen[0], Priority.BULK );
+    Assert.assertEquals( CallOptions.current(), CallOptions.DEFAULT );
+  }
+
+  private Thread startGet( final HttpClient client ) {
+    Thread thread = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        client.get( "/transactions" );
+      }
+    } );
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * Blocks calls until released, calls of other priorities than the blocked one pass immediately once it is set.
+   */
+  private static class BlockingClient extends StubHttpClient {
+
+    final CountDownLatch release = new CountDownLatch( 1 );
+    volatile Priority    blockedPriority;
+
+    @Override
+    String answer() {
+      Priority priority = CallOptions.current().getPriority();
+      if( this.blockedPriority == null || this.blockedPriority == priority ) {
+        try {
+          this.release.await();
+        } catch( InterruptedException exc ) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return super.answer();
+    }
+  }
+
+}
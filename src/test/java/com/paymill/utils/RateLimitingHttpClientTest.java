@@ -0,0 +1,82 @@
+package com.paymill.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.exceptions.RateLimitExceededException;
+
+public class RateLimitingHttpClientTest {
+
+  @Test
+  public void testTryAcquire_BurstExhausted_shouldReject() {
+    TokenBucket bucket = new TokenBucket( 1, 2 );
+    Assert.assertTrue( bucket.tryAcquire() );
+    Assert.assertTrue( bucket.tryAcquire() );
+    Assert.assertFalse( bucket.tryAcquire() );
+    Assert.assertEquals( bucket.getAcquired(), 2 );
+    Assert.assertEquals( bucket.getRejected(), 1 );
+  }
+
+  @Test
+  public void testTimedAcquire_shouldWaitForRefill() throws Exception {
+    TokenBucket bucket = new TokenBucket( 100, 1 );
+    Assert.assertTrue( bucket.tryAcquire() );
+    Assert.assertFalse( bucket.tryAcquire( 1, TimeUnit.MILLISECONDS ) );
+    Assert.assertTrue( bucket.tryAcquire( 100, TimeUnit.MILLISECONDS ) );
+    Assert.assertTrue( bucket.getWaitTime( TimeUnit.MICROSECONDS ) > 0 );
+  }
+
+  @Test
+  public void testReadsAndWrites_shouldUseSeparateBudgets() {
+    RateLimitingHttpClient.Limits limits = new RateLimitingHttpClient.Limits( new TokenBucket( 1, 1 ), new TokenBucket( 1, 1 ) );
+    RateLimitingHttpClient client = new RateLimitingHttpClient( new StubHttpClient(), limits, 0 );
+
+    Assert.assertEquals( client.get( "/transactions" ), "ok" );
+    Assert.assertEquals( client.post( "/transactions", null ), "ok" );
+    try {
+      client.put( "/transactions/tran_1", null );
+      Assert.fail( "Expected exceeded rate limit" );
+    } catch( RateLimitExceededException exc ) {
+      Assert.assertEquals( limits.getWrites().getRejected(), 1 );
+      Assert.assertEquals( limits.getReads().getRejected(), 0 );
+    }
+  }
+
+  @Test
+  public void testCredentials_shouldUseLimitsOfTheirApiKey() {
+    RateLimitingHttpClient.Limits limits = new RateLimitingHttpClient.Limits( new TokenBucket( 1, 1 ), new TokenBucket( 1, 1 ) );
+    RateLimitingHttpClient client = new RateLimitingHttpClient( new StubHttpClient(), limits, 0 );
+    HttpClient first = new ScopedHttpClient( client, CallOptions.DEFAULT.withCredentials( new Credentials( "key_1" ) ) );
+    HttpClient second = new ScopedHttpClient( client, CallOptions.DEFAULT.withCredentials( new Credentials( "key_2" ) ) );
+
+    Assert.assertEquals( first.get( "/transactions" ), "ok" );
+    Assert.assertEquals( second.get( "/transactions" ), "ok" );
+    Assert.assertEquals( client.get( "/transactions" ), "ok" );
+    try {
+      first.get( "/transactions" );
+      Assert.fail( "Expected exceeded rate limit" );
+    } catch( RateLimitExceededException exc ) {
+      Assert.assertEquals( client.getLimits( "key_1" ).getReads().getRejected(), 1 );
+      Assert.assertEquals( client.getLimits( "key_2" ).getReads().getRejected(), 0 );
+      Assert.assertEquals( limits.getReads().getRejected(), 0 );
+    }
+  }
+
+  @Test
+  public void testRemoveLimits_shouldDropApiKey() {
+    RateLimitingHttpClient client = new RateLimitingHttpClient( new StubHttpClient() );
+    client.setLimits( "key_1", new RateLimitingHttpClient.Limits( new TokenBucket( 1, 1 ), new TokenBucket( 1, 1 ) ) );
+    Assert.assertNotNull( client.getLimits( "key_1" ) );
+    Assert.assertTrue( client.removeLimits( "key_1" ) );
+    Assert.assertNull( client.getLimits( "key_1" ) );
+    Assert.assertFalse( client.removeLimits( "key_1" ) );
+  }
+
+  @Test( expectedExceptions = IllegalArgumentException.class )
+  public void testGetLimits_NullApiKey_shouldFail() {
+    new RateLimitingHttpClient( new StubHttpClient() ).getLimits( null );
+  }
+
+}
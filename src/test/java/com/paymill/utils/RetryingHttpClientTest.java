@@ -0,0 +1,76 @@
+package com.paymill.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class RetryingHttpClientTest {
+
+  @Test
+  public void testGet_TransientFailure_shouldRetry() {
+    StubHttpClient delegate = new StubHttpClient( 2, new RuntimeException( new IOException( "Connection reset" ) ) );
+    RetryingHttpClient client = new RetryingHttpClient( delegate, 3, 1, 2, new RetryingHttpClient.RetryBudget( 0.1d ) );
+
+    Assert.assertEquals( client.get( "/transactions" ), "ok" );
+    Assert.assertEquals( delegate.calls.get(), 3 );
+    Assert.assertEquals( client.getBudget().getRetries(), 2 );
+  }
+
+  @Test( expectedExceptions = RuntimeException.class )
+  public void testGet_MaxAttemptsReached_shouldFail() {
+    StubHttpClient delegate = new StubHttpClient( 5, new RuntimeException( new IOException( "Connection reset" ) ) );
+    RetryingHttpClient client = new RetryingHttpClient( delegate, 3, 1, 2, new RetryingHttpClient.RetryBudget( 0.1d ) );
+    try {
+      client.get( "/transactions" );
+    } finally {
+      Assert.assertEquals( delegate.calls.get(), 3 );
+    }
+  }
+
+  @Test( expectedExceptions = RuntimeException.class )
+  public void testPost_ReadFailure_shouldNotRetry() {
+    StubHttpClient delegate = new StubHttpClient( 1, new RuntimeException( new IOException( "Read timed out" ) ) );
+    RetryingHttpClient client = new RetryingHttpClient( delegate, 3, 1, 2, new RetryingHttpClient.RetryBudget( 0.1d ) );
+    try {
+      client.post( "/transactions", new ParameterMap<String, String>() );
+    } finally {
+      Assert.assertEquals( delegate.calls.get(), 1 );
+    }
+  }
+
+  @Test
+  public void testPost_ConnectFailure_shouldRetry() {
+    StubHttpClient delegate = new StubHttpClient( 1, new RuntimeException( new ConnectException( "Connection refused" ) ) );
+    RetryingHttpClient client = new RetryingHttpClient( delegate, 3, 1, 2, new RetryingHttpClient.RetryBudget( 0.1d ) );
+
+    Assert.assertEquals( client.post( "/transactions", new ParameterMap<String, String>() ), "ok" );
+    Assert.assertEquals( delegate.calls.get(), 2 );
+  }
+
+  @Test
+  public void testGet_BudgetExhausted_shouldNotRetry() {
+    RetryingHttpClient.RetryBudget budget = new RetryingHttpClient.RetryBudget( 0d, 1 );
+    StubHttpClient delegate = new StubHttpClient( 3, new RuntimeException( new IOException( "Connection reset" ) ) );
+    RetryingHttpClient client = new RetryingHttpClient( delegate, 5, 1, 2, budget );
+    try {
+      client.get( "/transactions" );
+      Assert.fail( "Expected failure after budget is exhausted" );
+    } catch( RuntimeException exc ) {
+      Assert.assertEquals( delegate.calls.get(), 2 );
+      Assert.assertEquals( budget.getRetries(), 1 );
+      Assert.assertEquals( budget.getRejected(), 1 );
+    }
+  }
+
+  @Test
+  public void testBackoff_shouldStayWithinCap() {
+    RetryingHttpClient client = new RetryingHttpClient( new StubHttpClient(), 10, 10, 100, new RetryingHttpClient.RetryBudget( 1d ) );
+    for( int attempt = 1; attempt < 40; attempt++ ) {
+      long delay = client.backoff( attempt );
+      Assert.assertTrue( delay >= 0 && delay <= 100 );
+    }
+  }
+
+}
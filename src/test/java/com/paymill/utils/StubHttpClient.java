@@ -0,0 +1,95 @@
+package com.paymill.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link HttpClient} for offline tests, which fails a given number of calls, then answers with a fixed response after an
+ * optional latency and status.
+ */
+class StubHttpClient implements HttpClient {
+
+  final AtomicInteger            calls       = new AtomicInteger();
+  final AtomicInteger            inFlight    = new AtomicInteger();
+  final AtomicInteger            maxInFlight = new AtomicInteger();
+  private final AtomicInteger    failures;
+  private final RuntimeException failure;
+  private volatile long          latency;
+  private volatile String        response    = "ok";
+  private volatile int           status      = 200;
+
+  StubHttpClient() {
+    this( 0, null );
+  }
+
+  StubHttpClient( final int failures, final RuntimeException failure ) {
+    this.failures = new AtomicInteger( failures );
+    this.failure = failure;
+  }
+
+  StubHttpClient withLatency( final long latency ) {
+    this.latency = latency;
+    return this;
+  }
+
+  StubHttpClient withResponse( final String response ) {
+    this.response = response;
+    return this;
+  }
+
+  StubHttpClient withStatus( final int status ) {
+    this.status = status;
+    return this;
+  }
+
+  String answer() {
+    this.calls.incrementAndGet();
+    int current = this.inFlight.incrementAndGet();
+    try {
+      int max;
+      while( current > (max = this.maxInFlight.get()) && !this.maxInFlight.compareAndSet( max, current ) ) {
+        // retry
+      }
+      if( this.failures.getAndDecrement() > 0 ) {
+        throw this.failure;
+      }
+      if( this.latency > 0 ) {
+        try {
+          Thread.sleep( this.latency );
+        } catch( InterruptedException exc ) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException( exc );
+        }
+      }
+      CallOptions.current().onStatus( this.status );
+      return this.response;
+    } finally {
+      this.inFlight.decrementAndGet();
+    }
+  }
+
+  @Override
+  public String get( final String path ) {
+    return this.answer();
+  }
+
+  @Override
+  public String get( final String path, final ParameterMap<String, String> params ) {
+    return this.answer();
+  }
+
+  @Override
+  public String post( final String path, final ParameterMap<String, String> params ) {
+    return this.answer();
+  }
+
+  @Override
+  public String put( final String path, final ParameterMap<String, String> params ) {
+    return this.answer();
+  }
+
+  @Override
+  public String delete( final String path, final ParameterMap<String, String> params ) {
+    return this.answer();
+  }
+
+}
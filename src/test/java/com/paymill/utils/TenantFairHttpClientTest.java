@@ -0,0 +1,134 @@
+package com.paymill.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.paymill.exceptions.RateLimitExceededException;
+
+public class TenantFairHttpClientTest {
+
+  @Test
+  public void testQuietTenant_shouldNotQueueBehindNoisyTenant() throws Exception {
+    StubHttpClient delegate = new StubHttpClient().withLatency( 100 );
+    TenantFairHttpClient client = new TenantFairHttpClient( delegate, 2, 2 );
+    List<Thread> exports = new ArrayList<Thread>();
+    for( int i = 0; i < 10; i++ ) {
+      exports.add( this.startGet( this.tenant( client, "noisy" ) ) );
+    }
+    while( client.getQueued( "noisy" ) < 8 ) {
+      Thread.sleep( 1 );
+    }
+
+    long start = System.nanoTime();
+    Assert.assertEquals( this.tenant( client, "quiet" ).get( "/transactions" ), "ok" );
+    // one call of 100 ms, waiting for at most one other
+    Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) < 300 );
+    Assert.assertTrue( client.getQueued( "noisy" ) >= 5 );
+    Assert.assertTrue( client.getCalls( "noisy" ) >= 2 );
+    Assert.assertTrue( client.getMaxQueueingDelay( "noisy", TimeUnit.MILLISECONDS ) > 0 );
+    for( Thread export : exports ) {
+      export.join();
+    }
+    // metrics outlive the burst
+    Assert.assertEquals( client.getCalls( "noisy" ), 10 );
+    Assert.assertTrue( client.getQueueingDelay( "noisy", TimeUnit.MILLISECONDS ) > 0 );
+  }
+
+  @Test
+  public void testTenantLimit_shouldLeaveSlotsForOthers() throws Exception {
+    StubHttpClient delegate = new StubHttpClient().withLatency( 100 );
+    TenantFairHttpClient client = new TenantFairHttpClient( delegate, 10, 2 );
+    List<Thread> exports = new ArrayList<Thread>();
+    for( int i = 0; i < 6; i++ ) {
+      exports.add( this.startGet( this.tenant( client, "noisy" ) ) );
+    }
+    while( client.getQueued( "noisy" ) < 4 ) {
+      Thread.sleep( 1 );
+    }
+    Assert.assertEquals( client.getInFlight( "noisy" ), 2 );
+
+    long start = System.nanoTime();
+    this.tenant( client, "quiet" ).get( "/transactions" );
+    Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) < 150 );
+    for( Thread export : exports ) {
+      export.join();
+    }
+    Assert.assertEquals( client.getInFlight( "noisy" ), 0 );
+  }
+
+  @Test
+  public void testRateQuota_shouldOnlyThrottleOwnTenant() {
+    TenantFairHttpClient client = new TenantFairHttpClient( new StubHttpClient(), 10, 10, 2 );
+    HttpClient noisy = new ScopedHttpClient( client, CallOptions.DEFAULT.withCredentials( new Credentials( "noisy" ) )
+        .withDeadline( Deadline.after( 100, TimeUnit.MILLISECONDS ) ) );
+    noisy.get( "/transactions" );
+    noisy.get( "/transactions" );
+    try {
+      noisy.get( "/transactions" );
+      Assert.fail( "Expected exceeded rate limit" );
+    } catch( RateLimitExceededException exc ) {
+      // quota used up, next permit not within the deadline
+    }
+    this.tenant( client, "quiet" ).get( "/transactions" );
+    Assert.assertEquals( client.getCalls( "quiet" ), 1 );
+  }
+
+  @Test
+  public void testWithoutCredentials_shouldFormOwnTenant() {
+    final TenantFairHttpClient[] client = new TenantFairHttpClient[1];
+    final int[] seen = new int[1];
+    client[0] = new TenantFairHttpClient( new StubHttpClient() {
+      @Override
+      String answer() {
+        seen[0] = client[0].getInFlight( null );
+        return super.answer();
+      }
+    }, 1, 1 );
+    client[0].get( "/transactions" );
+    Assert.assertEquals( seen[0], 1 );
+    Assert.assertEquals( client[0].getInFlight( null ), 0 );
+  }
+
+  @Test
+  public void testIdleTenant_shouldBeDroppedAfterTimeout() throws Exception {
+    TenantFairHttpClient client = new TenantFairHttpClient( new StubHttpClient(), 10, 10, 0, 50 );
+    this.tenant( client, "first" ).get( "/transactions" );
+    Assert.assertEquals( client.getTenantCount(), 1 );
+    Assert.assertEquals( client.getCalls( "first" ), 1 );
+    Thread.sleep( 60 );
+    this.tenant( client, "second" ).get( "/transactions" );
+    Assert.assertEquals( client.getTenantCount(), 1 );
+    Assert.assertEquals( client.getCalls( "first" ), 0 );
+    Assert.assertEquals( client.getCalls( "second" ), 1 );
+
+    TenantFairHttpClient immediate = new TenantFairHttpClient( new StubHttpClient(), 10, 10, 0, 0 );
+    this.tenant( immediate, "first" ).get( "/transactions" );
+    Assert.assertEquals( immediate.getTenantCount(), 0 );
+
+    TenantFairHttpClient limited = new TenantFairHttpClient( new StubHttpClient(), 10, 10, 2, 0 );
+    this.tenant( limited, "first" ).get( "/transactions" );
+    // dropping the tenant would refill its quota early
+    Assert.assertEquals( limited.getTenantCount(), 1 );
+    Assert.assertEquals( limited.getCalls( "first" ), 1 );
+  }
+
+  private HttpClient tenant( final HttpClient client, final String apiKey ) {
+    return new ScopedHttpClient( client, CallOptions.DEFAULT.withCredentials( new Credentials( apiKey ) ) );
+  }
+
+  private Thread startGet( final HttpClient client ) {
+    Thread thread = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        client.get( "/transactions" );
+      }
+    } );
+    thread.start();
+    return thread;
+  }
+
+}